@@ -30,14 +30,59 @@ android {
         sourceCompatibility = JavaVersion.VERSION_1_8
         targetCompatibility = JavaVersion.VERSION_1_8
     }
+    androidResources {
+        // Stored uncompressed so the compiled dictionary can be memory-mapped straight from the APK.
+        noCompress += "wdict"
+    }
+}
+
+/** Compiles res/raw/words.txt into the binary dictionary asset read by the app. */
+abstract class CompileDictionaryTask : JavaExec() {
+    @get:InputFile
+    @get:PathSensitive(PathSensitivity.RELATIVE)
+    abstract val wordList: RegularFileProperty
+
+    @get:OutputDirectory
+    abstract val outputDir: DirectoryProperty
+
+    init {
+        mainClass.set("com.moutamid.wordlistapp.core.DictionaryCompiler")
+        argumentProviders.add(CommandLineArgumentProvider {
+            listOf(
+                wordList.get().asFile.absolutePath,
+                outputDir.file("words.wdict").get().asFile.absolutePath
+            )
+        })
+    }
+}
+
+val dictionaryCompiler: Configuration by configurations.creating {
+    isCanBeConsumed = false
+    attributes {
+        attribute(Usage.USAGE_ATTRIBUTE, objects.named(Usage.JAVA_RUNTIME))
+    }
+}
+
+val compileDictionary = tasks.register<CompileDictionaryTask>("compileDictionary") {
+    classpath = dictionaryCompiler
+    wordList.set(layout.projectDirectory.file("src/main/res/raw/words.txt"))
+    outputDir.set(layout.buildDirectory.dir("generated/dictionary"))
+}
+
+androidComponents {
+    onVariants { variant ->
+        variant.sources.assets?.addGeneratedSourceDirectory(compileDictionary, CompileDictionaryTask::outputDir)
+    }
 }
 
 dependencies {
 
+    implementation(project(":core"))
     implementation("androidx.appcompat:appcompat:1.6.1")
     implementation("com.google.android.material:material:1.12.0")
     implementation("androidx.constraintlayout:constraintlayout:2.1.4")
     testImplementation("junit:junit:4.13.2")
     androidTestImplementation("androidx.test.ext:junit:1.1.5")
     androidTestImplementation("androidx.test.espresso:espresso-core:3.5.1")
+    dictionaryCompiler(project(":core"))
 }
\ No newline at end of file
@@ -0,0 +1,139 @@
+package com.moutamid.wordlistapp;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.speech.tts.TextToSpeech;
+import android.speech.tts.UtteranceProgressListener;
+
+import com.moutamid.wordlistapp.core.SpeechSynthesizer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The one {@link TextToSpeech} engine of the app. It renders files for the pronunciation cache and
+ * speaks live when a word has not been cached yet.
+ */
+public class AndroidSpeechSynthesizer implements SpeechSynthesizer {
+    private static final long INIT_TIMEOUT_SECONDS = 10;
+    private static final long SYNTHESIS_TIMEOUT_SECONDS = 10;
+    private static final String SYNTHESIS_PREFIX = "synthesize-";
+    private static final String SPEECH_PREFIX = "speak-";
+
+    /** Called on the main thread once the engine is up. language is the setLanguage result. */
+    public interface InitListener {
+        void onInit(int status, int language);
+    }
+
+    /** Called when live speech actually starts, on a binder thread. */
+    public interface StartListener {
+        void onStart(long startedAt);
+    }
+
+    private final TextToSpeech textToSpeech;
+    private final CountDownLatch initialized = new CountDownLatch(1);
+    private volatile boolean ready;
+    private final AtomicInteger utterances = new AtomicInteger();
+    private final Map<String, Synthesis> syntheses = new ConcurrentHashMap<>();
+    private final Map<String, StartListener> speeches = new ConcurrentHashMap<>();
+
+    public AndroidSpeechSynthesizer(Context context, Locale locale, InitListener onInit) {
+        textToSpeech = new TextToSpeech(context.getApplicationContext(), status -> onEngineInit(status, locale, onInit));
+        textToSpeech.setOnUtteranceProgressListener(new UtteranceProgressListener() {
+            @Override
+            public void onStart(String utteranceId) {
+                StartListener listener = speeches.remove(utteranceId);
+                if (listener != null) {
+                    listener.onStart(SystemClock.uptimeMillis());
+                }
+            }
+
+            @Override
+            public void onDone(String utteranceId) {
+                finish(utteranceId, true);
+            }
+
+            @Override
+            public void onError(String utteranceId) {
+                speeches.remove(utteranceId);
+                finish(utteranceId, false);
+            }
+        });
+    }
+
+    @Override
+    public void synthesize(String text, File target) throws IOException {
+        try {
+            if (!initialized.await(INIT_TIMEOUT_SECONDS, TimeUnit.SECONDS) || !ready) {
+                throw new IOException("Text-to-speech is not available");
+            }
+            String id = SYNTHESIS_PREFIX + utterances.incrementAndGet();
+            Synthesis synthesis = new Synthesis();
+            syntheses.put(id, synthesis);
+            try {
+                if (textToSpeech.synthesizeToFile(text, null, target, id) != TextToSpeech.SUCCESS) {
+                    throw new IOException("Could not queue synthesis of " + text);
+                }
+                if (!synthesis.done.await(SYNTHESIS_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    throw new IOException("Synthesis of " + text + " timed out");
+                }
+                if (!synthesis.succeeded) {
+                    throw new IOException("Synthesis of " + text + " failed");
+                }
+            } finally {
+                syntheses.remove(id);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while synthesizing " + text, e);
+        }
+    }
+
+    /** Speaks text right away, interrupting anything playing. */
+    public void speak(String text, StartListener listener) {
+        String id = SPEECH_PREFIX + utterances.incrementAndGet();
+        speeches.put(id, listener);
+        if (textToSpeech.speak(text, TextToSpeech.QUEUE_FLUSH, null, id) != TextToSpeech.SUCCESS) {
+            speeches.remove(id);
+        }
+    }
+
+    public void stop() {
+        textToSpeech.stop();
+    }
+
+    public void shutdown() {
+        textToSpeech.stop();
+        textToSpeech.shutdown();
+    }
+
+    private void onEngineInit(int status, Locale locale, InitListener onInit) {
+        int language = TextToSpeech.LANG_NOT_SUPPORTED;
+        if (status == TextToSpeech.SUCCESS) {
+            language = textToSpeech.setLanguage(locale);
+        }
+        ready = status == TextToSpeech.SUCCESS
+                && language != TextToSpeech.LANG_MISSING_DATA && language != TextToSpeech.LANG_NOT_SUPPORTED;
+        initialized.countDown();
+        onInit.onInit(status, language);
+    }
+
+    private void finish(String utteranceId, boolean succeeded) {
+        Synthesis synthesis = syntheses.get(utteranceId);
+        if (synthesis != null) {
+            synthesis.succeeded = succeeded;
+            synthesis.done.countDown();
+        }
+    }
+
+    private static final class Synthesis {
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile boolean succeeded;
+    }
+}
@@ -0,0 +1,20 @@
+package com.moutamid.wordlistapp;
+
+import android.os.Trace;
+
+import com.moutamid.wordlistapp.core.Tracer;
+
+/** Emits tracer spans as android.os.Trace sections, visible in Perfetto and systrace. */
+public class AndroidTraceSink implements Tracer.Sink {
+    private static final int MAX_SECTION_NAME = 127;
+
+    @Override
+    public void beginSection(String name) {
+        Trace.beginSection(name.length() > MAX_SECTION_NAME ? name.substring(0, MAX_SECTION_NAME) : name);
+    }
+
+    @Override
+    public void endSection() {
+        Trace.endSection();
+    }
+}
@@ -3,20 +3,16 @@ package com.moutamid.wordlistapp;
 import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
-import android.os.Build;
 import android.widget.Toast;
 
 public class BootReceiver extends BroadcastReceiver {
     @Override
     public void onReceive(Context context, Intent intent) {
+        long span = Tracing.BOOT_ON_RECEIVE.begin();
         Toast.makeText(context, "Notification dismissed", Toast.LENGTH_SHORT).show();
         if (Intent.ACTION_BOOT_COMPLETED.equals(intent.getAction())) {
-            Intent serviceIntent = new Intent(context, WordNotificationService.class);
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-                context.startForegroundService(serviceIntent);
-            } else {
-                context.startService(serviceIntent);
-            }
+            WordNotificationScheduler.getInstance(context).rearmAfterBoot();
         }
+        Tracing.BOOT_ON_RECEIVE.end(span);
     }
 }
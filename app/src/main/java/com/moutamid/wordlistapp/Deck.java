@@ -0,0 +1,91 @@
+package com.moutamid.wordlistapp;
+
+import com.moutamid.wordlistapp.core.BidirectionalIndex;
+import com.moutamid.wordlistapp.core.BinaryDictionary;
+import com.moutamid.wordlistapp.core.ReviewJournal;
+import com.moutamid.wordlistapp.core.ReviewScheduler;
+import com.moutamid.wordlistapp.core.WeightedSampler;
+import com.moutamid.wordlistapp.core.WordStats;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A deck in memory: its store and everything kept about it. The scheduler and the sampler belong
+ * to the main thread once the deck has been restored.
+ */
+final class Deck {
+    // Words of the active deck written ahead to the NextWordQueue.
+    private static final int NEXT_WORDS = 32;
+
+    final String id;
+    final BinaryDictionary store;
+    final ReviewScheduler scheduler;
+    // Null if the saved state could not be read.
+    final ReviewJournal journal;
+    // Built on the first shuffled notification, by whoever owns the scheduler.
+    WeightedSampler sampler;
+    // Built on the search thread for the first reverse notification.
+    volatile BidirectionalIndex lookup;
+    final AtomicBoolean lookupRequested = new AtomicBoolean();
+    final WordStats stats;
+    final File statsFile;
+    // Runs on the journal thread; created once so recording never allocates.
+    final Runnable saveStats = this::saveStats;
+
+    Deck(String id, BinaryDictionary store, ReviewScheduler scheduler, ReviewJournal journal, WordStats stats, File statsFile) {
+        this.id = id;
+        this.store = store;
+        this.scheduler = scheduler;
+        this.journal = journal;
+        this.stats = stats;
+        this.statsFile = statsFile;
+    }
+
+    long footprintBytes() {
+        BidirectionalIndex index = lookup;
+        return store.footprintBytes() + scheduler.footprintBytes() + stats.footprintBytes()
+                + (sampler != null ? sampler.footprintBytes() : 0) + (index != null ? index.footprintBytes() : 0);
+    }
+
+    WeightedSampler sampler() {
+        if (sampler == null) {
+            sampler = new WeightedSampler(store.size(), WordListSingleton.SHUFFLE_WINDOW);
+            for (int i = 0; i < store.size(); i++) {
+                double difficulty = scheduler.difficulty(i);
+                if (store.isRemoved(i)) {
+                    sampler.setWeight(i, 0);
+                } else if (difficulty != 1) { // Every entry starts at 1
+                    sampler.setWeight(i, difficulty);
+                }
+            }
+        }
+        return sampler;
+    }
+
+    // The words notifications will show next. Whoever owns the scheduler calls this.
+    int[] nextWords(boolean shuffle, Random random) {
+        int[] indexes = new int[NEXT_WORDS];
+        int count = shuffle ? sampler().preview(random, indexes) : scheduler.upcoming(indexes, System.currentTimeMillis());
+        return Arrays.copyOf(indexes, count);
+    }
+
+    void saveStats() {
+        DeckStatistics.save(stats, statsFile);
+    }
+
+    void close() {
+        saveStats();
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.moutamid.wordlistapp;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.OpenableColumns;
+
+import com.moutamid.wordlistapp.core.DeckImporter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Imports a deck the user picked into {@link Decks} with a {@link DeckImporter}. The deck is named
+ * after the file's display name, so importing it again replaces it. One import runs at a time; parsing uses the
+ * common fork-join pool.
+ */
+public class DeckImport {
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor();
+
+    /** Called on the main thread. */
+    public interface Listener {
+        void onProgress(long bytesRead, long totalBytes, int entries);
+
+        /** result is null if the import failed or was cancelled. */
+        void onFinished(String deckId, DeckImporter.Result result);
+    }
+
+    private final Context context;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private DeckImporter importer;
+
+    public DeckImport(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    public void start(Uri uri, Listener listener) {
+        cancel();
+        DeckImporter current = new DeckImporter(ForkJoinPool.commonPool());
+        importer = current;
+        EXECUTOR.execute(() -> {
+            String deckId = Decks.idFor(displayName(uri));
+            DeckImporter.Result result = null;
+            try (InputStream in = context.getContentResolver().openInputStream(uri)) {
+                if (in == null) {
+                    throw new IOException("Cannot open " + uri);
+                }
+                result = current.importTo(in, length(uri), Decks.file(context, deckId), (read, total, entries) ->
+                        mainHandler.post(() -> listener.onProgress(read, total, entries)));
+            } catch (IOException e) {
+                e.printStackTrace();
+                result = null;
+            } catch (CancellationException e) {
+                result = null; // The previous deck stays in place.
+            }
+            DeckImporter.Result finished = result;
+            mainHandler.post(() -> listener.onFinished(deckId, finished));
+        });
+    }
+
+    /** Stops the running import, if any, after its current chunk. */
+    public void cancel() {
+        if (importer != null) {
+            importer.cancel();
+            importer = null;
+        }
+    }
+
+    // Name of the picked file as the provider shows it; document URIs end in an opaque id instead.
+    private String displayName(Uri uri) {
+        try (Cursor cursor = context.getContentResolver().query(uri, new String[]{OpenableColumns.DISPLAY_NAME}, null, null, null)) {
+            if (cursor != null && cursor.moveToFirst()) {
+                int column = cursor.getColumnIndex(OpenableColumns.DISPLAY_NAME);
+                if (column >= 0 && !cursor.isNull(column)) {
+                    return cursor.getString(column);
+                }
+            }
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+        return uri.getLastPathSegment();
+    }
+
+    // Size of the picked file, or -1 if the provider does not know it.
+    private long length(Uri uri) {
+        try (AssetFileDescriptor fd = context.getContentResolver().openAssetFileDescriptor(uri, "r")) {
+            return fd != null ? fd.getLength() : -1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
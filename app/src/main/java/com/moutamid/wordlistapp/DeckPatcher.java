@@ -0,0 +1,97 @@
+package com.moutamid.wordlistapp;
+
+import android.content.Context;
+
+import com.moutamid.wordlistapp.core.BinaryDictionary;
+import com.moutamid.wordlistapp.core.DeckPatch;
+import com.moutamid.wordlistapp.core.DictionarySnapshots;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Keeps downloaded decks current with {@link DeckPatch}es. Entries keep their index through a
+ * patch, so review state and statistics carry over as they are; removed entries are retired from
+ * the review, and the active deck's search index is patched instead of rebuilt.
+ */
+final class DeckPatcher {
+    private final Executor deckLoader;
+    private final ResidentDecks residents;
+    private final ReviewJournals journals;
+    private final DeckSearch search;
+    private final DictionarySnapshots snapshots;
+
+    DeckPatcher(Executor deckLoader, ResidentDecks residents, ReviewJournals journals, DeckSearch search,
+                DictionarySnapshots snapshots) {
+        this.deckLoader = deckLoader;
+        this.residents = residents;
+        this.journals = journals;
+        this.search = search;
+        this.snapshots = snapshots;
+    }
+
+    /** See {@link WordListSingleton#patchDeck}. */
+    void patch(Context context, String id, List<DeckPatch> patches) {
+        Context appContext = context.getApplicationContext();
+        deckLoader.execute(() -> {
+            long span = Tracing.PATCH_DECK.begin();
+            try {
+                File file = Decks.file(appContext, id);
+                BinaryDictionary store = BinaryDictionary.map(file);
+                int savedSize = store.size();
+                int[] changed = new int[0];
+                boolean patched = false;
+                for (DeckPatch patch : patches) {
+                    try {
+                        store = patch.applyTo(file);
+                    } catch (IOException e) {
+                        e.printStackTrace(); // Asked for again on the next check.
+                        break;
+                    }
+                    changed = union(changed, patch.changedEntries());
+                    patched = true;
+                }
+                if (!patched) {
+                    return;
+                }
+                Deck old = residents.get(id);
+                if (old != null) {
+                    if (residents.active() == old) {
+                        residents.setActive(null);
+                    }
+                    residents.remove(id); // Closed on the journal thread, saving its state at the old size
+                }
+                journals.await();
+                Deck deck = residents.restore(appContext, id, store, savedSize);
+                residents.put(id, deck);
+                if (id.equals(residents.activeId())) {
+                    if (old != null) {
+                        search.patch(old.store, store, changed);
+                    }
+                    residents.setActive(deck);
+                    snapshots.publish(store);
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            } finally {
+                Tracing.PATCH_DECK.end(span);
+            }
+        });
+    }
+
+    // The sorted, distinct entries of a and b, which are sorted.
+    private static int[] union(int[] a, int[] b) {
+        int[] union = new int[a.length + b.length];
+        int count = 0;
+        for (int i = 0, j = 0; i < a.length || j < b.length; ) {
+            int next = j == b.length || (i < a.length && a[i] <= b[j]) ? a[i++] : b[j++];
+            if (count == 0 || union[count - 1] != next) {
+                union[count++] = next;
+            }
+        }
+        return Arrays.copyOf(union, count);
+    }
+}
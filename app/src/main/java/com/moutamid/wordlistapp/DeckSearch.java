@@ -0,0 +1,187 @@
+package com.moutamid.wordlistapp;
+
+import android.os.Handler;
+
+import com.moutamid.wordlistapp.core.BidirectionalIndex;
+import com.moutamid.wordlistapp.core.DictionarySnapshots;
+import com.moutamid.wordlistapp.core.DistractorIndex;
+import com.moutamid.wordlistapp.core.FuzzyIndex;
+import com.moutamid.wordlistapp.core.NextWordQueue;
+import com.moutamid.wordlistapp.core.PrefixIndex;
+import com.moutamid.wordlistapp.core.WordStore;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The search thread. Searches run against a {@link PrefixIndex}, topped up with {@link FuzzyIndex}
+ * matches when few entries start with what was typed. The index for the deck loaded at startup is
+ * built while it loads; any other store is indexed on its first search. Quiz questions use the
+ * same thread and a {@link DistractorIndex} built on the first one. Reverse notifications list
+ * every word of a translation from a {@link BidirectionalIndex}, built there too the first time
+ * one is asked for.
+ */
+final class DeckSearch {
+    // Shorter queries have too many neighbours for typo matches to be useful.
+    private static final int FUZZY_MIN_LENGTH = 3;
+    // Words listed for one translation in a reverse notification.
+    private static final int MAX_ANSWERS = 4;
+
+    private final DictionarySnapshots snapshots;
+    private final Handler mainHandler;
+    private final Executor executor = Executors.newSingleThreadExecutor();
+    private final AtomicInteger generation = new AtomicInteger();
+    private final Random random = new Random();
+    private volatile Search search;
+
+    DeckSearch(DictionarySnapshots snapshots, Handler mainHandler) {
+        this.snapshots = snapshots;
+        this.mainHandler = mainHandler;
+    }
+
+    /** The search thread, for other work that should not hold up the loader or the journal. */
+    Executor executor() {
+        return executor;
+    }
+
+    /** Indexes a store that is being loaded, on the loading thread. */
+    void index(WordStore store) {
+        search = new Search(store, PrefixIndex.build(store));
+    }
+
+    /**
+     * Patches the index of old, if it is the one searched, for patched, whose changed entries are
+     * listed in order, instead of building it again.
+     */
+    void patch(WordStore old, WordStore patched, int[] changed) {
+        Search current = search;
+        if (current != null && current.store == old) {
+            search = new Search(patched, PrefixIndex.patch(current.index, patched, changed));
+        }
+    }
+
+    /** See {@link WordListSingleton#search}. */
+    void search(String prefix, int limit, WordListSingleton.SearchListener listener) {
+        int generation = this.generation.incrementAndGet();
+        executor.execute(() -> {
+            if (generation != this.generation.get()) {
+                return;
+            }
+            Search current = searchFor(snapshots.current().store());
+            current.query.update(prefix);
+            int[] results = new int[limit];
+            int count = current.query.collect(results);
+            if (count < limit && prefix.length() >= FUZZY_MIN_LENGTH) {
+                count = appendFuzzy(current.fuzzy, prefix, results, count);
+            }
+            int[] entries = Arrays.copyOf(results, count);
+            mainHandler.post(() -> {
+                if (generation == this.generation.get()) {
+                    listener.onResults(current.store, entries);
+                }
+            });
+        });
+    }
+
+    /** Drops any search that has not been delivered yet. */
+    void cancel() {
+        generation.incrementAndGet();
+    }
+
+    // Adds typo matches after the prefix matches, skipping entries already found.
+    private static int appendFuzzy(FuzzyIndex fuzzy, String text, int[] results, int count) {
+        int maxDistance = text.length() > 4 ? 2 : 1;
+        int[] fuzzyResults = new int[results.length];
+        int fuzzyCount = fuzzy.search(text, maxDistance, fuzzyResults);
+        for (int i = 0; i < fuzzyCount && count < results.length; i++) {
+            if (!contains(results, count, fuzzyResults[i])) {
+                results[count++] = fuzzyResults[i];
+            }
+        }
+        return count;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** See {@link WordListSingleton#question}. */
+    void question(WordStore store, int index, int options, WordListSingleton.QuestionListener listener) {
+        executor.execute(() -> {
+            long span = Tracing.QUESTION.begin();
+            Search current = searchFor(store);
+            if (current.distractors == null) {
+                current.distractors = DistractorIndex.build(store);
+            }
+            int[] distractors = new int[options - 1];
+            int count = current.distractors.distractors(index, random, distractors);
+            int[] entries = new int[count + 1];
+            int answer = random.nextInt(count + 1);
+            for (int i = 0, d = 0; i < entries.length; i++) {
+                entries[i] = i == answer ? index : distractors[d++];
+            }
+            Tracing.QUESTION.end(span);
+            mainHandler.post(() -> listener.onQuestion(store, index, entries));
+        });
+    }
+
+    /** See {@link WordListSingleton#answersFor}; deck is the active one, or null. */
+    String answersFor(Deck deck, NextWordQueue.Entry entry) {
+        BidirectionalIndex lookup = deck != null && deck.id.equals(entry.deckId()) ? lookup(deck) : null;
+        if (lookup == null) {
+            return entry.word();
+        }
+        int[] entries = new int[MAX_ANSWERS];
+        int count = Math.min(lookup.byTranslation(entry.translation(), entries), MAX_ANSWERS);
+        StringBuilder answers = new StringBuilder(entry.word());
+        for (int i = 0; i < count; i++) {
+            if (entries[i] != entry.index()) {
+                answers.append(", ").append(deck.store.word(entries[i]));
+            }
+        }
+        return answers.toString();
+    }
+
+    // The deck's lookup index, or null while it is being built.
+    BidirectionalIndex lookup(Deck deck) {
+        if (deck.lookup == null && deck.lookupRequested.compareAndSet(false, true)) {
+            executor.execute(() -> deck.lookup = BidirectionalIndex.build(deck.store));
+        }
+        return deck.lookup;
+    }
+
+    /** Runs on the search thread. */
+    private Search searchFor(WordStore store) {
+        Search current = search;
+        if (current == null || current.store != store) {
+            current = new Search(store, PrefixIndex.build(store));
+            search = current;
+        }
+        return current;
+    }
+
+    private static final class Search {
+        final WordStore store;
+        final PrefixIndex index;
+        // Only touched on the search thread.
+        final PrefixIndex.Query query;
+        final FuzzyIndex fuzzy;
+        // Built for the first quiz question.
+        DistractorIndex distractors;
+
+        Search(WordStore store, PrefixIndex index) {
+            this.store = store;
+            this.index = index;
+            this.query = index.query();
+            this.fuzzy = new FuzzyIndex(index);
+        }
+    }
+}
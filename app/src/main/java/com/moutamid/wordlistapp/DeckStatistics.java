@@ -0,0 +1,137 @@
+package com.moutamid.wordlistapp;
+
+import android.content.Context;
+import android.os.Handler;
+
+import com.moutamid.wordlistapp.core.ReviewScheduler;
+import com.moutamid.wordlistapp.core.WordStats;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.Executor;
+
+/**
+ * Each deck's {@link WordStats}. Shown words and grades are counted without allocating; the
+ * journal thread rolls them up and saves them next to the deck's review journal.
+ */
+final class DeckStatistics {
+    private static final String STATS_NAME = "stats";
+
+    private final ReviewJournals journals;
+    private final Executor summariser;
+    private final Handler mainHandler;
+
+    /** Summaries are written on summariser and posted to mainHandler. */
+    DeckStatistics(ReviewJournals journals, Executor summariser, Handler mainHandler) {
+        this.journals = journals;
+        this.summariser = summariser;
+        this.mainHandler = mainHandler;
+    }
+
+    static File file(Context context, String id) {
+        return new File(Decks.journalDirectory(context, id), STATS_NAME);
+    }
+
+    static WordStats load(File file, int savedSize, int size) {
+        long offset = TimeZone.getDefault().getOffset(System.currentTimeMillis());
+        if (file.isFile()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                return WordStats.readFrom(in, savedSize, size, offset);
+            } catch (IOException e) {
+                e.printStackTrace(); // Statistics start over for this deck.
+            }
+        }
+        return new WordStats(size, offset);
+    }
+
+    // Rolls up and replaces the saved statistics.
+    static void save(WordStats stats, File file) {
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                stats.writeTo(out);
+            }
+            if (!temp.renameTo(file)) {
+                throw new IOException("Cannot replace " + file);
+            }
+        } catch (IOException e) {
+            e.printStackTrace(); // Kept in memory; saved with the next roll-up.
+        }
+    }
+
+    /**
+     * Saves deck's statistics on the journal thread, after everything already queued there, then
+     * runs done, which may be null, on that thread. deck may be null. For a receiver whose process
+     * can die as soon as it finishes, so the events since the last roll-up are not lost.
+     */
+    void save(Deck deck, Runnable done) {
+        journals.execute(() -> {
+            if (deck != null) {
+                deck.saveStats();
+            }
+            if (done != null) {
+                done.run();
+            }
+        });
+    }
+
+    // Allocation-free on the tap and dismissal paths; only a due roll-up queues the deck's task.
+    void record(Deck deck, int index, WordStats.Event event, long now) {
+        if (deck.stats.record(index, event, now)) {
+            journals.execute(deck.saveStats);
+        }
+    }
+
+    // A tap is GOOD, a double tap EASY, known, and a dismissal AGAIN; quiz answers are GOOD or AGAIN.
+    static WordStats.Event eventOf(ReviewScheduler.Grade grade) {
+        switch (grade) {
+            case AGAIN:
+                return WordStats.Event.DISMISSED;
+            case EASY:
+                return WordStats.Event.KNOWN;
+            default:
+                return WordStats.Event.TAPPED;
+        }
+    }
+
+    /** Summarises deck's statistics, today's totals and the hardest words, for the main thread. */
+    void summarise(Deck deck, int hardest, WordListSingleton.StatisticsListener listener) {
+        if (deck == null) {
+            listener.onStatistics("No deck loaded yet");
+            return;
+        }
+        summariser.execute(() -> {
+            WordStats stats = deck.stats;
+            stats.rollUp();
+            long now = System.currentTimeMillis();
+            StringBuilder text = new StringBuilder(String.format(Locale.US,
+                    "Today: %d words, %d shown, %d tapped, %d known, %d dismissed%n",
+                    stats.dailyWords(now), stats.dailyCount(now, WordStats.Event.SHOWN),
+                    stats.dailyCount(now, WordStats.Event.TAPPED), stats.dailyCount(now, WordStats.Event.KNOWN),
+                    stats.dailyCount(now, WordStats.Event.DISMISSED)));
+            int[] entries = new int[hardest];
+            int count = stats.hardest(entries);
+            text.append(count > 0 ? "\nHardest words:\n" : "\nNo word dismissed yet");
+            for (int i = 0; i < count; i++) {
+                int entry = entries[i];
+                if (deck.store.isRemoved(entry)) {
+                    continue;
+                }
+                text.append(String.format(Locale.US, "%s — %s: dismissed %d of %d, streak %d%n",
+                        deck.store.word(entry), deck.store.translation(entry),
+                        stats.count(entry, WordStats.Event.DISMISSED), stats.count(entry, WordStats.Event.SHOWN),
+                        stats.streak(entry)));
+            }
+            String summary = text.toString();
+            mainHandler.post(() -> listener.onStatistics(summary));
+        });
+    }
+}
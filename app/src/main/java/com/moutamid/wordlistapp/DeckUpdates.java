@@ -0,0 +1,89 @@
+package com.moutamid.wordlistapp;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.moutamid.wordlistapp.core.BinaryDictionary;
+import com.moutamid.wordlistapp.core.DeckPatch;
+import com.moutamid.wordlistapp.core.DeckPatchClient;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps downloaded decks current with {@link DeckPatch}es from the deck host named in the remote
+ * config. A deck is downloaded if it was imported from a list starting with "#version N"; the
+ * user's own decks are never asked about. Each check fetches at most {@value #MAX_PATCHES}
+ * patches per deck through a bounded {@link DeckPatchClient}, so a deck far behind catches up over
+ * a few launches, and hands them to {@link WordListSingleton#patchDeck}.
+ *
+ * <p>A deck that was checked less than {@value #CHECK_INTERVAL_MILLIS} ms ago is skipped, like the
+ * config itself, so most launches send no request at all. One that is still catching up is
+ * checked again on the next launch.
+ */
+public class DeckUpdates {
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+    private static final int READ_TIMEOUT_MILLIS = 10000;
+    private static final int MAX_PATCH_BYTES = 4 * 1024 * 1024;
+    private static final int MAX_PATCHES = 8;
+    private static final long CHECK_INTERVAL_MILLIS = 6 * 60 * 60 * 1000;
+    private static final String PREFS_NAME = "deck_updates";
+    private static final String KEY_CHECKED = "checked_";
+
+    // One thread at most, idle threads die, and checks that find one running are dropped.
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.DiscardPolicy());
+
+    static {
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private DeckUpdates() {}
+
+    /** Asks the deck host at baseUrl, which ends with a '/', for patches to every downloaded deck. */
+    public static void check(Context context, String baseUrl) {
+        Context appContext = context.getApplicationContext();
+        EXECUTOR.execute(() -> {
+            DeckPatchClient client;
+            try {
+                client = new DeckPatchClient(new URL(baseUrl), CONNECT_TIMEOUT_MILLIS, READ_TIMEOUT_MILLIS, MAX_PATCH_BYTES);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
+            }
+            SharedPreferences prefs = appContext.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+            for (String id : Decks.list(appContext)) {
+                if (Decks.BUNDLED.equals(id)) {
+                    continue; // Updated with the app.
+                }
+                long now = System.currentTimeMillis();
+                long checked = prefs.getLong(KEY_CHECKED + id, 0);
+                if (now - checked < CHECK_INTERVAL_MILLIS && now >= checked) {
+                    continue;
+                }
+                List<DeckPatch> patches = new ArrayList<>();
+                try {
+                    int version = BinaryDictionary.map(Decks.file(appContext, id)).deckVersion();
+                    for (DeckPatch patch; version > 0 && patches.size() < MAX_PATCHES
+                            && (patch = client.fetch(id, version)) != null; ) {
+                        patches.add(patch);
+                        version = patch.toVersion();
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace(); // Whatever arrived is still applied; the rest comes next time.
+                }
+                if (patches.size() < MAX_PATCHES) {
+                    prefs.edit().putLong(KEY_CHECKED + id, now).apply();
+                }
+                if (!patches.isEmpty()) {
+                    WordListSingleton.getInstance().patchDeck(appContext, id, patches);
+                }
+            }
+        });
+    }
+}
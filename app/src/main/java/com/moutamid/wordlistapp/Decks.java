@@ -0,0 +1,84 @@
+package com.moutamid.wordlistapp;
+
+import android.content.Context;
+
+import com.moutamid.wordlistapp.core.BinaryDictionary;
+import com.moutamid.wordlistapp.core.DictionaryLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Where decks live. The bundled dictionary is the deck {@link #BUNDLED}; every imported deck is a
+ * compiled dictionary in files/decks named after its id, with its review journal next to it.
+ */
+public final class Decks {
+    public static final String BUNDLED = "bundled";
+    private static final String SUFFIX = ".wdict";
+
+    private Decks() {}
+
+    /** The bundled deck, then the imported ones by name. */
+    public static List<String> list(Context context) {
+        List<String> ids = new ArrayList<>();
+        ids.add(BUNDLED);
+        String[] names = directory(context).list();
+        if (names != null) {
+            Arrays.sort(names);
+            for (String name : names) {
+                if (name.endsWith(SUFFIX)) {
+                    ids.add(name.substring(0, name.length() - SUFFIX.length()));
+                }
+            }
+        }
+        return ids;
+    }
+
+    public static boolean exists(Context context, String id) {
+        return BUNDLED.equals(id) || file(context, id).isFile();
+    }
+
+    public static File file(Context context, String id) {
+        return new File(directory(context), id + SUFFIX);
+    }
+
+    /** The bundled deck keeps the journal it had before there were several decks. */
+    public static File journalDirectory(Context context, String id) {
+        return new File(context.getFilesDir(), BUNDLED.equals(id) ? "reviews" : "reviews-" + id);
+    }
+
+    /**
+     * Opens a deck. Imported decks are memory-mapped, which takes constant time; the bundled one
+     * may have to be streamed, reporting its first chunk early.
+     */
+    public static BinaryDictionary open(Context context, String id, DictionaryLoader.Listener firstChunk) throws IOException {
+        if (BUNDLED.equals(id)) {
+            return DictionaryAsset.open(context, firstChunk);
+        }
+        // A later import or patch can replace the file without disturbing the mapping.
+        return BinaryDictionary.map(file(context, id));
+    }
+
+    /** A deck id for a picked file name: the name without extension, reduced to safe characters. */
+    public static String idFor(String fileName) {
+        String name = fileName != null ? fileName : "";
+        name = name.substring(Math.max(name.lastIndexOf('/'), name.lastIndexOf(':')) + 1);
+        int dot = name.lastIndexOf('.');
+        if (dot > 0) {
+            name = name.substring(0, dot);
+        }
+        StringBuilder id = new StringBuilder();
+        for (int i = 0; i < name.length() && id.length() < 64; i++) {
+            char c = name.charAt(i);
+            id.append(Character.isLetterOrDigit(c) || c == '-' || c == '_' ? c : '_');
+        }
+        return id.length() == 0 || BUNDLED.contentEquals(id) ? "deck" : id.toString();
+    }
+
+    private static File directory(Context context) {
+        return new File(context.getFilesDir(), "decks");
+    }
+}
@@ -0,0 +1,43 @@
+package com.moutamid.wordlistapp;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+
+import com.moutamid.wordlistapp.core.BinaryDictionary;
+import com.moutamid.wordlistapp.core.DictionaryFormat;
+import com.moutamid.wordlistapp.core.DictionaryLoader;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Opens the dictionary compiled from res/raw/words.txt by the compileDictionary Gradle task.
+ */
+public final class DictionaryAsset {
+
+    private DictionaryAsset() {}
+
+    public static BinaryDictionary open(Context context) throws IOException {
+        return open(context, null);
+    }
+
+    /** Opens the dictionary, reporting the first chunk of entries early if it has to be streamed. */
+    public static BinaryDictionary open(Context context, DictionaryLoader.Listener firstChunk) throws IOException {
+        AssetManager assets = context.getAssets();
+        try (AssetFileDescriptor fd = assets.openFd(DictionaryFormat.ASSET_NAME);
+             FileInputStream in = fd.createInputStream()) {
+            MappedByteBuffer buffer = in.getChannel().map(FileChannel.MapMode.READ_ONLY, fd.getStartOffset(), fd.getLength());
+            return BinaryDictionary.wrap(buffer);
+        } catch (FileNotFoundException compressed) {
+            // openFd only works for uncompressed assets, read the stream instead
+            try (InputStream in = assets.open(DictionaryFormat.ASSET_NAME)) {
+                return BinaryDictionary.read(in, firstChunk);
+            }
+        }
+    }
+}
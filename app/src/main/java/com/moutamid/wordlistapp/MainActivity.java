@@ -1,87 +1,138 @@
 package com.moutamid.wordlistapp;
 
-import android.app.Activity;
 import android.app.AlertDialog;
-import android.app.NotificationChannel;
-import android.app.NotificationManager;
-import android.app.PendingIntent;
 import android.content.Intent;
-import android.os.Build;
+import android.net.Uri;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
 import android.speech.tts.TextToSpeech;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.GestureDetector;
 import android.view.MotionEvent;
+import android.view.View;
+import android.widget.ArrayAdapter;
+import android.widget.Button;
+import android.widget.EditText;
+import android.widget.ListView;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.core.app.NotificationCompat;
-import androidx.core.app.NotificationManagerCompat;
-
-import org.json.JSONException;
-import org.json.JSONObject;
-
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.net.MalformedURLException;
-import java.net.URL;
+
+import com.moutamid.wordlistapp.core.DeckImporter;
+import com.moutamid.wordlistapp.core.NextWordQueue;
+import com.moutamid.wordlistapp.core.PackedWordStore;
+import com.moutamid.wordlistapp.core.ReviewScheduler;
+import com.moutamid.wordlistapp.core.WordStore;
+
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
-import java.util.Random;
 
 public class MainActivity extends AppCompatActivity {
 
     private TextView wordTextView, translationTextView;
-    private List<String[]> wordsList = new ArrayList<>();
-    private Random random = new Random();
+    private View quizOptions;
+    private final Button[] optionButtons = new Button[QUIZ_OPTIONS];
+    private EditText searchEditText;
+    private ListView searchResultsListView;
+    private ArrayAdapter<String> searchResultsAdapter;
+    private WordStore searchStore = PackedWordStore.EMPTY;
+    private int[] searchEntries = new int[0];
     private Handler inactivityHandler = new Handler(Looper.getMainLooper());
-    private Handler timerHandler = new Handler(Looper.getMainLooper());
-    private Runnable inactivityRunnable, timerRunnable;
-    private TextToSpeech textToSpeech;
+    private Runnable inactivityRunnable;
+    private Pronouncer pronouncer;
+    private WordCardPrefetcher cards;
+    private DeckImport deckImport;
+    private AlertDialog importDialog;
     private GestureDetector gestureDetector;
-    private static final String CHANNEL_ID = "word_app_channel";
+    private static final int SEARCH_RESULT_LIMIT = 50;
+    private static final int REQUEST_IMPORT_DECK = 1;
+    private static final int QUIZ_OPTIONS = 4;
+    private static final int HARDEST_WORDS = 10;
+    private static final String PREFS_NAME = "main";
+    private static final String KEY_QUIZ = "quiz";
+    public static final String EXTRA_WORD_INDEX = "WORD_INDEX";
+    public static final String EXTRA_DECK_ID = "DECK_ID";
+    private int currentIndex = -1;
+    private String currentDeck;
+    private String currentTranslation;
+    // Quiz mode: the translation is picked from options instead of shown.
+    private boolean quiz;
+    // The current card was graded by answering its quiz question.
+    private boolean answered;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        long onCreateSpan = Tracing.MAIN_ON_CREATE.begin();
         setContentView(R.layout.activity_main);
 
         wordTextView = findViewById(R.id.wordTextView);
         translationTextView = findViewById(R.id.translationTextView);
+        searchEditText = findViewById(R.id.searchEditText);
+        searchResultsListView = findViewById(R.id.searchResultsListView);
+        quizOptions = findViewById(R.id.quizOptions);
+        optionButtons[0] = findViewById(R.id.option0);
+        optionButtons[1] = findViewById(R.id.option1);
+        optionButtons[2] = findViewById(R.id.option2);
+        optionButtons[3] = findViewById(R.id.option3);
+        quiz = getSharedPreferences(PREFS_NAME, MODE_PRIVATE).getBoolean(KEY_QUIZ, false);
+        setUpSearch();
+        wordTextView.setOnLongClickListener(v -> {
+            showTraceDump();
+            return true;
+        });
+        translationTextView.setOnLongClickListener(v -> {
+            showDecks();
+            return true;
+        });
 
-        loadWords();
-        Intent intent = getIntent();
-        if (intent != null && intent.hasExtra("WORD") && intent.hasExtra("TRANSLATION")) {
-            String word = intent.getStringExtra("WORD");
-            String translation = intent.getStringExtra("TRANSLATION");
-            displayWord(word, translation);
-        } else {
-            displayRandomWord();
-        }
-
-        textToSpeech = new TextToSpeech(this, status -> {
+        long ttsSpan = Tracing.TEXT_TO_SPEECH.begin();
+        pronouncer = new Pronouncer(this, (status, language) -> {
             if (status == TextToSpeech.SUCCESS) {
-                int result = textToSpeech.setLanguage(Locale.US); // Set language to US English
-                if (result == TextToSpeech.LANG_MISSING_DATA || result == TextToSpeech.LANG_NOT_SUPPORTED) {
+                if (language == TextToSpeech.LANG_MISSING_DATA || language == TextToSpeech.LANG_NOT_SUPPORTED) {
                     Toast.makeText(this, "Language not supported", Toast.LENGTH_SHORT).show();
                 }
             } else {
                 Toast.makeText(this, "Text-to-Speech initialization failed", Toast.LENGTH_SHORT).show();
             }
         });
+        Tracing.TEXT_TO_SPEECH.end(ttsSpan);
+        cards = new WordCardPrefetcher(pronouncer);
+
+        WordListSingleton words = WordListSingleton.getInstance();
+        words.load(this); // Loads off the main thread, shared with the receivers
+        Intent intent = getIntent();
+        List<NextWordQueue.Entry> notified = intent != null && intent.getBooleanExtra(NotificationRenderer.EXTRA_FROM_NOTIFICATION, false)
+                ? NotificationRenderer.getInstance(this).showing() : Collections.emptyList();
+        if (!notified.isEmpty()) {
+            NotificationRenderer.getInstance(this).clear();
+            displayCard(notified.get(0));
+            cards.shown(notified.get(0));
+            words.whenReady(cards::refill); // So the first double tap has a card ready
+        } else if (intent != null && intent.hasExtra("WORD") && intent.hasExtra("TRANSLATION")) {
+            String word = intent.getStringExtra("WORD");
+            String translation = intent.getStringExtra("TRANSLATION");
+            currentIndex = intent.getIntExtra(EXTRA_WORD_INDEX, -1);
+            currentDeck = intent.getStringExtra(EXTRA_DECK_ID);
+            displayWord(word, translation);
+        } else {
+            words.whenFirstWords(this::displayRandomWord);
+        }
 
         gestureDetector = new GestureDetector(this, new GestureListener());
-        checkApp(MainActivity.this);
-        inactivityRunnable = this::minimizeApp;
-        timerRunnable = this::notifyNewWord;
-        startInactivityTimer();
-        startAppTimer();
-        createNotificationChannel();
+        long checkAppSpan = Tracing.CHECK_APP.begin();
+        RemoteConfig.checkApp(this);
+        Tracing.CHECK_APP.end(checkAppSpan);
+        inactivityRunnable = this::minimizeApp; // Started by onResume
+        long channelSpan = Tracing.NOTIFICATION_CHANNEL.begin();
+        NotificationRenderer.getInstance(this).ensureChannel();
+        Tracing.NOTIFICATION_CHANNEL.end(channelSpan);
+        Tracing.MAIN_ON_CREATE.end(onCreateSpan);
     }
 
     @Override
@@ -90,40 +141,129 @@ public class MainActivity extends AppCompatActivity {
         return super.onTouchEvent(event);
     }
 
-    private void loadWords() {
-        try {
-            InputStream inputStream = getResources().openRawResource(R.raw.words); // Load words from res/raw/words.txt
-            BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split("=");
-                if (parts.length == 2) {
-                    wordsList.add(parts);
-                }
-            }
-            reader.close();
-            WordListSingleton.getInstance().setWordsList(wordsList);  // Set the list in singleton
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    private void displayRandomWord() {
+        displayRandomWord(WordListSingleton.getInstance().currentStore());
     }
 
-    private void displayRandomWord() {
-        if (!wordsList.isEmpty()) {
-            int index = random.nextInt(wordsList.size());
-            String[] wordPair = wordsList.get(index);
-            displayWord(wordPair[0], wordPair[1]);
+    private void displayRandomWord(WordStore store) {
+        long span = Tracing.NEXT_CARD.begin();
+        NextWordQueue.Entry card = cards.next(store); // Usually prefetched: no picking or reading here
+        if (card != null) {
+            displayCard(card);
         }
+        Tracing.NEXT_CARD.end(span);
+    }
+
+    private void displayCard(NextWordQueue.Entry card) {
+        currentIndex = card.index();
+        currentDeck = card.deckId();
+        displayWord(card.word(), card.translation());
     }
 
     private void displayWord(String word, String translation) {
         wordTextView.setText(word);
-        translationTextView.setText(translation);
+        currentTranslation = translation;
+        answered = false;
+        quizOptions.setVisibility(View.GONE);
+        WordListSingleton words = WordListSingleton.getInstance();
+        WordStore store = words.currentStore();
+        if (quiz && currentIndex >= 0 && currentIndex < store.size() && words.activeDeckId().equals(currentDeck)) {
+            translationTextView.setText("?"); // Revealed once answered; still long-pressable
+            words.question(store, currentIndex, QUIZ_OPTIONS, this::showQuestion);
+        } else {
+            translationTextView.setText(translation);
+        }
+        pronouncer.prefetch(word); // The cards to come are warmed by the prefetcher
+    }
+
+    private void showQuestion(WordStore store, int answer, int[] options) {
+        if (answer != currentIndex || answered || !quiz || isDestroyed()) {
+            return; // The card changed while the options were picked
+        }
+        for (int i = 0; i < optionButtons.length; i++) {
+            Button button = optionButtons[i];
+            if (i < options.length) {
+                int option = options[i];
+                button.setText(store.translation(option));
+                button.setOnClickListener(v -> answer(option == answer));
+                button.setVisibility(View.VISIBLE);
+            } else {
+                button.setVisibility(View.GONE);
+            }
+        }
+        quizOptions.setVisibility(View.VISIBLE);
     }
+
+    private void answer(boolean right) {
+        answered = true;
+        quizOptions.setVisibility(View.GONE);
+        translationTextView.setText(currentTranslation);
+        WordListSingleton.getInstance().grade(this, currentDeck, currentIndex,
+                right ? ReviewScheduler.Grade.GOOD : ReviewScheduler.Grade.AGAIN, null);
+        if (!right) {
+            Toast.makeText(this, "Not quite", Toast.LENGTH_SHORT).show();
+        }
+        resetInactivityTimer();
+    }
+
+    private void setQuiz(boolean on) {
+        quiz = on;
+        getSharedPreferences(PREFS_NAME, MODE_PRIVATE).edit().putBoolean(KEY_QUIZ, on).apply();
+        if (currentTranslation != null && !answered) {
+            displayWord(wordTextView.getText().toString(), currentTranslation);
+        }
+    }
+
+    private void setUpSearch() {
+        searchResultsAdapter = new ArrayAdapter<>(this, R.layout.item_search_result, new ArrayList<>());
+        searchResultsListView.setAdapter(searchResultsAdapter);
+        searchResultsListView.setOnItemClickListener((parent, view, position, id) -> {
+            int index = searchEntries[position];
+            NextWordQueue.Entry card = new NextWordQueue.Entry(WordListSingleton.getInstance().activeDeckId(),
+                    index, searchStore.word(index), searchStore.translation(index));
+            displayCard(card);
+            cards.shown(card);
+            searchEditText.setText("");
+        });
+        searchEditText.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                resetInactivityTimer();
+                String prefix = s.toString().trim();
+                if (prefix.isEmpty()) {
+                    showSearchResults(PackedWordStore.EMPTY, new int[0]);
+                    WordListSingleton.getInstance().cancelSearch();
+                } else {
+                    WordListSingleton.getInstance().search(prefix, SEARCH_RESULT_LIMIT, MainActivity.this::showSearchResults);
+                }
+            }
+        });
+    }
+
+    private void showSearchResults(WordStore store, int[] entries) {
+        searchStore = store;
+        searchEntries = entries;
+        List<String> rows = new ArrayList<>(entries.length);
+        for (int index : entries) {
+            rows.add(store.word(index) + " — " + store.translation(index));
+        }
+        searchResultsAdapter.clear();
+        searchResultsAdapter.addAll(rows);
+        searchResultsListView.setVisibility(entries.length > 0 ? View.VISIBLE : View.GONE);
+    }
+
     private void speakWord() {
         String word = wordTextView.getText().toString();
         if (!word.isEmpty()) {
-            textToSpeech.speak(word, TextToSpeech.QUEUE_FLUSH, null, null);
+            pronouncer.speak(word);
         }
     }
 
@@ -132,7 +272,9 @@ public class MainActivity extends AppCompatActivity {
         inactivityHandler.postDelayed(inactivityRunnable, 60000); // 1 minute
     }
 
+    // Replaces any pending timer, so repeated resumes never stack callbacks.
     private void startInactivityTimer() {
+        inactivityHandler.removeCallbacks(inactivityRunnable);
         inactivityHandler.postDelayed(inactivityRunnable, 10000); // 10 sec
     }
 
@@ -140,50 +282,143 @@ public class MainActivity extends AppCompatActivity {
         moveTaskToBack(true);
     }
 
-    private void startAppTimer() {
-        timerHandler.postDelayed(timerRunnable, 60000); // 1 minute
+    private void showDecks() {
+        WordListSingleton.getInstance().deckIds(this, this::showDecks); // Lists the files off the main thread
     }
 
-    public void notifyNewWord() {
-        if (!wordsList.isEmpty()) {
-            int index = random.nextInt(wordsList.size());
-            String[] wordPair = wordsList.get(index);
-            Intent intent = new Intent(this, MainActivity.class);
-            intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
-            PendingIntent pendingIntent = PendingIntent.getActivity(this, 0, intent, PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
-
-            Intent deleteIntent = new Intent(this, NotificationDismissedReceiver.class);
-            PendingIntent deletePendingIntent = PendingIntent.getBroadcast(this, 0, deleteIntent, PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
-
-            NotificationCompat.Builder builder = new NotificationCompat.Builder(this, CHANNEL_ID)
-                    .setSmallIcon(R.drawable.ic_launcher_background)
-                    .setContentTitle(wordPair[0])
-                    .setContentText("Translation: " + wordPair[1])
-                    .setPriority(NotificationCompat.PRIORITY_HIGH)
-                    .setAutoCancel(true)
-                    .setContentIntent(pendingIntent)
-                    .setDeleteIntent(deletePendingIntent);
-
-            NotificationManagerCompat notificationManager = NotificationManagerCompat.from(this);
-            notificationManager.notify(1, builder.build());
+    private void showDecks(List<String> deckIds) {
+        if (isDestroyed()) {
+            return;
         }
+        String active = WordListSingleton.getInstance().activeDeckId();
+        NotificationRenderer renderer = NotificationRenderer.getInstance(this);
+        WordListSingleton words = WordListSingleton.getInstance();
+        CharSequence[] items = new CharSequence[deckIds.size() + 6];
+        for (int i = 0; i < deckIds.size(); i++) {
+            String id = deckIds.get(i);
+            items[i] = (id.equals(active) ? "✓ " : "") + (id.equals(Decks.BUNDLED) ? "Built-in words" : id);
+        }
+        items[deckIds.size()] = "Import deck…";
+        items[deckIds.size() + 1] = renderer.isDigest() ? "One word per notification" : "Several words per notification";
+        items[deckIds.size() + 2] = words.isShuffle() ? "Notify in review order" : "Notify in a weighted shuffle";
+        items[deckIds.size() + 3] = quiz ? "Show translations" : "Quiz: pick the translation";
+        items[deckIds.size() + 4] = renderer.isReverse() ? "Notify word first" : "Notify translation first";
+        items[deckIds.size() + 5] = "Statistics";
+        new AlertDialog.Builder(this)
+                .setTitle("Decks")
+                .setItems(items, (dialog, which) -> {
+                    if (which == deckIds.size()) {
+                        pickDeck();
+                    } else if (which == deckIds.size() + 1) {
+                        renderer.setDigest(!renderer.isDigest());
+                    } else if (which == deckIds.size() + 2) {
+                        words.setShuffle(this, !words.isShuffle());
+                    } else if (which == deckIds.size() + 3) {
+                        setQuiz(!quiz);
+                    } else if (which == deckIds.size() + 4) {
+                        renderer.setReverse(!renderer.isReverse());
+                    } else if (which == deckIds.size() + 5) {
+                        words.statistics(HARDEST_WORDS, this::showStatistics);
+                    } else if (!deckIds.get(which).equals(active)) {
+                        WordListSingleton.getInstance().switchDeck(this, deckIds.get(which), this::displayRandomWord);
+                    }
+                })
+                .show();
+    }
+
+    private void pickDeck() {
+        Intent intent = new Intent(Intent.ACTION_OPEN_DOCUMENT);
+        intent.addCategory(Intent.CATEGORY_OPENABLE);
+        intent.setType("*/*");
+        intent.putExtra(Intent.EXTRA_MIME_TYPES, new String[]{"text/*", "application/csv", "application/octet-stream"});
+        startActivityForResult(intent, REQUEST_IMPORT_DECK);
     }
 
-    private void createNotificationChannel() {
-        if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.O) {
-            CharSequence name = "Word Notification Channel";
-            String description = "Channel for Word App notifications";
-            int importance = android.app.NotificationManager.IMPORTANCE_HIGH;
-            android.app.NotificationChannel channel = new android.app.NotificationChannel(CHANNEL_ID, name, importance);
-            channel.setDescription(description);
-            android.app.NotificationManager notificationManager = getSystemService(android.app.NotificationManager.class);
-            notificationManager.createNotificationChannel(channel);
+    @Override
+    protected void onActivityResult(int requestCode, int resultCode, Intent data) {
+        super.onActivityResult(requestCode, resultCode, data);
+        if (requestCode == REQUEST_IMPORT_DECK && resultCode == RESULT_OK && data != null && data.getData() != null) {
+            importDeck(data.getData());
         }
     }
 
+    private void importDeck(Uri uri) {
+        if (deckImport == null) {
+            deckImport = new DeckImport(this);
+        }
+        importDialog = new AlertDialog.Builder(this)
+                .setTitle("Importing deck")
+                .setMessage("Starting…")
+                .setCancelable(false)
+                .setNegativeButton("Cancel", (dialog, which) -> deckImport.cancel())
+                .show();
+        deckImport.start(uri, new DeckImport.Listener() {
+            @Override
+            public void onProgress(long bytesRead, long totalBytes, int entries) {
+                if (isDestroyed()) {
+                    return;
+                }
+                String progress = totalBytes > 0
+                        ? String.format(Locale.US, "%d%%, %d words", bytesRead * 100 / totalBytes, entries)
+                        : String.format(Locale.US, "%d words", entries);
+                importDialog.setMessage(progress);
+            }
+
+            @Override
+            public void onFinished(String deckId, DeckImporter.Result result) {
+                if (isDestroyed()) {
+                    if (result != null) { // Written just before the cancel reached it
+                        WordListSingleton.getInstance().replaceDeck(MainActivity.this, deckId, words -> {});
+                    }
+                    return;
+                }
+                importDialog.dismiss();
+                if (result == null) {
+                    Toast.makeText(MainActivity.this, "Import stopped, keeping the current deck", Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                Toast.makeText(MainActivity.this, String.format(Locale.US, "Imported %d words (%d duplicates, %d skipped lines)",
+                        result.entries(), result.duplicates(), result.rejected()), Toast.LENGTH_LONG).show();
+                WordListSingleton.getInstance().replaceDeck(MainActivity.this, deckId, MainActivity.this::displayRandomWord);
+            }
+        });
+    }
+
+    private void showStatistics(String summary) {
+        if (isDestroyed()) {
+            return;
+        }
+        new AlertDialog.Builder(this)
+                .setTitle("Statistics")
+                .setMessage(summary)
+                .setNegativeButton("Close", null)
+                .show();
+    }
+
+    /** Debug screen: span percentiles and counters since the process started, shareable as text. */
+    private void showTraceDump() {
+        String dump = Tracing.TRACER.dump();
+        new AlertDialog.Builder(this)
+                .setTitle("Traces")
+                .setMessage(dump)
+                .setPositiveButton("Share", (dialog, which) -> {
+                    Intent share = new Intent(Intent.ACTION_SEND);
+                    share.setType("text/plain");
+                    share.putExtra(Intent.EXTRA_TEXT, dump);
+                    startActivity(Intent.createChooser(share, "Export traces"));
+                })
+                .setNeutralButton("Reset", (dialog, which) -> Tracing.TRACER.reset())
+                .setNegativeButton("Close", null)
+                .show();
+    }
+
     private class GestureListener extends GestureDetector.SimpleOnGestureListener {
         @Override
         public boolean onSingleTapConfirmed(MotionEvent e) {
+            if (!quiz && !answered) {
+                answered = true; // Graded once per card; later taps only replay it
+                WordListSingleton.getInstance().grade(MainActivity.this, currentDeck, currentIndex, ReviewScheduler.Grade.GOOD, null); // Heard it
+            }
             speakWord();
             resetInactivityTimer();
             return true;
@@ -191,17 +426,58 @@ public class MainActivity extends AppCompatActivity {
 
         @Override
         public boolean onDoubleTap(MotionEvent e) {
+            if (!answered) {
+                WordListSingleton.getInstance().grade(MainActivity.this, currentDeck, currentIndex, ReviewScheduler.Grade.EASY, null); // Skipped as known
+            }
             displayRandomWord();
             return true;
         }
+
+        @Override
+        public boolean onFling(MotionEvent e1, MotionEvent e2, float velocityX, float velocityY) {
+            if (Math.abs(velocityX) < Math.abs(velocityY)) {
+                return false;
+            }
+            if (velocityX > 0) {
+                NextWordQueue.Entry previous = cards.back(); // Swiped right: the card before
+                if (previous != null) {
+                    displayCard(previous);
+                }
+            } else {
+                displayRandomWord(); // Swiped left: forward again, or a new card without grading
+            }
+            resetInactivityTimer();
+            return true;
+        }
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        inactivityHandler.removeCallbacks(inactivityRunnable); // Nothing to minimize once we are not in front
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        WordListSingleton.getInstance().saveStatistics(null); // A stopped app can be killed without another callback
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (textToSpeech != null) {
-            textToSpeech.stop();
-            textToSpeech.shutdown();
+        if (cards != null) {
+            cards.close();
+        }
+        if (pronouncer != null) {
+            pronouncer.shutdown();
+        }
+        // Cancelled on every destroy, rotations included: the listener and dialog belong to this instance.
+        if (deckImport != null) {
+            deckImport.cancel();
+        }
+        if (importDialog != null) {
+            importDialog.dismiss();
         }
     }
 
@@ -209,63 +485,7 @@ public class MainActivity extends AppCompatActivity {
     protected void onResume() {
         super.onResume();
         startInactivityTimer();
-        startAppTimer();
-    }
-
-    public static void checkApp(Activity activity) {
-        String appName = "WordListApp";
-
-        new Thread(() -> {
-            URL google = null;
-            try {
-                google = new URL("https://raw.githubusercontent.com/Moutamid/Moutamid/main/apps.txt");
-            } catch (final MalformedURLException e) {
-                e.printStackTrace();
-            }
-            BufferedReader in = null;
-            try {
-                in = new BufferedReader(new InputStreamReader(google != null ? google.openStream() : null));
-            } catch (final IOException e) {
-                e.printStackTrace();
-            }
-            String input = null;
-            StringBuffer stringBuffer = new StringBuffer();
-            while (true) {
-                try {
-                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
-                        if ((input = in != null ? in.readLine() : null) == null) break;
-                    }
-                } catch (final IOException e) {
-                    e.printStackTrace();
-                }
-                stringBuffer.append(input);
-            }
-            try {
-                if (in != null) {
-                    in.close();
-                }
-            } catch (final IOException e) {
-                e.printStackTrace();
-            }
-            String htmlData = stringBuffer.toString();
-
-            try {
-                JSONObject myAppObject = new JSONObject(htmlData).getJSONObject(appName);
-
-                boolean value = myAppObject.getBoolean("value");
-                String msg = myAppObject.getString("msg");
-
-                if (value) {
-                    activity.runOnUiThread(() -> {
-                        new AlertDialog.Builder(activity).setMessage(msg).setCancelable(false).show();
-                    });
-                }
-
-            } catch (JSONException e) {
-                e.printStackTrace();
-            }
-
-        }).start();
+        WordNotificationScheduler.getInstance(this).requestNotification(); // Next word in about a minute
     }
 
 
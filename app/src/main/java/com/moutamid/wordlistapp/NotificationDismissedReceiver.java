@@ -1,5 +1,4 @@
 package com.moutamid.wordlistapp;
-import android.app.PendingIntent;
 import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
@@ -10,37 +9,61 @@ import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
 import android.widget.Toast;
-import androidx.core.app.NotificationCompat;
-import androidx.core.app.NotificationManagerCompat;
 
 import java.util.List;
 import java.util.Random;
 
 
-import android.app.AlarmManager;
-import android.app.PendingIntent;
 import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
 import android.widget.Toast;
 
+import com.moutamid.wordlistapp.core.NextWordQueue;
+import com.moutamid.wordlistapp.core.ReviewScheduler;
+
 public class NotificationDismissedReceiver extends BroadcastReceiver {
 
     @Override
     public void onReceive(Context context, Intent intent) {
+        long span = Tracing.DISMISSED_ON_RECEIVE.begin();
+        Tracing.DISMISSED.increment();
         Toast.makeText(context, "Notification dismissed. Rescheduling in 1 minute.", Toast.LENGTH_SHORT).show();
         scheduleNotification(context);
+        WordListSingleton words = WordListSingleton.getInstance();
+        PendingResult result = goAsync();
+        if (!intent.hasExtra(MainActivity.EXTRA_WORD_INDEX)) {
+            // The words are not in the intent, so it can be reused: ask the renderer what was showing
+            NotificationRenderer renderer = NotificationRenderer.getInstance(context);
+            List<NextWordQueue.Entry> entries = renderer.showing();
+            renderer.clear();
+            int[] remaining = {entries.size()};
+            if (entries.isEmpty()) {
+                result.finish();
+            }
+            for (NextWordQueue.Entry entry : entries) {
+                // Opens only that deck if it is not resident, even in a fresh process
+                words.grade(context, entry.deckId(), entry.index(), ReviewScheduler.Grade.AGAIN, () -> { // Ignored, show it again soon
+                    if (--remaining[0] == 0) {
+                        result.finish();
+                    }
+                });
+            }
+            Tracing.DISMISSED_ON_RECEIVE.end(span);
+            return;
+        }
+        int index = intent.getIntExtra(MainActivity.EXTRA_WORD_INDEX, -1);
+        String deckId = intent.getStringExtra(MainActivity.EXTRA_DECK_ID);
+        if (deckId != null) {
+            words.grade(context, deckId, index, ReviewScheduler.Grade.AGAIN, result::finish);
+        } else {
+            words.load(context); // Posted before there were decks: grade against the loaded store
+            words.whenReady(store -> words.grade(context, null, index, ReviewScheduler.Grade.AGAIN, result::finish));
+        }
+        Tracing.DISMISSED_ON_RECEIVE.end(span);
     }
 
     private void scheduleNotification(Context context) {
-        Intent notificationIntent = new Intent(context, ResendNotificationReceiver.class);
-        PendingIntent pendingIntent = PendingIntent.getBroadcast(context, 0, notificationIntent, PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
-
-        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
-        long triggerTime = System.currentTimeMillis() + 60000; // 1 minute delay
-
-        if (alarmManager != null) {
-            alarmManager.setExact(AlarmManager.RTC_WAKEUP, triggerTime, pendingIntent);
-        }
+        WordNotificationScheduler.getInstance(context).requestNotification();
     }
 }
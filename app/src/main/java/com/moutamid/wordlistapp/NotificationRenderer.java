@@ -0,0 +1,221 @@
+package com.moutamid.wordlistapp;
+
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+
+import com.moutamid.wordlistapp.core.Clock;
+import com.moutamid.wordlistapp.core.NextWordQueue;
+import com.moutamid.wordlistapp.core.NotificationCoalescer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The one place the word notification is built and posted. Updates go through a
+ * {@link NotificationCoalescer}, so a burst of them costs one post and words that are already
+ * showing cost none.
+ *
+ * <p>The channel and both PendingIntents are created once per process. The intents carry no
+ * word: what is showing is saved here, and whoever opens or dismisses the notification reads it
+ * back with {@link #showing}, even in another process.
+ *
+ * <p>In digest mode a notification lists several due words at once. In reverse mode it asks from
+ * the translation, answered by every word of the deck that has it.
+ */
+public class NotificationRenderer {
+    public static final String EXTRA_FROM_NOTIFICATION = "FROM_NOTIFICATION";
+    private static final String CHANNEL_ID = "word_app_channel";
+    private static final int NOTIFICATION_ID = 1;
+    private static final long WINDOW_MILLIS = 250;
+    private static final long MIN_INTERVAL_MILLIS = 1000;
+    private static final int DIGEST_SIZE = 5;
+    private static final String PREFS_NAME = "notification";
+    private static final String KEY_DIGEST = "digest";
+    private static final String KEY_REVERSE = "reverse";
+    private static final String KEY_COUNT = "count";
+
+    private static NotificationRenderer instance;
+    private final Context context;
+    private final SharedPreferences prefs;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final NotificationCoalescer<NextWordQueue.Entry> coalescer;
+    private boolean channelCreated;
+    private PendingIntent contentIntent;
+    private PendingIntent deleteIntent;
+    private long avoidedReported;
+
+    private NotificationRenderer(Context context) {
+        this.context = context.getApplicationContext();
+        prefs = this.context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        coalescer = new NotificationCoalescer<>(Clock.SYSTEM, delay -> mainHandler.postDelayed(this::flush, delay),
+                this::post, WINDOW_MILLIS, MIN_INTERVAL_MILLIS);
+    }
+
+    public static synchronized NotificationRenderer getInstance(Context context) {
+        if (instance == null) {
+            instance = new NotificationRenderer(context);
+        }
+        return instance;
+    }
+
+    /** Creates the notification channel, once per process. */
+    public void ensureChannel() {
+        if (channelCreated) {
+            return;
+        }
+        channelCreated = true;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationChannel channel = new NotificationChannel(CHANNEL_ID, "Word Notification Channel", NotificationManager.IMPORTANCE_HIGH);
+            channel.setDescription("Channel for Word App notifications");
+            NotificationManager notificationManager = context.getSystemService(NotificationManager.class);
+            notificationManager.createNotificationChannel(channel);
+        }
+    }
+
+    public boolean isDigest() {
+        return prefs.getBoolean(KEY_DIGEST, false);
+    }
+
+    public void setDigest(boolean digest) {
+        prefs.edit().putBoolean(KEY_DIGEST, digest).apply();
+    }
+
+    public boolean isReverse() {
+        return prefs.getBoolean(KEY_REVERSE, false);
+    }
+
+    public void setReverse(boolean reverse) {
+        prefs.edit().putBoolean(KEY_REVERSE, reverse).apply();
+        if (reverse) {
+            WordListSingleton.getInstance().prepareReverse();
+        }
+    }
+
+    /** How many words the next notification should show. */
+    public int wordsPerNotification() {
+        return isDigest() ? DIGEST_SIZE : 1;
+    }
+
+    /**
+     * Shows entries, newest first, after any update that follows within the coalescing window.
+     * done, which may be null, runs on the main thread once they are posted or superseded. Call it
+     * on the main thread.
+     */
+    public void show(List<NextWordQueue.Entry> entries, Runnable done) {
+        if (entries.isEmpty()) {
+            if (done != null) {
+                done.run();
+            }
+            return;
+        }
+        coalescer.submit(entries, done);
+    }
+
+    /** The words of the notification last posted by any process, empty if it went away. */
+    public List<NextWordQueue.Entry> showing() {
+        int count = prefs.getInt(KEY_COUNT, 0);
+        List<NextWordQueue.Entry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String deckId = prefs.getString("deck" + i, null);
+            String word = prefs.getString("word" + i, null);
+            String translation = prefs.getString("translation" + i, null);
+            if (deckId != null && word != null && translation != null) {
+                entries.add(new NextWordQueue.Entry(deckId, prefs.getInt("index" + i, -1), word, translation));
+            }
+        }
+        return entries;
+    }
+
+    /** The notification was opened or dismissed. */
+    public void clear() {
+        coalescer.clear();
+        prefs.edit().putInt(KEY_COUNT, 0).apply();
+    }
+
+    private void flush() {
+        coalescer.flush();
+        long avoided = coalescer.postsAvoided();
+        Tracing.POSTS_AVOIDED.add(avoided - avoidedReported);
+        avoidedReported = avoided;
+    }
+
+    private void post(List<NextWordQueue.Entry> entries) {
+        long span = Tracing.SEND_NOTIFICATION.begin();
+        try {
+            save(entries);
+            ensureChannel();
+            NextWordQueue.Entry first = entries.get(0);
+            NotificationCompat.Builder builder = new NotificationCompat.Builder(context, CHANNEL_ID)
+                    .setSmallIcon(R.drawable.ic_launcher_background)
+                    .setPriority(NotificationCompat.PRIORITY_HIGH)
+                    .setAutoCancel(true)
+                    .setContentIntent(contentIntent())
+                    .setDeleteIntent(deleteIntent());
+            boolean reverse = isReverse();
+            WordListSingleton words = WordListSingleton.getInstance();
+            if (entries.size() == 1) {
+                builder.setContentTitle(reverse ? first.translation() : first.word())
+                        .setContentText(reverse ? "Word: " + words.answersFor(first) : "Translation: " + first.translation());
+            } else {
+                NotificationCompat.InboxStyle inbox = new NotificationCompat.InboxStyle()
+                        .setBigContentTitle(entries.size() + " words to review");
+                for (NextWordQueue.Entry entry : entries) {
+                    inbox.addLine(reverse ? entry.translation() + " — " + words.answersFor(entry) : entry.word() + " — " + entry.translation());
+                }
+                builder.setContentTitle(reverse ? first.translation() : first.word())
+                        .setContentText(entries.size() + " words to review")
+                        .setNumber(entries.size())
+                        .setStyle(inbox);
+            }
+            NotificationManagerCompat.from(context).notify(NOTIFICATION_ID, builder.build());
+            Tracing.POSTED.increment();
+            WordNotificationScheduler.getInstance(context).onNotificationPosted();
+        } finally {
+            Tracing.SEND_NOTIFICATION.end(span);
+        }
+    }
+
+    // Written before posting, so a tap or dismissal can never find older words.
+    private void save(List<NextWordQueue.Entry> entries) {
+        SharedPreferences.Editor editor = prefs.edit().putInt(KEY_COUNT, entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            NextWordQueue.Entry entry = entries.get(i);
+            editor.putString("deck" + i, entry.deckId())
+                    .putInt("index" + i, entry.index())
+                    .putString("word" + i, entry.word())
+                    .putString("translation" + i, entry.translation());
+        }
+        editor.apply();
+    }
+
+    private PendingIntent contentIntent() {
+        if (contentIntent != null) {
+            Tracing.INTENTS_REUSED.increment();
+            return contentIntent;
+        }
+        Intent intent = new Intent(context, MainActivity.class);
+        intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+        intent.putExtra(EXTRA_FROM_NOTIFICATION, true);
+        contentIntent = PendingIntent.getActivity(context, 0, intent, PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+        return contentIntent;
+    }
+
+    private PendingIntent deleteIntent() {
+        if (deleteIntent != null) {
+            Tracing.INTENTS_REUSED.increment();
+            return deleteIntent;
+        }
+        Intent intent = new Intent(context, NotificationDismissedReceiver.class);
+        deleteIntent = PendingIntent.getBroadcast(context, 0, intent, PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+        return deleteIntent;
+    }
+}
@@ -0,0 +1,90 @@
+package com.moutamid.wordlistapp;
+
+import android.content.Context;
+import android.media.MediaPlayer;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.moutamid.wordlistapp.core.PronunciationCache;
+import com.moutamid.wordlistapp.core.PronunciationStats;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Plays word pronunciations from a {@link PronunciationCache} of pre-synthesized files, and falls
+ * back to live speech for words that have not been rendered yet. Main thread only.
+ */
+public class Pronouncer {
+    private static final String TAG = "Pronouncer";
+    private static final long CACHE_BYTES = 8 * 1024 * 1024;
+
+    private final AndroidSpeechSynthesizer synthesizer;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    private final PronunciationStats stats = new PronunciationStats();
+    private final PronunciationCache cache;
+    private MediaPlayer player;
+
+    public Pronouncer(Context context, AndroidSpeechSynthesizer.InitListener onInit) {
+        synthesizer = new AndroidSpeechSynthesizer(context, Locale.US, onInit);
+        cache = new PronunciationCache(new File(context.getCacheDir(), "pronunciations"), CACHE_BYTES,
+                synthesizer, worker, stats);
+    }
+
+    /** Renders words in the background so a later {@link #speak} can play them at once. */
+    public void prefetch(String... words) {
+        for (String word : words) {
+            if (word != null && !word.isEmpty()) {
+                cache.prefetch(word);
+            }
+        }
+    }
+
+    public void speak(String word) {
+        long tappedAt = SystemClock.uptimeMillis();
+        File audio = cache.lookup(word);
+        if (audio != null && play(audio)) {
+            stats.recordTapToAudio(SystemClock.uptimeMillis() - tappedAt, true);
+        } else {
+            synthesizer.speak(word, startedAt -> stats.recordTapToAudio(startedAt - tappedAt, false));
+            cache.prefetch(word);
+        }
+        Log.d(TAG, stats.toString());
+    }
+
+    public PronunciationStats getStats() {
+        return stats;
+    }
+
+    public void shutdown() {
+        worker.shutdownNow();
+        if (player != null) {
+            player.release();
+            player = null;
+        }
+        synthesizer.shutdown();
+    }
+
+    private boolean play(File audio) {
+        synthesizer.stop();
+        try {
+            if (player == null) {
+                player = new MediaPlayer();
+            } else {
+                player.reset();
+            }
+            player.setDataSource(audio.getPath());
+            player.prepare(); // A short local file; faster than waiting for an async callback
+            player.start();
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            e.printStackTrace();
+            player.release();
+            player = null;
+            return false;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.moutamid.wordlistapp;
+
+import android.app.Activity;
+import android.app.AlertDialog;
+import android.content.Context;
+
+import com.moutamid.wordlistapp.core.Clock;
+import com.moutamid.wordlistapp.core.RemoteConfigClient;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The app's remote switch: a message the developer can show to every user. Fetched through a
+ * {@link RemoteConfigClient}, so it is cached on disk and most launches make no request. It can
+ * also name the host of downloadable decks, which {@link DeckUpdates} then checks for patches.
+ */
+public class RemoteConfig {
+    private static final String CONFIG_URL = "https://raw.githubusercontent.com/Moutamid/Moutamid/main/apps.txt";
+    private static final String APP_NAME = "WordListApp";
+    private static final long TTL_MILLIS = 6 * 60 * 60 * 1000;
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+    private static final int READ_TIMEOUT_MILLIS = 5000;
+
+    // One thread at most, idle threads die, and a short queue: config work never piles up. A rejected
+    // load is reported to the client, which lets the next launch try again.
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(4));
+
+    static {
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private static RemoteConfigClient client;
+
+    private RemoteConfig() {}
+
+    private static synchronized RemoteConfigClient client(Context context) throws MalformedURLException {
+        if (client == null) {
+            client = new RemoteConfigClient(new URL(CONFIG_URL),
+                    new File(context.getApplicationContext().getFilesDir(), "remote_config"),
+                    TTL_MILLIS, CONNECT_TIMEOUT_MILLIS, READ_TIMEOUT_MILLIS, EXECUTOR, Clock.SYSTEM);
+        }
+        return client;
+    }
+
+    /**
+     * Shows the developer's message over activity if the switch for this app is on and activity is
+     * still showing. The request only holds activity weakly, so a slow network never keeps it alive.
+     */
+    public static void checkApp(Activity activity) {
+        Context appContext = activity.getApplicationContext();
+        WeakReference<Activity> weakActivity = new WeakReference<>(activity);
+        try {
+            client(appContext).fetch(body -> {
+                try {
+                    JSONObject myAppObject = new JSONObject(body).getJSONObject(APP_NAME);
+
+                    boolean value = myAppObject.getBoolean("value");
+                    String msg = myAppObject.getString("msg");
+                    String decks = myAppObject.optString("decks", "");
+                    if (!decks.isEmpty()) {
+                        DeckUpdates.check(appContext, decks);
+                    }
+
+                    Activity shown = weakActivity.get();
+                    if (value && shown != null) {
+                        shown.runOnUiThread(() -> {
+                            if (!shown.isFinishing() && !shown.isDestroyed()) {
+                                new AlertDialog.Builder(shown).setMessage(msg).setCancelable(false).show();
+                            }
+                        });
+                    }
+                } catch (JSONException e) {
+                    e.printStackTrace();
+                }
+            });
+        } catch (MalformedURLException e) {
+            e.printStackTrace();
+        }
+    }
+}
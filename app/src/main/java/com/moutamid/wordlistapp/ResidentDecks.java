@@ -0,0 +1,190 @@
+package com.moutamid.wordlistapp;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+
+import com.moutamid.wordlistapp.core.BinaryDictionary;
+import com.moutamid.wordlistapp.core.DeckCache;
+import com.moutamid.wordlistapp.core.ReviewJournal;
+import com.moutamid.wordlistapp.core.ReviewScheduler;
+import com.moutamid.wordlistapp.core.WordStats;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * The decks in memory. Only the active one has to be; decks used recently stay in a
+ * {@link DeckCache} up to a heap budget, which is trimmed on memory pressure, and are closed on the
+ * journal thread when they leave it.
+ *
+ * <p>Decks are restored here, on the loader thread, with their review state and statistics. The
+ * deck saved as active and the shuffle setting are remembered in memory once read, so only the
+ * loader thread ever asks the disk whether a deck exists.
+ */
+final class ResidentDecks {
+    // Heap for decks besides the active one. Mapped decks cost only their review state.
+    private static final long DECK_CACHE_BYTES = 16 * 1024 * 1024;
+    private static final String PREFS_NAME = "decks";
+    private static final String KEY_ACTIVE_DECK = "active";
+    private static final String KEY_SHUFFLE = "shuffle";
+
+    private final ReviewJournals journals;
+    private final DeckCache<Deck> cache;
+    private volatile Deck active;
+    // Resolved on the loader thread, then kept up to date by switches.
+    private volatile String savedId;
+    private volatile boolean shuffle;
+    private final Random random = new Random();
+    private boolean trimCallbacksRegistered;
+
+    ResidentDecks(ReviewJournals journals) {
+        this.journals = journals;
+        cache = new DeckCache<>(DECK_CACHE_BYTES, Deck::footprintBytes, (id, deck) -> journals.execute(deck::close));
+    }
+
+    Deck get(String id) {
+        return cache.get(id);
+    }
+
+    void put(String id, Deck deck) {
+        cache.put(id, deck);
+    }
+
+    void remove(String id) {
+        cache.remove(id);
+    }
+
+    /** The id of the active deck, which may still be loading; null before the first load. */
+    String activeId() {
+        return cache.active();
+    }
+
+    /** The active deck once it is in memory, else null. */
+    Deck active() {
+        return active;
+    }
+
+    void setActive(Deck deck) {
+        active = deck;
+    }
+
+    /** Makes id the active deck, for now and later starts. */
+    void activate(Context context, String id) {
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit().putString(KEY_ACTIVE_DECK, id).apply();
+        savedId = id;
+        cache.setActive(id);
+    }
+
+    /** Makes the deck saved as active the active one again. Runs on the loader thread. */
+    String activateSaved(Context context) {
+        String id = savedId(context);
+        cache.setActive(id);
+        return id;
+    }
+
+    // Reads the disk only the first time, on the loader thread.
+    private String savedId(Context context) {
+        String id = savedId;
+        if (id == null) {
+            id = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).getString(KEY_ACTIVE_DECK, Decks.BUNDLED);
+            id = id != null && Decks.exists(context, id) ? id : Decks.BUNDLED;
+            savedId = id;
+        }
+        return id;
+    }
+
+    boolean isShuffle() {
+        return shuffle;
+    }
+
+    void setShuffle(Context context, boolean on) {
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit().putBoolean(KEY_SHUFFLE, on).apply();
+        shuffle = on;
+    }
+
+    /** Releases decks other than the active one, all of them under real pressure. */
+    void onTrimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW && level != ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            cache.trimTo(0);
+        } else {
+            cache.trimTo(cache.maxBytes() / 2);
+        }
+    }
+
+    void registerTrimCallbacks(Context context) {
+        if (trimCallbacksRegistered) {
+            return;
+        }
+        trimCallbacksRegistered = true;
+        context.registerComponentCallbacks(new ComponentCallbacks2() {
+            @Override
+            public void onTrimMemory(int level) {
+                ResidentDecks.this.onTrimMemory(level);
+            }
+
+            @Override
+            public void onConfigurationChanged(Configuration newConfig) {
+            }
+
+            @Override
+            public void onLowMemory() {
+                cache.trimTo(0);
+            }
+        });
+    }
+
+    /**
+     * Runs on the loader thread, before the deck is handed to anyone. Words notified from the
+     * queue since the deck was last loaded count as shown.
+     */
+    Deck restore(Context context, String id, BinaryDictionary store) {
+        return restore(context, id, store, store.size());
+    }
+
+    // For a deck a patch has grown since its state was saved for savedSize entries.
+    Deck restore(Context context, String id, BinaryDictionary store, int savedSize) {
+        shuffle = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).getBoolean(KEY_SHUFFLE, false);
+        ReviewJournal journal = journals.open(context, id);
+        File statsFile = DeckStatistics.file(context, id);
+        WordStats stats = DeckStatistics.load(statsFile, savedSize, store.size());
+        Deck deck;
+        try {
+            deck = new Deck(id, store, journal.restore(savedSize, store.size(), new Random()), journal, stats, statsFile);
+        } catch (IOException e) {
+            e.printStackTrace(); // Reviews start over for this deck, but are not saved.
+            deck = new Deck(id, store, new ReviewScheduler(store.size(), WordListSingleton.REVIEW_STEP_MILLIS, new Random()),
+                    null, stats, statsFile);
+        }
+        if (store.deckVersion() > 0) { // Only patches remove entries.
+            for (int i = 0; i < store.size(); i++) {
+                if (store.isRemoved(i)) {
+                    deck.scheduler.retire(i);
+                }
+            }
+        }
+        Deck restored = deck;
+        try {
+            journals.nextWords(context).drain(id, (index, shownAt) -> {
+                if (index < store.size() && !store.isRemoved(index)) {
+                    restored.scheduler.markShown(index, shownAt);
+                    restored.stats.record(index, WordStats.Event.SHOWN, shownAt);
+                    if (shuffle) {
+                        restored.sampler().markShown(index);
+                    }
+                    if (restored.journal != null) {
+                        restored.journal.recordShown(index, shownAt);
+                    }
+                }
+            });
+            if (id.equals(savedId(context))) {
+                int[] indexes = deck.nextWords(shuffle, random);
+                journals.nextWords(context).write(id, store, indexes, indexes.length);
+            }
+        } catch (IOException e) {
+            e.printStackTrace(); // Notifications load the deck until the queue is written again.
+        }
+        return deck;
+    }
+}
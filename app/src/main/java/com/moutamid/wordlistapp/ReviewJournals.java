@@ -0,0 +1,86 @@
+package com.moutamid.wordlistapp;
+
+import android.content.Context;
+
+import com.moutamid.wordlistapp.core.NextWordQueue;
+import com.moutamid.wordlistapp.core.ReviewJournal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * The journal thread. Each deck's {@link ReviewJournal}, its saved statistics and the
+ * {@link NextWordQueue} are written there, in the order they were asked for, so the main thread
+ * never waits for the disk.
+ */
+final class ReviewJournals {
+    private static final long JOURNAL_COMPACT_BYTES = 256 * 1024;
+
+    private final Executor writer = Executors.newSingleThreadExecutor();
+    private volatile NextWordQueue nextWords;
+
+    void execute(Runnable task) {
+        writer.execute(task);
+    }
+
+    /** The journal of deck id, appended to on the journal thread. */
+    ReviewJournal open(Context context, String id) {
+        return new ReviewJournal(Decks.journalDirectory(context, id),
+                WordListSingleton.REVIEW_STEP_MILLIS, JOURNAL_COMPACT_BYTES, writer);
+    }
+
+    /** Deletes the review state of deck id once everything queued before has been written. */
+    void delete(Context context, String id) {
+        File directory = Decks.journalDirectory(context, id);
+        writer.execute(() -> {
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+        });
+    }
+
+    /** Blocks until everything already queued on the journal thread has run. */
+    void await() {
+        CountDownLatch done = new CountDownLatch(1);
+        writer.execute(done::countDown);
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    NextWordQueue nextWords(Context context) {
+        NextWordQueue queue = nextWords;
+        if (queue == null) {
+            synchronized (this) {
+                if (nextWords == null) {
+                    nextWords = new NextWordQueue(new File(context.getFilesDir(), "next_words"));
+                }
+                queue = nextWords;
+            }
+        }
+        return queue;
+    }
+
+    /** Rewrites the queue with indexes of deck. context may be null once the queue exists. */
+    void writeNextWords(Context context, Deck deck, int[] indexes) {
+        NextWordQueue queue = context != null ? nextWords(context) : nextWords;
+        if (queue == null) {
+            return;
+        }
+        writer.execute(() -> {
+            try {
+                queue.write(deck.id, deck.store, indexes, indexes.length);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+}
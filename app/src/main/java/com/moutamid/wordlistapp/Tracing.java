@@ -0,0 +1,47 @@
+package com.moutamid.wordlistapp;
+
+import com.moutamid.wordlistapp.core.Tracer;
+
+/**
+ * The app's spans and counters, created once so recording them never allocates. Long-press the
+ * word on the main screen to see the percentiles.
+ */
+public final class Tracing {
+    public static final Tracer TRACER = new Tracer(Tracer.Ticker.SYSTEM, new AndroidTraceSink());
+
+    // Cold start
+    public static final Tracer.Span MAIN_ON_CREATE = TRACER.span("MainActivity.onCreate");
+    public static final Tracer.Span TEXT_TO_SPEECH = TRACER.span("MainActivity.textToSpeech");
+    public static final Tracer.Span NOTIFICATION_CHANNEL = TRACER.span("MainActivity.createNotificationChannel");
+    public static final Tracer.Span CHECK_APP = TRACER.span("RemoteConfig.checkApp");
+    public static final Tracer.Span LOAD_WORDS = TRACER.span("WordListSingleton.load");
+
+    // Main screen
+    /** Main-thread time from a double tap to the next card being on screen. */
+    public static final Tracer.Span NEXT_CARD = TRACER.span("MainActivity.showNextCard");
+    public static final Tracer.Counter CARDS_PREFETCHED = TRACER.counter("cards.prefetched");
+    public static final Tracer.Counter CARDS_PICKED_ON_TAP = TRACER.counter("cards.pickedOnTap");
+    /** Search-thread time to pick a quiz question's wrong answers, including any index build. */
+    public static final Tracer.Span QUESTION = TRACER.span("WordListSingleton.question");
+    /** Loader-thread time to apply downloaded patches to a deck and swap it in. */
+    public static final Tracer.Span PATCH_DECK = TRACER.span("WordListSingleton.patchDeck");
+
+    // Notification paths
+    public static final Tracer.Span RESEND_ON_RECEIVE = TRACER.span("ResendNotificationReceiver.onReceive");
+    /** From the alarm arriving to the posted notification, including any dictionary load. */
+    public static final Tracer.Span RESEND_TO_POSTED = TRACER.span("ResendNotificationReceiver.toPosted");
+    public static final Tracer.Span SEND_NOTIFICATION = TRACER.span("NotificationRenderer.post");
+    public static final Tracer.Span DISMISSED_ON_RECEIVE = TRACER.span("NotificationDismissedReceiver.onReceive");
+    public static final Tracer.Span BOOT_ON_RECEIVE = TRACER.span("BootReceiver.onReceive");
+    public static final Tracer.Span REQUEST_NOTIFICATION = TRACER.span("WordNotificationScheduler.requestNotification");
+    public static final Tracer.Counter ALARMS = TRACER.counter("notifications.alarms");
+    public static final Tracer.Counter POSTED = TRACER.counter("notifications.posted");
+    public static final Tracer.Counter DISMISSED = TRACER.counter("notifications.dismissed");
+    /** Notifications whose word came from the next-word queue instead of a loaded deck. */
+    public static final Tracer.Counter QUEUED_WORDS = TRACER.counter("notifications.queued");
+    /** Posts the renderer skipped because a newer update replaced them or they were already showing. */
+    public static final Tracer.Counter POSTS_AVOIDED = TRACER.counter("notifications.postsAvoided");
+    public static final Tracer.Counter INTENTS_REUSED = TRACER.counter("notifications.intentsReused");
+
+    private Tracing() {}
+}
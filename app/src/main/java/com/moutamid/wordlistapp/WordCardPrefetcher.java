@@ -0,0 +1,84 @@
+package com.moutamid.wordlistapp;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.moutamid.wordlistapp.core.CardPrefetcher;
+import com.moutamid.wordlistapp.core.NextWordQueue;
+import com.moutamid.wordlistapp.core.WordStore;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The cards the main screen shows on a double tap, kept ready by a {@link CardPrefetcher}. The
+ * cards to come are picked from the active deck on the main thread, their strings read on a
+ * background thread and their pronunciations warmed as they arrive. Main thread only.
+ */
+public class WordCardPrefetcher {
+    private static final int CAPACITY = 4;
+    private static final int HISTORY = 32;
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor();
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final CardPrefetcher cards;
+
+    public WordCardPrefetcher(Pronouncer pronouncer) {
+        cards = new CardPrefetcher(CAPACITY, HISTORY, new ActiveDeck(), EXECUTOR, mainHandler::post,
+                new CardPrefetcher.Listener() {
+                    @Override
+                    public void onReady(NextWordQueue.Entry card) {
+                        pronouncer.prefetch(card.word());
+                    }
+
+                    @Override
+                    public void onTaken(NextWordQueue.Entry card, boolean prefetched) {
+                        (prefetched ? Tracing.CARDS_PREFETCHED : Tracing.CARDS_PICKED_ON_TAP).increment();
+                    }
+                });
+    }
+
+    /** See {@link CardPrefetcher#next}. */
+    public NextWordQueue.Entry next(WordStore current) {
+        return cards.next(current);
+    }
+
+    public NextWordQueue.Entry back() {
+        return cards.back();
+    }
+
+    public void shown(NextWordQueue.Entry card) {
+        cards.shown(card);
+    }
+
+    public void refill(WordStore current) {
+        cards.refill(current);
+    }
+
+    /** Discards pending fills; call it before the pronouncer shuts down. */
+    public void close() {
+        cards.close();
+    }
+
+    private static final class ActiveDeck implements CardPrefetcher.Picker {
+        @Override
+        public String deckId() {
+            return WordListSingleton.getInstance().activeDeckId();
+        }
+
+        @Override
+        public int peek(WordStore store) {
+            return WordListSingleton.getInstance().peekWordIndex(store);
+        }
+
+        @Override
+        public int next(WordStore store) {
+            return WordListSingleton.getInstance().nextWordIndex(store);
+        }
+
+        @Override
+        public int upcoming(WordStore store, int[] indexes) {
+            return WordListSingleton.getInstance().upcomingWordIndexes(store, indexes);
+        }
+    }
+}
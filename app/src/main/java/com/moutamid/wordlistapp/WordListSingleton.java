@@ -1,25 +1,496 @@
 package com.moutamid.wordlistapp;
 
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.moutamid.wordlistapp.core.BinaryDictionary;
+import com.moutamid.wordlistapp.core.DeckPatch;
+import com.moutamid.wordlistapp.core.DictionaryLoader;
+import com.moutamid.wordlistapp.core.DictionarySnapshots;
+import com.moutamid.wordlistapp.core.NextWordQueue;
+import com.moutamid.wordlistapp.core.PackedWordStore;
+import com.moutamid.wordlistapp.core.ReviewJournal;
+import com.moutamid.wordlistapp.core.ReviewScheduler;
+import com.moutamid.wordlistapp.core.WeightedSampler;
+import com.moutamid.wordlistapp.core.WordStats;
+import com.moutamid.wordlistapp.core.WordStore;
+
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
+/**
+ * Process-wide word store. The active deck is loaded once on a background thread and every
+ * component waits on the same load instead of reading its own copy.
+ *
+ * <p>The store is published as an immutable snapshot, so reads never lock and a new deck can be
+ * swapped in while receivers are reading. Read the store once per operation and use that instance
+ * for both the index and the strings.
+ *
+ * <p>There can be several {@link Decks}, kept in memory by {@link ResidentDecks}. A cold deck is
+ * opened on the loader thread and shown before its review state is restored. Receivers only ever
+ * open the deck they were given.
+ *
+ * <p>Which word comes next is decided by a {@link ReviewScheduler} over the current store. The
+ * scheduler is main-thread only, like every caller of {@link #nextWordIndex} and {@link #grade}.
+ * Review state for each deck is restored from its own {@link ReviewJournal} while it loads, and
+ * every shown word and grade is appended to that journal off the main thread, by
+ * {@link ReviewJournals}, along with the {@link DeckStatistics}.
+ *
+ * <p>The next words of the active deck are also kept in a {@link NextWordQueue}, rewritten
+ * whenever the active deck changes its mind. A notification in a process started just for it
+ * takes its word from there without opening the deck; the deck catches up on those words the
+ * next time it is restored.
+ *
+ * <p>Notifications can instead come in a weighted shuffle: a {@link WeightedSampler} over the
+ * active deck favours words that have been hard and never repeats one of the last
+ * {@value #SHUFFLE_WINDOW}. Shown words still count as shown for the scheduler.
+ *
+ * <p>Searches, quiz questions and reverse lookups run on the thread of {@link DeckSearch};
+ * downloaded decks are patched by {@link DeckPatcher}.
+ */
 public class WordListSingleton {
-    private static WordListSingleton instance;
-    private List<String[]> wordsList;
+    // One SM-2 step. SM-2 uses a day; notifications arrive every minute, so steps are shorter.
+    static final long REVIEW_STEP_MILLIS = 10 * 60 * 1000;
+    static final int SHUFFLE_WINDOW = 50;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final DictionarySnapshots snapshots = new DictionarySnapshots();
+    // Opens every deck, one at a time, including the first load.
+    private final Executor deckLoader = Executors.newSingleThreadExecutor();
+    private final DictionaryLoader loader = new DictionaryLoader(snapshots, deckLoader, mainHandler::post);
+    private final ReviewJournals journals = new ReviewJournals();
+    private final ResidentDecks residents = new ResidentDecks(journals);
+    private final DeckSearch search = new DeckSearch(snapshots, mainHandler);
+    private final DeckStatistics statistics = new DeckStatistics(journals, search.executor(), mainHandler);
+    private final DeckPatcher patcher = new DeckPatcher(deckLoader, residents, journals, search, snapshots);
+    // For stores without saved state, such as the first chunk shown while loading.
+    private ReviewScheduler scratchScheduler;
+    private WordStore scratchStore;
+    private final Random random = new Random();
 
     private WordListSingleton() {}
 
-    public static synchronized WordListSingleton getInstance() {
-        if (instance == null) {
-            instance = new WordListSingleton();
+    private static class Holder {
+        static final WordListSingleton INSTANCE = new WordListSingleton();
+    }
+
+    public static WordListSingleton getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /** Starts loading the active deck unless someone already has. Call it on the main thread. */
+    public void load(Context context) {
+        Context appContext = context.getApplicationContext();
+        residents.registerTrimCallbacks(appContext);
+        loader.load(firstChunk -> {
+            long span = Tracing.LOAD_WORDS.begin();
+            try {
+                String id = residents.activateSaved(appContext);
+                Deck deck = residents.restore(appContext, id, Decks.open(appContext, id, firstChunk));
+                residents.put(id, deck);
+                residents.setActive(deck);
+                search.index(deck.store);
+                return deck.store;
+            } finally {
+                Tracing.LOAD_WORDS.end(span);
+            }
+        });
+    }
+
+    /** Called on the main thread with the full store. */
+    public void whenReady(DictionaryLoader.Listener listener) {
+        loader.whenReady(listener);
+    }
+
+    /** Called on the main thread as soon as some words can be shown. */
+    public void whenFirstWords(DictionaryLoader.Listener listener) {
+        loader.whenFirstWords(listener);
+    }
+
+    /** Returns the loaded store, or null while it is still loading. */
+    public WordStore getWordStore() {
+        return loader.getStore();
+    }
+
+    /** Returns the current store, empty while it is still loading. Never blocks. */
+    public WordStore currentStore() {
+        return snapshots.current().store();
+    }
+
+    /** Atomically replaces the store, e.g. with an edited list. It has no saved review state. */
+    public void setWordStore(WordStore wordStore) {
+        snapshots.publish(wordStore != null ? wordStore : PackedWordStore.EMPTY);
+    }
+
+    /** The deck the current store belongs to. */
+    public String activeDeckId() {
+        String id = residents.activeId();
+        return id != null ? id : Decks.BUNDLED;
+    }
+
+    /**
+     * Makes id the active deck, for now and later starts. A resident deck is swapped in at once; a
+     * cold one is opened on the loader thread and published as soon as its first words can be
+     * read, before its review state is restored. listener gets the first store published, on the
+     * main thread. Call it on the main thread.
+     */
+    public void switchDeck(Context context, String id, DictionaryLoader.Listener listener) {
+        Context appContext = context.getApplicationContext();
+        residents.activate(appContext, id);
+        Deck resident = residents.get(id);
+        if (resident != null) {
+            residents.setActive(resident);
+            snapshots.publish(resident.store);
+            writeNextWords(appContext, resident);
+            listener.onWords(resident.store);
+            return;
+        }
+        deckLoader.execute(() -> {
+            boolean[] shown = {false};
+            DictionaryLoader.Listener publish = words -> {
+                if (!id.equals(residents.activeId())) {
+                    return; // Switched again in the meantime.
+                }
+                snapshots.publish(words);
+                if (!shown[0]) {
+                    shown[0] = true;
+                    mainHandler.post(() -> listener.onWords(words));
+                }
+            };
+            try {
+                BinaryDictionary store = Decks.open(appContext, id, publish);
+                publish.onWords(store);
+                Deck deck = residents.restore(appContext, id, store);
+                residents.put(id, deck);
+                if (id.equals(residents.activeId())) {
+                    residents.setActive(deck);
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Forgets a deck whose file was just replaced, review state included, then switches to it.
+     * Call it on the main thread.
+     */
+    public void replaceDeck(Context context, String id, DictionaryLoader.Listener listener) {
+        Context appContext = context.getApplicationContext();
+        Deck current = residents.active();
+        if (current != null && current.id.equals(id)) {
+            residents.setActive(null);
+        }
+        deckLoader.execute(() -> {
+            residents.remove(id);
+            journals.delete(appContext, id);
+            mainHandler.post(() -> switchDeck(appContext, id, listener));
+        });
+    }
+
+    /**
+     * Applies patches, in order, to the file of deck id and swaps the patched deck in for the old
+     * one. Stops at the first patch that fails; those before it stay applied. Runs on the loader
+     * thread; call it from any thread.
+     */
+    public void patchDeck(Context context, String id, List<DeckPatch> patches) {
+        patcher.patch(context, id, patches);
+    }
+
+    /** Releases decks other than the active one, all of them under real pressure. */
+    public void onTrimMemory(int level) {
+        residents.onTrimMemory(level);
+    }
+
+    /** Picks the index of the next word to show from store, or -1 if it is empty. */
+    public int nextWordIndex(WordStore store) {
+        long now = System.currentTimeMillis();
+        Deck deck = residents.active();
+        if (deck != null && deck.store == store) {
+            int index = deck.scheduler.next(now);
+            if (index >= 0 && deck.journal != null) {
+                deck.journal.recordShown(index, now);
+            }
+            statistics.record(deck, index, WordStats.Event.SHOWN, now);
+            writeNextWords(null, deck);
+            return index;
+        }
+        return scratchScheduler(store).next(now);
+    }
+
+    /**
+     * Picks the next count words for a notification and hands them to listener on the main thread,
+     * fewer if the deck is smaller. In a process that has not loaded anything, the words come from
+     * the {@link NextWordQueue}, which costs a few small reads each whatever the size of the deck;
+     * only if the queue is empty is the deck loaded. Call it on the main thread.
+     */
+    public void nextNotificationWords(Context context, int count, WordsListener listener) {
+        Context appContext = context.getApplicationContext();
+        if (loader.isStarted()) {
+            whenReady(store -> listener.onWords(nextWords(currentStore(), count)));
+            return;
+        }
+        journals.execute(() -> {
+            List<NextWordQueue.Entry> entries = new ArrayList<>(count);
+            long now = System.currentTimeMillis();
+            NextWordQueue queue = journals.nextWords(appContext);
+            for (NextWordQueue.Entry entry; entries.size() < count && (entry = queue.poll(now)) != null; ) {
+                entries.add(entry);
+            }
+            mainHandler.post(() -> {
+                if (!entries.isEmpty()) {
+                    Tracing.QUEUED_WORDS.add(entries.size());
+                    listener.onWords(entries);
+                    return;
+                }
+                load(appContext);
+                whenReady(store -> listener.onWords(nextWords(currentStore(), count)));
+            });
+        });
+    }
+
+    private List<NextWordQueue.Entry> nextWords(WordStore store, int count) {
+        List<NextWordQueue.Entry> entries = new ArrayList<>(count);
+        String deckId = activeDeckId();
+        Deck deck = residents.active();
+        boolean sampled = residents.isShuffle() && deck != null && deck.store == store;
+        for (int i = 0; i < Math.min(count, store.size()); i++) {
+            int index = sampled ? sampleWordIndex(deck) : nextWordIndex(store);
+            if (index < 0) {
+                break; // Every word has been removed.
+            }
+            NextWordQueue.Entry entry = new NextWordQueue.Entry(deckId, index, store.word(index), store.translation(index));
+            if (entries.contains(entry)) {
+                break; // Everything else is further off than this one again.
+            }
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    // The weighted shuffle's counterpart of nextWordIndex.
+    private int sampleWordIndex(Deck deck) {
+        int index = deck.sampler().next(random);
+        if (index < 0) {
+            return nextWordIndex(deck.store); // Every word has been held out
+        }
+        long now = System.currentTimeMillis();
+        deck.scheduler.markShown(index, now);
+        if (deck.journal != null) {
+            deck.journal.recordShown(index, now);
+        }
+        statistics.record(deck, index, WordStats.Event.SHOWN, now);
+        writeNextWords(null, deck);
+        return index;
+    }
+
+    /** Whether notifications come in a weighted shuffle rather than in review order. */
+    public boolean isShuffle() {
+        return residents.isShuffle();
+    }
+
+    /** Switches notifications between review order and a weighted shuffle. Call it on the main thread. */
+    public void setShuffle(Context context, boolean on) {
+        Context appContext = context.getApplicationContext();
+        residents.setShuffle(appContext, on);
+        Deck deck = residents.active();
+        if (deck != null) {
+            writeNextWords(appContext, deck);
         }
-        return instance;
     }
 
-    public List<String[]> getWordsList() {
-        return wordsList;
+    /** The index {@link #nextWordIndex} would pick from store, without showing it; -1 if it is empty. */
+    public int peekWordIndex(WordStore store) {
+        Deck deck = residents.active();
+        if (deck != null && deck.store == store) {
+            return deck.scheduler.peek(System.currentTimeMillis());
+        }
+        return scratchScheduler(store).peek(System.currentTimeMillis());
+    }
+
+    /** Fills indexes with the entries of store {@link #nextWordIndex} would pick next, in order, without showing them. */
+    public int upcomingWordIndexes(WordStore store, int[] indexes) {
+        Deck deck = residents.active();
+        if (deck != null && deck.store == store) {
+            return deck.scheduler.upcoming(indexes, System.currentTimeMillis());
+        }
+        return scratchScheduler(store).upcoming(indexes, System.currentTimeMillis());
+    }
+
+    /**
+     * Feeds a review result for an entry of deckId into that deck's scheduler, or into the current
+     * store's if deckId is null. A deck that is not resident is looked for and opened on the loader
+     * thread, on its own, never the others. done, which may be null, runs on the journal thread
+     * once the grade and the deck's statistics are on disk.
+     */
+    public void grade(Context context, String deckId, int index, ReviewScheduler.Grade grade, Runnable done) {
+        Deck resident = deckId != null ? residents.get(deckId) : null;
+        if (deckId == null || resident != null) {
+            if (resident != null) {
+                grade(resident, index, grade);
+            } else {
+                gradeCurrent(index, grade);
+            }
+            if (done != null) {
+                statistics.save(resident != null ? resident : residents.active(), done);
+            }
+            return;
+        }
+        Context appContext = context.getApplicationContext();
+        deckLoader.execute(() -> {
+            Deck deck = residents.get(deckId);
+            if (deck == null && Decks.exists(appContext, deckId)) {
+                try {
+                    deck = residents.restore(appContext, deckId, Decks.open(appContext, deckId, null));
+                    residents.put(deckId, deck);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            Deck loaded = deck;
+            mainHandler.post(() -> {
+                if (loaded != null) {
+                    grade(loaded, index, grade);
+                }
+                if (done != null) {
+                    statistics.save(loaded, done);
+                }
+            });
+        });
+    }
+
+    private void grade(Deck deck, int index, ReviewScheduler.Grade grade) {
+        // A word a patch has removed since it was shown is not brought back.
+        if (index < 0 || index >= deck.store.size() || deck.store.isRemoved(index)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        deck.scheduler.grade(index, grade, now);
+        if (deck.journal != null) {
+            deck.journal.recordGrade(index, grade, now);
+        }
+        if (deck.sampler != null) {
+            deck.sampler.setWeight(index, deck.scheduler.difficulty(index));
+        }
+        statistics.record(deck, index, DeckStatistics.eventOf(grade), now);
+        if (deck == residents.active()) {
+            writeNextWords(null, deck);
+        }
+    }
+
+    /**
+     * Saves the active deck's statistics on the journal thread, then runs done, which may be null,
+     * there. For when the process may be killed before the next roll-up.
+     */
+    public void saveStatistics(Runnable done) {
+        statistics.save(residents.active(), done);
+    }
+
+    /** Lists the decks, as {@link Decks#list} does, on the journal thread and posts their ids to the main thread. */
+    public void deckIds(Context context, DecksListener listener) {
+        Context appContext = context.getApplicationContext();
+        journals.execute(() -> {
+            List<String> ids = Decks.list(appContext);
+            mainHandler.post(() -> listener.onDecks(ids));
+        });
+    }
+
+    /**
+     * Summarises the active deck's statistics on the search thread and posts the text to the main
+     * thread: today's totals and the hardest words.
+     */
+    public void statistics(int hardest, StatisticsListener listener) {
+        statistics.summarise(residents.active(), hardest, listener);
+    }
+
+    private void gradeCurrent(int index, ReviewScheduler.Grade grade) {
+        WordStore store = currentStore();
+        Deck deck = residents.active();
+        if (deck != null && deck.store == store) {
+            grade(deck, index, grade);
+        } else if (index >= 0 && index < store.size()) {
+            scratchScheduler(store).grade(index, grade, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Looks up entries of the current store whose word or translation starts with prefix and posts
+     * up to limit of them to the main thread. Meant to be called on every keystroke: a search that
+     * is overtaken by a newer one is never delivered.
+     */
+    public void search(String prefix, int limit, SearchListener listener) {
+        search.search(prefix, limit, listener);
+    }
+
+    /**
+     * Picks options - 1 wrong translations for entry index of store that look like the right one,
+     * and posts all the options, the right one at a random place, to the main thread. Runs on the
+     * search thread, which builds the deck's distractor index for the first question.
+     */
+    public void question(WordStore store, int index, int options, QuestionListener listener) {
+        search.question(store, index, options, listener);
+    }
+
+    /**
+     * For a translation-first notification: the word of entry followed by the other words of its
+     * deck with the same translation, joined. Just the word until the deck's lookup index is built;
+     * the first call starts building it on the search thread.
+     */
+    public String answersFor(NextWordQueue.Entry entry) {
+        return search.answersFor(residents.active(), entry);
+    }
+
+    /** Starts building the active deck's lookup index, so reverse notifications list every word. */
+    public void prepareReverse() {
+        Deck deck = residents.active();
+        if (deck != null) {
+            search.lookup(deck);
+        }
+    }
+
+    /** Drops any search that has not been delivered yet. */
+    public void cancelSearch() {
+        search.cancel();
+    }
+
+    private ReviewScheduler scratchScheduler(WordStore store) {
+        if (scratchScheduler == null || scratchStore != store) {
+            scratchScheduler = new ReviewScheduler(store.size(), REVIEW_STEP_MILLIS, new Random());
+            scratchStore = store;
+        }
+        return scratchScheduler;
+    }
+
+    /** Rewrites the queue with the active deck's next words. context may be null once the queue exists. */
+    private void writeNextWords(Context context, Deck deck) {
+        journals.writeNextWords(context, deck, deck.nextWords(residents.isShuffle(), random));
+    }
+
+    /** Receives the words for a notification on the main thread, none if the deck is empty. */
+    public interface WordsListener {
+        void onWords(List<NextWordQueue.Entry> entries);
+    }
+
+    /** Receives a quiz question on the main thread: answer and the options are entry indexes into store. */
+    public interface QuestionListener {
+        void onQuestion(WordStore store, int answer, int[] options);
+    }
+
+    public interface DecksListener {
+        void onDecks(List<String> ids);
+    }
+
+    public interface StatisticsListener {
+        void onStatistics(String summary);
     }
 
-    public void setWordsList(List<String[]> wordsList) {
-        this.wordsList = wordsList;
+    /** Receives search results on the main thread, as entry indexes into store. */
+    public interface SearchListener {
+        void onResults(WordStore store, int[] entries);
     }
 }
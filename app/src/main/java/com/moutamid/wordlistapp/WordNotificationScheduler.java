@@ -0,0 +1,97 @@
+package com.moutamid.wordlistapp;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.moutamid.wordlistapp.core.Clock;
+import com.moutamid.wordlistapp.core.NotificationScheduler;
+import com.moutamid.wordlistapp.core.WakeupStats;
+
+/**
+ * The one place word notifications are scheduled. Opening the app, dismissing a notification and
+ * booting all request a notification here; the request is folded into the pending alarm when it
+ * can be, otherwise a windowed alarm aimed at {@link ResendNotificationReceiver} is armed.
+ */
+public class WordNotificationScheduler {
+    private static final String TAG = "WordNotifications";
+    private static final long DELAY_MILLIS = 60000; // 1 minute
+    private static final long WINDOW_MILLIS = 60000; // May fire a minute late so Android can batch it with other wakeups
+    private static final String PREFS_NAME = "notification_scheduler";
+    private static final String KEY_NEXT_FIRE = "next_fire_at";
+
+    private static WordNotificationScheduler instance;
+    private final Context context;
+    private final SharedPreferences prefs;
+    private final NotificationScheduler scheduler;
+
+    private WordNotificationScheduler(Context context) {
+        this.context = context.getApplicationContext();
+        prefs = this.context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        scheduler = new NotificationScheduler(Clock.SYSTEM, new WindowedAlarm(), WINDOW_MILLIS, new WakeupStats(Clock.SYSTEM));
+        scheduler.restore(prefs.getLong(KEY_NEXT_FIRE, NotificationScheduler.NONE)); // Armed by an earlier process
+    }
+
+    public static synchronized WordNotificationScheduler getInstance(Context context) {
+        if (instance == null) {
+            instance = new WordNotificationScheduler(context);
+        }
+        return instance;
+    }
+
+    /** Asks for a word notification in about a minute. */
+    public void requestNotification() {
+        long span = Tracing.REQUEST_NOTIFICATION.begin();
+        scheduler.request(DELAY_MILLIS);
+        Tracing.REQUEST_NOTIFICATION.end(span);
+    }
+
+    /** Alarms do not survive a reboot, so forget the pending one and arm a new alarm. */
+    public void rearmAfterBoot() {
+        scheduler.restore(NotificationScheduler.NONE);
+        scheduler.request(DELAY_MILLIS);
+    }
+
+    public void onAlarm() {
+        scheduler.onAlarm();
+        prefs.edit().remove(KEY_NEXT_FIRE).apply();
+    }
+
+    public void onNotificationPosted() {
+        scheduler.stats().recordNotification();
+        Log.d(TAG, scheduler.stats().toString());
+    }
+
+    public WakeupStats getStats() {
+        return scheduler.stats();
+    }
+
+    private PendingIntent alarmIntent() {
+        Intent intent = new Intent(context, ResendNotificationReceiver.class);
+        return PendingIntent.getBroadcast(context, 0, intent, PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+    }
+
+    private class WindowedAlarm implements NotificationScheduler.Alarm {
+        @Override
+        public void set(long earliest, long window) {
+            AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+            if (alarmManager != null) {
+                // Same request code and intent, so this replaces any pending alarm instead of adding one
+                alarmManager.setWindow(AlarmManager.RTC_WAKEUP, earliest, window, alarmIntent());
+                prefs.edit().putLong(KEY_NEXT_FIRE, earliest).apply();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+            if (alarmManager != null) {
+                alarmManager.cancel(alarmIntent());
+            }
+            prefs.edit().remove(KEY_NEXT_FIRE).apply();
+        }
+    }
+}
@@ -1,146 +0,0 @@
-package com.moutamid.wordlistapp;
-
-import android.app.NotificationChannel;
-import android.app.NotificationManager;
-import android.app.PendingIntent;
-import android.app.Service;
-import android.content.Intent;
-import android.os.Build;
-import android.os.Handler;
-import android.os.IBinder;
-import android.os.Looper;
-import android.speech.tts.TextToSpeech;
-import android.widget.Toast;
-
-import androidx.annotation.Nullable;
-import androidx.core.app.NotificationCompat;
-import androidx.core.app.NotificationManagerCompat;
-
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.List;
-import java.util.Locale;
-import java.util.Random;
-
-public class WordNotificationService extends Service {
-
-    private static final String CHANNEL_ID = "word_app_channel";
-    private Handler handler;
-    private Runnable notificationRunnable;
-    private TextToSpeech textToSpeech;
-    private Random random;
-    private List<String[]> wordsList;
-
-    @Override
-    public void onCreate() {
-        super.onCreate();
-        handler = new Handler(Looper.getMainLooper());
-        random = new Random();
-        createNotificationChannel();
-        loadWords();
-
-        textToSpeech = new TextToSpeech(this, status -> {
-            if (status == TextToSpeech.SUCCESS) {
-                int result = textToSpeech.setLanguage(Locale.US); // Set language to US English
-                if (result == TextToSpeech.LANG_MISSING_DATA || result == TextToSpeech.LANG_NOT_SUPPORTED) {
-                    Toast.makeText(this, "Language not supported", Toast.LENGTH_SHORT).show();
-                }
-            } else {
-                Toast.makeText(this, "Text-to-Speech initialization failed", Toast.LENGTH_SHORT).show();
-            }
-        });
-
-        notificationRunnable = () -> {
-            sendNotification();
-        };
-
-        startNotificationTimer();
-    }
-
-    @Override
-    public int onStartCommand(Intent intent, int flags, int startId) {
-        // Restart the timer if the service is killed and restarted
-        handler.removeCallbacks(notificationRunnable);
-        startNotificationTimer();
-        return START_STICKY;
-    }
-
-    private void startNotificationTimer() {
-        handler.postDelayed(notificationRunnable, 60000); // 1 minute
-    }
-
-    private void sendNotification() {
-        if (!wordsList.isEmpty()) {
-            int index = random.nextInt(wordsList.size());
-            String[] wordPair = wordsList.get(index);
-
-            Intent mainIntent = new Intent(this, MainActivity.class);
-            mainIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
-            mainIntent.putExtra("WORD", wordPair[0]);
-            mainIntent.putExtra("TRANSLATION", wordPair[1]);
-            PendingIntent pendingIntent = PendingIntent.getActivity(this, 0, mainIntent, PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
-
-            Intent deleteIntent = new Intent(this, NotificationDismissedReceiver.class);
-            PendingIntent deletePendingIntent = PendingIntent.getBroadcast(this, 0, deleteIntent, PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
-
-            NotificationCompat.Builder builder = new NotificationCompat.Builder(this, CHANNEL_ID)
-                    .setSmallIcon(R.drawable.ic_launcher_background)
-                    .setContentTitle(wordPair[0])
-                    .setContentText("Translation: " + wordPair[1])
-                    .setPriority(NotificationCompat.PRIORITY_HIGH)
-                    .setAutoCancel(true)
-                    .setContentIntent(pendingIntent)
-                    .setDeleteIntent(deletePendingIntent);
-
-            NotificationManagerCompat notificationManager = NotificationManagerCompat.from(this);
-            notificationManager.notify(1, builder.build());
-        }
-    }
-
-    private void loadWords() {
-        try {
-            InputStream inputStream = getResources().openRawResource(R.raw.words); // Load words from res/raw/words.txt
-            BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split("=");
-                if (parts.length == 2) {
-                    wordsList.add(parts);
-                }
-            }
-            reader.close();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    }
-
-    private void createNotificationChannel() {
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-            CharSequence name = "Word Notification Channel";
-            String description = "Channel for Word App notifications";
-            int importance = NotificationManager.IMPORTANCE_HIGH;
-            NotificationChannel channel = new NotificationChannel(CHANNEL_ID, name, importance);
-            channel.setDescription(description);
-            NotificationManager notificationManager = getSystemService(NotificationManager.class);
-            notificationManager.createNotificationChannel(channel);
-        }
-    }
-
-    @Nullable
-    @Override
-    public IBinder onBind(Intent intent) {
-        return null; // We don't provide binding, so return null
-    }
-
-    @Override
-    public void onDestroy() {
-        super.onDestroy();
-        handler.removeCallbacks(notificationRunnable);
-        if (textToSpeech != null) {
-            textToSpeech.stop();
-            textToSpeech.shutdown();
-        }
-    }
-}
@@ -0,0 +1,31 @@
+plugins {
+    id("java")
+    id("me.champeau.jmh")
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+dependencies {
+    jmh(project(":core"))
+}
+
+// ./gradlew :benchmark:jmh writes build/results/jmh/results.json; keep one per commit to compare.
+// Narrow a run with -Pjmh.includes=Search
+jmh {
+    jmhVersion.set("1.37")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    timeUnit.set("us")
+    jvmArgs.add("-Xmx2g")
+    (findProperty("jmh.includes") as String?)?.let { includes.add(it) }
+}
@@ -0,0 +1,158 @@
+package com.moutamid.wordlistapp.benchmark;
+
+import com.moutamid.wordlistapp.core.CardPrefetcher;
+import com.moutamid.wordlistapp.core.NextWordQueue;
+import com.moutamid.wordlistapp.core.ReviewScheduler;
+import com.moutamid.wordlistapp.core.WordStore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Main-thread time per double tap on a 200k-word deck whose strings are read from disk: picking
+ * and reading the next card on the spot, against taking it from a {@link CardPrefetcher}. The
+ * prefetcher's reads run between taps, outside the measurement, as its reader thread would.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CardPrefetchBenchmark {
+
+    private static final int WORDS = 200_000;
+    private static final int RECORD_BYTES = 64;
+
+    private File file;
+    private DiskStore store;
+    private ReviewScheduler scheduler;
+    private CardPrefetcher cards;
+    private final Queue<Runnable> reads = new ArrayDeque<>();
+    private long now;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = File.createTempFile("card-prefetch-benchmark", ".bin");
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            byte[] record = new byte[RECORD_BYTES];
+            for (int i = 0; i < WORDS; i++) {
+                Arrays.fill(record, (byte) 0);
+                byte[] word = ("word" + i).getBytes(StandardCharsets.UTF_8);
+                byte[] translation = ("translation" + i).getBytes(StandardCharsets.UTF_8);
+                record[0] = (byte) word.length;
+                System.arraycopy(word, 0, record, 1, word.length);
+                record[32] = (byte) translation.length;
+                System.arraycopy(translation, 0, record, 33, translation.length);
+                out.write(record);
+            }
+        }
+        store = new DiskStore(new RandomAccessFile(file, "r"));
+        scheduler = new ReviewScheduler(WORDS, 60_000, new Random(1));
+        cards = new CardPrefetcher(4, 32, new CardPrefetcher.Picker() {
+            @Override
+            public String deckId() {
+                return "deck";
+            }
+
+            @Override
+            public int peek(WordStore current) {
+                return scheduler.peek(now);
+            }
+
+            @Override
+            public int next(WordStore current) {
+                return scheduler.next(now);
+            }
+
+            @Override
+            public int upcoming(WordStore current, int[] indexes) {
+                return scheduler.upcoming(indexes, now);
+            }
+        }, reads::add, Runnable::run, new CardPrefetcher.Listener() {
+            @Override
+            public void onReady(NextWordQueue.Entry card) {
+            }
+
+            @Override
+            public void onTaken(NextWordQueue.Entry card, boolean prefetched) {
+            }
+        });
+    }
+
+    // The reader thread's share, between taps.
+    @Setup(Level.Invocation)
+    public void readAhead() {
+        now += 1000;
+        for (Runnable read; (read = reads.poll()) != null; ) {
+            read.run();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        store.in.close();
+        file.delete();
+    }
+
+    @Benchmark
+    public NextWordQueue.Entry prefetchedTap() {
+        return cards.next(store);
+    }
+
+    @Benchmark
+    public NextWordQueue.Entry directTap() {
+        int index = scheduler.next(now);
+        return new NextWordQueue.Entry("deck", index, store.word(index), store.translation(index));
+    }
+
+    /** Every lookup is a read from the file, like a store too large to keep in memory. */
+    private static final class DiskStore implements WordStore {
+        final RandomAccessFile in;
+        private final byte[] record = new byte[RECORD_BYTES];
+
+        DiskStore(RandomAccessFile in) {
+            this.in = in;
+        }
+
+        @Override
+        public int size() {
+            return WORDS;
+        }
+
+        @Override
+        public String word(int index) {
+            return field(index, 0);
+        }
+
+        @Override
+        public String translation(int index) {
+            return field(index, 32);
+        }
+
+        private String field(int index, int at) {
+            try {
+                in.seek((long) index * RECORD_BYTES);
+                in.readFully(record);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return new String(record, at + 1, record[at], StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.moutamid.wordlistapp.benchmark;
+
+import com.moutamid.wordlistapp.core.DeckImporter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Importing a 1M-line TSV deck with {@link DeckImporter} on 1, 2, 4 and 8 pool threads. Scores are
+ * lines per second; the deck is read from memory so the disk only sees the output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DeckImportBenchmark {
+
+    private static final int LINES = 1_000_000;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private byte[] deck;
+    private ForkJoinPool pool;
+    private File target;
+
+    @Setup
+    public void setUp() throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < LINES; i++) {
+            lines.append("word").append(i).append('\t').append("traducción").append(i).append('\n');
+        }
+        deck = lines.toString().getBytes(StandardCharsets.UTF_8);
+        pool = new ForkJoinPool(threads);
+        target = File.createTempFile("deck-import-benchmark", ".wdict");
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+        target.delete();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public int importDeck() throws IOException {
+        return new DeckImporter(pool).importTo(new ByteArrayInputStream(deck), deck.length, target, null).entries();
+    }
+}
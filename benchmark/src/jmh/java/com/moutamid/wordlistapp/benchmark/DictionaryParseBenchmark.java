@@ -0,0 +1,84 @@
+package com.moutamid.wordlistapp.benchmark;
+
+import com.moutamid.wordlistapp.core.BinaryDictionary;
+import com.moutamid.wordlistapp.core.DictionaryCompiler;
+import com.moutamid.wordlistapp.core.PackedWordStore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a deck: the original line.split("=") loop into a List&lt;String[]&gt;, the indexOf parser
+ * of {@link DictionaryCompiler}, and opening the compiled binary dictionary.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DictionaryParseBenchmark {
+
+    @Param({"10000", "200000"})
+    public int entries;
+
+    private String text;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() {
+        StringBuilder lines = new StringBuilder();
+        DictionaryCompiler compiler = new DictionaryCompiler();
+        for (int i = 0; i < entries; i++) {
+            String word = "word" + i;
+            String translation = "traducción" + i;
+            lines.append(word).append('=').append(translation).append('\n');
+            compiler.add(word, translation);
+        }
+        text = lines.toString();
+        binary = compiler.toByteArray();
+    }
+
+    @Benchmark
+    public List<String[]> splitLoop() throws IOException {
+        List<String[]> wordsList = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new StringReader(text));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String[] parts = line.split("=");
+            if (parts.length == 2) {
+                wordsList.add(parts);
+            }
+        }
+        return wordsList;
+    }
+
+    @Benchmark
+    public PackedWordStore indexOfParser() throws IOException {
+        DictionaryCompiler compiler = new DictionaryCompiler();
+        compiler.addAll(new StringReader(text));
+        return compiler.build();
+    }
+
+    @Benchmark
+    public BinaryDictionary binaryRead() throws IOException {
+        return BinaryDictionary.read(new ByteArrayInputStream(binary));
+    }
+
+    @Benchmark
+    public BinaryDictionary binaryWrap() throws IOException {
+        return BinaryDictionary.wrap(ByteBuffer.wrap(binary));
+    }
+}
@@ -0,0 +1,119 @@
+package com.moutamid.wordlistapp.benchmark;
+
+import com.moutamid.wordlistapp.core.DistractorIndex;
+import com.moutamid.wordlistapp.core.KeyFolder;
+import com.moutamid.wordlistapp.core.PackedWordStore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Three distractors for a quiz question: from the index, against a scan for the three most alike
+ * translations over bigrams folded ahead of time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DistractorBenchmark {
+
+    private static final String[] SYLLABLES = {
+            "ka", "ta", "ma", "na", "ra", "sa", "lo", "to", "po", "mi", "ni", "ri", "te", "de", "le", "gu", "ru", "chi", "que", "cion"};
+
+    @Param({"100000", "1000000"})
+    public int entries;
+
+    private Random random;
+    private PackedWordStore store;
+    private DistractorIndex index;
+    private int[][] bigrams;
+    private final int[] results = new int[3];
+
+    @Setup
+    public void setUp() {
+        random = new Random(entries);
+        PackedWordStore.Builder builder = PackedWordStore.builder();
+        for (int i = 0; i < entries; i++) {
+            StringBuilder translation = new StringBuilder();
+            for (int s = 2 + random.nextInt(3); s > 0; s--) {
+                translation.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            builder.add("word" + i, translation.toString());
+        }
+        store = builder.build();
+        index = DistractorIndex.build(store);
+        bigrams = new int[entries][];
+        for (int i = 0; i < entries; i++) {
+            bigrams[i] = bigrams(KeyFolder.fold(store.translation(i)));
+        }
+    }
+
+    @Benchmark
+    public DistractorIndex build() {
+        return DistractorIndex.build(store);
+    }
+
+    @Benchmark
+    public int indexQuestion() {
+        return index.distractors(random.nextInt(entries), random, results) + results[0];
+    }
+
+    @Benchmark
+    public double scanQuestion() {
+        int[] answer = bigrams[random.nextInt(entries)];
+        double[] best = new double[4]; // The answer itself comes first
+        for (int[] other : bigrams) {
+            double s = jaccard(answer, other);
+            for (int b = 0; b < best.length; b++) {
+                if (s > best[b]) {
+                    System.arraycopy(best, b, best, b + 1, best.length - b - 1);
+                    best[b] = s;
+                    break;
+                }
+            }
+        }
+        return best[1] + best[2] + best[3];
+    }
+
+    // The distinct bigrams of key with its ends marked, sorted.
+    private static int[] bigrams(String key) {
+        String marked = '^' + key + '$';
+        int[] result = new int[marked.length() - 1];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = marked.charAt(i) << 16 | marked.charAt(i + 1);
+        }
+        Arrays.sort(result);
+        int distinct = 0;
+        for (int i = 0; i < result.length; i++) {
+            if (i == 0 || result[i] != result[i - 1]) {
+                result[distinct++] = result[i];
+            }
+        }
+        return Arrays.copyOf(result, distinct);
+    }
+
+    private static double jaccard(int[] a, int[] b) {
+        int shared = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                shared++;
+                i++;
+                j++;
+            }
+        }
+        return shared / (double) (a.length + b.length - shared);
+    }
+}
@@ -0,0 +1,119 @@
+package com.moutamid.wordlistapp.benchmark;
+
+import com.moutamid.wordlistapp.core.ReviewJournal;
+import com.moutamid.wordlistapp.core.ReviewScheduler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Journal writes for a 100k-card deck: recording an event on the caller's thread, and recording a
+ * batch then flushing it to disk, compactions included. Also the startup replay of a snapshot and
+ * journal holding 2M events.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JournalBenchmark {
+
+    private static final int CARDS = 100_000;
+    private static final int BATCH = 64;
+    private static final int SAVED_EVENTS = 2_000_000;
+    private static final long COMPACT_BYTES = 8 << 20;
+    private static final ReviewScheduler.Grade[] GRADES = ReviewScheduler.Grade.values();
+
+    private File directory;
+    private ReviewJournal journal;
+    private Random random;
+    private long now;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal-benchmark").toFile();
+        // Flushes are driven by the benchmark, not by a writer thread.
+        journal = new ReviewJournal(directory, 60_000, 1 << 20, task -> {});
+        journal.restore(CARDS, new Random(1));
+        random = new Random(2);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.close();
+        delete(directory);
+    }
+
+    /** A deck's saved state: the snapshot of the last compaction and the journal since. */
+    @State(Scope.Benchmark)
+    public static class Saved {
+        File directory;
+
+        @Setup
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("journal-replay").toFile();
+            ReviewJournal journal = new ReviewJournal(directory, 60_000, COMPACT_BYTES, task -> {});
+            journal.restore(CARDS, new Random(1));
+            Random random = new Random(2);
+            for (int i = 0; i < SAVED_EVENTS; i++) {
+                journal.recordGrade(random.nextInt(CARDS), GRADES[i & 3], i);
+                if ((i & 4095) == 4095) {
+                    journal.flush();
+                }
+            }
+            journal.close();
+        }
+
+        @TearDown
+        public void tearDown() {
+            delete(directory);
+        }
+    }
+
+    @Benchmark
+    public void recordGrade() {
+        journal.recordGrade(random.nextInt(CARDS), GRADES[(int) now & 3], now++);
+        if ((now & 4095) == 0) {
+            journal.flush(); // Keep the batch from growing without bound.
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void recordBatchAndFlush() {
+        for (int i = 0; i < BATCH; i++) {
+            journal.recordGrade(random.nextInt(CARDS), GRADES[i & 3], now++);
+        }
+        journal.flush();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ReviewScheduler restore(Saved saved) throws IOException {
+        ReviewJournal replayed = new ReviewJournal(saved.directory, 60_000, COMPACT_BYTES, task -> {});
+        ReviewScheduler scheduler = replayed.restore(CARDS, new Random(3));
+        replayed.close();
+        return scheduler;
+    }
+
+    private static void delete(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+}
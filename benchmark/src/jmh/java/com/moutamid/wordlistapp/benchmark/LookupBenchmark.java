@@ -0,0 +1,92 @@
+package com.moutamid.wordlistapp.benchmark;
+
+import com.moutamid.wordlistapp.core.BidirectionalIndex;
+import com.moutamid.wordlistapp.core.KeyFolder;
+import com.moutamid.wordlistapp.core.PackedWordStore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looking a word up either way in a 500k-entry deck: the {@link BidirectionalIndex} against the two
+ * HashMap&lt;String, String&gt;s it replaces, one per direction. Both look up by folded key; the
+ * maps keep one entry per key, so they cannot even hold a translation shared by several words.
+ * Run with -prof gc to compare what building each allocates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LookupBenchmark {
+
+    private static final int ENTRIES = 500_000;
+
+    private Random random;
+    private PackedWordStore store;
+    private BidirectionalIndex index;
+    private Map<String, String> forward;
+    private Map<String, String> backward;
+    private final int[] results = new int[4];
+
+    @Setup
+    public void setUp() {
+        random = new Random(1);
+        PackedWordStore.Builder builder = PackedWordStore.builder();
+        for (int i = 0; i < ENTRIES; i++) {
+            builder.add("word" + i, "palabra" + i / 2); // Two words per translation
+        }
+        store = builder.build();
+        index = BidirectionalIndex.build(store);
+        forward = new HashMap<>();
+        backward = new HashMap<>();
+        for (int i = 0; i < ENTRIES; i++) {
+            String word = KeyFolder.fold(store.word(i));
+            String translation = KeyFolder.fold(store.translation(i));
+            forward.put(word, translation);
+            backward.put(translation, word);
+        }
+    }
+
+    @Benchmark
+    public BidirectionalIndex buildIndex() {
+        return BidirectionalIndex.build(store);
+    }
+
+    @Benchmark
+    public Map<String, String> buildMaps() {
+        Map<String, String> forward = new HashMap<>();
+        Map<String, String> backward = new HashMap<>();
+        for (int i = 0; i < ENTRIES; i++) {
+            String word = KeyFolder.fold(store.word(i));
+            String translation = KeyFolder.fold(store.translation(i));
+            forward.put(word, translation);
+            backward.put(translation, word);
+        }
+        return backward;
+    }
+
+    @Benchmark
+    public int indexLookup() {
+        String query = query();
+        return index.byWord(query, results) + index.byTranslation(query, results);
+    }
+
+    @Benchmark
+    public int mapsLookup() {
+        String key = KeyFolder.fold(query());
+        return (forward.containsKey(key) ? 1 : 0) + (backward.containsKey(key) ? 1 : 0);
+    }
+
+    private String query() {
+        return random.nextBoolean() ? "word" + random.nextInt(ENTRIES) : "palabra" + random.nextInt(ENTRIES / 2);
+    }
+}
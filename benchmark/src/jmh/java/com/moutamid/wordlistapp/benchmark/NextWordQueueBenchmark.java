@@ -0,0 +1,119 @@
+package com.moutamid.wordlistapp.benchmark;
+
+import com.moutamid.wordlistapp.core.BinaryDictionary;
+import com.moutamid.wordlistapp.core.DictionaryCompiler;
+import com.moutamid.wordlistapp.core.NextWordQueue;
+import com.moutamid.wordlistapp.core.PackedWordStore;
+import com.moutamid.wordlistapp.core.ReviewJournal;
+import com.moutamid.wordlistapp.core.ReviewScheduler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to the first notification word in a process started just for it: polling the next-word
+ * queue against opening a 200k-word deck and replaying its review journal of 500k events to ask
+ * the scheduler.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NextWordQueueBenchmark {
+
+    private static final int WORDS = 200_000;
+    private static final int EVENTS = 500_000;
+    private static final ReviewScheduler.Grade[] GRADES = ReviewScheduler.Grade.values();
+
+    private File directory;
+    private File deck;
+    private File reviews;
+    private File queueFile;
+    private PackedWordStore store;
+    private final int[] upcoming = new int[32];
+    private int count;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("next-word-queue-benchmark").toFile();
+        DictionaryCompiler compiler = new DictionaryCompiler();
+        for (int i = 0; i < WORDS; i++) {
+            compiler.add("word" + i, "translation" + i);
+        }
+        store = compiler.build();
+        deck = new File(directory, "deck.wdict");
+        try (OutputStream out = new FileOutputStream(deck)) {
+            compiler.writeTo(out);
+        }
+        reviews = new File(directory, "reviews");
+        ReviewJournal journal = new ReviewJournal(reviews, 60_000, 64 << 20, task -> {});
+        ReviewScheduler scheduler = journal.restore(WORDS, new Random(1));
+        Random random = new Random(2);
+        for (int i = 0; i < EVENTS; i++) {
+            int card = random.nextInt(WORDS);
+            scheduler.grade(card, GRADES[i & 3], i);
+            journal.recordGrade(card, GRADES[i & 3], i);
+            if ((i & 4095) == 4095) {
+                journal.flush();
+            }
+        }
+        journal.close();
+        count = scheduler.upcoming(upcoming, EVENTS);
+        queueFile = new File(directory, "next_words");
+    }
+
+    // The queue is taken from as it is read, so every poll gets a freshly written one.
+    @Setup(Level.Invocation)
+    public void writeQueue() throws IOException {
+        new NextWordQueue(queueFile).write("deck", store, upcoming, count);
+    }
+
+    @TearDown
+    public void tearDown() {
+        delete(directory);
+    }
+
+    @Benchmark
+    public NextWordQueue.Entry pollQueue() {
+        return new NextWordQueue(queueFile).poll(EVENTS);
+    }
+
+    @Benchmark
+    public String coldLoad() throws IOException {
+        BinaryDictionary dictionary;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(deck))) {
+            dictionary = BinaryDictionary.read(in);
+        }
+        ReviewJournal journal = new ReviewJournal(reviews, 60_000, 64 << 20, task -> {});
+        ReviewScheduler scheduler = journal.restore(dictionary.size(), new Random(3));
+        journal.close();
+        return dictionary.word(scheduler.next(EVENTS));
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
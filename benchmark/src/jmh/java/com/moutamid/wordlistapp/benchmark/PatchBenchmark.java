@@ -0,0 +1,98 @@
+package com.moutamid.wordlistapp.benchmark;
+
+import com.moutamid.wordlistapp.core.BinaryDictionary;
+import com.moutamid.wordlistapp.core.DeckPatch;
+import com.moutamid.wordlistapp.core.DictionaryCompiler;
+import com.moutamid.wordlistapp.core.PrefixIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bringing a 500k-entry deck and its search index up to date with a {@link DeckPatch} of a
+ * thousand lines, against a full rebuild: compiling the whole new list and indexing it from
+ * scratch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PatchBenchmark {
+
+    private static final int ENTRIES = 500_000;
+    private static final int CHANGES = 1000;
+
+    private byte[] baseBytes;
+    private BinaryDictionary base;
+    private PrefixIndex baseIndex;
+    private String patch;
+    private String fullText;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(11);
+        String[] words = new String[ENTRIES + CHANGES / 4];
+        String[] translations = new String[words.length];
+        DictionaryCompiler compiler = new DictionaryCompiler();
+        for (int i = 0; i < ENTRIES; i++) {
+            words[i] = "word" + i;
+            translations[i] = "palabra" + random.nextInt(ENTRIES);
+            compiler.add(words[i], translations[i]);
+        }
+        baseBytes = compiler.toByteArray();
+        base = BinaryDictionary.wrap(ByteBuffer.wrap(baseBytes));
+        baseIndex = PrefixIndex.build(base);
+
+        StringBuilder patchText = new StringBuilder("#patch 0 1\n");
+        int step = ENTRIES / (CHANGES * 3 / 4);
+        for (int i = step / 2; i < ENTRIES; i += step) {
+            if (i % 3 == 0) {
+                patchText.append('-').append(i).append('\n');
+                words[i] = null;
+            } else {
+                translations[i] = "cambiada" + i;
+                patchText.append('~').append(i).append(' ').append(words[i]).append('=').append(translations[i]).append('\n');
+            }
+        }
+        for (int i = ENTRIES; i < words.length; i++) {
+            words[i] = "new" + i;
+            translations[i] = "nueva" + i;
+            patchText.append('+').append(i).append(' ').append(words[i]).append('=').append(translations[i]).append('\n');
+        }
+        StringBuilder list = new StringBuilder();
+        for (int i = 0; i < words.length; i++) {
+            if (words[i] != null) {
+                list.append(words[i]).append('=').append(translations[i]).append('\n');
+            }
+        }
+        fullText = list.toString();
+        patch = patchText.toString();
+    }
+
+    @Benchmark
+    public PrefixIndex patch() throws IOException {
+        DeckPatch parsed = DeckPatch.parse(new StringReader(patch));
+        ByteArrayOutputStream out = new ByteArrayOutputStream(baseBytes.length + patch.length());
+        parsed.apply(base, out);
+        BinaryDictionary patched = BinaryDictionary.wrap(ByteBuffer.wrap(out.toByteArray()));
+        return PrefixIndex.patch(baseIndex, patched, parsed.changedEntries());
+    }
+
+    @Benchmark
+    public PrefixIndex rebuild() throws IOException {
+        DictionaryCompiler rebuilt = new DictionaryCompiler();
+        rebuilt.addAll(new StringReader(fullText));
+        return PrefixIndex.build(BinaryDictionary.wrap(ByteBuffer.wrap(rebuilt.toByteArray())));
+    }
+}
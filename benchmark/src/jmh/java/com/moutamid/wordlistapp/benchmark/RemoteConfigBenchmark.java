@@ -0,0 +1,85 @@
+package com.moutamid.wordlistapp.benchmark;
+
+import com.moutamid.wordlistapp.core.Clock;
+import com.moutamid.wordlistapp.core.RemoteConfigClient;
+import com.sun.net.httpserver.HttpServer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The remote config at launch: a cold cache, which costs one request to a local server, against a
+ * warm one, which is a file read. A real network adds its latency to the cold case only.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RemoteConfigBenchmark {
+
+    private static final byte[] BODY = "{\"WordListApp\":{\"value\":false,\"msg\":\"\"}}".getBytes(StandardCharsets.UTF_8);
+
+    private HttpServer server;
+    private URL url;
+    private File directory;
+    private File warm;
+    private File cold;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/apps.txt", exchange -> {
+            exchange.sendResponseHeaders(200, BODY.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(BODY);
+            }
+        });
+        server.start();
+        url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/apps.txt");
+        directory = Files.createTempDirectory("remote-config-benchmark").toFile();
+        warm = new File(directory, "warm");
+        cold = new File(directory, "cold");
+        client(warm).load();
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.stop(0);
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public String coldCache() throws IOException {
+        cold.delete();
+        return client(cold).load();
+    }
+
+    @Benchmark
+    public String warmCache() throws IOException {
+        return client(warm).load();
+    }
+
+    private RemoteConfigClient client(File cache) {
+        return new RemoteConfigClient(url, cache, Long.MAX_VALUE, 2000, 2000, Runnable::run, Clock.SYSTEM);
+    }
+}
@@ -0,0 +1,72 @@
+package com.moutamid.wordlistapp.benchmark;
+
+import com.moutamid.wordlistapp.core.WeightedSampler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Weighted notification draws over a million entries with weights spread over 2^10: the sampler's
+ * draw, weight change and the two together, against a cumulative scan of the weights.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SamplerBenchmark {
+
+    private static final int ENTRIES = 1_000_000;
+
+    private Random random;
+    private WeightedSampler sampler;
+    private double[] weights;
+    private double total;
+
+    @Setup
+    public void setUp() {
+        random = new Random(1);
+        sampler = new WeightedSampler(ENTRIES, 50);
+        weights = new double[ENTRIES];
+        for (int i = 0; i < ENTRIES; i++) {
+            weights[i] = Math.scalb(1 + random.nextDouble(), random.nextInt(10));
+            sampler.setWeight(i, weights[i]);
+            total += weights[i];
+        }
+    }
+
+    @Benchmark
+    public int draw() {
+        return sampler.next(random);
+    }
+
+    @Benchmark
+    public void setWeight() {
+        sampler.setWeight(random.nextInt(ENTRIES), Math.scalb(1 + random.nextDouble(), random.nextInt(10)));
+    }
+
+    // A grade changes one weight and the next notification draws, so the alias table is rebuilt every time.
+    @Benchmark
+    public int setWeightAndDraw() {
+        sampler.setWeight(random.nextInt(ENTRIES), Math.scalb(1 + random.nextDouble(), random.nextInt(10)));
+        return sampler.next(random);
+    }
+
+    @Benchmark
+    public int linearScan() {
+        double target = random.nextDouble() * total;
+        for (int i = 0; i < ENTRIES; i++) {
+            target -= weights[i];
+            if (target < 0) {
+                return i;
+            }
+        }
+        return ENTRIES - 1;
+    }
+}
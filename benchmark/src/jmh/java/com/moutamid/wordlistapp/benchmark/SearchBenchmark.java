@@ -0,0 +1,135 @@
+package com.moutamid.wordlistapp.benchmark;
+
+import com.moutamid.wordlistapp.core.FuzzyIndex;
+import com.moutamid.wordlistapp.core.PackedWordStore;
+import com.moutamid.wordlistapp.core.PrefixIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the prefix index, and top-20 prefix and typo lookups, against scanning every pair for
+ * the prefix or every word within the typo's edit distance.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchBenchmark {
+
+    private static final int TOP_K = 20;
+
+    @Param({"100000", "1000000"})
+    public int entries;
+
+    private PackedWordStore store;
+    private String[][] pairs;
+    private PrefixIndex.Query query;
+    private FuzzyIndex fuzzy;
+    private String[] prefixes;
+    private String[] typos;
+    private final int[] results = new int[TOP_K];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        PackedWordStore.Builder builder = PackedWordStore.builder();
+        pairs = new String[entries][];
+        for (int i = 0; i < entries; i++) {
+            pairs[i] = new String[]{randomWord(random), randomWord(random)};
+            builder.add(pairs[i][0], pairs[i][1]);
+        }
+        store = builder.build();
+        PrefixIndex index = PrefixIndex.build(store);
+        query = index.query();
+        fuzzy = new FuzzyIndex(index);
+
+        prefixes = new String[256];
+        typos = new String[256];
+        for (int i = 0; i < prefixes.length; i++) {
+            String word = pairs[random.nextInt(entries)][0];
+            prefixes[i] = word.substring(0, 1 + random.nextInt(Math.min(4, word.length())));
+            char[] typo = word.toCharArray();
+            typo[random.nextInt(typo.length)] = (char) ('a' + random.nextInt(26));
+            typos[i] = new String(typo);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public PrefixIndex buildPrefixIndex() {
+        return PrefixIndex.build(store);
+    }
+
+    @Benchmark
+    public int prefixIndex() {
+        query.update(prefixes[next++ & 255]);
+        return query.collect(results);
+    }
+
+    @Benchmark
+    public int fuzzyIndex() {
+        return fuzzy.search(typos[next++ & 255], 2, results);
+    }
+
+    @Benchmark
+    public int linearPrefixScan() {
+        String prefix = prefixes[next++ & 255];
+        int count = 0;
+        for (int i = 0; i < pairs.length && count < TOP_K; i++) {
+            if (pairs[i][0].regionMatches(true, 0, prefix, 0, prefix.length())
+                    || pairs[i][1].regionMatches(true, 0, prefix, 0, prefix.length())) {
+                results[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int linearFuzzyScan() {
+        String typo = typos[next++ & 255];
+        int count = 0;
+        for (int i = 0; i < pairs.length && count < TOP_K; i++) {
+            if (levenshtein(typo, pairs[i][0]) <= 2 || levenshtein(typo, pairs[i][1]) <= 2) {
+                results[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(previous[j - 1] + cost, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static String randomWord(Random random) {
+        char[] chars = new char[3 + random.nextInt(8)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,66 @@
+package com.moutamid.wordlistapp.benchmark;
+
+import com.moutamid.wordlistapp.core.WordStats;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A million words with a year's worth of events on a tenth of them: recording an event, the
+ * "hardest 20" query and an export.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StatsBenchmark {
+
+    private static final int WORDS = 1_000_000;
+    private static final int STUDIED = WORDS / 10;
+    private static final int EVENTS = 5_000_000;
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final WordStats.Event[] KINDS = WordStats.Event.values();
+
+    private Random random;
+    private WordStats stats;
+    private final int[] hardest = new int[20];
+    private long now;
+
+    @Setup
+    public void setUp() {
+        random = new Random(1);
+        stats = new WordStats(WORDS, 0);
+        now = 19_000 * DAY;
+        for (int i = 0; i < EVENTS; i++, now += 365 * DAY / EVENTS) {
+            stats.record(random.nextInt(STUDIED) * 10, KINDS[random.nextInt(KINDS.length)], now);
+        }
+        stats.rollUp();
+    }
+
+    @Benchmark
+    public boolean record() {
+        return stats.record(random.nextInt(STUDIED) * 10, KINDS[random.nextInt(KINDS.length)], now++);
+    }
+
+    @Benchmark
+    public int hardest() {
+        return stats.hardest(hardest) + hardest[0];
+    }
+
+    @Benchmark
+    public int export() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        stats.writeTo(new DataOutputStream(bytes));
+        return bytes.size();
+    }
+}
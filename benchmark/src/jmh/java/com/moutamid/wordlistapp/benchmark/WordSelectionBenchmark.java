@@ -0,0 +1,68 @@
+package com.moutamid.wordlistapp.benchmark;
+
+import com.moutamid.wordlistapp.core.ReviewScheduler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picking the next word: the original uniform random pick against the SM-2 scheduler, whose next
+ * and grade stay logarithmic in the number of cards.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WordSelectionBenchmark {
+
+    private static final ReviewScheduler.Grade[] GRADES = ReviewScheduler.Grade.values();
+
+    @Param({"30", "1000000"})
+    public int cards;
+
+    private Random random;
+    private ReviewScheduler scheduler;
+    private long now;
+
+    @Setup
+    public void setUp() {
+        random = new Random(42);
+        scheduler = new ReviewScheduler(cards, 60_000, new Random(1));
+    }
+
+    @Benchmark
+    public int randomPick() {
+        return random.nextInt(cards);
+    }
+
+    @Benchmark
+    public int schedulerNext() {
+        return scheduler.next(now++);
+    }
+
+    @Benchmark
+    public void schedulerGrade() {
+        scheduler.grade(random.nextInt(cards), GRADES[random.nextInt(GRADES.length)], now++);
+    }
+
+    @Benchmark
+    public int schedulerNextAndGrade() {
+        int card = scheduler.next(now);
+        scheduler.grade(card, GRADES[card & 3], now++);
+        return card;
+    }
+
+    @Benchmark
+    public int schedulerUpcoming() {
+        int[] upcoming = new int[4];
+        return scheduler.upcoming(upcoming, now) + upcoming[0];
+    }
+}
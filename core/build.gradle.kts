@@ -0,0 +1,31 @@
+plugins {
+    id("java-library")
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+dependencies {
+    testImplementation("junit:junit:4.13.2")
+}
+
+tasks.test {
+    // WordStoreFootprintTest builds a million-entry List<String[]> to compare against.
+    maxHeapSize = "1g"
+    // SchedulingSoakTest replays this many simulated days; ./gradlew :core:test -Psoak.days=30
+    (findProperty("soak.days") as String?)?.let { systemProperty("soak.days", it) }
+}
+
+// Compares parsing res/raw/words.txt line by line against loading the compiled binary dictionary.
+tasks.register<JavaExec>("benchmarkDictionaryLoad") {
+    group = "verification"
+    description = "Runs the dictionary loading benchmark on the JVM."
+    classpath = sourceSets["test"].runtimeClasspath
+    mainClass.set("com.moutamid.wordlistapp.core.DictionaryLoadBenchmark")
+}
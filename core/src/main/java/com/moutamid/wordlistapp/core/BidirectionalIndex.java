@@ -0,0 +1,175 @@
+package com.moutamid.wordlistapp.core;
+
+import java.util.Arrays;
+
+/**
+ * Exact lookups from either side of a {@link WordStore} to its entries: every entry whose word, or
+ * whose translation, folds by {@link KeyFolder} to the text asked for. Several words can share a
+ * translation and one word can have several translations; a lookup returns all of them.
+ *
+ * <p>Each side groups the entries of equal keys and keeps the groups in an open-addressing table
+ * of primitive ints, at most half full and probed linearly. A slot holds only a group number; the
+ * group's hash sits next to its range of entries, so a probe compares ints and folds one stored
+ * key only when the hashes agree. No key strings are kept: the index costs about 20 to 30 bytes
+ * per entry per side, whatever the length of the words.
+ *
+ * <p>Immutable and safe to share between threads.
+ */
+public final class BidirectionalIndex {
+
+    private final WordStore store;
+    private final Side words;
+    private final Side translations;
+
+    private BidirectionalIndex(WordStore store, Side words, Side translations) {
+        this.store = store;
+        this.words = words;
+        this.translations = translations;
+    }
+
+    /** Builds the index for every entry of store. Runs in O(n); call it off the main thread. */
+    public static BidirectionalIndex build(WordStore store) {
+        return new BidirectionalIndex(store, Side.build(store, false), Side.build(store, true));
+    }
+
+    public WordStore store() {
+        return store;
+    }
+
+    /** Approximate heap used by the index, not counting the store. */
+    public long footprintBytes() {
+        return words.footprintBytes() + translations.footprintBytes();
+    }
+
+    /**
+     * Fills results with the entries whose word folds to the same key as text, in index order.
+     * Returns how many there are, which may exceed results.length; only that many are written.
+     */
+    public int byWord(CharSequence text, int[] results) {
+        return words.lookup(store, KeyFolder.fold(text), results);
+    }
+
+    /** Like {@link #byWord}, for the entries whose translation folds to the same key as text. */
+    public int byTranslation(CharSequence text, int[] results) {
+        return translations.lookup(store, KeyFolder.fold(text), results);
+    }
+
+    /** Whether text is a word or a translation of some entry, once folded. */
+    public boolean contains(CharSequence text) {
+        String key = KeyFolder.fold(text);
+        return words.lookup(store, key, new int[0]) > 0 || translations.lookup(store, key, new int[0]) > 0;
+    }
+
+    private static final class Side {
+        private final boolean translation;
+        // Group + 1 per slot, 0 for an empty one. The length is a power of two.
+        private final int[] table;
+        private final int[] hashes;
+        // Group g is entries[starts[g] .. starts[g + 1]).
+        private final int[] starts;
+        private final int[] entries;
+
+        private Side(boolean translation, int[] table, int[] hashes, int[] starts, int[] entries) {
+            this.translation = translation;
+            this.table = table;
+            this.hashes = hashes;
+            this.starts = starts;
+            this.entries = entries;
+        }
+
+        static Side build(WordStore store, boolean translation) {
+            int n = store.size();
+            String[] keys = new String[n];
+            int[] table = new int[capacity(n)];
+            int[] hashes = new int[n];
+            int[] first = new int[n];
+            int[] groupOf = new int[n];
+            int groups = 0;
+            for (int i = 0; i < n; i++) {
+                keys[i] = KeyFolder.fold(translation ? store.translation(i) : store.word(i));
+                int hash = hash(keys[i]);
+                int mask = table.length - 1;
+                int slot = hash & mask;
+                while (true) {
+                    int g = table[slot] - 1;
+                    if (g < 0) {
+                        table[slot] = groups + 1;
+                        hashes[groups] = hash;
+                        first[groups] = i;
+                        groupOf[i] = groups++;
+                        break;
+                    }
+                    if (hashes[g] == hash && keys[first[g]].equals(keys[i])) {
+                        groupOf[i] = g;
+                        break;
+                    }
+                    slot = (slot + 1) & mask;
+                }
+            }
+
+            int[] starts = new int[groups + 1];
+            for (int i = 0; i < n; i++) {
+                starts[groupOf[i] + 1]++;
+            }
+            for (int g = 0; g < groups; g++) {
+                starts[g + 1] += starts[g];
+            }
+            int[] next = Arrays.copyOf(starts, groups);
+            int[] entries = new int[n];
+            for (int i = 0; i < n; i++) {
+                entries[next[groupOf[i]]++] = i;
+            }
+
+            // Sized for the entries while building; shrunk to the groups now that they are known.
+            int[] compact = new int[capacity(groups)];
+            int mask = compact.length - 1;
+            for (int g = 0; g < groups; g++) {
+                int slot = hashes[g] & mask;
+                while (compact[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                compact[slot] = g + 1;
+            }
+            return new Side(translation, compact, Arrays.copyOf(hashes, groups), starts, entries);
+        }
+
+        int lookup(WordStore store, String key, int[] results) {
+            int hash = hash(key);
+            int mask = table.length - 1;
+            for (int slot = hash & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+                int g = table[slot] - 1;
+                if (hashes[g] != hash) {
+                    continue;
+                }
+                int entry = entries[starts[g]];
+                String text = translation ? store.translation(entry) : store.word(entry);
+                if (text.equals(key) || KeyFolder.fold(text).equals(key)) { // Folding is idempotent
+                    int count = starts[g + 1] - starts[g];
+                    System.arraycopy(entries, starts[g], results, 0, Math.min(count, results.length));
+                    return count;
+                }
+            }
+            return 0;
+        }
+
+        long footprintBytes() {
+            return 4L * (table.length + hashes.length + starts.length + entries.length);
+        }
+
+        // At most half full.
+        private static int capacity(int keys) {
+            return Integer.highestOneBit(Math.max(1, 2 * keys - 1)) << 1;
+        }
+
+        // MurmurHash3's finalizer over String.hashCode, so similar keys spread over the table.
+        private static int hash(String key) {
+            int h = key.hashCode();
+            h ^= h >>> 16;
+            h *= 0x85EBCA6B;
+            h ^= h >>> 13;
+            h *= 0xC2B2AE35;
+            h ^= h >>> 16;
+            return h;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.moutamid.wordlistapp.core;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read-only {@link WordStore} over a compiled dictionary. Opening only checks the header; offsets
+ * and strings are read from the buffer on demand, so a memory-mapped file opens in constant time.
+ */
+public final class BinaryDictionary implements WordStore {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final ByteBuffer buffer;
+    private final int entryCount;
+    private final int blobStart;
+
+    private BinaryDictionary(ByteBuffer buffer, int entryCount, int blobStart) {
+        this.buffer = buffer;
+        this.entryCount = entryCount;
+        this.blobStart = blobStart;
+    }
+
+    public static BinaryDictionary wrap(ByteBuffer buffer) throws IOException {
+        ByteBuffer view = buffer.slice();
+        int entryCount = readHeader(view);
+        if (view.remaining() < DictionaryFormat.blobStart(entryCount)) {
+            throw new IOException("Truncated dictionary");
+        }
+        BinaryDictionary dictionary = new BinaryDictionary(view, entryCount, DictionaryFormat.blobStart(entryCount));
+        if (view.remaining() < dictionary.blobStart + dictionary.offset(2 * entryCount)) {
+            throw new IOException("Truncated dictionary");
+        }
+        return dictionary;
+    }
+
+    /**
+     * Memory-maps a dictionary file, which takes constant time. The mapping outlives the file, so
+     * the file can be replaced without disturbing it.
+     */
+    public static BinaryDictionary map(File file) throws IOException {
+        try (FileInputStream in = new FileInputStream(file)) {
+            return wrap(in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length()));
+        }
+    }
+
+    /** Reads a whole stream into memory, for assets that cannot be memory-mapped. */
+    public static BinaryDictionary read(InputStream in) throws IOException {
+        return read(in, null);
+    }
+
+    /**
+     * Reads a stream into memory chunk by chunk. Once the first chunk of strings has arrived,
+     * firstChunk receives a store over the entries that are already complete.
+     */
+    public static BinaryDictionary read(InputStream in, DictionaryLoader.Listener firstChunk) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        byte[] header = new byte[DictionaryFormat.HEADER_SIZE];
+        data.readFully(header);
+        int entryCount = readHeader(ByteBuffer.wrap(header));
+        int blobStart = DictionaryFormat.blobStart(entryCount);
+        byte[] table = new byte[DictionaryFormat.offsetTableSize(entryCount)];
+        data.readFully(table);
+        int blobLength = ByteBuffer.wrap(table).getInt(table.length - 4);
+        if (blobLength < 0) {
+            throw new IOException("Corrupt dictionary");
+        }
+
+        byte[] bytes = new byte[blobStart + blobLength];
+        System.arraycopy(header, 0, bytes, 0, header.length);
+        System.arraycopy(table, 0, bytes, header.length, table.length);
+        BinaryDictionary dictionary = new BinaryDictionary(ByteBuffer.wrap(bytes), entryCount, blobStart);
+        int read = 0;
+        while (read < blobLength) {
+            int n = Math.min(CHUNK_SIZE, blobLength - read);
+            data.readFully(bytes, blobStart + read, n);
+            read += n;
+            if (firstChunk != null) {
+                int complete = dictionary.entriesWithin(read);
+                if (complete > 0) {
+                    firstChunk.onWords(new BinaryDictionary(dictionary.buffer, complete, blobStart));
+                    firstChunk = null;
+                }
+            }
+        }
+        return dictionary;
+    }
+
+    private static int readHeader(ByteBuffer header) throws IOException {
+        if (header.remaining() < DictionaryFormat.HEADER_SIZE || header.getInt(0) != DictionaryFormat.MAGIC) {
+            throw new IOException("Not a compiled word dictionary");
+        }
+        if (header.getInt(4) != DictionaryFormat.VERSION) {
+            throw new IOException("Unsupported dictionary version " + header.getInt(4));
+        }
+        int entryCount = header.getInt(8);
+        if (entryCount < 0 || entryCount > (Integer.MAX_VALUE - DictionaryFormat.HEADER_SIZE) / 8 - 1) {
+            throw new IOException("Corrupt dictionary");
+        }
+        return entryCount;
+    }
+
+    @Override
+    public int size() {
+        return entryCount;
+    }
+
+    @Override
+    public String word(int index) {
+        checkIndex(index);
+        return string(2 * index);
+    }
+
+    @Override
+    public String translation(int index) {
+        checkIndex(index);
+        return string(2 * index + 1);
+    }
+
+    /** The version of a downloadable deck, from the trailer after the strings; 0 if it has none. */
+    public int deckVersion() {
+        int end = blobStart + offset(2 * entryCount);
+        if (buffer.limit() - end < DictionaryFormat.TRAILER_SIZE || buffer.getInt(end + 4) != DictionaryFormat.DECK_VERSION_MAGIC) {
+            return 0;
+        }
+        return buffer.getInt(end);
+    }
+
+    /**
+     * Whether entry index was removed by a {@link DeckPatch}. Removed entries keep their index with an
+     * empty word and translation, so nothing keyed by index moves. Reads two offsets; no strings.
+     */
+    public boolean isRemoved(int index) {
+        checkIndex(index);
+        return offset(2 * index) == offset(2 * index + 2);
+    }
+
+    /** Heap held by the dictionary; a memory-mapped one lives in the page cache instead and counts as 0. */
+    public long footprintBytes() {
+        return buffer.hasArray() ? buffer.capacity() : 0;
+    }
+
+    private String string(int slot) {
+        int start = offset(slot);
+        int end = offset(slot + 1);
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + blobStart + start, end - start, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[end - start];
+        ByteBuffer view = buffer.duplicate();
+        view.position(blobStart + start);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Number of leading entries whose strings end within the first blobBytes of the blob. */
+    private int entriesWithin(int blobBytes) {
+        int low = 0;
+        int high = entryCount;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (offset(2 * mid) <= blobBytes) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    int offset(int slot) {
+        return buffer.getInt(DictionaryFormat.HEADER_SIZE + 4 * slot);
+    }
+
+    /** A view of the strings, for copying them in bulk: blob offset 0 is position 0. */
+    ByteBuffer blob() {
+        ByteBuffer view = buffer.duplicate();
+        view.position(blobStart);
+        return view.slice();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= entryCount) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + entryCount);
+        }
+    }
+}
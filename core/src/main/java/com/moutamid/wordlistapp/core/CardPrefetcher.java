@@ -0,0 +1,158 @@
+package com.moutamid.wordlistapp.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Keeps the next few cards of the current store ready in a {@link CardRing}, so showing the next
+ * card on a double tap neither picks nor reads anything. The cards to come are picked on the
+ * owner's thread, where the scheduler lives; their strings are read by the reader executor and
+ * handed back through the owner executor.
+ *
+ * <p>A prefetched card is only used while it is still the one the picker would pick, so a grade
+ * that reorders the deck costs one card read on the spot, never a wrong card.
+ *
+ * <p>Not thread-safe; only call it on the thread the owner executor runs tasks on.
+ */
+public final class CardPrefetcher {
+
+    /** Picks the cards of a store; in the app, the active deck's scheduler. */
+    public interface Picker {
+        /** The deck the cards belong to. */
+        String deckId();
+
+        /** The index {@link #next} would take from store, without taking it; -1 if it is empty. */
+        int peek(WordStore store);
+
+        /** Takes the next index of store and records it as shown; -1 if it is empty. */
+        int next(WordStore store);
+
+        /** Fills indexes with the indexes next would take from store, in order. Returns how many. */
+        int upcoming(WordStore store, int[] indexes);
+    }
+
+    public interface Listener {
+        /** A card read ahead is ready to show. */
+        void onReady(NextWordQueue.Entry card);
+
+        /** {@link #next} returned card: a ready one if prefetched, else one picked and read on the spot. */
+        void onTaken(NextWordQueue.Entry card, boolean prefetched);
+    }
+
+    private final CardRing<NextWordQueue.Entry> ring;
+    private final Picker picker;
+    private final Executor reader;
+    private final Executor owner;
+    private final Listener listener;
+    // The store the ready cards were read from.
+    private WordStore store;
+    // Bumped whenever the ready cards are dropped, so a fill started before is discarded.
+    private int generation;
+
+    /**
+     * @param capacity        cards kept ready
+     * @param historyCapacity cards kept for {@link #back}
+     * @param reader          reads the strings of the cards to come
+     * @param owner           runs tasks on the thread that calls this prefetcher
+     */
+    public CardPrefetcher(int capacity, int historyCapacity, Picker picker, Executor reader, Executor owner,
+                          Listener listener) {
+        this.ring = new CardRing<>(capacity, historyCapacity);
+        this.picker = picker;
+        this.reader = reader;
+        this.owner = owner;
+        this.listener = listener;
+    }
+
+    /**
+     * The card to show next from current, and records it as shown. After {@link #back} this steps
+     * forward through the cards already seen instead. Returns null if current is empty.
+     */
+    public NextWordQueue.Entry next(WordStore current) {
+        NextWordQueue.Entry card = ring.forward();
+        if (card != null) {
+            return card;
+        }
+        card = ring.peek();
+        boolean prefetched = card != null && store == current && card.index() == picker.peek(current);
+        if (prefetched) {
+            ring.poll();
+            picker.next(current);
+        } else {
+            drop();
+            int index = picker.next(current);
+            if (index < 0) {
+                return null;
+            }
+            card = new NextWordQueue.Entry(picker.deckId(), index, current.word(index), current.translation(index));
+        }
+        listener.onTaken(card, prefetched);
+        ring.shown(card);
+        refill(current);
+        return card;
+    }
+
+    /** The card shown before the current one, or null if there is none left in the history. */
+    public NextWordQueue.Entry back() {
+        return ring.back();
+    }
+
+    /** Records a card shown some other way, such as from a notification or a search. */
+    public void shown(NextWordQueue.Entry card) {
+        ring.shown(card);
+    }
+
+    /** Tops the ready cards up to the ones current will show next. */
+    public void refill(WordStore current) {
+        if (store != current) {
+            drop();
+            store = current;
+        }
+        int[] upcoming = new int[ring.capacity()];
+        int count = picker.upcoming(current, upcoming);
+        for (int i = 0; i < ring.size(); i++) {
+            if (i >= count || ring.get(i).index() != upcoming[i]) {
+                drop(); // Picked in an order that no longer holds
+                break;
+            }
+        }
+        int from = ring.size();
+        if (from == count) {
+            return;
+        }
+        int fill = ++generation;
+        String deckId = picker.deckId();
+        reader.execute(() -> {
+            List<NextWordQueue.Entry> cards = new ArrayList<>(count - from);
+            for (int i = from; i < count; i++) {
+                cards.add(new NextWordQueue.Entry(deckId, upcoming[i], current.word(upcoming[i]), current.translation(upcoming[i])));
+            }
+            owner.execute(() -> {
+                if (fill != generation || store != current || ring.size() != from) {
+                    return; // Taken over by a later fill
+                }
+                for (NextWordQueue.Entry card : cards) {
+                    ring.offer(card);
+                    listener.onReady(card);
+                }
+            });
+        });
+    }
+
+    /** Cards ready to show. */
+    public int ready() {
+        return ring.size();
+    }
+
+    /** Discards pending fills. */
+    public void close() {
+        drop();
+        store = null;
+    }
+
+    private void drop() {
+        ring.clear();
+        generation++;
+    }
+}
@@ -0,0 +1,120 @@
+package com.moutamid.wordlistapp.core;
+
+/**
+ * Cards ready to render, in the order they will be shown, plus the cards already shown so the
+ * user can step back through them. Both are fixed-size rings: the queue refuses cards when full,
+ * and the history forgets its oldest card.
+ *
+ * <p>The history works like a browser's: {@link #back} steps to earlier cards, {@link #forward}
+ * returns through them again, and showing a new card drops whatever was ahead.
+ *
+ * <p>Not thread-safe; the app only calls it from the main thread.
+ */
+public final class CardRing<C> {
+
+    private final Object[] ready;
+    private int readyHead;
+    private int readySize;
+    private final Object[] history;
+    private int historyEnd; // Slot after the newest card
+    private int historySize;
+    // Cards of the history ahead of the current one, after stepping back.
+    private int ahead;
+
+    public CardRing(int capacity, int historyCapacity) {
+        if (capacity < 1 || historyCapacity < 1) {
+            throw new IllegalArgumentException("capacity " + capacity + ", history " + historyCapacity);
+        }
+        ready = new Object[capacity];
+        history = new Object[historyCapacity];
+    }
+
+    public int capacity() {
+        return ready.length;
+    }
+
+    /** Cards ready to show. */
+    public int size() {
+        return readySize;
+    }
+
+    /** Appends a card to show later. Returns false if the queue is full. */
+    public boolean offer(C card) {
+        if (readySize == ready.length) {
+            return false;
+        }
+        ready[(readyHead + readySize++) % ready.length] = card;
+        return true;
+    }
+
+    /** The i-th card to show, 0 being the next one. */
+    @SuppressWarnings("unchecked")
+    public C get(int i) {
+        if (i < 0 || i >= readySize) {
+            throw new IndexOutOfBoundsException(i + " of " + readySize);
+        }
+        return (C) ready[(readyHead + i) % ready.length];
+    }
+
+    /** The next card to show, or null if none is ready. */
+    public C peek() {
+        return readySize == 0 ? null : get(0);
+    }
+
+    /** Takes the next card to show, or null if none is ready. */
+    public C poll() {
+        if (readySize == 0) {
+            return null;
+        }
+        C card = get(0);
+        ready[readyHead] = null;
+        readyHead = (readyHead + 1) % ready.length;
+        readySize--;
+        return card;
+    }
+
+    /** Drops every ready card, e.g. when the order they were picked in no longer holds. */
+    public void clear() {
+        while (readySize > 0) {
+            poll();
+        }
+    }
+
+    /** Records card as the one now showing, dropping the cards that were ahead of it. */
+    public void shown(C card) {
+        historyEnd = (historyEnd - ahead + history.length) % history.length;
+        historySize -= ahead;
+        ahead = 0;
+        history[historyEnd] = card;
+        historyEnd = (historyEnd + 1) % history.length;
+        historySize = Math.min(historySize + 1, history.length);
+    }
+
+    /** Steps back to the card shown before the current one, or returns null at the oldest. */
+    public C back() {
+        if (historySize - ahead < 2) {
+            return null;
+        }
+        ahead++;
+        return current();
+    }
+
+    /** Steps forward again after {@link #back}, or returns null if the current card is the newest. */
+    public C forward() {
+        if (ahead == 0) {
+            return null;
+        }
+        ahead--;
+        return current();
+    }
+
+    /** Whether {@link #back} has moved off the newest card. */
+    public boolean isBrowsing() {
+        return ahead > 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private C current() {
+        return (C) history[(historyEnd - 1 - ahead + 2 * history.length) % history.length];
+    }
+}
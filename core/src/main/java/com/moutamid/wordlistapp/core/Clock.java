@@ -0,0 +1,9 @@
+package com.moutamid.wordlistapp.core;
+
+/** Wall-clock time in milliseconds, replaceable by a simulated clock in tests. */
+public interface Clock {
+
+    Clock SYSTEM = System::currentTimeMillis;
+
+    long now();
+}
@@ -0,0 +1,151 @@
+package com.moutamid.wordlistapp.core;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decks kept in memory, least recently used first out once their weight exceeds a byte budget.
+ * The active deck is pinned: it is never evicted, even when it alone is over the budget, so only
+ * the decks the user switched away from compete for the rest.
+ *
+ * <p>Thread-safe. The eviction listener runs on the thread that caused the eviction, outside the
+ * lock, so it may close files.
+ */
+public final class DeckCache<D> {
+
+    /** Approximate heap held by a deck. */
+    public interface Weigher<D> {
+        long weigh(D deck);
+    }
+
+    public interface EvictionListener<D> {
+        void onEvicted(String id, D deck);
+    }
+
+    private final Weigher<D> weigher;
+    private final EvictionListener<D> listener;
+
+    // Guarded by this. In access order, so the eldest is the least recently used.
+    private final LinkedHashMap<String, Entry<D>> decks = new LinkedHashMap<>(8, 0.75f, true);
+    private final long maxBytes;
+    private long residentBytes;
+    private String active;
+
+    public DeckCache(long maxBytes, Weigher<D> weigher, EvictionListener<D> listener) {
+        this.maxBytes = maxBytes;
+        this.weigher = weigher;
+        this.listener = listener;
+    }
+
+    /** Returns the resident deck and marks it recently used, or null if it has to be loaded. */
+    public synchronized D get(String id) {
+        Entry<D> entry = decks.get(id);
+        return entry != null ? entry.deck : null;
+    }
+
+    /** Adds or replaces a deck, then evicts down to the budget. */
+    public void put(String id, D deck) {
+        List<Entry<D>> evicted = new ArrayList<>();
+        synchronized (this) {
+            Entry<D> entry = new Entry<>(id, deck, weigher.weigh(deck));
+            Entry<D> previous = decks.put(id, entry);
+            residentBytes += entry.weight;
+            if (previous != null) {
+                residentBytes -= previous.weight;
+                if (previous.deck != deck) {
+                    evicted.add(previous);
+                }
+            }
+            trim(maxBytes, evicted);
+        }
+        notifyEvicted(evicted);
+    }
+
+    /** Pins id, which need not be resident yet, and unpins the previous active deck. */
+    public void setActive(String id) {
+        List<Entry<D>> evicted = new ArrayList<>();
+        synchronized (this) {
+            active = id;
+            decks.get(id); // Most recently used, whatever happens to the others.
+            trim(maxBytes, evicted);
+        }
+        notifyEvicted(evicted);
+    }
+
+    public synchronized String active() {
+        return active;
+    }
+
+    /** Drops a deck, e.g. because its file was replaced. The active deck is dropped too. */
+    public void remove(String id) {
+        Entry<D> removed;
+        synchronized (this) {
+            removed = decks.remove(id);
+            if (removed != null) {
+                residentBytes -= removed.weight;
+            }
+        }
+        if (removed != null) {
+            listener.onEvicted(removed.id, removed.deck);
+        }
+    }
+
+    /**
+     * Evicts least recently used decks until at most bytes are resident, or only the active deck is
+     * left. For memory pressure; the budget itself is unchanged.
+     */
+    public void trimTo(long bytes) {
+        List<Entry<D>> evicted = new ArrayList<>();
+        synchronized (this) {
+            trim(bytes, evicted);
+        }
+        notifyEvicted(evicted);
+    }
+
+    public synchronized long residentBytes() {
+        return residentBytes;
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized int size() {
+        return decks.size();
+    }
+
+    // Caller holds the lock.
+    private void trim(long bytes, List<Entry<D>> evicted) {
+        Iterator<Map.Entry<String, Entry<D>>> eldest = decks.entrySet().iterator();
+        while (residentBytes > bytes && eldest.hasNext()) {
+            Entry<D> entry = eldest.next().getValue();
+            if (entry.id.equals(active)) {
+                continue;
+            }
+            eldest.remove();
+            residentBytes -= entry.weight;
+            evicted.add(entry);
+        }
+    }
+
+    private void notifyEvicted(List<Entry<D>> evicted) {
+        for (Entry<D> entry : evicted) {
+            listener.onEvicted(entry.id, entry.deck);
+        }
+    }
+
+    private static final class Entry<D> {
+        final String id;
+        final D deck;
+        final long weight;
+
+        Entry(String id, D deck, long weight) {
+            this.id = id;
+            this.deck = deck;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,731 @@
+package com.moutamid.wordlistapp.core;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Imports a user's TSV, CSV or word=translation deck into a compiled dictionary file (see
+ * {@link DictionaryFormat}), streaming it in chunks so files of millions of lines never sit in
+ * memory.
+ *
+ * <p>The caller's thread reads chunks that end on a line break and hands each one to a fork-join
+ * pool to be parsed and validated. Parsed chunks are written back in file order, so the first copy
+ * of a duplicate is the one kept and the result does not depend on the thread count. Strings and
+ * their lengths are spilled to temporary files next to the target, duplicates included, and joined
+ * into it at the end, which is replaced only once the import has succeeded.
+ *
+ * <p>Duplicates are found on disk too: each entry's hash is sorted together with its position by an
+ * {@link ExternalSorter}, every repeat after the first is marked, and the marks are sorted back into
+ * file order for the final join to skip. Memory is the chunks in flight, at most two per pool
+ * thread, and the sorters' fixed buffers, however large the file.
+ *
+ * <p>A tab on the first line makes the file TSV; otherwise the first '=', ',' or ';' on it is the
+ * separator. Both fields are trimmed; CSV fields may be quoted, with "" for a quote, but may not
+ * span lines. The first two columns are the word and its translation and any others are ignored.
+ * Lines starting with '#' (Anki headers) and blank lines are skipped; lines with an empty side, a
+ * field over {@link #MAX_FIELD_BYTES}, malformed UTF-8 or no line break within a whole chunk are
+ * counted as rejected. A first line of "#version N" makes the dictionary version N of a
+ * downloadable deck, which {@link DeckPatch}es then update.
+ */
+public final class DeckImporter {
+
+    /**
+     * Called on the importing thread after each chunk has been written. entries counts the valid
+     * lines so far; duplicates among them are only dropped at the end.
+     */
+    public interface Listener {
+        void onProgress(long bytesRead, long totalBytes, int entries);
+    }
+
+    /** What an import did. */
+    public static final class Result {
+        private final int entries;
+        private final int duplicates;
+        private final int rejected;
+        private final long bytes;
+
+        Result(int entries, int duplicates, int rejected, long bytes) {
+            this.entries = entries;
+            this.duplicates = duplicates;
+            this.rejected = rejected;
+            this.bytes = bytes;
+        }
+
+        /** Entries written to the dictionary. */
+        public int entries() {
+            return entries;
+        }
+
+        /** Valid lines dropped because the same word and translation came earlier. */
+        public int duplicates() {
+            return duplicates;
+        }
+
+        /** Lines that could not be parsed. */
+        public int rejected() {
+            return rejected;
+        }
+
+        /** Bytes read from the source. */
+        public long bytes() {
+            return bytes;
+        }
+    }
+
+    public static final int DEFAULT_CHUNK_BYTES = 1 << 20;
+    public static final int MAX_FIELD_BYTES = 1024;
+
+    private static final int TEMP_BUFFER_BYTES = 64 * 1024;
+    private static final int CANCEL_CHECK_ENTRIES = 1 << 16;
+    private static final byte[] VERSION_HEADER = "#version ".getBytes(StandardCharsets.US_ASCII);
+
+    private final ForkJoinPool pool;
+    private final int chunkBytes;
+    private volatile boolean cancelled;
+
+    public DeckImporter(ForkJoinPool pool) {
+        this(pool, DEFAULT_CHUNK_BYTES);
+    }
+
+    public DeckImporter(ForkJoinPool pool, int chunkBytes) {
+        if (chunkBytes < 2 * MAX_FIELD_BYTES + 16) {
+            throw new IllegalArgumentException("Chunk too small: " + chunkBytes);
+        }
+        this.pool = pool;
+        this.chunkBytes = chunkBytes;
+    }
+
+    /**
+     * Stops a running import from any thread. The import throws {@link CancellationException} after
+     * its current chunk and leaves the target untouched.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Reads source to its end and writes the deduplicated entries to target. Blocks; call it off
+     * the main thread. totalBytes is only passed on to the listener and may be -1 if unknown.
+     */
+    public Result importTo(InputStream source, long totalBytes, File target, Listener listener) throws IOException {
+        File blobFile = new File(target.getPath() + ".blob.tmp");
+        File offsetsFile = new File(target.getPath() + ".offsets.tmp");
+        File temp = new File(target.getPath() + ".tmp");
+        try {
+            File directory = target.getAbsoluteFile().getParentFile();
+            if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Cannot create " + directory);
+            }
+            long read;
+            int duplicates;
+            try (Writer writer = new Writer(blobFile, offsetsFile, new File(target.getPath() + ".hashes"));
+                 ExternalSorter removed = new ExternalSorter(new File(target.getPath() + ".duplicates"), ExternalSorter.DEFAULT_BUFFER_PAIRS)) {
+                try {
+                    read = parse(source, totalBytes, writer, listener);
+                } finally {
+                    writer.closeStreams();
+                }
+                duplicates = findDuplicates(writer.hashes, removed);
+                checkCancelled();
+                assemble(writer, duplicates, removed, blobFile, offsetsFile, temp);
+                if (!temp.renameTo(target)) {
+                    throw new IOException("Cannot rename " + temp + " to " + target);
+                }
+                return new Result(writer.entries - duplicates, duplicates, writer.rejected, read);
+            }
+        } finally {
+            blobFile.delete();
+            offsetsFile.delete();
+            temp.delete();
+        }
+    }
+
+    // Marks every entry whose hash came earlier, by position, in removed. Returns how many. Two
+    // entries whose 64-bit hashes collide count as duplicates, about one in 10^6 for a deck of
+    // five million lines.
+    private int findDuplicates(ExternalSorter hashes, ExternalSorter removed) throws IOException {
+        int duplicates = 0;
+        try (ExternalSorter.Reader byHash = hashes.sorted()) {
+            boolean first = true;
+            long previous = 0;
+            while (byHash.next()) {
+                if (!first && byHash.key() == previous) {
+                    removed.add(byHash.value(), 0); // Positions come out ascending, so the first copy stays
+                    duplicates++;
+                    if (duplicates % CANCEL_CHECK_ENTRIES == 0) {
+                        checkCancelled();
+                    }
+                }
+                first = false;
+                previous = byHash.key();
+            }
+        }
+        hashes.close();
+        return duplicates;
+    }
+
+    private long parse(InputStream source, long totalBytes, Writer writer, Listener listener) throws IOException {
+        int window = 2 * pool.getParallelism();
+        ArrayDeque<ForkJoinTask<Chunk>> inFlight = new ArrayDeque<>(window);
+        byte[] buffer = new byte[chunkBytes];
+        int carried = 0;
+        long read = 0;
+        boolean skippingLongLine = false;
+        byte separator = 0;
+        try {
+            while (true) {
+                checkCancelled();
+                int n = fill(source, buffer, carried);
+                boolean end = n < buffer.length - carried;
+                int length = carried + n;
+                read += n;
+                int start = read == length ? bomLength(buffer, length) : 0;
+                if (read == length) {
+                    writer.version = deckVersion(buffer, start, length);
+                }
+                int cut = end ? length : lastLineBreak(buffer, length) + 1;
+                if (cut == 0) {
+                    // No line break in a whole chunk: one huge line, which can only be rejected.
+                    if (!skippingLongLine) {
+                        writer.rejected++;
+                    }
+                    skippingLongLine = true;
+                    carried = 0;
+                    continue;
+                }
+                if (skippingLongLine) {
+                    start = Math.max(start, firstLineBreak(buffer, length) + 1);
+                    skippingLongLine = false;
+                }
+                if (separator == 0) {
+                    separator = detectSeparator(buffer, start, cut);
+                }
+                if (cut > start) {
+                    if (inFlight.size() == window) {
+                        write(inFlight.removeFirst().join(), writer, read, totalBytes, listener);
+                    }
+                    inFlight.addLast(pool.submit(new ParseTask(Arrays.copyOfRange(buffer, start, cut), separator)));
+                }
+                carried = length - cut;
+                System.arraycopy(buffer, cut, buffer, 0, carried);
+                if (end) {
+                    break;
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                write(inFlight.removeFirst().join(), writer, read, totalBytes, listener);
+            }
+            return read;
+        } finally {
+            for (ForkJoinTask<Chunk> task : inFlight) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    private void write(Chunk chunk, Writer writer, long read, long totalBytes, Listener listener) throws IOException {
+        checkCancelled();
+        writer.write(chunk);
+        if (listener != null) {
+            listener.onProgress(read, totalBytes, writer.entries);
+        }
+    }
+
+    private void checkCancelled() {
+        if (cancelled) {
+            throw new CancellationException("Import cancelled");
+        }
+    }
+
+    private static int fill(InputStream in, byte[] buffer, int from) throws IOException {
+        int total = 0;
+        while (from + total < buffer.length) {
+            int n = in.read(buffer, from + total, buffer.length - from - total);
+            if (n < 0) {
+                break;
+            }
+            total += n;
+        }
+        return total;
+    }
+
+    private static int bomLength(byte[] buffer, int length) {
+        return length >= 3 && buffer[0] == (byte) 0xEF && buffer[1] == (byte) 0xBB && buffer[2] == (byte) 0xBF ? 3 : 0;
+    }
+
+    private static int lastLineBreak(byte[] buffer, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int firstLineBreak(byte[] buffer, int length) {
+        for (int i = 0; i < length; i++) {
+            if (buffer[i] == '\n') {
+                return i;
+            }
+        }
+        return length - 1;
+    }
+
+    // N if the text from from starts with a "#version N" line, else 0.
+    static int deckVersion(byte[] bytes, int from, int to) {
+        if (to - from <= VERSION_HEADER.length) {
+            return 0;
+        }
+        for (int i = 0; i < VERSION_HEADER.length; i++) {
+            if (bytes[from + i] != VERSION_HEADER[i]) {
+                return 0;
+            }
+        }
+        long version = 0;
+        int i = from + VERSION_HEADER.length;
+        for (; i < to && bytes[i] >= '0' && bytes[i] <= '9' && version <= Integer.MAX_VALUE; i++) {
+            version = 10 * version + bytes[i] - '0';
+        }
+        boolean endOfLine = i == to || bytes[i] == '\n' || bytes[i] == '\r';
+        return endOfLine && version <= Integer.MAX_VALUE ? (int) version : 0;
+    }
+
+    // Tab if the first line that is not a comment has one, else whichever of '=', ',' and ';' comes
+    // first on it.
+    static byte detectSeparator(byte[] bytes, int from, int to) {
+        int line = from;
+        while (line < to) {
+            int end = line;
+            while (end < to && bytes[end] != '\n') {
+                end++;
+            }
+            if (bytes[line] != '#') {
+                byte found = 0;
+                for (int i = line; i < end; i++) {
+                    byte b = bytes[i];
+                    if (b == '\t') {
+                        return b;
+                    }
+                    if (found == 0 && (b == '=' || b == ',' || b == ';')) {
+                        found = b;
+                    }
+                }
+                if (found != 0) {
+                    return found;
+                }
+            }
+            line = end + 1;
+        }
+        return '\t';
+    }
+
+    // Joins the spilled strings into one dictionary file, leaving out the removed entries: one pass
+    // over the lengths for the offset table, another over lengths and strings for the blob.
+    private void assemble(Writer writer, int duplicates, ExternalSorter removed, File blobFile, File offsetsFile,
+                          File temp) throws IOException {
+        int entries = writer.entries - duplicates;
+        if (entries > Integer.MAX_VALUE / 8 - 2) {
+            throw new IOException("Too many entries for one dictionary");
+        }
+        long limit = Integer.MAX_VALUE - DictionaryFormat.blobStart(entries) - DictionaryFormat.TRAILER_SIZE;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), TEMP_BUFFER_BYTES))) {
+            out.writeInt(DictionaryFormat.MAGIC);
+            out.writeInt(DictionaryFormat.VERSION);
+            out.writeInt(entries);
+            out.writeInt(0);
+            try (IntReader lengths = new IntReader(offsetsFile);
+                 ExternalSorter.Reader skip = removed.sorted()) {
+                ByteBuffer table = ByteBuffer.allocate(TEMP_BUFFER_BYTES);
+                long end = 0;
+                int next = skip.next() ? (int) skip.key() : -1;
+                for (int i = 0; i < writer.entries; i++) {
+                    int wordLength = lengths.next();
+                    int translationLength = lengths.next();
+                    if (i == next) {
+                        next = skip.next() ? (int) skip.key() : -1;
+                        continue;
+                    }
+                    long middle = end + wordLength;
+                    end = middle + translationLength;
+                    if (end > limit) {
+                        throw new IOException("Deck too large for one dictionary");
+                    }
+                    if (table.remaining() < 8) {
+                        out.write(table.array(), 0, table.position());
+                        table.clear();
+                    }
+                    table.putInt((int) middle).putInt((int) end);
+                    if (i % CANCEL_CHECK_ENTRIES == 0) {
+                        checkCancelled();
+                    }
+                }
+                out.write(table.array(), 0, table.position());
+            }
+            // Kept entries sit back to back in the blob, so they are copied a stretch at a time.
+            try (IntReader lengths = new IntReader(offsetsFile);
+                 InputStream blob = new FileInputStream(blobFile);
+                 ExternalSorter.Reader skip = removed.sorted()) {
+                byte[] buffer = new byte[TEMP_BUFFER_BYTES];
+                long kept = 0;
+                int next = skip.next() ? (int) skip.key() : -1;
+                for (int i = 0; i < writer.entries; i++) {
+                    int length = lengths.next() + lengths.next();
+                    if (i == next) {
+                        next = skip.next() ? (int) skip.key() : -1;
+                        copy(blob, out, kept, buffer);
+                        kept = 0;
+                        skipFully(blob, length);
+                    } else {
+                        kept += length;
+                    }
+                }
+                copy(blob, out, kept, buffer);
+            }
+            if (writer.version > 0) {
+                out.writeInt(writer.version);
+                out.writeInt(DictionaryFormat.DECK_VERSION_MAGIC);
+            }
+        }
+    }
+
+    private static void copy(InputStream in, OutputStream out, long n, byte[] buffer) throws IOException {
+        while (n > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, n));
+            if (read < 0) {
+                throw new EOFException();
+            }
+            out.write(buffer, 0, read);
+            n -= read;
+        }
+    }
+
+    private static void skipFully(InputStream in, long n) throws IOException {
+        while (n > 0) {
+            long skipped = in.skip(n);
+            if (skipped <= 0) {
+                if (in.read() < 0) {
+                    throw new EOFException();
+                }
+                skipped = 1;
+            }
+            n -= skipped;
+        }
+    }
+
+    /**
+     * Appends valid entries to the spill files, duplicates included, and their hashes to a sorter.
+     * Only used by the importing thread.
+     */
+    private static final class Writer implements Closeable {
+        private final OutputStream blob;
+        private final OutputStream offsets;
+        private final ByteBuffer lengths = ByteBuffer.allocate(TEMP_BUFFER_BYTES);
+        final ExternalSorter hashes;
+        int entries;
+        int rejected;
+        int version;
+
+        Writer(File blobFile, File offsetsFile, File hashesBase) throws IOException {
+            hashes = new ExternalSorter(hashesBase, ExternalSorter.DEFAULT_BUFFER_PAIRS);
+            blob = new FileOutputStream(blobFile);
+            offsets = new FileOutputStream(offsetsFile);
+        }
+
+        void write(Chunk chunk) throws IOException {
+            rejected += chunk.rejected;
+            if (Integer.MAX_VALUE - entries < chunk.count) {
+                throw new IOException("Too many entries for one dictionary");
+            }
+            // A chunk's entries are back to back, so its strings go out in one write.
+            int[] bounds = chunk.offsets;
+            blob.write(chunk.blob, bounds[0], bounds[2 * chunk.count] - bounds[0]);
+            for (int i = 0; i < chunk.count; i++) {
+                if (lengths.remaining() < 8) {
+                    flushLengths();
+                }
+                lengths.putInt(bounds[2 * i + 1] - bounds[2 * i]).putInt(bounds[2 * i + 2] - bounds[2 * i + 1]);
+                hashes.add(chunk.hashes[i], entries);
+                entries++;
+            }
+        }
+
+        private void flushLengths() throws IOException {
+            offsets.write(lengths.array(), 0, lengths.position());
+            lengths.clear();
+        }
+
+        void closeStreams() throws IOException {
+            try {
+                blob.close();
+                flushLengths();
+            } finally {
+                offsets.close();
+            }
+        }
+
+        /** Deletes the hash runs. */
+        @Override
+        public void close() {
+            hashes.close();
+        }
+    }
+
+    /** Reads back the spilled lengths a block at a time. */
+    private static final class IntReader implements Closeable {
+        private final InputStream in;
+        private final ByteBuffer block = ByteBuffer.allocate(TEMP_BUFFER_BYTES);
+
+        IntReader(File file) throws IOException {
+            in = new FileInputStream(file);
+            block.limit(0);
+        }
+
+        int next() throws IOException {
+            if (block.remaining() < 4) {
+                block.compact();
+                while (block.position() < 4) {
+                    int read = in.read(block.array(), block.position(), block.remaining());
+                    if (read < 0) {
+                        throw new EOFException();
+                    }
+                    block.position(block.position() + read);
+                }
+                block.flip();
+            }
+            return block.getInt();
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /** Parsed entries of one chunk, laid out like {@link PackedWordStore}, plus a hash per entry. */
+    private static final class Chunk {
+        byte[] blob;
+        int[] offsets;
+        long[] hashes;
+        int count;
+        int rejected;
+    }
+
+    @SuppressWarnings("serial")
+    private final class ParseTask extends RecursiveTask<Chunk> {
+        private final byte[] bytes;
+        private final byte separator;
+
+        ParseTask(byte[] bytes, byte separator) {
+            this.bytes = bytes;
+            this.separator = separator;
+        }
+
+        @Override
+        protected Chunk compute() {
+            Chunk chunk = new Chunk();
+            chunk.blob = new byte[bytes.length];
+            chunk.hashes = new long[32];
+            chunk.offsets = new int[2 * chunk.hashes.length + 1];
+            int blobLength = 0;
+            int[] field = new int[4];
+            int line = 0;
+            while (line < bytes.length) {
+                if (cancelled) {
+                    break;
+                }
+                int end = line;
+                while (end < bytes.length && bytes[end] != '\n') {
+                    end++;
+                }
+                int next = end + 1;
+                if (end > line && bytes[end - 1] == '\r') {
+                    end--;
+                }
+                if (isBlank(bytes, line, end) || bytes[line] == '#') {
+                    line = next;
+                    continue;
+                }
+                int second = parseField(line, end, field, 0);
+                if (second < 0 || parseField(second, end, field, 2) < 0 || field[1] == field[0] || field[3] == field[2]) {
+                    chunk.rejected++;
+                    line = next;
+                    continue;
+                }
+                if (chunk.count == chunk.hashes.length) {
+                    chunk.hashes = Arrays.copyOf(chunk.hashes, 2 * chunk.count);
+                    chunk.offsets = Arrays.copyOf(chunk.offsets, 4 * chunk.count + 1);
+                }
+                int start = blobLength;
+                chunk.offsets[2 * chunk.count] = start;
+                blobLength = unquote(field[0], field[1], chunk.blob, blobLength);
+                chunk.offsets[2 * chunk.count + 1] = blobLength;
+                blobLength = unquote(field[2], field[3], chunk.blob, blobLength);
+                chunk.offsets[2 * chunk.count + 2] = blobLength;
+                int translationStart = chunk.offsets[2 * chunk.count + 1];
+                if (translationStart - start > MAX_FIELD_BYTES || blobLength - translationStart > MAX_FIELD_BYTES
+                        || !isUtf8(chunk.blob, start, translationStart) || !isUtf8(chunk.blob, translationStart, blobLength)) {
+                    blobLength = start;
+                    chunk.rejected++;
+                } else {
+                    chunk.hashes[chunk.count++] = hash(chunk.blob, start, translationStart, blobLength);
+                }
+                line = next;
+            }
+            return chunk;
+        }
+
+        /**
+         * Finds the field that starts at from, trimmed and without its quotes, and stores its bounds
+         * in field[slot] and field[slot + 1]; a negative end means a quoted field with "" escapes.
+         * Returns where the following field starts, or -1 if a quote is unterminated or, for the
+         * first field, there is no separator after it.
+         */
+        private int parseField(int from, int end, int[] field, int slot) {
+            int i = skipSpaces(from, end);
+            if (i < end && bytes[i] == '"' && (separator == ',' || separator == ';')) {
+                int fieldStart = ++i;
+                while (true) {
+                    if (i >= end) {
+                        return -1;
+                    }
+                    if (bytes[i] == '"') {
+                        if (i + 1 < end && bytes[i + 1] == '"') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                field[slot] = fieldStart;
+                field[slot + 1] = i == fieldStart ? fieldStart : -(i + 1); // "" stays empty, so it is rejected
+                i = skipSpaces(i + 1, end);
+                if (i < end && bytes[i] != separator) {
+                    return -1;
+                }
+            } else {
+                int fieldStart = i;
+                while (i < end && bytes[i] != separator) {
+                    i++;
+                }
+                field[slot] = fieldStart;
+                field[slot + 1] = trimEnd(fieldStart, i);
+            }
+            if (i >= end) {
+                return slot == 0 ? -1 : end;
+            }
+            return i + 1;
+        }
+
+        private int skipSpaces(int i, int end) {
+            while (i < end && (bytes[i] == ' ' || bytes[i] == '\t' && separator != '\t')) {
+                i++;
+            }
+            return i;
+        }
+
+        private int trimEnd(int start, int end) {
+            while (end > start && (bytes[end - 1] == ' ' || bytes[end - 1] == '\t' && separator != '\t')) {
+                end--;
+            }
+            return end;
+        }
+
+        // Copies a field into out, collapsing "" if it was quoted. Returns the new out length.
+        private int unquote(int start, int end, byte[] out, int position) {
+            if (end >= 0) {
+                System.arraycopy(bytes, start, out, position, end - start);
+                return position + end - start;
+            }
+            end = -end - 1;
+            for (int i = start; i < end; i++) {
+                out[position++] = bytes[i];
+                if (bytes[i] == '"') {
+                    i++;
+                }
+            }
+            return position;
+        }
+    }
+
+    private static boolean isBlank(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] != ' ' && bytes[i] != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean isUtf8(byte[] bytes, int from, int to) {
+        int i = from;
+        while (i < to) {
+            int b = bytes[i] & 0xFF;
+            int continuation;
+            if (b < 0x80) {
+                i++;
+                continue;
+            } else if (b >= 0xC2 && b <= 0xDF) {
+                continuation = 1;
+            } else if (b >= 0xE0 && b <= 0xEF) {
+                continuation = 2;
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                continuation = 3;
+            } else {
+                return false;
+            }
+            if (i + continuation >= to) {
+                return false;
+            }
+            int second = bytes[i + 1] & 0xFF;
+            if (b == 0xE0 && second < 0xA0 || b == 0xED && second > 0x9F // Overlong, or a surrogate
+                    || b == 0xF0 && second < 0x90 || b == 0xF4 && second > 0x8F) { // Overlong, or past U+10FFFF
+                return false;
+            }
+            for (int k = 1; k <= continuation; k++) {
+                if ((bytes[i + k] & 0xC0) != 0x80) {
+                    return false;
+                }
+            }
+            i += continuation + 1;
+        }
+        return true;
+    }
+
+    // FNV-1a over both fields with a separator between them, then a 64-bit finalizer.
+    static long hash(byte[] bytes, int wordStart, int translationStart, int end) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = wordStart; i < end; i++) {
+            if (i == translationStart) {
+                h = (h ^ 0xFF) * 0x100000001b3L;
+            }
+            h = (h ^ (bytes[i] & 0xFF)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,326 @@
+package com.moutamid.wordlistapp.core;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The changes from one version of a downloadable deck to the next: entries added, removed and
+ * modified, each keyed by a stable id.
+ *
+ * <p>An entry's id is its index in the deck, and patches never renumber entries, so review state
+ * and statistics kept by index stay with their words. A modified entry keeps its index and its
+ * state; a removed one stays behind with an empty word and translation (see
+ * {@link BinaryDictionary#isRemoved}); added entries take the next indexes in order.
+ *
+ * <p>A patch is a text list in the format of words.txt, with an operation and an id before each
+ * entry:
+ * <pre>
+ * #patch 3 4
+ * +1201 bonjour=hello
+ * ~17 chat=cat
+ * -42
+ * </pre>
+ * The header names the version the patch applies to and the one it makes. Blank lines and other
+ * lines starting with '#' are skipped. Anything else that does not parse fails the whole patch,
+ * so a deck is never half patched.
+ *
+ * <p>{@link #apply} writes the patched dictionary in one pass over the old one: runs of unchanged
+ * entries are copied in bulk with their offsets shifted, and only the changed entries are encoded.
+ * A patch costs about as much as copying the file, far less than compiling the list again.
+ */
+public final class DeckPatch {
+
+    public static final String HEADER = "#patch";
+
+    private static final char ADD = '+';
+    private static final char MODIFY = '~';
+    private static final char REMOVE = '-';
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    private final int fromVersion;
+    private final int toVersion;
+    // Modified and removed entries, by id; removed ones have no word.
+    private final int[] ids;
+    private final String[] words;
+    private final String[] translations;
+    // Added entries take ids firstAdded, firstAdded + 1, ...
+    private final int firstAdded;
+    private final String[] addedWords;
+    private final String[] addedTranslations;
+
+    private DeckPatch(int fromVersion, int toVersion, int[] ids, String[] words, String[] translations,
+                      int firstAdded, String[] addedWords, String[] addedTranslations) {
+        this.fromVersion = fromVersion;
+        this.toVersion = toVersion;
+        this.ids = ids;
+        this.words = words;
+        this.translations = translations;
+        this.firstAdded = firstAdded;
+        this.addedWords = addedWords;
+        this.addedTranslations = addedTranslations;
+    }
+
+    /** Reads a patch to its end. Throws if any line of it is malformed. */
+    public static DeckPatch parse(Reader source) throws IOException {
+        BufferedReader reader = new BufferedReader(source);
+        int from = -1;
+        int to = -1;
+        List<Change> changes = new ArrayList<>();
+        List<Change> added = new ArrayList<>();
+        int number = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            number++;
+            if (number == 1 && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            if (line.startsWith(HEADER + " ")) {
+                String[] versions = line.substring(HEADER.length()).trim().split(" +");
+                if (from >= 0 || versions.length != 2) {
+                    throw new IOException("Line " + number + ": bad header");
+                }
+                from = parseNumber(versions[0], number);
+                to = parseNumber(versions[1], number);
+                if (to <= from) {
+                    throw new IOException("Line " + number + ": patch from version " + from + " to " + to);
+                }
+                continue;
+            }
+            if (line.charAt(0) == '#') {
+                continue;
+            }
+            if (from < 0) {
+                throw new IOException("Line " + number + ": no " + HEADER + " header before it");
+            }
+            char operation = line.charAt(0);
+            int space = line.indexOf(' ');
+            if ((operation != ADD && operation != MODIFY && operation != REMOVE) || space == 1) {
+                throw new IOException("Line " + number + ": not a patch line");
+            }
+            int id = parseNumber(line.substring(1, space < 0 ? line.length() : space), number);
+            if (operation == REMOVE && space < 0) {
+                changes.add(new Change(id, null, null));
+                continue;
+            }
+            if (operation == REMOVE || space < 0) {
+                throw new IOException("Line " + number + ": not a patch line");
+            }
+            String entry = line.substring(space + 1);
+            int separator = DictionaryCompiler.separator(entry);
+            if (separator < 0) {
+                throw new IOException("Line " + number + ": not a word=translation entry");
+            }
+            Change change = new Change(id, entry.substring(0, separator), entry.substring(separator + 1));
+            (operation == ADD ? added : changes).add(change);
+        }
+        if (from < 0) {
+            throw new IOException("Not a deck patch");
+        }
+
+        Collections.sort(changes, (a, b) -> Integer.compare(a.id, b.id));
+        int firstAdded = added.isEmpty() ? Integer.MAX_VALUE : added.get(0).id;
+        int[] ids = new int[changes.size()];
+        String[] words = new String[ids.length];
+        String[] translations = new String[ids.length];
+        for (int c = 0; c < ids.length; c++) {
+            Change change = changes.get(c);
+            if (c > 0 && change.id == ids[c - 1]) {
+                throw new IOException("Entry " + change.id + " changed twice");
+            }
+            if (change.id >= firstAdded) {
+                throw new IOException("Entry " + change.id + " changed by the patch that adds it");
+            }
+            ids[c] = change.id;
+            words[c] = change.word;
+            translations[c] = change.translation;
+        }
+        String[] addedWords = new String[added.size()];
+        String[] addedTranslations = new String[added.size()];
+        for (int a = 0; a < addedWords.length; a++) {
+            Change change = added.get(a);
+            if (change.id != firstAdded + a) {
+                throw new IOException("Entry " + change.id + " added out of order");
+            }
+            addedWords[a] = change.word;
+            addedTranslations[a] = change.translation;
+        }
+        return new DeckPatch(from, to, ids, words, translations, firstAdded, addedWords, addedTranslations);
+    }
+
+    public int fromVersion() {
+        return fromVersion;
+    }
+
+    public int toVersion() {
+        return toVersion;
+    }
+
+    /** Every entry the patch adds, removes or modifies, in index order. */
+    public int[] changedEntries() {
+        int[] entries = new int[ids.length + addedWords.length];
+        System.arraycopy(ids, 0, entries, 0, ids.length);
+        for (int a = 0; a < addedWords.length; a++) {
+            entries[ids.length + a] = firstAdded + a;
+        }
+        return entries;
+    }
+
+    /**
+     * Writes base with the patch applied to out, as a dictionary at {@link #toVersion}. Throws
+     * before writing anything if the patch is for another version or does not fit base.
+     */
+    public void apply(BinaryDictionary base, OutputStream out) throws IOException {
+        int n = base.size();
+        if (base.deckVersion() != fromVersion) {
+            throw new IOException("Patch for version " + fromVersion + ", deck is at " + base.deckVersion());
+        }
+        if (ids.length > 0 && ids[ids.length - 1] >= n) {
+            throw new IOException("Patch changes entry " + ids[ids.length - 1] + " of " + n);
+        }
+        if (addedWords.length > 0 && firstAdded != n) {
+            throw new IOException("Patch adds entry " + firstAdded + " after " + n);
+        }
+        int total = n + addedWords.length;
+        if (total > (Integer.MAX_VALUE - DictionaryFormat.HEADER_SIZE) / 8 - 1) {
+            throw new IOException("Too many entries for one dictionary");
+        }
+        byte[][] changed = encode(words, translations);
+        byte[][] appended = encode(addedWords, addedTranslations);
+
+        ByteBuffer table = ByteBuffer.allocate(DictionaryFormat.blobStart(total));
+        table.putInt(DictionaryFormat.MAGIC).putInt(DictionaryFormat.VERSION).putInt(total).putInt(0);
+        long limit = Integer.MAX_VALUE - DictionaryFormat.blobStart(total) - DictionaryFormat.TRAILER_SIZE;
+        long end = 0;
+        int c = 0;
+        int oldEnd = base.offset(0);
+        for (int i = 0; i < total; i++) {
+            long middle;
+            if (i >= n) {
+                middle = end + appended[2 * (i - n)].length;
+                end = middle + appended[2 * (i - n) + 1].length;
+            } else if (c < ids.length && ids[c] == i) {
+                middle = end + changed[2 * c].length;
+                end = middle + changed[2 * c + 1].length;
+                oldEnd = base.offset(2 * i + 2);
+                c++;
+            } else {
+                int oldStart = oldEnd;
+                int oldMiddle = base.offset(2 * i + 1);
+                oldEnd = base.offset(2 * i + 2);
+                middle = end + oldMiddle - oldStart;
+                end = middle + oldEnd - oldMiddle;
+            }
+            if (end > limit) {
+                throw new IOException("Patched deck too large for one dictionary");
+            }
+            table.putInt((int) middle).putInt((int) end);
+        }
+
+        out.write(table.array());
+        ByteBuffer blob = base.blob();
+        byte[] scratch = new byte[COPY_BUFFER_BYTES];
+        int runStart = 0;
+        for (c = 0; c <= ids.length; c++) {
+            int runEnd = c < ids.length ? ids[c] : n;
+            copy(blob, base.offset(2 * runStart), base.offset(2 * runEnd), out, scratch);
+            if (c < ids.length) {
+                out.write(changed[2 * c]);
+                out.write(changed[2 * c + 1]);
+                runStart = runEnd + 1;
+            }
+        }
+        for (byte[] bytes : appended) {
+            out.write(bytes);
+        }
+        DataOutputStream trailer = new DataOutputStream(out);
+        trailer.writeInt(toVersion);
+        trailer.writeInt(DictionaryFormat.DECK_VERSION_MAGIC);
+        trailer.flush();
+    }
+
+    /**
+     * Patches a dictionary file, replacing it only once the patched one is complete and synced, and
+     * returns the patched dictionary memory-mapped. Mappings of the old file stay valid. Does
+     * blocking I/O.
+     */
+    public BinaryDictionary applyTo(File file) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            BinaryDictionary base = BinaryDictionary.map(file);
+            FileOutputStream stream = new FileOutputStream(temp);
+            try (OutputStream out = new BufferedOutputStream(stream, COPY_BUFFER_BYTES)) {
+                apply(base, out);
+                out.flush();
+                stream.getFD().sync();
+            }
+            if (!temp.renameTo(file)) {
+                throw new IOException("Cannot rename " + temp + " to " + file);
+            }
+            return BinaryDictionary.map(file);
+        } finally {
+            temp.delete();
+        }
+    }
+
+    // Word, translation, word, ... as UTF-8; removed entries get two empty strings.
+    private static byte[][] encode(String[] words, String[] translations) {
+        byte[][] bytes = new byte[2 * words.length][];
+        for (int i = 0; i < words.length; i++) {
+            bytes[2 * i] = words[i] != null ? words[i].getBytes(StandardCharsets.UTF_8) : new byte[0];
+            bytes[2 * i + 1] = translations[i] != null ? translations[i].getBytes(StandardCharsets.UTF_8) : new byte[0];
+        }
+        return bytes;
+    }
+
+    private static void copy(ByteBuffer blob, int from, int to, OutputStream out, byte[] scratch) throws IOException {
+        if (blob.hasArray()) {
+            out.write(blob.array(), blob.arrayOffset() + from, to - from);
+            return;
+        }
+        ByteBuffer view = blob.duplicate();
+        view.position(from);
+        while (view.position() < to) {
+            int n = Math.min(scratch.length, to - view.position());
+            view.get(scratch, 0, n);
+            out.write(scratch, 0, n);
+        }
+    }
+
+    private static int parseNumber(String text, int line) throws IOException {
+        try {
+            int value = Integer.parseInt(text);
+            if (value >= 0) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below with the line number.
+        }
+        throw new IOException("Line " + line + ": bad number " + text);
+    }
+
+    private static final class Change {
+        final int id;
+        final String word;
+        final String translation;
+
+        Change(int id, String word, String translation) {
+            this.id = id;
+            this.word = word;
+            this.translation = translation;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.moutamid.wordlistapp.core;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fetches {@link DeckPatch}es for downloadable decks. The patch from version v of deck id is
+ * served at id/v.patch under the base URL; a 404 or 204 means the deck is current.
+ *
+ * <p>Every request is bounded: by the connect and read timeouts, and by a maximum patch size that
+ * is checked against Content-Length up front and against the bytes actually read while parsing, so
+ * neither a slow nor a runaway server can hold a thread or fill memory. Blocking; call it off the
+ * main thread.
+ */
+public final class DeckPatchClient {
+
+    private final URL base;
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final int maxPatchBytes;
+    private final AtomicLong requests = new AtomicLong();
+
+    /** base must end with a '/'. */
+    public DeckPatchClient(URL base, int connectTimeoutMillis, int readTimeoutMillis, int maxPatchBytes) {
+        this.base = base;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.maxPatchBytes = maxPatchBytes;
+    }
+
+    /**
+     * Returns the patch that takes deck id on from version, or null if the server has no newer
+     * version. Throws if the request fails or the patch is too large, malformed or for another
+     * version.
+     */
+    public DeckPatch fetch(String deckId, int version) throws IOException {
+        requests.incrementAndGet();
+        URL url = new URL(base, deckId + "/" + version + ".patch");
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            connection.setConnectTimeout(connectTimeoutMillis);
+            connection.setReadTimeout(readTimeoutMillis);
+            connection.setUseCaches(false);
+            int status = connection.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_FOUND || status == HttpURLConnection.HTTP_NO_CONTENT) {
+                return null;
+            }
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException("HTTP " + status + " from " + url);
+            }
+            if (connection.getContentLengthLong() > maxPatchBytes) {
+                throw new IOException("Patch larger than " + maxPatchBytes + " bytes");
+            }
+            DeckPatch patch;
+            try (InputStream in = new Bounded(connection.getInputStream(), maxPatchBytes)) {
+                patch = DeckPatch.parse(new InputStreamReader(in, StandardCharsets.UTF_8));
+            }
+            if (patch.fromVersion() != version) {
+                throw new IOException("Asked for a patch from version " + version + ", got one from " + patch.fromVersion());
+            }
+            return patch;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /** Requests made so far. */
+    public long requests() {
+        return requests.get();
+    }
+
+    // Fails the read once more than limit bytes have come through, whatever Content-Length said.
+    private static final class Bounded extends FilterInputStream {
+        private long remaining;
+
+        Bounded(InputStream in, long limit) {
+            super(in);
+            remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) throws IOException {
+            remaining -= n;
+            if (remaining < 0) {
+                throw new IOException("Patch larger than its limit");
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.moutamid.wordlistapp.core;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compiles a word=translation text list into the binary layout described by {@link DictionaryFormat}.
+ * Run at build time so the app never parses the text list on the device.
+ */
+public final class DictionaryCompiler {
+
+    private final PackedWordStore.Builder entries = PackedWordStore.builder();
+
+    /**
+     * Adds one "word=translation" line. Lines without exactly one '=' or with an empty side are
+     * skipped. That is stricter than the app's old split("=") check, which also took "=b" and
+     * "a=b=", since split drops trailing empty strings; neither makes a usable card.
+     *
+     * @return true if the line was added
+     */
+    public boolean addLine(String line) {
+        int separator = separator(line);
+        if (separator < 0) {
+            return false;
+        }
+        add(line.substring(0, separator), line.substring(separator + 1));
+        return true;
+    }
+
+    /** Where a valid "word=translation" line splits, or -1 if it is not one. */
+    static int separator(String line) {
+        int separator = line.indexOf('=');
+        if (separator <= 0 || separator == line.length() - 1 || line.indexOf('=', separator + 1) >= 0) {
+            return -1;
+        }
+        return separator;
+    }
+
+    public void add(String word, String translation) {
+        entries.add(word, translation);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int addAll(Reader source) throws IOException {
+        BufferedReader reader = new BufferedReader(source);
+        int added = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (addLine(line)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    public PackedWordStore build() {
+        return entries.build();
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        write(entries.build(), out);
+    }
+
+    public byte[] toByteArray() {
+        PackedWordStore store = entries.build();
+        ByteArrayOutputStream out = new ByteArrayOutputStream((int) (DictionaryFormat.HEADER_SIZE + store.footprintBytes()));
+        try {
+            write(store, out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public static void write(PackedWordStore store, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(DictionaryFormat.MAGIC);
+        data.writeInt(DictionaryFormat.VERSION);
+        data.writeInt(store.size());
+        int[] offsets = store.offsets();
+        for (int i = 0; i <= 2 * store.size(); i++) {
+            data.writeInt(offsets[i]);
+        }
+        data.write(store.blob());
+        data.flush();
+    }
+
+    /** Usage: DictionaryCompiler &lt;words.txt&gt; &lt;words.wdict&gt; */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: DictionaryCompiler <words.txt> <words.wdict>");
+            System.exit(2);
+        }
+        DictionaryCompiler compiler = new DictionaryCompiler();
+        try (Reader in = new InputStreamReader(new FileInputStream(args[0]), StandardCharsets.UTF_8)) {
+            compiler.addAll(in);
+        }
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(args[1]))) {
+            compiler.writeTo(out);
+        }
+        System.out.println("Compiled " + compiler.size() + " entries into " + args[1]);
+    }
+}
@@ -0,0 +1,37 @@
+package com.moutamid.wordlistapp.core;
+
+/**
+ * Layout of the compiled word dictionary (words.wdict).
+ *
+ * <pre>
+ * int    magic        'WDIC'
+ * int    version
+ * int    entryCount   n
+ * int[]  offsets      2n + 1 offsets into the blob, big-endian
+ * byte[] blob         UTF-8 words and translations back to back
+ * int    deckVersion  optional: the version of a downloadable deck, see {@link DeckPatch}
+ * int    'WDVR'       present only after a deck version
+ * </pre>
+ *
+ * Entry i has its word in [offsets[2i], offsets[2i+1]) and its translation in
+ * [offsets[2i+1], offsets[2i+2]) of the blob. A deck without a version is at version 0.
+ */
+public final class DictionaryFormat {
+
+    public static final int MAGIC = 0x57444943; // "WDIC"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 12;
+    public static final int DECK_VERSION_MAGIC = 0x57445652; // "WDVR"
+    public static final int TRAILER_SIZE = 8;
+    public static final String ASSET_NAME = "words.wdict";
+
+    private DictionaryFormat() {}
+
+    public static int offsetTableSize(int entryCount) {
+        return (2 * entryCount + 1) * 4;
+    }
+
+    public static int blobStart(int entryCount) {
+        return HEADER_SIZE + offsetTableSize(entryCount);
+    }
+}
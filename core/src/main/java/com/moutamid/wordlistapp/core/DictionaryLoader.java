@@ -0,0 +1,139 @@
+package com.moutamid.wordlistapp.core;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Loads a dictionary once on a background executor, publishes it to a {@link DictionarySnapshots}
+ * and hands it to everyone who asked for it. Listeners are always called on the callback executor,
+ * which is the main thread in the app.
+ */
+public final class DictionaryLoader {
+
+    public interface Source {
+        /** Loads the full store, optionally reporting the entries of the first chunk as they arrive. */
+        WordStore load(Listener firstChunk) throws IOException;
+    }
+
+    public interface Listener {
+        void onWords(WordStore store);
+    }
+
+    private final DictionarySnapshots snapshots;
+    private final Executor background;
+    private final Executor callbacks;
+    private final List<Listener> firstWordsListeners = new ArrayList<>();
+    private final List<Listener> readyListeners = new ArrayList<>();
+    private boolean loading;
+    private WordStore firstWords;
+
+    public DictionaryLoader(DictionarySnapshots snapshots, Executor background, Executor callbacks) {
+        this.snapshots = snapshots;
+        this.background = background;
+        this.callbacks = callbacks;
+    }
+
+    /** Starts loading unless a load is already running or has finished. */
+    public void load(Source source) {
+        synchronized (this) {
+            if (loading || snapshots.current().isLoaded()) {
+                return;
+            }
+            loading = true;
+        }
+        background.execute(() -> {
+            WordStore loaded;
+            try {
+                loaded = source.load(this::publishFirstWords);
+            } catch (IOException e) {
+                e.printStackTrace();
+                loaded = null;
+            }
+            publishReady(loaded);
+        });
+    }
+
+    /** Whether a load is running or has finished. */
+    public synchronized boolean isStarted() {
+        return loading || snapshots.current().isLoaded();
+    }
+
+    /** Returns the loaded store without locking, or null while loading. */
+    public WordStore getStore() {
+        DictionarySnapshots.Snapshot snapshot = snapshots.current();
+        return snapshot.isLoaded() ? snapshot.store() : null;
+    }
+
+    /** Calls listener with the full store once it is loaded. */
+    public void whenReady(Listener listener) {
+        WordStore ready;
+        synchronized (this) {
+            ready = getStore();
+            if (ready == null) {
+                readyListeners.add(listener);
+                return;
+            }
+        }
+        deliver(listener, ready);
+    }
+
+    /** Calls listener as soon as the first chunk of words is available, or with the full store if that comes first. */
+    public void whenFirstWords(Listener listener) {
+        WordStore available;
+        synchronized (this) {
+            available = getStore();
+            if (available == null) {
+                available = firstWords;
+            }
+            if (available == null) {
+                firstWordsListeners.add(listener);
+                return;
+            }
+        }
+        deliver(listener, available);
+    }
+
+    private void publishFirstWords(WordStore partial) {
+        List<Listener> listeners;
+        synchronized (this) {
+            if (firstWords != null || snapshots.current().isLoaded()) {
+                return;
+            }
+            firstWords = partial;
+            listeners = new ArrayList<>(firstWordsListeners);
+            firstWordsListeners.clear();
+        }
+        for (Listener listener : listeners) {
+            deliver(listener, partial);
+        }
+    }
+
+    private void publishReady(WordStore loaded) {
+        List<Listener> first;
+        List<Listener> ready;
+        synchronized (this) {
+            loading = false;
+            if (loaded != null) {
+                snapshots.publish(loaded);
+            }
+            first = new ArrayList<>(firstWordsListeners);
+            firstWordsListeners.clear();
+            ready = new ArrayList<>(readyListeners);
+            readyListeners.clear();
+        }
+        // A failed load still releases waiters, with an empty store, so receivers can finish.
+        WordStore result = loaded != null ? loaded : PackedWordStore.EMPTY;
+        for (Listener listener : first) {
+            deliver(listener, result);
+        }
+        for (Listener listener : ready) {
+            deliver(listener, result);
+        }
+    }
+
+    private void deliver(Listener listener, WordStore words) {
+        callbacks.execute(() -> listener.onWords(words));
+    }
+}
@@ -0,0 +1,73 @@
+package com.moutamid.wordlistapp.core;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publishes immutable dictionary snapshots through an atomic reference. Readers call
+ * {@link #current()} once per operation and read only from that snapshot, so a concurrent swap can
+ * never mix entries from two different stores and readers never take a lock.
+ */
+public final class DictionarySnapshots {
+
+    /** An immutable store together with the version it was published as. Version 0 is the empty start state. */
+    public static final class Snapshot {
+        private final WordStore store;
+        private final long version;
+
+        Snapshot(WordStore store, long version) {
+            this.store = store;
+            this.version = version;
+        }
+
+        public WordStore store() {
+            return store;
+        }
+
+        public long version() {
+            return version;
+        }
+
+        public boolean isLoaded() {
+            return version > 0;
+        }
+    }
+
+    public interface Update {
+        WordStore apply(WordStore current);
+    }
+
+    private final AtomicReference<Snapshot> current =
+            new AtomicReference<>(new Snapshot(PackedWordStore.EMPTY, 0));
+
+    public Snapshot current() {
+        return current.get();
+    }
+
+    /** Swaps in store as the next version, regardless of what is currently published. */
+    public Snapshot publish(WordStore store) {
+        if (store == null) {
+            throw new NullPointerException("store");
+        }
+        while (true) {
+            Snapshot previous = current.get();
+            Snapshot next = new Snapshot(store, previous.version + 1);
+            if (current.compareAndSet(previous, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Derives a new store from the current one and publishes it, retrying if another writer got
+     * there first. The update may run more than once and must not have side effects.
+     */
+    public Snapshot update(Update update) {
+        while (true) {
+            Snapshot previous = current.get();
+            Snapshot next = new Snapshot(update.apply(previous.store), previous.version + 1);
+            if (current.compareAndSet(previous, next)) {
+                return next;
+            }
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.moutamid.wordlistapp.core;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Finds wrong answers that look like the right one, for multiple-choice questions. Translations
+ * are folded by {@link KeyFolder} and compared as sets of character bigrams.
+ *
+ * <p>Each of {@link #BANDS} MinHash functions puts every translation in the bucket of its
+ * smallest-hashing bigram, so two translations share a bucket with probability equal to the
+ * Jaccard similarity of their bigrams. Within a bucket entries are ordered by translation length.
+ * A question reads a few entries around the answer's length in each of the answer's buckets,
+ * ranks them by bigram similarity and keeps the closest translations that differ from the answer
+ * and from each other. Decks too small or too unusual to fill the question are topped up with
+ * random entries. Either way nothing is scanned: a question costs a few binary searches and a few
+ * dozen folds, whatever the size of the deck.
+ *
+ * <p>A bucket holds entries by their rank in length order, so length ranges are rank ranges and
+ * the index costs 4 bytes per entry per band plus 4 for the ranks.
+ *
+ * <p>Immutable and safe to share between threads.
+ */
+public final class DistractorIndex {
+
+    public static final int BANDS = 3;
+    // Entries ranked on similarity per question; a few binary searches and this many folds.
+    private static final int CANDIDATES = 30;
+    // Longer translations are binned together.
+    private static final int MAX_LENGTH = 64;
+    private static final int[] SEEDS = {0x2545F491, 0x9E3779B9, 0x7F4A7C15};
+    private static final char START = '\u0002';
+    private static final char END = '\u0003';
+
+    private final WordStore store;
+    // Entries in order of translation length, ties in index order.
+    private final int[] byLength;
+    // Ranks [lengthStart[l], lengthStart[l + 1]) have translations of length l.
+    private final int[] lengthStart;
+    // Per band: the distinct hashes, sorted; bucket k is ranks[starts[k] .. starts[k + 1]).
+    private final int[][] bucketHashes;
+    private final int[][] bucketStarts;
+    private final int[][] ranks;
+
+    private DistractorIndex(WordStore store, int[] byLength, int[] lengthStart,
+                            int[][] bucketHashes, int[][] bucketStarts, int[][] ranks) {
+        this.store = store;
+        this.byLength = byLength;
+        this.lengthStart = lengthStart;
+        this.bucketHashes = bucketHashes;
+        this.bucketStarts = bucketStarts;
+        this.ranks = ranks;
+    }
+
+    /** Builds the index for every entry of store. Runs in O(n log n); call it off the main thread. */
+    public static DistractorIndex build(WordStore store) {
+        int n = store.size();
+        int[] length = new int[n];
+        int[][] minHash = new int[BANDS][n];
+        for (int i = 0; i < n; i++) {
+            String key = KeyFolder.fold(store.translation(i));
+            length[i] = Math.min(key.length(), MAX_LENGTH);
+            int[] bigrams = bigrams(key);
+            for (int b = 0; b < BANDS; b++) {
+                minHash[b][i] = minHash(bigrams, b);
+            }
+        }
+
+        // Counting sort by length; stable, so ties stay in index order.
+        int[] lengthStart = new int[MAX_LENGTH + 2];
+        for (int i = 0; i < n; i++) {
+            lengthStart[length[i] + 1]++;
+        }
+        for (int l = 1; l < lengthStart.length; l++) {
+            lengthStart[l] += lengthStart[l - 1];
+        }
+        int[] next = Arrays.copyOf(lengthStart, lengthStart.length);
+        int[] rank = new int[n];
+        int[] byLength = new int[n];
+        for (int i = 0; i < n; i++) {
+            rank[i] = next[length[i]]++;
+            byLength[rank[i]] = i;
+        }
+
+        int[][] bucketHashes = new int[BANDS][];
+        int[][] bucketStarts = new int[BANDS][];
+        int[][] ranks = new int[BANDS][n];
+        long[] keys = new long[n];
+        for (int b = 0; b < BANDS; b++) {
+            for (int i = 0; i < n; i++) {
+                keys[i] = ((long) minHash[b][i] << 32) | rank[i];
+            }
+            Arrays.sort(keys);
+            int[] hashes = new int[16];
+            int[] starts = new int[17];
+            int buckets = 0;
+            for (int p = 0; p < n; p++) {
+                int hash = (int) (keys[p] >> 32);
+                if (buckets == 0 || hashes[buckets - 1] != hash) {
+                    if (buckets == hashes.length) {
+                        hashes = Arrays.copyOf(hashes, 2 * buckets);
+                        starts = Arrays.copyOf(starts, 2 * buckets + 1);
+                    }
+                    hashes[buckets] = hash;
+                    starts[buckets++] = p;
+                }
+                ranks[b][p] = (int) keys[p];
+            }
+            starts[buckets] = n;
+            bucketHashes[b] = Arrays.copyOf(hashes, buckets);
+            bucketStarts[b] = Arrays.copyOf(starts, buckets + 1);
+        }
+        return new DistractorIndex(store, byLength, lengthStart, bucketHashes, bucketStarts, ranks);
+    }
+
+    public WordStore store() {
+        return store;
+    }
+
+    /** Approximate heap used by the index, not counting the store. */
+    public long footprintBytes() {
+        long bytes = 4L * (byLength.length + lengthStart.length);
+        for (int b = 0; b < BANDS; b++) {
+            bytes += 4L * (ranks[b].length + bucketHashes[b].length + bucketStarts[b].length);
+        }
+        return bytes;
+    }
+
+    /**
+     * Fills results with entries whose translations could be mistaken for entry's, most alike
+     * first. Their translations differ from entry's and from each other once folded, and are never
+     * empty like those of removed entries. Returns how many were written, fewer than
+     * results.length only if the deck has too few distinct translations.
+     */
+    public int distractors(int entry, Random random, int[] results) {
+        String answer = KeyFolder.fold(store.translation(entry));
+        int[] answerBigrams = bigrams(answer);
+        int length = Math.min(answer.length(), MAX_LENGTH);
+        int[] candidates = new int[CANDIDATES];
+        int candidateCount = 0;
+        for (int b = 0; b < BANDS; b++) {
+            // Bands that come up short leave their share to the next.
+            int limit = candidateCount + (CANDIDATES - candidateCount) / (BANDS - b);
+            candidateCount = collect(b, minHash(answerBigrams, b), length, entry, random, candidates, candidateCount, limit);
+        }
+
+        String[] keys = new String[candidateCount];
+        double[] similarity = new double[candidateCount];
+        for (int c = 0; c < candidateCount; c++) {
+            keys[c] = KeyFolder.fold(store.translation(candidates[c]));
+            similarity[c] = jaccard(answerBigrams, bigrams(keys[c]));
+        }
+        String[] chosen = new String[results.length];
+        int count = 0;
+        while (count < results.length) {
+            int best = -1;
+            for (int c = 0; c < candidateCount; c++) {
+                if (keys[c] != null && (best < 0 || similarity[c] > similarity[best])) {
+                    best = c;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            if (!keys[best].isEmpty() && !keys[best].equals(answer) && !contains(chosen, count, keys[best])) {
+                chosen[count] = keys[best];
+                results[count++] = candidates[best];
+            }
+            keys[best] = null;
+        }
+
+        // Bounded so a deck of near-identical translations cannot loop forever.
+        for (int attempt = 0; count < results.length && attempt < 16 * results.length; attempt++) {
+            int other = random.nextInt(store.size());
+            String key = KeyFolder.fold(store.translation(other));
+            if (!key.isEmpty() && !key.equals(answer) && !contains(chosen, count, key)) {
+                chosen[count] = key;
+                results[count++] = other;
+            }
+        }
+        return count;
+    }
+
+    // Adds entries from band b's bucket for hash to candidates, nearest to length first, starting at
+    // a random entry of that length so the same answer does not always get the same distractors.
+    private int collect(int b, int hash, int length, int entry, Random random, int[] candidates, int count, int limit) {
+        int bucket = Arrays.binarySearch(bucketHashes[b], hash);
+        if (bucket < 0) {
+            return count;
+        }
+        int[] bandRanks = ranks[b];
+        int low = bucketStarts[b][bucket];
+        int high = bucketStarts[b][bucket + 1];
+        int sameFrom = lowerBound(bandRanks, low, high, lengthStart[length]);
+        int sameTo = lowerBound(bandRanks, sameFrom, high, lengthStart[length + 1]);
+        int up = sameTo > sameFrom ? sameFrom + random.nextInt(sameTo - sameFrom) : sameFrom;
+        int down = up - 1;
+        while (count < limit && (up < high || down >= low)) {
+            if (up < high) {
+                count = add(byLength[bandRanks[up++]], entry, candidates, count, limit);
+            }
+            if (down >= low) {
+                count = add(byLength[bandRanks[down--]], entry, candidates, count, limit);
+            }
+        }
+        return count;
+    }
+
+    private static int add(int candidate, int entry, int[] candidates, int count, int limit) {
+        if (count == limit || candidate == entry) {
+            return count;
+        }
+        for (int c = 0; c < count; c++) {
+            if (candidates[c] == candidate) {
+                return count;
+            }
+        }
+        candidates[count] = candidate;
+        return count + 1;
+    }
+
+    private static int lowerBound(int[] values, int from, int to, int value) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (values[mid] < value) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    // The sorted, distinct bigrams of key between start and end markers, so one letter still has two.
+    static int[] bigrams(String key) {
+        int[] bigrams = new int[key.length() + 1];
+        char previous = START;
+        for (int i = 0; i <= key.length(); i++) {
+            char c = i < key.length() ? key.charAt(i) : END;
+            bigrams[i] = previous << 16 | c;
+            previous = c;
+        }
+        Arrays.sort(bigrams);
+        int distinct = 0;
+        for (int i = 0; i < bigrams.length; i++) {
+            if (i == 0 || bigrams[i] != bigrams[i - 1]) {
+                bigrams[distinct++] = bigrams[i];
+            }
+        }
+        return Arrays.copyOf(bigrams, distinct);
+    }
+
+    static double jaccard(int[] a, int[] b) {
+        int shared = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return shared / (double) (a.length + b.length - shared);
+    }
+
+    private static int minHash(int[] bigrams, int band) {
+        int min = Integer.MAX_VALUE;
+        for (int bigram : bigrams) {
+            min = Math.min(min, mix(bigram * SEEDS[band]));
+        }
+        return min;
+    }
+
+    // MurmurHash3's finalizer.
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static boolean contains(String[] values, int count, String value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i].equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
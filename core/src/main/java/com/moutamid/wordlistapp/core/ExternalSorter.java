@@ -0,0 +1,366 @@
+package com.moutamid.wordlistapp.core;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts any number of (key, value) pairs in a fixed amount of memory. Pairs are collected in a
+ * buffer; a full buffer is radix-sorted and spilled to a run file next to a base path, and the runs
+ * are merged at most {@value #MAX_FAN_IN} at a time. Pairs come out by key, compared unsigned, then
+ * by value.
+ *
+ * <p>Memory is the buffer, 24 bytes per pair with its sort scratch, plus one read buffer per run
+ * being merged, whatever the number of pairs. Only used by one thread.
+ */
+final class ExternalSorter implements Closeable {
+
+    /** Reads sorted pairs: call {@link #next} before each pair. */
+    interface Reader extends Closeable {
+        boolean next() throws IOException;
+
+        long key();
+
+        int value();
+    }
+
+    static final int DEFAULT_BUFFER_PAIRS = 1 << 17;
+    private static final int MAX_FAN_IN = 64;
+    private static final int RUN_BUFFER_BYTES = 16 * 1024;
+    private static final int PAIR_BYTES = 12;
+    private static final int DIGIT_BITS = 16;
+    private static final int DIGITS = 1 << DIGIT_BITS;
+
+    private final String base;
+    private final long[] keys;
+    private final int[] values;
+    private final long[] keyScratch;
+    private final int[] valueScratch;
+    private final ArrayDeque<Run> runs = new ArrayDeque<>();
+    private final List<File> files = new ArrayList<>();
+    private int size;
+    // Values added in ascending order need no sorting pass of their own.
+    private boolean valuesAscending = true;
+    private boolean finished;
+
+    /** Spills runs to files named base.0.run, base.1.run, ... */
+    ExternalSorter(File base, int bufferPairs) {
+        this.base = base.getPath();
+        keys = new long[bufferPairs];
+        values = new int[bufferPairs];
+        keyScratch = new long[bufferPairs];
+        valueScratch = new int[bufferPairs];
+    }
+
+    void add(long key, int value) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("Already sorted");
+        }
+        if (size == keys.length) {
+            spill();
+        }
+        if (size > 0 && Integer.compareUnsigned(value, values[size - 1]) < 0) {
+            valuesAscending = false;
+        }
+        keys[size] = key;
+        values[size] = value;
+        size++;
+    }
+
+    /**
+     * Returns a reader over every pair added, in order. The first call finishes the sort; later
+     * calls read the same pairs again and nothing more can be added.
+     */
+    Reader sorted() throws IOException {
+        if (!finished) {
+            finished = true;
+            if (runs.isEmpty()) {
+                sortBuffer();
+            } else {
+                if (size > 0) {
+                    spill();
+                }
+                while (runs.size() > MAX_FAN_IN) {
+                    List<Run> batch = new ArrayList<>(MAX_FAN_IN);
+                    for (int i = 0; i < MAX_FAN_IN; i++) {
+                        batch.add(runs.removeFirst());
+                    }
+                    runs.addLast(merge(batch)); // Order between runs does not matter: ties go by value
+                }
+            }
+        }
+        if (runs.isEmpty()) {
+            return new BufferReader();
+        }
+        return new MergeReader(new ArrayList<>(runs));
+    }
+
+    /** Deletes the run files. */
+    @Override
+    public void close() {
+        for (File file : files) {
+            file.delete();
+        }
+        files.clear();
+    }
+
+    private void spill() throws IOException {
+        sortBuffer();
+        File file = newRunFile();
+        try (RunWriter out = new RunWriter(file, size)) {
+            for (int i = 0; i < size; i++) {
+                out.write(keys[i], values[i]);
+            }
+        }
+        runs.addLast(new Run(file, size));
+        size = 0;
+        valuesAscending = true;
+    }
+
+    private Run merge(List<Run> batch) throws IOException {
+        File file = newRunFile();
+        long count = 0;
+        for (Run run : batch) {
+            count += run.count;
+        }
+        try (Reader in = new MergeReader(batch);
+             RunWriter out = new RunWriter(file, count)) {
+            while (in.next()) {
+                out.write(in.key(), in.value());
+            }
+        }
+        for (Run run : batch) {
+            run.file.delete();
+        }
+        return new Run(file, count);
+    }
+
+    private File newRunFile() {
+        File file = new File(base + "." + files.size() + ".run");
+        files.add(file);
+        return file;
+    }
+
+    // LSD radix sort, 16 bits at a time: the value's two digits, unless the values are in order
+    // already, then the key's four, each pass stable, so the buffer ends up by key and then value.
+    private void sortBuffer() {
+        int[] counts = new int[DIGITS + 1];
+        long[] k = keys;
+        int[] v = values;
+        long[] kOut = keyScratch;
+        int[] vOut = valueScratch;
+        for (int pass = valuesAscending ? 2 : 0; pass < 6; pass++) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < size; i++) {
+                counts[digit(k[i], v[i], pass) + 1]++;
+            }
+            boolean sameDigit = false;
+            for (int d = 0; d < DIGITS; d++) {
+                sameDigit |= counts[d + 1] == size;
+                counts[d + 1] += counts[d];
+            }
+            if (sameDigit) {
+                continue; // Already in order by this digit
+            }
+            for (int i = 0; i < size; i++) {
+                int at = counts[digit(k[i], v[i], pass)]++;
+                kOut[at] = k[i];
+                vOut[at] = v[i];
+            }
+            long[] keySwap = k;
+            k = kOut;
+            kOut = keySwap;
+            int[] valueSwap = v;
+            v = vOut;
+            vOut = valueSwap;
+        }
+        if (k != keys) {
+            System.arraycopy(k, 0, keys, 0, size);
+            System.arraycopy(v, 0, values, 0, size);
+        }
+    }
+
+    private static int digit(long key, int value, int pass) {
+        if (pass < 2) {
+            return (value >>> (DIGIT_BITS * pass)) & (DIGITS - 1);
+        }
+        return (int) (key >>> (DIGIT_BITS * (pass - 2))) & (DIGITS - 1);
+    }
+
+    static int compare(long key, int value, long otherKey, int otherValue) {
+        int byKey = Long.compareUnsigned(key, otherKey);
+        return byKey != 0 ? byKey : Integer.compareUnsigned(value, otherValue);
+    }
+
+    private static final class Run {
+        final File file;
+        final long count;
+
+        Run(File file, long count) {
+            this.file = file;
+            this.count = count;
+        }
+    }
+
+    private final class BufferReader implements Reader {
+        private int position = -1;
+
+        @Override
+        public boolean next() {
+            return ++position < size;
+        }
+
+        @Override
+        public long key() {
+            return keys[position];
+        }
+
+        @Override
+        public int value() {
+            return values[position];
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    // Run files are a pair count, then the pairs, big-endian. They go through a plain byte block
+    // rather than Data streams, which make a synchronized call per byte.
+    private static final class RunWriter implements Closeable {
+        private final FileOutputStream out;
+        private final ByteBuffer block = ByteBuffer.allocate(RUN_BUFFER_BYTES);
+
+        RunWriter(File file, long count) throws IOException {
+            out = new FileOutputStream(file);
+            block.putLong(count);
+        }
+
+        void write(long key, int value) throws IOException {
+            if (block.remaining() < PAIR_BYTES) {
+                flush();
+            }
+            block.putLong(key).putInt(value);
+        }
+
+        private void flush() throws IOException {
+            out.write(block.array(), 0, block.position());
+            block.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                out.close();
+            }
+        }
+    }
+
+    private static final class RunReader {
+        final FileInputStream in;
+        private final ByteBuffer block = ByteBuffer.allocate(RUN_BUFFER_BYTES);
+        long remaining;
+        long key;
+        int value;
+
+        RunReader(Run run) throws IOException {
+            in = new FileInputStream(run.file);
+            block.limit(0);
+            require(8);
+            remaining = block.getLong();
+        }
+
+        boolean advance() throws IOException {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            require(PAIR_BYTES);
+            key = block.getLong();
+            value = block.getInt();
+            return true;
+        }
+
+        private void require(int bytes) throws IOException {
+            if (block.remaining() >= bytes) {
+                return;
+            }
+            block.compact();
+            while (block.position() < bytes) {
+                int read = in.read(block.array(), block.position(), block.remaining());
+                if (read < 0) {
+                    throw new EOFException("Run file ended early");
+                }
+                block.position(block.position() + read);
+            }
+            block.flip();
+        }
+    }
+
+    private static final class MergeReader implements Reader {
+        private final List<RunReader> readers = new ArrayList<>();
+        private final PriorityQueue<RunReader> heap =
+                new PriorityQueue<>((a, b) -> compare(a.key, a.value, b.key, b.value));
+        private RunReader current;
+
+        MergeReader(List<Run> runs) throws IOException {
+            try {
+                for (Run run : runs) {
+                    RunReader reader = new RunReader(run);
+                    readers.add(reader);
+                    if (reader.advance()) {
+                        heap.add(reader);
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            if (current != null && current.advance()) {
+                heap.add(current);
+            }
+            current = heap.poll();
+            return current != null;
+        }
+
+        @Override
+        public long key() {
+            return current.key;
+        }
+
+        @Override
+        public int value() {
+            return current.value;
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOException failure = null;
+            for (RunReader reader : readers) {
+                try {
+                    reader.in.close();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+}
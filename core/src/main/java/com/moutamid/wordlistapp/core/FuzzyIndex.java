@@ -0,0 +1,170 @@
+package com.moutamid.wordlistapp.core;
+
+import java.util.Arrays;
+
+/**
+ * Typo-tolerant lookup over both sides of a {@link WordStore}. It shares the sorted, folded keys of
+ * a {@link PrefixIndex}, so accents never count as typos and the index costs no extra memory.
+ *
+ * <p>A query walks the sorted keys as if they were a trie, keeping one Levenshtein row per
+ * character of the current key. Keys that share a prefix with the previous key reuse its rows, and
+ * as soon as every cell of a row exceeds the distance, the whole range of keys under that prefix is
+ * skipped. This is the Levenshtein-automaton walk without building the automaton.
+ *
+ * <p>The trie is implicit in two arrays built once: each key's common prefix with the key before
+ * it, and for each key the next one with a shorter common prefix. Skipping a pruned prefix follows
+ * the second array, a few hops at most however many keys share it, instead of searching the keys
+ * themselves. Together they cost 5 bytes per key on top of the {@link PrefixIndex}.
+ *
+ * <p>Immutable and safe to share between threads.
+ */
+public final class FuzzyIndex {
+
+    public static final FuzzyIndex EMPTY = new FuzzyIndex(PrefixIndex.EMPTY);
+
+    private final char[] keys;
+    private final int[] starts;
+    private final int[] slots;
+    private final int longestKey;
+    // sharedPrefix[k]: chars key k shares with key k - 1, capped at Byte.MAX_VALUE.
+    private final byte[] sharedPrefix;
+    // nextShorter[k]: the first key after k that shares fewer chars with its predecessor than k does.
+    private final int[] nextShorter;
+
+    public FuzzyIndex(PrefixIndex index) {
+        keys = index.keys();
+        starts = index.starts();
+        slots = index.slots();
+        int longest = 0;
+        for (int k = 0; k < slots.length; k++) {
+            longest = Math.max(longest, starts[k + 1] - starts[k]);
+        }
+        longestKey = longest;
+        int n = slots.length;
+        sharedPrefix = new byte[n];
+        for (int k = 1; k < n; k++) {
+            sharedPrefix[k] = (byte) Math.min(Byte.MAX_VALUE, commonPrefix(k - 1, k));
+        }
+        nextShorter = new int[n];
+        for (int k = n - 1; k > 0; k--) {
+            int next = k + 1;
+            while (next < n && sharedPrefix[next] >= sharedPrefix[k]) {
+                next = nextShorter[next];
+            }
+            nextShorter[k] = next;
+        }
+    }
+
+    /** Builds the index for every entry of store. Call it off the main thread. */
+    public static FuzzyIndex build(WordStore store) {
+        return new FuzzyIndex(PrefixIndex.build(store));
+    }
+
+    /**
+     * Fills results with the entries whose word or translation is within maxDistance edits of text,
+     * closest first. Each entry appears once. Returns how many were written.
+     */
+    public int search(CharSequence text, int maxDistance, int[] results) {
+        if (slots.length == 0 || results.length == 0) {
+            return 0;
+        }
+        char[] query = KeyFolder.fold(text).toCharArray();
+        int width = query.length + 1;
+        // rows[j] is the edit distance row after the first j chars of the current key.
+        int[] rows = new int[(longestKey + 1) * width];
+        for (int i = 0; i < width; i++) {
+            rows[i] = i;
+        }
+        // Matching key positions, bucketed by distance so the closest come out first.
+        int[][] matches = new int[maxDistance + 1][8];
+        int[] matchCounts = new int[maxDistance + 1];
+
+        // Rows valid for the key visited last. Whether the next key follows it or comes after a
+        // skipped range, the prefix the two share is that key's sharedPrefix.
+        int validRows = 0;
+        int k = 0;
+        while (k < slots.length) {
+            int start = starts[k];
+            int length = starts[k + 1] - start;
+            int depth = Math.min(validRows, Math.min(length, sharedPrefix[k]));
+            boolean pruned = false;
+            for (int j = depth + 1; j <= length; j++) {
+                if (fillRow(rows, j, width, keys[start + j - 1], query) > maxDistance) {
+                    validRows = j - 1;
+                    k = endOfPrefix(k, j);
+                    pruned = true;
+                    break;
+                }
+            }
+            if (pruned) {
+                continue;
+            }
+            validRows = length;
+            int d = rows[length * width + query.length];
+            if (d <= maxDistance) {
+                if (matchCounts[d] == matches[d].length) {
+                    matches[d] = Arrays.copyOf(matches[d], 2 * matches[d].length);
+                }
+                matches[d][matchCounts[d]++] = k;
+            }
+            k++;
+        }
+
+        int count = 0;
+        for (int d = 0; d <= maxDistance; d++) {
+            for (int m = 0; m < matchCounts[d] && count < results.length; m++) {
+                int entry = slots[matches[d][m]] >>> 1;
+                if (!contains(results, count, entry)) {
+                    results[count++] = entry;
+                }
+            }
+        }
+        return count;
+    }
+
+    // Computes row j from row j - 1 for key char c; returns the smallest cell.
+    private static int fillRow(int[] rows, int j, int width, char c, char[] query) {
+        int above = (j - 1) * width;
+        int row = j * width;
+        rows[row] = j;
+        int min = j;
+        for (int i = 1; i < width; i++) {
+            int substitute = rows[above + i - 1] + (query[i - 1] == c ? 0 : 1);
+            int value = Math.min(substitute, Math.min(rows[above + i], rows[row + i - 1]) + 1);
+            rows[row + i] = value;
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    private int commonPrefix(int a, int b) {
+        int startA = starts[a];
+        int startB = starts[b];
+        int n = Math.min(starts[a + 1] - startA, starts[b + 1] - startB);
+        int i = 0;
+        while (i < n && keys[startA + i] == keys[startB + i]) {
+            i++;
+        }
+        return i;
+    }
+
+    // First key after k that does not share k's first length chars. Keys are sorted, so the ones
+    // that do share them follow k directly, and every key nextShorter jumps over shares at least
+    // as much as the key it jumps from.
+    private int endOfPrefix(int k, int length) {
+        int next = k + 1;
+        while (next < slots.length && sharedPrefix[next] >= length) {
+            next = nextShorter[next];
+        }
+        return next;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
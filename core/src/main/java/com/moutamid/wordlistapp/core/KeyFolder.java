@@ -0,0 +1,53 @@
+package com.moutamid.wordlistapp.core;
+
+import java.text.Normalizer;
+
+/**
+ * Folds text into the form search keys are compared in: Unicode-decomposed, diacritics removed,
+ * lower case and single spaces. "Adiós" and "adios" fold to the same key, as do "Sí" and "si".
+ */
+public final class KeyFolder {
+
+    private KeyFolder() {}
+
+    public static String fold(CharSequence text) {
+        if (isFolded(text)) {
+            return text.toString(); // Most keys: skips the normalizer
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        boolean space = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                space = folded.length() > 0;
+                continue;
+            }
+            if (space) {
+                folded.append(' ');
+                space = false;
+            }
+            folded.append(Character.toLowerCase(c));
+        }
+        return folded.toString();
+    }
+
+    // Printable ASCII without capitals, single spaces only between words: already its own key.
+    private static boolean isFolded(CharSequence text) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == ' ') {
+                if (i == 0 || i == length - 1 || text.charAt(i - 1) == ' ') {
+                    return false;
+                }
+            } else if (c < ' ' || c >= 0x7F || (c >= 'A' && c <= 'Z')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
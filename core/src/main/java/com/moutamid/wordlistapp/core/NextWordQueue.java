@@ -0,0 +1,272 @@
+package com.moutamid.wordlistapp.core;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The next few words of a deck, written ahead of time so a notification can be posted from a
+ * fresh process without opening the deck or replaying its review journal.
+ *
+ * <p>{@link #poll} reads the header, one fixed-size slot and that slot's strings, then writes the
+ * time it was taken into the slot and advances the head: a handful of small reads and writes,
+ * whatever the size of the deck. When the deck is loaded again, {@link #drain} hands the words
+ * taken in the meantime to its scheduler and journal.
+ *
+ * <pre>
+ * int    magic      'WNQ1'
+ * int    count
+ * int    head       next slot to take
+ * int    deckIdLength
+ * byte[] deckId     UTF-8
+ * slot[] count slots of: int index, long shownAt (0 = not taken), int stringsOffset,
+ *                        int wordLength, int translationLength
+ * byte[] strings    UTF-8 words and translations
+ * </pre>
+ *
+ * <p>Thread-safe. A missing or corrupt file is an empty queue.
+ */
+public final class NextWordQueue {
+
+    /** One word taken from the queue. */
+    public static final class Entry {
+        private final String deckId;
+        private final int index;
+        private final String word;
+        private final String translation;
+
+        public Entry(String deckId, int index, String word, String translation) {
+            this.deckId = deckId;
+            this.index = index;
+            this.word = word;
+            this.translation = translation;
+        }
+
+        public String deckId() {
+            return deckId;
+        }
+
+        public int index() {
+            return index;
+        }
+
+        public String word() {
+            return word;
+        }
+
+        public String translation() {
+            return translation;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry other = (Entry) o;
+            return index == other.index && deckId.equals(other.deckId)
+                    && word.equals(other.word) && translation.equals(other.translation);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * deckId.hashCode() + index;
+        }
+    }
+
+    /** Receives the words taken since the queue was written, in the order they were taken. */
+    public interface ShownListener {
+        void onShown(int index, long shownAt);
+    }
+
+    private static final int MAGIC = 0x574e5131; // "WNQ1"
+    private static final int HEADER_SIZE = 16;
+    private static final int SLOT_SIZE = 24;
+    private static final int HEAD_OFFSET = 8;
+    private static final int MAX_DECK_ID_BYTES = 1024;
+
+    private final File file;
+
+    public NextWordQueue(File file) {
+        this.file = file;
+    }
+
+    /** Replaces the queue with count entries of store, taken from indexes in order. */
+    public synchronized void write(String deckId, WordStore store, int[] indexes, int count) throws IOException {
+        byte[][] strings = new byte[2 * count][];
+        for (int i = 0; i < count; i++) {
+            strings[2 * i] = store.word(indexes[i]).getBytes(StandardCharsets.UTF_8);
+            strings[2 * i + 1] = store.translation(indexes[i]).getBytes(StandardCharsets.UTF_8);
+        }
+        writeFile(deckId, indexes, new long[count], strings, count);
+    }
+
+    /**
+     * Takes the next word and records it as shown at now. Returns null if the queue is empty,
+     * missing or unreadable.
+     */
+    public synchronized Entry poll(long now) {
+        if (!file.isFile()) {
+            return null; // "rw" would create it.
+        }
+        try (RandomAccessFile in = new RandomAccessFile(file, "rw")) {
+            Header header = readHeader(in);
+            if (header == null || header.head >= header.count) {
+                return null;
+            }
+            long slot = header.slotsStart + (long) header.head * SLOT_SIZE;
+            in.seek(slot);
+            int index = in.readInt();
+            in.readLong();
+            int offset = in.readInt();
+            int wordLength = in.readInt();
+            int translationLength = in.readInt();
+            long stringsAt = header.slotsStart + (long) header.count * SLOT_SIZE + offset;
+            if (index < 0 || offset < 0 || wordLength < 0 || translationLength < 0
+                    || stringsAt + wordLength + translationLength > in.length()) {
+                return null;
+            }
+            byte[] bytes = new byte[wordLength + translationLength];
+            in.seek(stringsAt);
+            in.readFully(bytes);
+            in.seek(slot + 4);
+            in.writeLong(now);
+            in.seek(HEAD_OFFSET);
+            in.writeInt(header.head + 1);
+            return new Entry(header.deckId, index,
+                    new String(bytes, 0, wordLength, StandardCharsets.UTF_8),
+                    new String(bytes, wordLength, translationLength, StandardCharsets.UTF_8));
+        } catch (FileNotFoundException e) {
+            return null;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /** Words left for deckId; 0 if the queue belongs to another deck. */
+    public synchronized int remaining(String deckId) {
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            Header header = readHeader(in);
+            return header != null && header.deckId.equals(deckId) ? header.count - header.head : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * If the queue belongs to deckId, hands every word taken from it to listener and drops them,
+     * keeping the ones not taken yet. Returns how many were handed over.
+     */
+    public synchronized int drain(String deckId, ShownListener listener) throws IOException {
+        int count;
+        int head;
+        int[] indexes;
+        long[] shownAt;
+        byte[][] strings;
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            Header header = readHeader(in);
+            if (header == null || !header.deckId.equals(deckId) || header.head == 0) {
+                return 0;
+            }
+            count = header.count;
+            head = header.head;
+            indexes = new int[count];
+            shownAt = new long[count];
+            int[] lengths = new int[2 * count];
+            in.seek(header.slotsStart);
+            for (int i = 0; i < count; i++) {
+                indexes[i] = in.readInt();
+                shownAt[i] = in.readLong();
+                in.readInt();
+                lengths[2 * i] = in.readInt();
+                lengths[2 * i + 1] = in.readInt();
+                if (lengths[2 * i] < 0 || lengths[2 * i + 1] < 0) {
+                    throw new IOException("Corrupt queue " + file);
+                }
+            }
+            strings = new byte[2 * count][];
+            for (int i = 0; i < 2 * count; i++) {
+                strings[i] = new byte[lengths[i]];
+                in.readFully(strings[i]);
+            }
+        } catch (FileNotFoundException e) {
+            return 0;
+        }
+        for (int i = 0; i < head; i++) {
+            listener.onShown(indexes[i], shownAt[i]);
+        }
+        int left = count - head;
+        byte[][] kept = new byte[2 * left][];
+        System.arraycopy(strings, 2 * head, kept, 0, 2 * left);
+        writeFile(deckId, Arrays.copyOfRange(indexes, head, count), new long[left], kept, left);
+        return head;
+    }
+
+    private void writeFile(String deckId, int[] indexes, long[] shownAt, byte[][] strings, int count) throws IOException {
+        byte[] id = deckId.getBytes(StandardCharsets.UTF_8);
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(count);
+                out.writeInt(0);
+                out.writeInt(id.length);
+                out.write(id);
+                int offset = 0;
+                for (int i = 0; i < count; i++) {
+                    out.writeInt(indexes[i]);
+                    out.writeLong(shownAt[i]);
+                    out.writeInt(offset);
+                    out.writeInt(strings[2 * i].length);
+                    out.writeInt(strings[2 * i + 1].length);
+                    offset += strings[2 * i].length + strings[2 * i + 1].length;
+                }
+                for (int i = 0; i < 2 * count; i++) {
+                    out.write(strings[i]);
+                }
+            }
+            if (!temp.renameTo(file)) {
+                throw new IOException("Cannot rename " + temp + " to " + file);
+            }
+        } finally {
+            temp.delete();
+        }
+    }
+
+    private static Header readHeader(RandomAccessFile in) throws IOException {
+        if (in.length() < HEADER_SIZE || in.readInt() != MAGIC) {
+            return null;
+        }
+        int count = in.readInt();
+        int head = in.readInt();
+        int idLength = in.readInt();
+        if (count < 0 || head < 0 || head > count || idLength < 0 || idLength > MAX_DECK_ID_BYTES
+                || HEADER_SIZE + idLength + (long) count * SLOT_SIZE > in.length()) {
+            return null;
+        }
+        byte[] id = new byte[idLength];
+        in.readFully(id);
+        return new Header(new String(id, StandardCharsets.UTF_8), count, head, HEADER_SIZE + idLength);
+    }
+
+    private static final class Header {
+        final String deckId;
+        final int count;
+        final int head;
+        final long slotsStart;
+
+        Header(String deckId, int count, int head, long slotsStart) {
+            this.deckId = deckId;
+            this.count = count;
+            this.head = head;
+            this.slotsStart = slotsStart;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.moutamid.wordlistapp.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Decides when the word notification is actually posted. Every post is a Binder call, so updates
+ * that arrive within a window of each other are folded into the last one, posts are spaced at
+ * least a minimum interval apart, and an update that would show exactly what is already showing
+ * is dropped. An update is a list of items so a digest of several words is posted as one.
+ *
+ * <p>Not thread-safe; the app only calls it from the main thread.
+ */
+public final class NotificationCoalescer<T> {
+
+    /** Calls {@link #flush} once, after delay. At most one is pending at a time. */
+    public interface Timer {
+        void schedule(long delay);
+    }
+
+    /** Posts the notification: one Binder call. */
+    public interface Sink<T> {
+        void post(List<T> items);
+    }
+
+    private final Clock clock;
+    private final Timer timer;
+    private final Sink<T> sink;
+    private final long window;
+    private final long minInterval;
+    private final List<Runnable> waiting = new ArrayList<>();
+    private List<T> pending;
+    private List<T> showing = Collections.emptyList();
+    private boolean scheduled;
+    private long lastPost = Long.MIN_VALUE;
+    private long submitted;
+    private long posted;
+    private long coalesced;
+    private long unchanged;
+    private long rateLimited;
+
+    /**
+     * @param window      how long an update waits for a newer one
+     * @param minInterval the least time between two posts
+     */
+    public NotificationCoalescer(Clock clock, Timer timer, Sink<T> sink, long window, long minInterval) {
+        this.clock = clock;
+        this.timer = timer;
+        this.sink = sink;
+        this.window = window;
+        this.minInterval = minInterval;
+    }
+
+    /**
+     * Asks for items to be shown. done, which may be null, runs once they are posted or have been
+     * superseded or found already showing.
+     */
+    public void submit(List<T> items, Runnable done) {
+        submitted++;
+        if (pending != null) {
+            coalesced++; // The pending update is never posted.
+        }
+        pending = new ArrayList<>(items);
+        if (done != null) {
+            waiting.add(done);
+        }
+        if (scheduled) {
+            return;
+        }
+        scheduled = true;
+        long delay = window;
+        if (lastPost != Long.MIN_VALUE && lastPost + minInterval - clock.now() > delay) {
+            delay = lastPost + minInterval - clock.now();
+            rateLimited++;
+        }
+        timer.schedule(delay);
+    }
+
+    /** Posts the latest update, if it differs from what is showing. Called by the {@link Timer}. */
+    public void flush() {
+        scheduled = false;
+        List<T> items = pending;
+        pending = null;
+        if (items != null) {
+            if (items.equals(showing)) {
+                unchanged++;
+            } else {
+                showing = Collections.unmodifiableList(items);
+                lastPost = clock.now();
+                posted++;
+                sink.post(showing);
+            }
+        }
+        List<Runnable> done = new ArrayList<>(waiting);
+        waiting.clear();
+        for (Runnable runnable : done) {
+            runnable.run();
+        }
+    }
+
+    /** The notification went away, dismissed or opened: the next update is posted even if equal. */
+    public void clear() {
+        showing = Collections.emptyList();
+    }
+
+    /** What was last posted, empty if nothing is showing. */
+    public List<T> showing() {
+        return showing;
+    }
+
+    public long submitted() {
+        return submitted;
+    }
+
+    public long posted() {
+        return posted;
+    }
+
+    /** Updates replaced by a newer one before they were posted. */
+    public long coalesced() {
+        return coalesced;
+    }
+
+    /** Updates dropped because they were already showing. */
+    public long unchanged() {
+        return unchanged;
+    }
+
+    /** Updates held back past the window to keep posts apart. */
+    public long rateLimited() {
+        return rateLimited;
+    }
+
+    /** Binder calls saved: every update that was not posted. */
+    public long postsAvoided() {
+        return coalesced + unchanged;
+    }
+}
@@ -0,0 +1,89 @@
+package com.moutamid.wordlistapp.core;
+
+/**
+ * Owns the single next time a word notification should fire. Every trigger (the app being used, a
+ * notification being dismissed, the device booting) asks for a notification here, and requests
+ * that an already pending alarm can satisfy are folded into it instead of arming another one.
+ * Alarms are windowed so the system can batch them with other wakeups.
+ *
+ * <p>Not thread-safe; the app only calls it from the main thread.
+ */
+public final class NotificationScheduler {
+
+    public static final long NONE = -1;
+
+    /** The platform alarm. At most one is pending; setting it replaces the previous one. */
+    public interface Alarm {
+        void set(long earliest, long window);
+
+        void cancel();
+    }
+
+    private final Clock clock;
+    private final Alarm alarm;
+    private final long window;
+    private final WakeupStats stats;
+    private long nextFire = NONE;
+
+    /**
+     * @param window how much later than requested a notification may fire so it can be batched
+     */
+    public NotificationScheduler(Clock clock, Alarm alarm, long window, WakeupStats stats) {
+        this.clock = clock;
+        this.alarm = alarm;
+        this.window = window;
+        this.stats = stats;
+    }
+
+    /** Restores the fire time of an alarm armed by an earlier process. */
+    public void restore(long pendingFireTime) {
+        nextFire = pendingFireTime > clock.now() ? pendingFireTime : NONE;
+    }
+
+    /**
+     * Requests a notification about delay from now. A pending alarm that fires no later than the
+     * requested window is kept, so repeated triggers cost nothing.
+     *
+     * @return true if the alarm had to be armed or moved
+     */
+    public boolean request(long delay) {
+        long earliest = clock.now() + delay;
+        if (isPending() && nextFire <= earliest + window) {
+            stats.recordDeduplicated();
+            return false;
+        }
+        arm(earliest);
+        return true;
+    }
+
+    /** Called when the alarm is delivered. */
+    public void onAlarm() {
+        stats.recordWakeup();
+        nextFire = NONE;
+    }
+
+    public void cancel() {
+        if (nextFire != NONE) {
+            alarm.cancel();
+            nextFire = NONE;
+        }
+    }
+
+    public long nextFireTime() {
+        return isPending() ? nextFire : NONE;
+    }
+
+    public WakeupStats stats() {
+        return stats;
+    }
+
+    private boolean isPending() {
+        return nextFire != NONE && nextFire + window >= clock.now();
+    }
+
+    private void arm(long earliest) {
+        nextFire = earliest;
+        stats.recordAlarmSet();
+        alarm.set(earliest, window);
+    }
+}
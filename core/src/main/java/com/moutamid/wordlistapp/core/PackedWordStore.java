@@ -0,0 +1,109 @@
+package com.moutamid.wordlistapp.core;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * {@link WordStore} backed by one UTF-8 byte[] and an int[] offset table, the same layout as the
+ * compiled dictionary file. Costs the string bytes plus 8 bytes per entry.
+ */
+public final class PackedWordStore implements WordStore {
+
+    public static final PackedWordStore EMPTY = new PackedWordStore(new byte[0], new int[]{0}, 0);
+
+    private final byte[] blob;
+    private final int[] offsets;
+    private final int size;
+
+    PackedWordStore(byte[] blob, int[] offsets, int size) {
+        this.blob = blob;
+        this.offsets = offsets;
+        this.size = size;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String word(int index) {
+        checkIndex(index);
+        return string(2 * index);
+    }
+
+    @Override
+    public String translation(int index) {
+        checkIndex(index);
+        return string(2 * index + 1);
+    }
+
+    /** Approximate heap used by the backing arrays. */
+    public long footprintBytes() {
+        return blob.length + 4L * offsets.length;
+    }
+
+    byte[] blob() {
+        return blob;
+    }
+
+    int[] offsets() {
+        return offsets;
+    }
+
+    private String string(int slot) {
+        return new String(blob, offsets[slot], offsets[slot + 1] - offsets[slot], StandardCharsets.UTF_8);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+    }
+
+    public static final class Builder {
+        private byte[] blob = new byte[4096];
+        private int blobLength;
+        private int[] offsets = new int[65];
+        private int size;
+
+        private Builder() {}
+
+        public Builder add(String word, String translation) {
+            ensureOffsets(2 * size + 3);
+            offsets[2 * size] = blobLength;
+            append(word.getBytes(StandardCharsets.UTF_8));
+            offsets[2 * size + 1] = blobLength;
+            append(translation.getBytes(StandardCharsets.UTF_8));
+            size++;
+            offsets[2 * size] = blobLength;
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public PackedWordStore build() {
+            return new PackedWordStore(Arrays.copyOf(blob, blobLength), Arrays.copyOf(offsets, 2 * size + 1), size);
+        }
+
+        private void append(byte[] bytes) {
+            if (blobLength + bytes.length > blob.length) {
+                blob = Arrays.copyOf(blob, Math.max(blob.length * 2, blobLength + bytes.length));
+            }
+            System.arraycopy(bytes, 0, blob, blobLength, bytes.length);
+            blobLength += bytes.length;
+        }
+
+        private void ensureOffsets(int capacity) {
+            if (capacity > offsets.length) {
+                offsets = Arrays.copyOf(offsets, Math.max(offsets.length * 2, capacity));
+            }
+        }
+    }
+}
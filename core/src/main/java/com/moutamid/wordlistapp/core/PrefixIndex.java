@@ -0,0 +1,316 @@
+package com.moutamid.wordlistapp.core;
+
+/**
+ * Prefix index over both sides of a {@link WordStore}. Every word and every translation is folded
+ * by {@link KeyFolder} and the keys are kept sorted in one char[], so a prefix is a contiguous range
+ * found with two binary searches.
+ *
+ * <p>Immutable and safe to share between threads once built. A {@link Query} is not; give each
+ * searching thread its own.
+ */
+public final class PrefixIndex {
+
+    public static final PrefixIndex EMPTY = new PrefixIndex(new char[0], new int[]{0}, new int[0]);
+
+    private final char[] keys;
+    // Key k is keys[starts[k] .. starts[k + 1]).
+    private final int[] starts;
+    // Entry index * 2, plus 1 when the key is the translation.
+    private final int[] slots;
+
+    private PrefixIndex(char[] keys, int[] starts, int[] slots) {
+        this.keys = keys;
+        this.starts = starts;
+        this.slots = slots;
+    }
+
+    /** Builds the index for every entry of store. Runs in O(n log n); call it off the main thread. */
+    public static PrefixIndex build(WordStore store) {
+        int keyCount = 2 * store.size();
+        String[] folded = new String[keyCount];
+        int[] order = new int[keyCount];
+        long length = 0;
+        for (int i = 0; i < store.size(); i++) {
+            folded[2 * i] = KeyFolder.fold(store.word(i));
+            folded[2 * i + 1] = KeyFolder.fold(store.translation(i));
+            length += folded[2 * i].length() + folded[2 * i + 1].length();
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Keys too long: " + length + " chars");
+        }
+        for (int k = 0; k < keyCount; k++) {
+            order[k] = k;
+        }
+        sort(folded, order, 0, keyCount, 0);
+
+        char[] keys = new char[(int) length];
+        int[] starts = new int[keyCount + 1];
+        int[] slots = new int[keyCount];
+        int position = 0;
+        for (int k = 0; k < keyCount; k++) {
+            String key = folded[k];
+            key.getChars(0, key.length(), keys, position);
+            starts[k] = position;
+            slots[k] = order[k];
+            position += key.length();
+        }
+        starts[keyCount] = position;
+        return new PrefixIndex(keys, starts, slots);
+    }
+
+    /**
+     * The index of store, made from base, the index of store before a {@link DeckPatch} changed the
+     * sorted entries changed. The keys of the other entries are already folded and in order, so
+     * only the changed entries are folded and sorted, and then merged with them in one pass: no
+     * strings are read for the rest of the deck. Same keys as {@link #build}; call it off the main
+     * thread.
+     */
+    public static PrefixIndex patch(PrefixIndex base, WordStore store, int[] changed) {
+        boolean[] isChanged = new boolean[store.size()];
+        int freshCount = 2 * changed.length;
+        String[] fresh = new String[freshCount];
+        int[] order = new int[freshCount];
+        long length = 0;
+        for (int c = 0; c < changed.length; c++) {
+            int entry = changed[c];
+            isChanged[entry] = true;
+            fresh[2 * c] = KeyFolder.fold(store.word(entry));
+            fresh[2 * c + 1] = KeyFolder.fold(store.translation(entry));
+            order[2 * c] = 2 * entry;
+            order[2 * c + 1] = 2 * entry + 1;
+            length += fresh[2 * c].length() + fresh[2 * c + 1].length();
+        }
+        sort(fresh, order, 0, freshCount, 0);
+        int keyCount = freshCount;
+        for (int k = 0; k < base.slots.length; k++) {
+            if (!isChanged[base.slots[k] >>> 1]) {
+                keyCount++;
+                length += base.starts[k + 1] - base.starts[k];
+            }
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Keys too long: " + length + " chars");
+        }
+
+        char[] keys = new char[(int) length];
+        int[] starts = new int[keyCount + 1];
+        int[] slots = new int[keyCount];
+        int position = 0;
+        int k = 0;
+        int f = 0;
+        for (int out = 0; out < keyCount; out++) {
+            while (k < base.slots.length && isChanged[base.slots[k] >>> 1]) {
+                k++;
+            }
+            starts[out] = position;
+            if (f == freshCount || (k < base.slots.length && base.compareTo(k, fresh[f]) <= 0)) {
+                int from = base.starts[k];
+                int n = base.starts[k + 1] - from;
+                System.arraycopy(base.keys, from, keys, position, n);
+                slots[out] = base.slots[k++];
+                position += n;
+            } else {
+                String key = fresh[f];
+                key.getChars(0, key.length(), keys, position);
+                slots[out] = order[f++];
+                position += key.length();
+            }
+        }
+        starts[keyCount] = position;
+        return new PrefixIndex(keys, starts, slots);
+    }
+
+    /** Number of keys, two per entry. */
+    public int keyCount() {
+        return slots.length;
+    }
+
+    /** Approximate heap used by the backing arrays. */
+    public long footprintBytes() {
+        return 2L * keys.length + 4L * starts.length + 4L * slots.length;
+    }
+
+    /**
+     * Fills results with the entries whose word or translation starts with prefix, in key order, so
+     * an exact match comes first. Each entry appears once. Returns how many were written.
+     */
+    public int search(CharSequence prefix, int[] results) {
+        Query query = query();
+        query.update(prefix);
+        return query.collect(results);
+    }
+
+    char[] keys() {
+        return keys;
+    }
+
+    int[] starts() {
+        return starts;
+    }
+
+    int[] slots() {
+        return slots;
+    }
+
+    // Compares key k with other, like String.compareTo.
+    private int compareTo(int k, String other) {
+        int start = starts[k];
+        int length = starts[k + 1] - start;
+        int n = Math.min(length, other.length());
+        for (int i = 0; i < n; i++) {
+            char a = keys[start + i];
+            char b = other.charAt(i);
+            if (a != b) {
+                return a - b;
+            }
+        }
+        return length - other.length();
+    }
+
+    /** Starts an incremental query, for search-as-you-type. */
+    public Query query() {
+        return new Query();
+    }
+
+    /**
+     * A prefix that is usually edited one character at a time. When the new prefix extends the
+     * previous one, only the previous range is searched.
+     */
+    public final class Query {
+        private String prefix = "";
+        private int from;
+        private int to = slots.length;
+
+        private Query() {}
+
+        /** Moves the query to a new prefix and returns how many keys match it. */
+        public int update(CharSequence newPrefix) {
+            String folded = KeyFolder.fold(newPrefix);
+            if (!folded.startsWith(prefix)) {
+                from = 0;
+                to = slots.length;
+            }
+            prefix = folded;
+            int low = lowerBound(from, to);
+            to = upperBound(low, to);
+            from = low;
+            return to - from;
+        }
+
+        /** Writes up to results.length distinct entry indexes for the current prefix. */
+        public int collect(int[] results) {
+            int count = 0;
+            for (int k = from; k < to && count < results.length; k++) {
+                int entry = slots[k] >>> 1;
+                if (!contains(results, count, entry)) {
+                    results[count++] = entry;
+                }
+            }
+            return count;
+        }
+
+        // First key in [low, high) that is not below the prefix.
+        private int lowerBound(int low, int high) {
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compareToPrefix(mid) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // First key in [low, high) that sorts after every key starting with the prefix.
+        private int upperBound(int low, int high) {
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compareToPrefix(mid) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // Compares key k truncated to the prefix length; 0 means the key starts with the prefix.
+        private int compareToPrefix(int k) {
+            int start = starts[k];
+            int length = starts[k + 1] - start;
+            int n = Math.min(length, prefix.length());
+            for (int i = 0; i < n; i++) {
+                char a = keys[start + i];
+                char b = prefix.charAt(i);
+                if (a != b) {
+                    return a - b;
+                }
+            }
+            return length < prefix.length() ? -1 : 0;
+        }
+    }
+
+    // Three-way radix quicksort of keys[from, to), which all share their first depth chars. Moves
+    // order along with keys; much faster than a comparator sort on millions of short strings.
+    private static void sort(String[] keys, int[] order, int from, int to, int depth) {
+        while (to - from > 1) {
+            if (to - from < 16) {
+                insertionSort(keys, order, from, to, depth);
+                return;
+            }
+            int pivot = charAt(keys[(from + to) >>> 1], depth);
+            int lt = from;
+            int gt = to - 1;
+            int i = from;
+            while (i <= gt) {
+                int c = charAt(keys[i], depth);
+                if (c < pivot) {
+                    swap(keys, order, lt++, i++);
+                } else if (c > pivot) {
+                    swap(keys, order, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            sort(keys, order, from, lt, depth);
+            sort(keys, order, gt + 1, to, depth);
+            if (pivot < 0) {
+                return;
+            }
+            from = lt;
+            to = gt + 1;
+            depth++;
+        }
+    }
+
+    private static void insertionSort(String[] keys, int[] order, int from, int to, int depth) {
+        for (int i = from + 1; i < to; i++) {
+            for (int j = i; j > from && keys[j].compareTo(keys[j - 1]) < 0; j--) {
+                swap(keys, order, j, j - 1);
+            }
+        }
+    }
+
+    private static int charAt(String key, int depth) {
+        return depth < key.length() ? key.charAt(depth) : -1;
+    }
+
+    private static void swap(String[] keys, int[] order, int i, int j) {
+        String key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        int k = order[i];
+        order[i] = order[j];
+        order[j] = k;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
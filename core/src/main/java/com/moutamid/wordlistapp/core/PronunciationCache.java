@@ -0,0 +1,157 @@
+package com.moutamid.wordlistapp.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Disk cache of synthesized pronunciations, least recently used first out once the files exceed a
+ * byte budget.
+ *
+ * <p>{@link #prefetch} queues synthesis on the worker executor, so words can be rendered before
+ * anyone taps them; {@link #lookup} only consults the in-memory index and never waits on the disk
+ * or the engine. The index is rebuilt from the directory on the worker when the cache is created,
+ * ordered by file modification time.
+ */
+public final class PronunciationCache {
+
+    private static final String SUFFIX = ".wav";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File directory;
+    private final long maxBytes;
+    private final SpeechSynthesizer synthesizer;
+    private final Executor worker;
+    private final PronunciationStats stats;
+
+    // Guarded by this. File name to size, in access order.
+    private final LinkedHashMap<String, Long> files = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<String> pending = new HashSet<>();
+    private long totalBytes;
+
+    public PronunciationCache(File directory, long maxBytes, SpeechSynthesizer synthesizer, Executor worker,
+                              PronunciationStats stats) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.synthesizer = synthesizer;
+        this.worker = worker;
+        this.stats = stats;
+        worker.execute(this::loadIndex);
+    }
+
+    /** Returns the cached audio for text, or null if it has not been synthesized yet. */
+    public File lookup(String text) {
+        String name = fileName(text);
+        synchronized (this) {
+            if (files.get(name) != null) {
+                stats.recordHit();
+                File file = new File(directory, name);
+                worker.execute(() -> file.setLastModified(System.currentTimeMillis())); // LRU order for the next start
+                return file;
+            }
+        }
+        stats.recordMiss();
+        return null;
+    }
+
+    /** Synthesizes text on the worker unless it is already cached or queued. */
+    public void prefetch(String text) {
+        String name = fileName(text);
+        synchronized (this) {
+            if (files.containsKey(name) || !pending.add(name)) {
+                return;
+            }
+        }
+        worker.execute(() -> synthesize(text, name));
+    }
+
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int fileCount() {
+        return files.size();
+    }
+
+    public PronunciationStats stats() {
+        return stats;
+    }
+
+    private void synthesize(String text, String name) {
+        File target = new File(directory, name);
+        File temp = new File(directory, name + TEMP_SUFFIX);
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Cannot create " + directory);
+            }
+            synthesizer.synthesize(text, temp);
+            if (!temp.renameTo(target)) {
+                throw new IOException("Cannot rename " + temp + " to " + target);
+            }
+            stats.recordSynthesized();
+            synchronized (this) {
+                add(name, target.length());
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            temp.delete();
+        } finally {
+            synchronized (this) {
+                pending.remove(name);
+            }
+        }
+    }
+
+    private void loadIndex() {
+        File[] existing = directory.listFiles();
+        if (existing == null) {
+            return;
+        }
+        Arrays.sort(existing, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        synchronized (this) {
+            for (File file : existing) {
+                if (file.getName().endsWith(TEMP_SUFFIX)) {
+                    file.delete(); // Left over from a synthesis that never finished.
+                } else if (file.getName().endsWith(SUFFIX) && !files.containsKey(file.getName())) {
+                    add(file.getName(), file.length());
+                }
+            }
+        }
+    }
+
+    // Caller holds the lock.
+    private void add(String name, long size) {
+        Long previous = files.put(name, size);
+        totalBytes += size - (previous != null ? previous : 0);
+        Iterator<Map.Entry<String, Long>> eldest = files.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            eldest.remove();
+            totalBytes -= entry.getValue();
+            new File(directory, entry.getKey()).delete();
+            stats.recordEvicted();
+        }
+    }
+
+    static String fileName(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder(2 * digest.length + SUFFIX.length());
+            for (byte b : digest) {
+                name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return name.append(SUFFIX).toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e); // Every Java platform has SHA-1.
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.moutamid.wordlistapp.core;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Counts pronunciation cache hits and how long a tap takes to produce sound, cached or live. */
+public final class PronunciationStats {
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong synthesized = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final Latency cached = new Latency();
+    private final Latency live = new Latency();
+
+    void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    void recordSynthesized() {
+        synthesized.incrementAndGet();
+    }
+
+    void recordEvicted() {
+        evicted.incrementAndGet();
+    }
+
+    /** Time from a tap to audio starting, played from the cache or spoken by the engine. */
+    public void recordTapToAudio(long millis, boolean fromCache) {
+        (fromCache ? cached : live).record(millis);
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public long synthesized() {
+        return synthesized.get();
+    }
+
+    public long evicted() {
+        return evicted.get();
+    }
+
+    public double hitRate() {
+        long lookups = hits.get() + misses.get();
+        return lookups == 0 ? 0 : hits.get() / (double) lookups;
+    }
+
+    public double meanCachedLatencyMillis() {
+        return cached.mean();
+    }
+
+    public double meanLiveLatencyMillis() {
+        return live.mean();
+    }
+
+    public long maxCachedLatencyMillis() {
+        return cached.max.get();
+    }
+
+    public long maxLiveLatencyMillis() {
+        return live.max.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%.0f%% hits (%d/%d), %d synthesized, %d evicted, tap-to-audio cached %.1f ms (max %d), live %.1f ms (max %d)",
+                100 * hitRate(), hits(), hits() + misses(), synthesized(), evicted(),
+                meanCachedLatencyMillis(), maxCachedLatencyMillis(), meanLiveLatencyMillis(), maxLiveLatencyMillis());
+    }
+
+    private static final class Latency {
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong total = new AtomicLong();
+        final AtomicLong max = new AtomicLong();
+
+        void record(long millis) {
+            count.incrementAndGet();
+            total.addAndGet(millis);
+            long previous;
+            while (millis > (previous = max.get()) && !max.compareAndSet(previous, millis)) {
+                // Retry until the larger value sticks.
+            }
+        }
+
+        double mean() {
+            long n = count.get();
+            return n == 0 ? 0 : total.get() / (double) n;
+        }
+    }
+}
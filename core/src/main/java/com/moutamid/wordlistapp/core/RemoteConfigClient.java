@@ -0,0 +1,251 @@
+package com.moutamid.wordlistapp.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fetches a small remote config document and keeps it in a file, so most launches never touch the
+ * network.
+ *
+ * <p>A cached copy younger than the TTL is returned as is. An older one is revalidated with a
+ * conditional GET (If-None-Match / If-Modified-Since); a 304 only refreshes its timestamp. If the
+ * server cannot be reached within the timeouts, the stale copy is used. Concurrent {@link #fetch}
+ * calls share one request.
+ */
+public final class RemoteConfigClient {
+
+    /** Receives the config body on the executor thread; never called if there is none to give. */
+    public interface Listener {
+        void onConfig(String body);
+    }
+
+    private static final int CACHE_VERSION = 1;
+    private static final int MAX_BODY_BYTES = 256 * 1024;
+
+    private final URL url;
+    private final File cacheFile;
+    private final long ttlMillis;
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final Executor executor;
+    private final Clock clock;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+
+    // Guarded by this.
+    private final List<Listener> waiting = new ArrayList<>();
+    private boolean inFlight;
+
+    public RemoteConfigClient(URL url, File cacheFile, long ttlMillis, int connectTimeoutMillis, int readTimeoutMillis,
+                              Executor executor, Clock clock) {
+        this.url = url;
+        this.cacheFile = cacheFile;
+        this.ttlMillis = ttlMillis;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.executor = executor;
+        this.clock = clock;
+    }
+
+    /**
+     * Loads the config on the executor and hands it to listener. If the executor rejects the load,
+     * the listeners waiting for it are dropped and the next call tries again.
+     */
+    public void fetch(Listener listener) {
+        synchronized (this) {
+            waiting.add(listener);
+            if (inFlight) {
+                return;
+            }
+            inFlight = true;
+        }
+        try {
+            executor.execute(() -> {
+                String body = null;
+                List<Listener> listeners;
+                try {
+                    body = load();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                } finally {
+                    listeners = drain(); // Even if load failed unexpectedly, so later fetches are not stuck
+                }
+                if (body != null) {
+                    for (Listener waiter : listeners) {
+                        waiter.onConfig(body);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            e.printStackTrace();
+            drain(); // Else inFlight would stay set and no later fetch would ever load
+        }
+    }
+
+    private synchronized List<Listener> drain() {
+        List<Listener> listeners = new ArrayList<>(waiting);
+        waiting.clear();
+        inFlight = false;
+        return listeners;
+    }
+
+    /**
+     * Returns the config, from the cache when it is fresh or the server agrees it is current.
+     * Blocking; throws only if there is neither a usable response nor a cached copy.
+     */
+    public String load() throws IOException {
+        Cached cached = readCache();
+        long now = clock.now();
+        if (cached != null && now - cached.fetchedAt < ttlMillis && now >= cached.fetchedAt) {
+            return cached.body;
+        }
+        try {
+            return request(cached, now);
+        } catch (IOException e) {
+            if (cached != null) {
+                return cached.body; // Stale beats nothing; try again after the next launch.
+            }
+            throw e;
+        }
+    }
+
+    /** Network requests made so far, including revalidations. */
+    public long requests() {
+        return requests.get();
+    }
+
+    /** Requests answered with 304 Not Modified. */
+    public long notModified() {
+        return notModified.get();
+    }
+
+    private String request(Cached cached, long now) throws IOException {
+        requests.incrementAndGet();
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            connection.setConnectTimeout(connectTimeoutMillis);
+            connection.setReadTimeout(readTimeoutMillis);
+            connection.setUseCaches(false);
+            if (cached != null) {
+                if (!cached.etag.isEmpty()) {
+                    connection.setRequestProperty("If-None-Match", cached.etag);
+                }
+                if (!cached.lastModified.isEmpty()) {
+                    connection.setRequestProperty("If-Modified-Since", cached.lastModified);
+                }
+            }
+            int status = connection.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+                notModified.incrementAndGet();
+                writeCache(new Cached(now, cached.etag, cached.lastModified, cached.body));
+                return cached.body;
+            }
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException("HTTP " + status + " from " + url);
+            }
+            String body;
+            try (InputStream in = connection.getInputStream()) {
+                body = readBody(in);
+            }
+            writeCache(new Cached(now, header(connection, "ETag"), header(connection, "Last-Modified"), body));
+            return body;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static String header(HttpURLConnection connection, String name) {
+        String value = connection.getHeaderField(name);
+        return value != null ? value : "";
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            if (out.size() > MAX_BODY_BYTES) {
+                throw new IOException("Config larger than " + MAX_BODY_BYTES + " bytes");
+            }
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private Cached readCache() {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(cacheFile))) {
+            if (in.readInt() != CACHE_VERSION) {
+                return null;
+            }
+            long fetchedAt = in.readLong();
+            String etag = in.readUTF();
+            String lastModified = in.readUTF();
+            int length = in.readInt();
+            if (length < 0 || length > MAX_BODY_BYTES) {
+                throw new IOException("Cached config of " + length + " bytes");
+            }
+            byte[] body = new byte[length];
+            in.readFully(body);
+            return new Cached(fetchedAt, etag, lastModified, new String(body, StandardCharsets.UTF_8));
+        } catch (FileNotFoundException e) {
+            return null;
+        } catch (IOException e) {
+            e.printStackTrace(); // Corrupt; fetch it again.
+            return null;
+        }
+    }
+
+    private void writeCache(Cached cached) {
+        File temp = new File(cacheFile.getPath() + ".tmp");
+        try {
+            File directory = cacheFile.getParentFile();
+            if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Cannot create " + directory);
+            }
+            byte[] body = cached.body.getBytes(StandardCharsets.UTF_8);
+            try (DataOutputStream out = new DataOutputStream(new FileOutputStream(temp))) {
+                out.writeInt(CACHE_VERSION);
+                out.writeLong(cached.fetchedAt);
+                out.writeUTF(cached.etag);
+                out.writeUTF(cached.lastModified);
+                out.writeInt(body.length);
+                out.write(body);
+            }
+            if (!temp.renameTo(cacheFile)) {
+                throw new IOException("Cannot rename " + temp + " to " + cacheFile);
+            }
+        } catch (IOException e) {
+            e.printStackTrace(); // The config still works this launch; it is fetched again next time.
+            temp.delete();
+        }
+    }
+
+    private static final class Cached {
+        final long fetchedAt;
+        final String etag;
+        final String lastModified;
+        final String body;
+
+        Cached(long fetchedAt, String etag, String lastModified, String body) {
+            this.fetchedAt = fetchedAt;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package com.moutamid.wordlistapp.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32;
+
+/**
+ * Persists review state as a compacted snapshot plus an append-only journal of the events since.
+ *
+ * <p>{@link #recordShown} and {@link #recordGrade} only copy primitives into an in-memory batch;
+ * the writer executor appends whole batches to the journal. Once the journal grows past the
+ * compaction threshold it is folded into a new snapshot. Snapshot and journal carry a generation
+ * number so a crash between writing the snapshot and resetting the journal never replays events
+ * twice. Each journal record has a CRC, and replay stops at the first torn or corrupt record.
+ */
+public final class ReviewJournal implements Closeable {
+
+    static final int SNAPSHOT_MAGIC = 0x57534E50; // "WSNP"
+    static final int JOURNAL_MAGIC = 0x574A524E; // "WJRN"
+    /** int magic, long generation, int cards */
+    static final int JOURNAL_HEADER_SIZE = 16;
+    /** int card, byte event, long time, int crc */
+    static final int RECORD_SIZE = 17;
+    static final String SNAPSHOT_NAME = "reviews.snapshot";
+    static final String JOURNAL_NAME = "reviews.journal";
+
+    private static final byte SHOWN = 0;
+
+    private final File snapshotFile;
+    private final File journalFile;
+    private final long baseInterval;
+    private final long compactThreshold;
+    private final Executor writer;
+    private final Runnable flushTask = this::flush;
+
+    // Guarded by this: events recorded by callers and not yet handed to the writer.
+    private Batch filling = new Batch();
+    private boolean flushScheduled;
+    private boolean open;
+
+    // Guarded by writeLock: only touched while writing.
+    private final Object writeLock = new Object();
+    private Batch draining = new Batch();
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer encoded = ByteBuffer.allocate(RECORD_SIZE * 64);
+    private RandomAccessFile journal;
+    private long generation;
+    private int cards;
+    // Orders the new cards of a deck without a snapshot, so compaction folds in the order the live scheduler has.
+    private long seed;
+
+    public ReviewJournal(File directory, long baseInterval, long compactThresholdBytes, Executor writer) {
+        this.snapshotFile = new File(directory, SNAPSHOT_NAME);
+        this.journalFile = new File(directory, JOURNAL_NAME);
+        this.baseInterval = baseInterval;
+        this.compactThreshold = compactThresholdBytes;
+        this.writer = writer;
+    }
+
+    /**
+     * Rebuilds the review state of a deck with the given number of cards from the snapshot and
+     * journal, then opens the journal for appending. State saved for a deck of a different size is
+     * discarded. Does blocking I/O.
+     */
+    public ReviewScheduler restore(int cards, Random random) throws IOException {
+        synchronized (writeLock) {
+            createDirectory();
+            seed = random.nextLong();
+            Restored restored = load(cards, new Random(seed));
+            this.cards = cards;
+            this.generation = restored.generation;
+            if (journal != null) {
+                journal.close();
+                journal = null;
+            }
+            if (restored.journalLength < 0) {
+                resetJournal(generation);
+            } else {
+                journal = new RandomAccessFile(journalFile, "rw");
+                journal.setLength(restored.journalLength); // Drop a torn tail
+                journal.seek(restored.journalLength);
+            }
+            synchronized (this) {
+                open = true;
+            }
+            return restored.scheduler;
+        }
+    }
+
+    /**
+     * Like {@link #restore(int, Random)} for a deck that has grown from savedCards to cards since its
+     * state was saved, as a {@link DeckPatch} that adds entries makes it. The old cards keep their
+     * state and the new ones start fresh. The state is saved at the new size straight away, so from
+     * then on the deck restores with {@link #restore(int, Random)}. Does blocking I/O.
+     */
+    public ReviewScheduler restore(int savedCards, int cards, Random random) throws IOException {
+        if (savedCards > cards) {
+            throw new IllegalArgumentException(savedCards + " cards cannot grow to " + cards);
+        }
+        if (savedCards == cards) {
+            return restore(cards, random);
+        }
+        synchronized (writeLock) {
+            createDirectory();
+            seed = random.nextLong();
+            Restored restored = load(savedCards, new Random(seed));
+            ReviewScheduler scheduler = restored.scheduler.grownTo(cards, random);
+            if (journal != null) {
+                journal.close();
+                journal = null;
+            }
+            this.cards = cards;
+            generation = restored.generation + 1;
+            writeSnapshot(scheduler, generation);
+            resetJournal(generation);
+            synchronized (this) {
+                open = true;
+            }
+            return scheduler;
+        }
+    }
+
+    public void recordShown(int card, long time) {
+        record(card, SHOWN, time);
+    }
+
+    public void recordGrade(int card, ReviewScheduler.Grade grade, long time) {
+        record(card, (byte) (grade.ordinal() + 1), time);
+    }
+
+    private void record(int card, byte event, long time) {
+        synchronized (this) {
+            if (!open) {
+                return;
+            }
+            filling.add(card, event, time);
+            if (flushScheduled) {
+                return;
+            }
+            flushScheduled = true;
+        }
+        writer.execute(flushTask);
+    }
+
+    /** Writes every recorded event to the journal now. Called by the writer, or directly to sync. */
+    public void flush() {
+        synchronized (writeLock) {
+            synchronized (this) {
+                Batch swap = filling;
+                filling = draining;
+                draining = swap;
+                flushScheduled = false;
+            }
+            if (draining.count == 0 || journal == null) {
+                draining.count = 0;
+                return;
+            }
+            try {
+                append(draining);
+                if (journal.length() > compactThreshold) {
+                    compact();
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            } finally {
+                draining.count = 0;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        synchronized (writeLock) {
+            synchronized (this) {
+                open = false;
+            }
+            if (journal != null) {
+                journal.getFD().sync();
+                journal.close();
+                journal = null;
+            }
+        }
+    }
+
+    long journalLength() throws IOException {
+        synchronized (writeLock) {
+            return journal != null ? journal.length() : 0;
+        }
+    }
+
+    private void createDirectory() throws IOException {
+        File directory = snapshotFile.getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+    }
+
+    private void append(Batch batch) throws IOException {
+        int bytes = batch.count * RECORD_SIZE;
+        if (encoded.capacity() < bytes) {
+            encoded = ByteBuffer.allocate(Math.max(bytes, encoded.capacity() * 2));
+        }
+        encoded.clear();
+        for (int i = 0; i < batch.count; i++) {
+            int start = encoded.position();
+            encoded.putInt(batch.cards[i]).put(batch.events[i]).putLong(batch.times[i]);
+            crc.reset();
+            crc.update(encoded.array(), start, RECORD_SIZE - 4);
+            encoded.putInt((int) crc.getValue());
+        }
+        journal.write(encoded.array(), 0, encoded.position());
+    }
+
+    private void compact() throws IOException {
+        journal.getFD().sync();
+        // Rebuilt from disk because the live scheduler belongs to the main thread.
+        ReviewScheduler state = load(cards, new Random(seed)).scheduler;
+        long next = generation + 1;
+        writeSnapshot(state, next);
+        resetJournal(next);
+        generation = next;
+    }
+
+    private void writeSnapshot(ReviewScheduler state, long snapshotGeneration) throws IOException {
+        File temp = new File(snapshotFile.getPath() + ".tmp");
+        FileOutputStream file = new FileOutputStream(temp);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 64 * 1024))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(snapshotGeneration);
+            out.writeInt(state.size());
+            for (int card = 0; card < state.size(); card++) {
+                out.writeLong(state.dueAt(card));
+                out.writeInt(state.intervalSteps(card));
+                out.writeInt(state.ease(card));
+                out.writeInt(state.repetitions(card));
+            }
+            out.flush();
+            file.getFD().sync();
+        }
+        if (!temp.renameTo(snapshotFile)) {
+            throw new IOException("Cannot replace " + snapshotFile);
+        }
+    }
+
+    private void resetJournal(long journalGeneration) throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+        File temp = new File(journalFile.getPath() + ".tmp");
+        try (RandomAccessFile fresh = new RandomAccessFile(temp, "rw")) {
+            fresh.setLength(0);
+            fresh.writeInt(JOURNAL_MAGIC);
+            fresh.writeLong(journalGeneration);
+            fresh.writeInt(cards);
+            fresh.getFD().sync();
+        }
+        if (!temp.renameTo(journalFile)) {
+            throw new IOException("Cannot replace " + journalFile);
+        }
+        journal = new RandomAccessFile(journalFile, "rw");
+        journal.seek(journal.length());
+    }
+
+    private Restored load(int cards, Random random) throws IOException {
+        Restored restored = new Restored();
+        long snapshotGeneration = -1;
+        if (snapshotFile.isFile()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile), 64 * 1024))) {
+                if (in.readInt() == SNAPSHOT_MAGIC) {
+                    snapshotGeneration = in.readLong();
+                    if (in.readInt() == cards) {
+                        restored.scheduler = readSnapshot(in, cards);
+                    }
+                }
+            } catch (IOException e) {
+                // A snapshot is only ever replaced by rename, so a bad one means it is unusable.
+                e.printStackTrace();
+                restored.scheduler = null;
+            }
+        }
+        if (restored.scheduler != null) {
+            restored.generation = snapshotGeneration;
+        } else {
+            // Nothing saved for this deck: start over past any generation already on disk.
+            restored.scheduler = new ReviewScheduler(cards, baseInterval, random);
+            restored.generation = snapshotGeneration + 1;
+        }
+        restored.journalLength = replay(restored.scheduler, restored.generation, cards);
+        return restored;
+    }
+
+    private ReviewScheduler readSnapshot(DataInputStream in, int cards) throws IOException {
+        long[] due = new long[cards];
+        int[] interval = new int[cards];
+        int[] ease = new int[cards];
+        int[] repetitions = new int[cards];
+        for (int card = 0; card < cards; card++) {
+            due[card] = in.readLong();
+            interval[card] = in.readInt();
+            ease[card] = in.readInt();
+            repetitions[card] = in.readInt();
+        }
+        return new ReviewScheduler(baseInterval, due, interval, ease, repetitions);
+    }
+
+    /** Applies journal records to scheduler; returns the length of the valid prefix, or -1 to start a new journal. */
+    private long replay(ReviewScheduler scheduler, long expectedGeneration, int cards) throws IOException {
+        if (!journalFile.isFile()) {
+            return -1;
+        }
+        CRC32 check = new CRC32();
+        byte[] record = new byte[RECORD_SIZE];
+        ByteBuffer view = ByteBuffer.wrap(record);
+        ReviewScheduler.Grade[] grades = ReviewScheduler.Grade.values();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile), 64 * 1024))) {
+            if (journalFile.length() < JOURNAL_HEADER_SIZE || in.readInt() != JOURNAL_MAGIC
+                    || in.readLong() != expectedGeneration || in.readInt() != cards) {
+                return -1; // Missing header, already folded into the snapshot, or another deck
+            }
+            long valid = JOURNAL_HEADER_SIZE;
+            while (true) {
+                int read = readFully(in, record);
+                if (read < RECORD_SIZE) {
+                    return valid;
+                }
+                check.reset();
+                check.update(record, 0, RECORD_SIZE - 4);
+                if (view.getInt(RECORD_SIZE - 4) != (int) check.getValue()) {
+                    return valid;
+                }
+                int card = view.getInt(0);
+                byte event = record[4];
+                long time = view.getLong(5);
+                if (card >= 0 && card < scheduler.size() && event >= 0 && event <= grades.length) {
+                    if (event == SHOWN) {
+                        scheduler.markShown(card, time);
+                    } else {
+                        scheduler.grade(card, grades[event - 1], time);
+                    }
+                }
+                valid += RECORD_SIZE;
+            }
+        }
+    }
+
+    private static int readFully(DataInputStream in, byte[] buffer) throws IOException {
+        int total = 0;
+        while (total < buffer.length) {
+            int n = in.read(buffer, total, buffer.length - total);
+            if (n < 0) {
+                break;
+            }
+            total += n;
+        }
+        return total;
+    }
+
+    private static final class Restored {
+        ReviewScheduler scheduler;
+        long generation;
+        long journalLength;
+    }
+
+    private static final class Batch {
+        int[] cards = new int[64];
+        byte[] events = new byte[64];
+        long[] times = new long[64];
+        int count;
+
+        void add(int card, byte event, long time) {
+            if (count == cards.length) {
+                cards = Arrays.copyOf(cards, count * 2);
+                events = Arrays.copyOf(events, count * 2);
+                times = Arrays.copyOf(times, count * 2);
+            }
+            cards[count] = card;
+            events[count] = event;
+            times[count] = time;
+            count++;
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.moutamid.wordlistapp.core;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * SM-2 style spaced-repetition scheduler over the entries of a {@link WordStore}. Each card's due
+ * time lives in an indexed binary min-heap of primitive arrays, so picking the next card and
+ * applying a grade are both O(log n), even with a million cards.
+ *
+ * <p>Cards that have been graded are kept in a heap of their own, and one of them that is due is
+ * always picked before a new card: a word graded AGAIN comes back after its interval, not once the
+ * rest of the deck has been introduced. Every other card, new ones first in a random order, then
+ * those only shown, waits in the second heap.
+ *
+ * <p>Not thread-safe; the app only touches it from the main thread.
+ */
+public final class ReviewScheduler {
+
+    public enum Grade {
+        /** Not recognised, show again soon. */
+        AGAIN(1),
+        HARD(3),
+        GOOD(4),
+        /** Already known. */
+        EASY(5);
+
+        final int quality;
+
+        Grade(int quality) {
+            this.quality = quality;
+        }
+    }
+
+    static final int INITIAL_EASE = 2500;
+    static final int MIN_EASE = 1300;
+    private static final int MAX_INTERVAL = 365 * 100;
+    // Due time of a retired card: after everything else, so it sinks to the bottom of the heap.
+    private static final long RETIRED = Long.MAX_VALUE;
+
+    private final long baseInterval;
+    private final int size;
+    private final long[] due;
+    private final int[] interval;
+    private final int[] ease;
+    private final int[] repetitions;
+    // Cards never graded, retired or not: new ones due before 0, in the order they are introduced.
+    private final int[] heap;
+    private int heapSize;
+    // Cards graded at least once, which is when their interval becomes positive.
+    private final int[] reviews;
+    private int reviewsSize;
+    // Where each card is in whichever heap holds it.
+    private final int[] position;
+
+    /**
+     * @param size         number of cards, one per store entry
+     * @param baseInterval length of one scheduling step in milliseconds; SM-2 uses a day
+     * @param random       shuffles the order new cards are introduced in
+     */
+    public ReviewScheduler(int size, long baseInterval, Random random) {
+        this.size = size;
+        this.baseInterval = baseInterval;
+        this.due = new long[size];
+        this.interval = new int[size];
+        this.ease = new int[size];
+        this.repetitions = new int[size];
+        this.heap = new int[size];
+        this.reviews = new int[size];
+        this.position = new int[size];
+        this.heapSize = size;
+        for (int i = 0; i < size; i++) {
+            ease[i] = INITIAL_EASE;
+            heap[i] = i;
+        }
+        // New cards are all due at once; a random permutation of the heap decides their order.
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = heap[i];
+            heap[i] = heap[j];
+            heap[j] = swap;
+        }
+        for (int i = 0; i < size; i++) {
+            due[heap[i]] = i - size;
+            position[heap[i]] = i;
+        }
+    }
+
+    /** Restores saved per-card state; arrays are taken over, not copied. */
+    ReviewScheduler(long baseInterval, long[] due, int[] interval, int[] ease, int[] repetitions) {
+        this.size = due.length;
+        this.baseInterval = baseInterval;
+        this.due = due;
+        this.interval = interval;
+        this.ease = ease;
+        this.repetitions = repetitions;
+        this.heap = new int[size];
+        this.reviews = new int[size];
+        this.position = new int[size];
+        for (int i = 0; i < size; i++) {
+            if (interval[i] > 0) {
+                position[i] = reviewsSize;
+                reviews[reviewsSize++] = i;
+            } else {
+                position[i] = heapSize;
+                heap[heapSize++] = i;
+            }
+        }
+        for (int i = (heapSize >>> 1) - 1; i >= 0; i--) {
+            siftDown(heap, heapSize, i);
+        }
+        for (int i = (reviewsSize >>> 1) - 1; i >= 0; i--) {
+            siftDown(reviews, reviewsSize, i);
+        }
+    }
+
+    /**
+     * A copy of this state for the same deck grown to size cards, as a {@link DeckPatch} that adds
+     * entries does. The new cards come after the old ones not yet seen, in random order.
+     */
+    ReviewScheduler grownTo(int newSize, Random random) {
+        int[] newEase = Arrays.copyOf(ease, newSize);
+        Arrays.fill(newEase, size, newSize, INITIAL_EASE);
+        long[] newDue = Arrays.copyOf(due, newSize);
+        // Unseen old cards are due before 0 and reviewed ones at real times, so 0 .. added - 1 fits between.
+        for (int i = size; i < newSize; i++) {
+            int j = size + random.nextInt(i - size + 1);
+            newDue[i] = newDue[j];
+            newDue[j] = i - size;
+        }
+        return new ReviewScheduler(baseInterval, newDue, Arrays.copyOf(interval, newSize), newEase,
+                Arrays.copyOf(repetitions, newSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long baseInterval() {
+        return baseInterval;
+    }
+
+    /** Approximate heap used by the per-card arrays. */
+    public long footprintBytes() {
+        return 8L * due.length + 4L * (interval.length + ease.length + repetitions.length + heap.length
+                + reviews.length + position.length);
+    }
+
+    /**
+     * Returns the card {@link #next} would take at now without changing anything, or -1 if there
+     * are no cards.
+     */
+    public int peek(long now) {
+        int review = reviewsSize > 0 ? reviews[0] : -1;
+        if (review >= 0 && due[review] <= now) {
+            return review;
+        }
+        int other = heapSize > 0 ? heap[0] : -1;
+        int card = other < 0 || (review >= 0 && due[review] < due[other]) ? review : other;
+        return card < 0 || due[card] == RETIRED ? -1 : card;
+    }
+
+    /**
+     * Fills cards with the cards {@link #next} would take from now on, in order, as if none were
+     * shown or graded in between, without changing anything. Returns how many were written. Costs
+     * O(k²) for k = cards.length, independent of the deck size.
+     */
+    public int upcoming(int[] cards, long now) {
+        int wanted = Math.min(cards.length, size);
+        if (wanted == 0) {
+            return 0;
+        }
+        // Best-first walk of both heaps, first over the reviews that are due, then over everything.
+        // A frontier entry is a heap index times two, plus one for the reviews heap.
+        int[] frontier = new int[2 * wanted + 2];
+        int frontierSize = 0;
+        if (reviewsSize > 0) {
+            frontier[frontierSize++] = 1;
+        }
+        boolean dueOnly = true;
+        for (int count = 0; count < wanted; count++) {
+            int best = -1;
+            for (int i = 0; i < frontierSize; i++) {
+                int card = cardAt(frontier[i]);
+                if ((!dueOnly || ((frontier[i] & 1) == 1 && due[card] <= now))
+                        && (best < 0 || due[card] < due[cardAt(frontier[best])])) {
+                    best = i;
+                }
+            }
+            if (best < 0 && dueOnly) {
+                dueOnly = false;
+                if (heapSize > 0) {
+                    frontier[frontierSize++] = 0;
+                }
+                count--;
+                continue;
+            }
+            if (best < 0 || due[cardAt(frontier[best])] == RETIRED) {
+                return count; // Only retired cards are left.
+            }
+            int entry = frontier[best];
+            frontier[best] = frontier[--frontierSize];
+            cards[count] = cardAt(entry);
+            int index = entry >>> 1;
+            int heapSize = (entry & 1) == 1 ? reviewsSize : this.heapSize;
+            for (int child = 2 * index + 1; child <= 2 * index + 2 && child < heapSize; child++) {
+                frontier[frontierSize++] = 2 * child + (entry & 1);
+            }
+        }
+        return wanted;
+    }
+
+    private int cardAt(int entry) {
+        return (entry & 1) == 1 ? reviews[entry >>> 1] : heap[entry >>> 1];
+    }
+
+    /**
+     * Takes a graded card that is due, else a new card, else the card due soonest, and pushes it
+     * back by one step so it is not picked again before it is graded. Returns -1 if there are no cards.
+     */
+    public int next(long now) {
+        int card = peek(now);
+        if (card >= 0) {
+            markShown(card, now);
+        }
+        return card;
+    }
+
+    /**
+     * Takes a card out of the review for good, as for an entry a {@link DeckPatch} removed: it is
+     * never picked again, and retired cards do not count as cards for {@link #next}, {@link #peek}
+     * and {@link #upcoming}. Grading or showing it brings it back.
+     */
+    public void retire(int card) {
+        setDue(card, RETIRED);
+    }
+
+    /** Pushes a card that was just shown back by one step. */
+    public void markShown(int card, long now) {
+        setDue(card, now + baseInterval);
+    }
+
+    public void grade(int card, Grade grade, long now) {
+        if (interval[card] == 0) {
+            moveToReviews(card);
+        }
+        int quality = grade.quality;
+        if (quality < 3) {
+            repetitions[card] = 0;
+            interval[card] = 1;
+        } else {
+            if (repetitions[card] == 0) {
+                interval[card] = 1;
+            } else if (repetitions[card] == 1) {
+                interval[card] = 6;
+            } else {
+                interval[card] = (int) Math.min(MAX_INTERVAL, (long) interval[card] * ease[card] / 1000);
+            }
+            repetitions[card]++;
+        }
+        int miss = 5 - quality;
+        ease[card] = Math.max(MIN_EASE, ease[card] + 100 - miss * (80 + miss * 20));
+        setDue(card, now + interval[card] * baseInterval);
+    }
+
+    public long dueAt(int card) {
+        return due[card];
+    }
+
+    public int intervalSteps(int card) {
+        return interval[card];
+    }
+
+    /** Ease factor times 1000, starting at 2500. */
+    public int ease(int card) {
+        return ease[card];
+    }
+
+    public int repetitions(int card) {
+        return repetitions[card];
+    }
+
+    /** How hard card has been: 1 for a new card, doubling for every 0.3 its ease has dropped. */
+    public double difficulty(int card) {
+        return Math.pow(2, (INITIAL_EASE - ease[card]) / 300.0);
+    }
+
+    // Called before the card's first grade, which makes its interval positive.
+    private void moveToReviews(int card) {
+        int index = position[card];
+        int last = heap[--heapSize];
+        if (last != card) {
+            heap[index] = last;
+            position[last] = index;
+            if (due[last] < due[card]) {
+                siftUp(heap, index);
+            } else {
+                siftDown(heap, heapSize, index);
+            }
+        }
+        position[card] = reviewsSize;
+        reviews[reviewsSize++] = card;
+        siftUp(reviews, reviewsSize - 1);
+    }
+
+    private void setDue(int card, long time) {
+        long previous = due[card];
+        due[card] = time;
+        boolean reviewed = interval[card] > 0;
+        int[] cards = reviewed ? reviews : heap;
+        if (time < previous) {
+            siftUp(cards, position[card]);
+        } else {
+            siftDown(cards, reviewed ? reviewsSize : heapSize, position[card]);
+        }
+    }
+
+    private void siftUp(int[] heap, int index) {
+        int card = heap[index];
+        long key = due[card];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            int parentCard = heap[parent];
+            if (due[parentCard] <= key) {
+                break;
+            }
+            heap[index] = parentCard;
+            position[parentCard] = index;
+            index = parent;
+        }
+        heap[index] = card;
+        position[card] = index;
+    }
+
+    private void siftDown(int[] heap, int size, int index) {
+        int card = heap[index];
+        long key = due[card];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && due[heap[right]] < due[heap[child]]) {
+                child = right;
+            }
+            int childCard = heap[child];
+            if (key <= due[childCard]) {
+                break;
+            }
+            heap[index] = childCard;
+            position[childCard] = index;
+            index = child;
+        }
+        heap[index] = card;
+        position[card] = index;
+    }
+}
@@ -0,0 +1,11 @@
+package com.moutamid.wordlistapp.core;
+
+import java.io.File;
+import java.io.IOException;
+
+/** Text-to-speech engine that renders audio to a file, so it can be played back without delay. */
+public interface SpeechSynthesizer {
+
+    /** Writes text spoken aloud to target. Blocks until the file is complete; never call it on the main thread. */
+    void synthesize(String text, File target) throws IOException;
+}
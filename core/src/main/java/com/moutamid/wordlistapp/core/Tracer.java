@@ -0,0 +1,233 @@
+package com.moutamid.wordlistapp.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Named spans and counters for startup and hot-path timing.
+ *
+ * <p>Spans and counters are created once, up front, and recording into them allocates nothing:
+ * a span keeps a log-scale histogram of durations (about 12% resolution) in a preallocated array,
+ * and a counter is a single atomic long. When the tracer is disabled, {@link Span#begin} is one
+ * volatile read. Each span also opens a section on the {@link Sink}, so it shows up in system
+ * traces.
+ */
+public final class Tracer {
+
+    /** Monotonic time in nanoseconds. */
+    public interface Ticker {
+        Ticker SYSTEM = System::nanoTime;
+
+        long nanoTime();
+    }
+
+    /** Receives begin/end pairs on the thread that ran the span, e.g. android.os.Trace. */
+    public interface Sink {
+        Sink NONE = new Sink() {
+            @Override
+            public void beginSection(String name) {
+            }
+
+            @Override
+            public void endSection() {
+            }
+        };
+
+        void beginSection(String name);
+
+        void endSection();
+    }
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+    private static final long DISABLED = Long.MIN_VALUE;
+
+    private final Ticker ticker;
+    private final Sink sink;
+    private final List<Span> spans = new ArrayList<>();
+    private final List<Counter> counters = new ArrayList<>();
+    private volatile boolean enabled = true;
+
+    public Tracer(Ticker ticker, Sink sink) {
+        this.ticker = ticker;
+        this.sink = sink;
+    }
+
+    public synchronized Span span(String name) {
+        Span span = new Span(name);
+        spans.add(span);
+        return span;
+    }
+
+    public synchronized Counter counter(String name) {
+        Counter counter = new Counter(name);
+        counters.add(counter);
+        return counter;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Clears every span and counter, e.g. before measuring one cold start. */
+    public synchronized void reset() {
+        for (Span span : spans) {
+            span.reset();
+        }
+        for (Counter counter : counters) {
+            counter.value.set(0);
+        }
+    }
+
+    /** One line per span with count and percentiles in milliseconds, then one per counter. */
+    public synchronized String dump() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.US, "%-40s %7s %9s %9s %9s %9s%n", "span", "count", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        for (Span span : spans) {
+            out.append(String.format(Locale.US, "%-40s %7d %9.2f %9.2f %9.2f %9.2f%n", span.name, span.count(),
+                    span.percentileNanos(50) / 1e6, span.percentileNanos(90) / 1e6,
+                    span.percentileNanos(99) / 1e6, span.maxNanos() / 1e6));
+        }
+        for (Counter counter : counters) {
+            out.append(String.format(Locale.US, "%-40s %7d%n", counter.name, counter.get()));
+        }
+        return out.toString();
+    }
+
+    static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) Math.max(nanos, 0);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + sub;
+    }
+
+    /** Largest duration that falls into bucket. */
+    static long bucketUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket >>> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+        long sub = bucket & (SUB_BUCKETS - 1);
+        long lower = (SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS);
+        return lower + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /** A named duration. Keep the instance in a field; look it up once, not per call. */
+    public final class Span {
+        private final String name;
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        private Span(String name) {
+            this.name = name;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        /** Starts timing on this thread; pass the result to {@link #end}. */
+        public long begin() {
+            if (!enabled) {
+                return DISABLED;
+            }
+            sink.beginSection(name);
+            return ticker.nanoTime();
+        }
+
+        public void end(long startedAt) {
+            if (startedAt == DISABLED) {
+                return;
+            }
+            record(ticker.nanoTime() - startedAt);
+            sink.endSection();
+        }
+
+        /** Adds a duration measured elsewhere, e.g. across threads. No trace section is emitted. */
+        public void record(long nanos) {
+            if (!enabled) {
+                return;
+            }
+            histogram.incrementAndGet(bucket(nanos));
+            count.incrementAndGet();
+            long previous;
+            while (nanos > (previous = max.get()) && !max.compareAndSet(previous, nanos)) {
+                // Retry until the larger value sticks.
+            }
+        }
+
+        public long count() {
+            return count.get();
+        }
+
+        public long maxNanos() {
+            return max.get();
+        }
+
+        /** The duration below which percentile percent of the recorded spans fall, rounded up to its bucket. */
+        public long percentileNanos(double percentile) {
+            long total = count.get();
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += histogram.get(i);
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), max.get());
+                }
+            }
+            return max.get();
+        }
+
+        private void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                histogram.set(i, 0);
+            }
+            count.set(0);
+            max.set(0);
+        }
+    }
+
+    /** A named count of events. */
+    public final class Counter {
+        private final String name;
+        private final AtomicLong value = new AtomicLong();
+
+        private Counter(String name) {
+            this.name = name;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public void increment() {
+            if (enabled) {
+                value.incrementAndGet();
+            }
+        }
+
+        public void add(long delta) {
+            if (enabled) {
+                value.addAndGet(delta);
+            }
+        }
+
+        public long get() {
+            return value.get();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.moutamid.wordlistapp.core;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Counts alarm wakeups, notifications and avoided re-arms since the process started. */
+public final class WakeupStats {
+
+    private static final double HOUR_MILLIS = 60 * 60 * 1000;
+
+    private final Clock clock;
+    private final long startedAt;
+    private final AtomicLong wakeups = new AtomicLong();
+    private final AtomicLong notifications = new AtomicLong();
+    private final AtomicLong alarmsSet = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+
+    public WakeupStats(Clock clock) {
+        this.clock = clock;
+        this.startedAt = clock.now();
+    }
+
+    public void recordWakeup() {
+        wakeups.incrementAndGet();
+    }
+
+    public void recordNotification() {
+        notifications.incrementAndGet();
+    }
+
+    void recordAlarmSet() {
+        alarmsSet.incrementAndGet();
+    }
+
+    void recordDeduplicated() {
+        deduplicated.incrementAndGet();
+    }
+
+    public long wakeups() {
+        return wakeups.get();
+    }
+
+    public long notifications() {
+        return notifications.get();
+    }
+
+    public long alarmsSet() {
+        return alarmsSet.get();
+    }
+
+    /** Trigger requests that were folded into an alarm that was already pending. */
+    public long deduplicated() {
+        return deduplicated.get();
+    }
+
+    public double wakeupsPerHour() {
+        return wakeups.get() / hoursElapsed();
+    }
+
+    public double notificationsPerHour() {
+        return notifications.get() / hoursElapsed();
+    }
+
+    private double hoursElapsed() {
+        return Math.max(1, clock.now() - startedAt) / HOUR_MILLIS;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%.2f wakeups/h, %.2f notifications/h, %d alarms set, %d deduplicated",
+                wakeupsPerHour(), notificationsPerHour(), alarmsSet(), deduplicated());
+    }
+}
@@ -0,0 +1,260 @@
+package com.moutamid.wordlistapp.core;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Draws entries with probability proportional to their weight, never one of the last few drawn.
+ *
+ * <p>Entries are grouped by weight into power-of-two classes: class e holds the weights in
+ * [2^e, 2^(e+1)). A draw picks a class from a Walker alias table over the class totals, then an
+ * entry of that class uniformly, and keeps it with probability weight / 2^(e+1), which is at least
+ * one half. Draws therefore cost O(1) expected. Changing a weight moves the entry between classes
+ * in O(1) and marks the alias table stale; it is rebuilt on the next draw in time proportional to
+ * the number of classes in use, which is bounded by the weight range, not the entry count.
+ *
+ * <p>Drawn entries are held out of the draw until {@code window} newer ones have been drawn, like a
+ * shuffle bag, so the same entry cannot come twice in a row. The window is shrunk for tiny decks
+ * so something is always left to draw.
+ *
+ * <p>Weights are clamped to [{@link #MIN_WEIGHT}, {@link #MAX_WEIGHT}]; zero removes an entry.
+ * Not thread-safe.
+ */
+public final class WeightedSampler {
+
+    public static final double MIN_WEIGHT = 0x1p-20;
+    public static final double MAX_WEIGHT = 0x1p20;
+    private static final int MIN_EXPONENT = Math.getExponent(MIN_WEIGHT);
+    private static final int CLASSES = Math.getExponent(MAX_WEIGHT) - MIN_EXPONENT + 1;
+
+    private final int size;
+    private final double[] weight;
+    // Class of each entry, -1 while it has no weight or is held out.
+    private final int[] entryClass;
+    private final int[] slot;
+    private final int[][] members = new int[CLASSES][];
+    private final int[] memberCount = new int[CLASSES];
+    private final double[] classTotal = new double[CLASSES];
+
+    // Alias table over the classes in use.
+    private final int[] used = new int[CLASSES];
+    private final double[] probability = new double[CLASSES];
+    private final int[] alias = new int[CLASSES];
+    private final double[] scaled = new double[CLASSES];
+    private final int[] small = new int[CLASSES];
+    private final int[] large = new int[CLASSES];
+    private int usedCount;
+    private boolean stale = true;
+
+    private final int[] recent;
+    private int recentHead;
+    private int recentSize;
+    // How many times each entry is in recent.
+    private final int[] heldOut;
+
+    /** Every entry starts with weight 1. */
+    public WeightedSampler(int size, int window) {
+        this.size = size;
+        weight = new double[size];
+        entryClass = new int[size];
+        slot = new int[size];
+        recent = new int[Math.max(0, Math.min(window, size - 1))];
+        heldOut = new int[size];
+        Arrays.fill(weight, 1);
+        int unit = classOf(1);
+        members[unit] = new int[Math.max(size, 1)];
+        for (int i = 0; i < size; i++) {
+            members[unit][i] = i;
+            entryClass[i] = unit;
+            slot[i] = i;
+        }
+        memberCount[unit] = size;
+        classTotal[unit] = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Approximate heap used by the per-entry arrays. */
+    public long footprintBytes() {
+        return 8L * weight.length + 4L * (entryClass.length + slot.length + heldOut.length + size + recent.length);
+    }
+
+    public double weight(int entry) {
+        return weight[entry];
+    }
+
+    /** Changes the weight of entry. O(1). */
+    public void setWeight(int entry, double newWeight) {
+        double clamped = newWeight <= 0 ? 0 : Math.max(MIN_WEIGHT, Math.min(MAX_WEIGHT, newWeight));
+        if (heldOut[entry] == 0) {
+            remove(entry);
+            weight[entry] = clamped;
+            add(entry);
+        } else {
+            weight[entry] = clamped; // Takes effect when it comes back.
+        }
+    }
+
+    /** Draws an entry and holds it out of the next window draws. Returns -1 if nothing can be drawn. */
+    public int next(Random random) {
+        int entry = draw(random);
+        if (entry >= 0) {
+            markShown(entry);
+        }
+        return entry;
+    }
+
+    /** Draws an entry without holding it out. Returns -1 if nothing can be drawn. */
+    public int draw(Random random) {
+        if (stale) {
+            rebuildAlias();
+        }
+        if (usedCount == 0) {
+            return -1;
+        }
+        int column = random.nextInt(usedCount);
+        int c = random.nextDouble() < probability[column] ? used[column] : alias[column];
+        double ceiling = ceiling(c);
+        // Retrying within the class keeps the class odds at exactly its share of the total.
+        while (true) {
+            int entry = members[c][random.nextInt(memberCount[c])];
+            if (random.nextDouble() * ceiling < weight[entry]) {
+                return entry;
+            }
+        }
+    }
+
+    /**
+     * Fills entries with up to entries.length distinct draws, none of them held out, without
+     * holding any out. Returns how many were drawn.
+     */
+    public int preview(Random random, int[] entries) {
+        int count = 0;
+        for (; count < entries.length; count++) {
+            int entry = draw(random);
+            if (entry < 0) {
+                break;
+            }
+            entries[count] = entry;
+            remove(entry); // So it is not drawn twice.
+        }
+        for (int i = 0; i < count; i++) {
+            add(entries[i]);
+        }
+        return count;
+    }
+
+    /** Holds entry out of the next window draws, as if it had just been drawn. */
+    public void markShown(int entry) {
+        if (recent.length == 0) {
+            return;
+        }
+        if (recentSize == recent.length) {
+            int oldest = recent[recentHead];
+            if (--heldOut[oldest] == 0) {
+                add(oldest);
+            }
+            recentSize--;
+            recentHead = (recentHead + 1) % recent.length;
+        }
+        if (heldOut[entry]++ == 0) {
+            remove(entry);
+        }
+        recent[(recentHead + recentSize++) % recent.length] = entry;
+    }
+
+    /** Whether entry is held out of the draw because it was drawn recently. */
+    public boolean isHeldOut(int entry) {
+        return heldOut[entry] > 0;
+    }
+
+    private void add(int entry) {
+        if (weight[entry] == 0) {
+            entryClass[entry] = -1;
+            return;
+        }
+        int c = classOf(weight[entry]);
+        if (members[c] == null) {
+            members[c] = new int[16];
+        } else if (memberCount[c] == members[c].length) {
+            members[c] = Arrays.copyOf(members[c], 2 * members[c].length);
+        }
+        slot[entry] = memberCount[c];
+        members[c][memberCount[c]++] = entry;
+        entryClass[entry] = c;
+        classTotal[c] += weight[entry];
+        stale = true;
+    }
+
+    private void remove(int entry) {
+        int c = entryClass[entry];
+        if (c < 0) {
+            return;
+        }
+        int last = members[c][--memberCount[c]];
+        members[c][slot[entry]] = last;
+        slot[last] = slot[entry];
+        entryClass[entry] = -1;
+        // Empty classes are reset so rounding cannot leave them drawable.
+        classTotal[c] = memberCount[c] == 0 ? 0 : classTotal[c] - weight[entry];
+        stale = true;
+    }
+
+    // Vose's method over the classes in use.
+    private void rebuildAlias() {
+        stale = false;
+        usedCount = 0;
+        double total = 0;
+        for (int c = 0; c < CLASSES; c++) {
+            if (memberCount[c] > 0) {
+                used[usedCount++] = c;
+                total += classTotal[c];
+            }
+        }
+        if (usedCount == 0) {
+            return;
+        }
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < usedCount; i++) {
+            scaled[i] = classTotal[used[i]] * usedCount / total;
+            if (scaled[i] < 1) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = used[more];
+            scaled[more] -= 1 - scaled[less];
+            if (scaled[more] < 1) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        while (largeCount > 0) {
+            int i = large[--largeCount];
+            probability[i] = 1;
+            alias[i] = used[i];
+        }
+        while (smallCount > 0) {
+            int i = small[--smallCount]; // Left over from rounding
+            probability[i] = 1;
+            alias[i] = used[i];
+        }
+    }
+
+    private static int classOf(double weight) {
+        return Math.getExponent(weight) - MIN_EXPONENT;
+    }
+
+    private static double ceiling(int c) {
+        return Math.scalb(1.0, c + MIN_EXPONENT + 1);
+    }
+}
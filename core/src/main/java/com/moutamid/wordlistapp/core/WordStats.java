@@ -0,0 +1,387 @@
+package com.moutamid.wordlistapp.core;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Per-word learning statistics: how often each word was shown, tapped, marked known and
+ * dismissed, its current and best streak of answers without a dismissal, and daily totals.
+ *
+ * <p>Counters live in primitive columns indexed by entry, so {@link #record} is a few array writes
+ * and never allocates. Each event is also appended to a fixed ring, which {@link #rollUp}, meant
+ * for a background thread, drains into one bucket per day: the total of each event and how many
+ * distinct words were seen. Should the ring fill before a roll-up, the recording thread drains it
+ * itself, still without allocating. The last {@link #DAYS} days are kept.
+ *
+ * <p>{@link #hardest} ranks every word with a heap bounded by the number asked for.
+ * {@link #writeTo} stores only words that have counts, as varints, so an export costs a few bytes
+ * per word studied whatever the size of the deck. Both are meant for a background thread.
+ *
+ * <p>Days are counted from the epoch in the time zone offset given. Thread-safe: every method
+ * synchronizes on the instance.
+ */
+public final class WordStats {
+
+    public enum Event {
+        SHOWN,
+        /** Recognised: heard, or answered right. */
+        TAPPED,
+        /** Marked as known without being asked: a double tap past the card. */
+        KNOWN,
+        /** Not recognised: dismissed, or answered wrong. */
+        DISMISSED
+    }
+
+    public static final int DAYS = 90;
+    static final int MAGIC = 0x57535431; // "WST1"
+    private static final int EVENTS = Event.values().length;
+    private static final int RING = 1024;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final int NO_DAY = Integer.MIN_VALUE;
+    // Words exported per hold of the lock.
+    private static final int EXPORT_BLOCK = 4096;
+
+    private final int size;
+    private final long offsetMillis;
+    // counts[event][entry]
+    private final int[][] counts;
+    private final int[] streak;
+    private final int[] bestStreak;
+    // The last day each entry was counted among the day's distinct words.
+    private final int[] lastDay;
+
+    // Events not rolled up yet: entry << 2 | event, and its day.
+    private final int[] pending = new int[RING];
+    private final int[] pendingDay = new int[RING];
+    private int pendingCount;
+
+    // Bucket day % DAYS holds day bucketDay[k]: bucketCounts[k * EVENTS + event] and bucketWords[k].
+    private final int[] bucketDay = new int[DAYS];
+    private final int[] bucketCounts = new int[DAYS * EVENTS];
+    private final int[] bucketWords = new int[DAYS];
+
+    /** Statistics for size entries, all zero. offsetMillis is added to times to find their day. */
+    public WordStats(int size, long offsetMillis) {
+        this.size = size;
+        this.offsetMillis = offsetMillis;
+        counts = new int[EVENTS][size];
+        streak = new int[size];
+        bestStreak = new int[size];
+        lastDay = new int[size];
+        Arrays.fill(lastDay, NO_DAY);
+        Arrays.fill(bucketDay, NO_DAY);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Approximate heap used by the columns. */
+    public long footprintBytes() {
+        return 4L * (EVENTS + 3) * size;
+    }
+
+    /**
+     * Counts event for entry at time now. Allocation-free. Returns true, once per roll-up, when
+     * enough events are pending that a {@link #rollUp} is due.
+     */
+    public synchronized boolean record(int entry, Event event, long now) {
+        if (entry < 0 || entry >= size) {
+            return false;
+        }
+        counts[event.ordinal()][entry]++;
+        if (event == Event.DISMISSED) {
+            streak[entry] = 0;
+        } else if (event != Event.SHOWN) {
+            bestStreak[entry] = Math.max(bestStreak[entry], ++streak[entry]);
+        }
+        if (pendingCount == RING) {
+            rollUp();
+        }
+        pending[pendingCount] = entry << 2 | event.ordinal();
+        pendingDay[pendingCount++] = dayOf(now);
+        return pendingCount == RING / 2;
+    }
+
+    /** Drains the pending events into the daily buckets. */
+    public synchronized void rollUp() {
+        for (int i = 0; i < pendingCount; i++) {
+            int day = pendingDay[i];
+            int k = Math.floorMod(day, DAYS);
+            if (bucketDay[k] != day) {
+                if (bucketDay[k] != NO_DAY && bucketDay[k] > day) {
+                    continue; // Older than the days kept
+                }
+                bucketDay[k] = day;
+                Arrays.fill(bucketCounts, k * EVENTS, (k + 1) * EVENTS, 0);
+                bucketWords[k] = 0;
+            }
+            int entry = pending[i] >>> 2;
+            bucketCounts[k * EVENTS + (pending[i] & 3)]++;
+            if (lastDay[entry] < day) { // A late event from an earlier day cannot tell, so it does not count
+                lastDay[entry] = day;
+                bucketWords[k]++;
+            }
+        }
+        pendingCount = 0;
+    }
+
+    public synchronized int count(int entry, Event event) {
+        return counts[event.ordinal()][entry];
+    }
+
+    /** Answers since entry was last dismissed. */
+    public synchronized int streak(int entry) {
+        return streak[entry];
+    }
+
+    public synchronized int bestStreak(int entry) {
+        return bestStreak[entry];
+    }
+
+    /** How many times event happened on the day of time, as of the last roll-up. */
+    public synchronized int dailyCount(long time, Event event) {
+        int k = bucket(dayOf(time));
+        return k < 0 ? 0 : bucketCounts[k * EVENTS + event.ordinal()];
+    }
+
+    /** How many distinct words had any event on the day of time, as of the last roll-up. */
+    public synchronized int dailyWords(long time) {
+        int k = bucket(dayOf(time));
+        return k < 0 ? 0 : bucketWords[k];
+    }
+
+    /**
+     * How hard entry has been: the share of its answers that were dismissals, smoothed so a word
+     * answered once is not ranked above one dismissed ten times, and divided by its current streak
+     * plus one so a word that has since been learned drops. Zero if it was never dismissed.
+     */
+    public synchronized double difficulty(int entry) {
+        int dismissed = counts[Event.DISMISSED.ordinal()][entry];
+        if (dismissed == 0) {
+            return 0;
+        }
+        int answers = dismissed + counts[Event.TAPPED.ordinal()][entry] + counts[Event.KNOWN.ordinal()][entry];
+        return (dismissed + 1.0) / (answers + 2.0) / (streak[entry] + 1);
+    }
+
+    /**
+     * Fills results with the hardest entries by {@link #difficulty}, hardest first, ties by index.
+     * Returns how many were written, fewer if fewer words were ever dismissed. O(n log k) for k
+     * results, with a min-heap of the k best so far.
+     */
+    public synchronized int hardest(int[] results) {
+        int k = results.length;
+        int[] heap = new int[k];
+        double[] heapScore = new double[k];
+        int count = 0;
+        for (int entry = 0; entry < size; entry++) {
+            if (counts[Event.DISMISSED.ordinal()][entry] == 0) {
+                continue;
+            }
+            double score = difficulty(entry);
+            if (count < k) {
+                heap[count] = entry;
+                heapScore[count] = score;
+                siftUp(heap, heapScore, count++);
+            } else if (k > 0 && score > heapScore[0]) {
+                heap[0] = entry;
+                heapScore[0] = score;
+                siftDown(heap, heapScore, count);
+            }
+        }
+        // Pop the weakest to the back.
+        for (int n = count; n > 1; n--) {
+            swap(heap, heapScore, 0, n - 1);
+            siftDown(heap, heapScore, n - 1);
+        }
+        System.arraycopy(heap, 0, results, 0, count);
+        return count;
+    }
+
+    /**
+     * Writes the daily buckets and every word with counts, after rolling up. Varints throughout:
+     * a word costs its index delta and seven small numbers. The lock is taken one block of words
+     * at a time, so events recorded meanwhile wait for a block, not for the whole export.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        int latest;
+        synchronized (this) {
+            rollUp();
+            out.writeInt(MAGIC);
+            out.writeInt(size);
+            latest = NO_DAY;
+            int days = 0;
+            for (int day : bucketDay) {
+                latest = Math.max(latest, day);
+                days += day != NO_DAY ? 1 : 0;
+            }
+            out.writeInt(latest);
+            writeVarint(out, days);
+            for (int k = 0; k < DAYS; k++) {
+                if (bucketDay[k] == NO_DAY) {
+                    continue;
+                }
+                writeVarint(out, latest - bucketDay[k]);
+                for (int e = 0; e < EVENTS; e++) {
+                    writeVarint(out, bucketCounts[k * EVENTS + e]);
+                }
+                writeVarint(out, bucketWords[k]);
+            }
+        }
+        int previous = -1;
+        for (int from = 0; from < size; from += EXPORT_BLOCK) {
+            synchronized (this) {
+                for (int entry = from; entry < Math.min(size, from + EXPORT_BLOCK); entry++) {
+                    if (!hasCounts(entry)) {
+                        continue;
+                    }
+                    writeVarint(out, entry - previous); // Never 0, which ends the words
+                    previous = entry;
+                    for (int e = 0; e < EVENTS; e++) {
+                        writeVarint(out, counts[e][entry]);
+                    }
+                    writeVarint(out, streak[entry]);
+                    writeVarint(out, bestStreak[entry]);
+                    // Days since last seen; DAYS or more means not within the buckets.
+                    int age = lastDay[entry] == NO_DAY || latest == NO_DAY ? DAYS : latest - lastDay[entry];
+                    writeVarint(out, Math.max(0, Math.min(DAYS, age)));
+                }
+            }
+        }
+        writeVarint(out, 0);
+    }
+
+    /** Reads what {@link #writeTo} wrote. Throws if it is not an export for size entries. */
+    public static WordStats readFrom(DataInput in, int size, long offsetMillis) throws IOException {
+        return readFrom(in, size, size, offsetMillis);
+    }
+
+    /**
+     * Reads an export for savedSize entries into statistics for a deck that has grown to size, as a
+     * {@link DeckPatch} that adds entries makes it. The new entries start with none.
+     */
+    public static WordStats readFrom(DataInput in, int savedSize, int size, long offsetMillis) throws IOException {
+        if (savedSize > size) {
+            throw new IllegalArgumentException(savedSize + " entries cannot grow to " + size);
+        }
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a statistics export");
+        }
+        int exported = in.readInt();
+        if (exported != savedSize) {
+            throw new IOException("Exported for " + exported + " entries, not " + savedSize);
+        }
+        WordStats stats = new WordStats(size, offsetMillis);
+        int latest = in.readInt();
+        int days = readVarint(in);
+        for (int d = 0; d < days; d++) {
+            int day = latest - readVarint(in);
+            int k = Math.floorMod(day, DAYS);
+            stats.bucketDay[k] = day;
+            for (int e = 0; e < EVENTS; e++) {
+                stats.bucketCounts[k * EVENTS + e] = readVarint(in);
+            }
+            stats.bucketWords[k] = readVarint(in);
+        }
+        int entry = -1;
+        for (int delta = readVarint(in); delta != 0; delta = readVarint(in)) {
+            entry += delta;
+            if (entry < 0 || entry >= savedSize) {
+                throw new IOException("Entry " + entry + " out of range");
+            }
+            for (int e = 0; e < EVENTS; e++) {
+                stats.counts[e][entry] = readVarint(in);
+            }
+            stats.streak[entry] = readVarint(in);
+            stats.bestStreak[entry] = readVarint(in);
+            int age = readVarint(in);
+            stats.lastDay[entry] = age >= DAYS ? NO_DAY : latest - age;
+        }
+        return stats;
+    }
+
+    private boolean hasCounts(int entry) {
+        for (int e = 0; e < EVENTS; e++) {
+            if (counts[e][entry] != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int dayOf(long time) {
+        return (int) Math.floorDiv(time + offsetMillis, DAY_MILLIS);
+    }
+
+    private int bucket(int day) {
+        int k = Math.floorMod(day, DAYS);
+        return bucketDay[k] == day ? k : -1;
+    }
+
+    private static void siftUp(int[] heap, double[] score, int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!weaker(heap, score, i, parent)) {
+                return;
+            }
+            swap(heap, score, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, double[] score, int n) {
+        int i = 0;
+        while (true) {
+            int weakest = i;
+            int left = 2 * i + 1;
+            if (left < n && weaker(heap, score, left, weakest)) {
+                weakest = left;
+            }
+            if (left + 1 < n && weaker(heap, score, left + 1, weakest)) {
+                weakest = left + 1;
+            }
+            if (weakest == i) {
+                return;
+            }
+            swap(heap, score, i, weakest);
+            i = weakest;
+        }
+    }
+
+    // Lower score, or the same score and a later index: ranks below.
+    private static boolean weaker(int[] heap, double[] score, int a, int b) {
+        return score[a] < score[b] || (score[a] == score[b] && heap[a] > heap[b]);
+    }
+
+    private static void swap(int[] heap, double[] score, int a, int b) {
+        int entry = heap[a];
+        heap[a] = heap[b];
+        heap[b] = entry;
+        double s = score[a];
+        score[a] = score[b];
+        score[b] = s;
+    }
+
+    private static void writeVarint(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarint(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,18 @@
+package com.moutamid.wordlistapp.core;
+
+/**
+ * Random-access word=translation pairs. Implementations keep entries packed and only create
+ * {@link String}s when a word is actually read.
+ */
+public interface WordStore {
+
+    int size();
+
+    String word(int index);
+
+    String translation(int index);
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+}
@@ -0,0 +1,103 @@
+package com.moutamid.wordlistapp.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class BidirectionalIndexTest {
+
+    private static final PackedWordStore BUNDLED = store(
+            "hello=hola", "hi=hola", "goodbye=adiós", "bye=adios", "yes=sí", "no=no",
+            "tomorrow=mañana", "morning=mañana", "water=agua", "Hello=saludo");
+
+    private static PackedWordStore store(String... pairs) {
+        PackedWordStore.Builder builder = PackedWordStore.builder();
+        for (String pair : pairs) {
+            String[] parts = pair.split("=");
+            builder.add(parts[0], parts[1]);
+        }
+        return builder.build();
+    }
+
+    private static int[] byWord(BidirectionalIndex index, String text) {
+        int[] results = new int[10];
+        return Arrays.copyOf(results, index.byWord(text, results));
+    }
+
+    private static int[] byTranslation(BidirectionalIndex index, String text) {
+        int[] results = new int[10];
+        return Arrays.copyOf(results, index.byTranslation(text, results));
+    }
+
+    @Test
+    public void mapsEitherSideToEveryEntry() {
+        BidirectionalIndex index = BidirectionalIndex.build(BUNDLED);
+
+        assertArrayEquals(new int[]{0, 1}, byTranslation(index, "hola"));
+        assertArrayEquals(new int[]{6, 7}, byTranslation(index, "mañana"));
+        assertArrayEquals(new int[]{0, 9}, byWord(index, "hello"));
+        assertArrayEquals(new int[]{8}, byWord(index, "water"));
+        assertArrayEquals(new int[]{5}, byTranslation(index, "no"));
+    }
+
+    @Test
+    public void foldsAccentsAndCase() {
+        BidirectionalIndex index = BidirectionalIndex.build(BUNDLED);
+
+        assertArrayEquals(new int[]{2, 3}, byTranslation(index, "ADIOS"));
+        assertArrayEquals(new int[]{4}, byTranslation(index, "si"));
+        assertArrayEquals(new int[]{6, 7}, byTranslation(index, "manana"));
+        assertTrue(index.contains(" Agua "));
+        assertTrue(index.contains("tomorrow"));
+    }
+
+    @Test
+    public void missesAreEmpty() {
+        BidirectionalIndex index = BidirectionalIndex.build(BUNDLED);
+
+        assertArrayEquals(new int[0], byWord(index, "hola"));
+        assertArrayEquals(new int[0], byTranslation(index, "hol"));
+        assertFalse(index.contains("penguin"));
+        assertFalse(BidirectionalIndex.build(PackedWordStore.EMPTY).contains("hola"));
+    }
+
+    @Test
+    public void countsEntriesBeyondTheResults() {
+        PackedWordStore.Builder builder = PackedWordStore.builder();
+        for (int i = 0; i < 1000; i++) {
+            builder.add("word" + i, i % 3 == 0 ? "shared" : "translation" + i);
+        }
+        BidirectionalIndex index = BidirectionalIndex.build(builder.build());
+
+        int[] results = new int[2];
+        assertEquals(334, index.byTranslation("shared", results));
+        assertArrayEquals(new int[]{0, 3}, results);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(1, index.byWord("word" + i, results));
+            assertEquals(i, results[0]);
+        }
+    }
+
+    @Test
+    public void halfAMillionEntriesTakeUnderThirtySixBytesEachAndAllResolve() {
+        PackedWordStore.Builder builder = PackedWordStore.builder();
+        for (int i = 0; i < 500_000; i++) {
+            builder.add("word" + i, "palabra" + i / 2); // Two words per translation
+        }
+        BidirectionalIndex index = BidirectionalIndex.build(builder.build());
+
+        // Two HashMap<String, String>s take a 32-byte node per entry and side before the folded keys.
+        assertTrue(index.footprintBytes() + " bytes", index.footprintBytes() < 36L * 500_000);
+        int[] results = new int[4];
+        for (int i = 0; i < 500_000; i++) {
+            assertEquals(1, index.byWord("word" + i, results));
+            assertEquals(i, results[0]);
+            if (i % 2 == 0) {
+                assertEquals(2, index.byTranslation("palabra" + i / 2, results));
+                assertArrayEquals(new int[]{i, i + 1}, Arrays.copyOf(results, 2));
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.moutamid.wordlistapp.core;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CardPrefetcherTest {
+
+    private static final long STEP = 60_000;
+
+    private final Queue<Runnable> reads = new ArrayDeque<>();
+    private final CountingStore store = new CountingStore(1000);
+    private final ReviewScheduler scheduler = new ReviewScheduler(store.size(), STEP, new Random(1));
+    private long now;
+    private int prefetched;
+    private int pickedOnTap;
+    private final CardPrefetcher cards = new CardPrefetcher(4, 8, new CardPrefetcher.Picker() {
+        @Override
+        public String deckId() {
+            return "deck";
+        }
+
+        @Override
+        public int peek(WordStore current) {
+            return scheduler.peek(now);
+        }
+
+        @Override
+        public int next(WordStore current) {
+            return scheduler.next(now);
+        }
+
+        @Override
+        public int upcoming(WordStore current, int[] indexes) {
+            return scheduler.upcoming(indexes, now);
+        }
+    }, reads::add, Runnable::run, new CardPrefetcher.Listener() {
+        @Override
+        public void onReady(NextWordQueue.Entry card) {
+        }
+
+        @Override
+        public void onTaken(NextWordQueue.Entry card, boolean ready) {
+            if (ready) {
+                prefetched++;
+            } else {
+                pickedOnTap++;
+            }
+        }
+    });
+
+    @Test
+    public void tapsAfterTheFirstTakeReadyCardsWithoutReading() {
+        for (int tap = 0; tap < 100; tap++) {
+            int expected = scheduler.peek(now);
+            store.reads = 0;
+            NextWordQueue.Entry card = cards.next(store);
+            assertEquals(expected, card.index());
+            assertEquals("word" + expected, card.word());
+            assertEquals(tap == 0 ? 2 : 0, store.reads);
+            runReads(); // The reader's share, between taps
+            assertEquals(4, cards.ready());
+        }
+        assertEquals(99, prefetched);
+        assertEquals(1, pickedOnTap);
+    }
+
+    @Test
+    public void gradeThatReordersTheDeckNeverShowsAWrongCard() {
+        Random random = new Random(2);
+        ReviewScheduler.Grade[] grades = ReviewScheduler.Grade.values();
+        for (int tap = 0; tap < 500; tap++) {
+            now += random.nextInt(30_000);
+            int expected = scheduler.peek(now);
+            NextWordQueue.Entry card = cards.next(store);
+            assertEquals(expected, card.index());
+            scheduler.grade(card.index(), grades[random.nextInt(grades.length)], now);
+            if (random.nextBoolean()) {
+                runReads();
+            }
+        }
+        assertTrue(prefetched > 0);
+        assertTrue(pickedOnTap > 1);
+    }
+
+    @Test
+    public void fillStartedBeforeAStoreChangeIsDiscarded() {
+        cards.next(store);
+        CountingStore other = new CountingStore(1000);
+        cards.refill(other);
+        runReads();
+
+        assertEquals(4, cards.ready());
+        NextWordQueue.Entry card = cards.next(other);
+        assertEquals(1, prefetched);
+        assertEquals("word" + card.index(), card.word());
+    }
+
+    @Test
+    public void stepsBackThroughShownCardsAndForwardAgain() {
+        NextWordQueue.Entry first = cards.next(store);
+        runReads();
+        NextWordQueue.Entry second = cards.next(store);
+
+        assertEquals(first, cards.back());
+        assertNull(cards.back());
+        assertEquals(second, cards.next(store));
+        assertEquals(1, prefetched);
+    }
+
+    private void runReads() {
+        for (Runnable read; (read = reads.poll()) != null; ) {
+            read.run();
+        }
+    }
+
+    private static final class CountingStore implements WordStore {
+        private final int size;
+        int reads;
+
+        CountingStore(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public String word(int index) {
+            reads++;
+            return "word" + index;
+        }
+
+        @Override
+        public String translation(int index) {
+            reads++;
+            return "translation" + index;
+        }
+    }
+}
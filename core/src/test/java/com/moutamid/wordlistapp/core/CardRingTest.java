@@ -0,0 +1,69 @@
+package com.moutamid.wordlistapp.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CardRingTest {
+
+    private final CardRing<String> ring = new CardRing<>(3, 4);
+
+    @Test
+    public void queuesCardsInOrderUpToCapacity() {
+        assertTrue(ring.offer("a"));
+        assertTrue(ring.offer("b"));
+        assertTrue(ring.offer("c"));
+        assertFalse(ring.offer("d"));
+
+        assertEquals("a", ring.poll());
+        assertTrue(ring.offer("d"));
+        assertEquals("b", ring.peek());
+        assertEquals("d", ring.get(2));
+        assertEquals(3, ring.size());
+
+        ring.clear();
+        assertNull(ring.poll());
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    public void stepsBackAndForwardThroughShownCards() {
+        ring.shown("a");
+        ring.shown("b");
+        ring.shown("c");
+
+        assertEquals("b", ring.back());
+        assertEquals("a", ring.back());
+        assertNull(ring.back());
+        assertTrue(ring.isBrowsing());
+        assertEquals("b", ring.forward());
+        assertEquals("c", ring.forward());
+        assertNull(ring.forward());
+        assertFalse(ring.isBrowsing());
+    }
+
+    @Test
+    public void showingANewCardDropsTheOnesAhead() {
+        ring.shown("a");
+        ring.shown("b");
+        ring.shown("c");
+        ring.back();
+        ring.back();
+        ring.shown("d");
+
+        assertNull(ring.forward());
+        assertEquals("a", ring.back());
+        assertNull(ring.back());
+    }
+
+    @Test
+    public void historyForgetsTheOldestCards() {
+        for (String card : new String[]{"a", "b", "c", "d", "e", "f"}) {
+            ring.shown(card);
+        }
+        assertEquals("e", ring.back());
+        assertEquals("d", ring.back());
+        assertEquals("c", ring.back());
+        assertNull(ring.back());
+    }
+}
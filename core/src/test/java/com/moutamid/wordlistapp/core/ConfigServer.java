@@ -0,0 +1,69 @@
+package com.moutamid.wordlistapp.core;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Local stand-in for the config host. Serves one body with an ETag and honours If-None-Match. */
+class ConfigServer implements AutoCloseable {
+
+    static final String LAST_MODIFIED = "Mon, 05 Oct 2026 10:00:00 GMT";
+
+    private final HttpServer server;
+    final AtomicInteger requests = new AtomicInteger();
+    final AtomicInteger conditional = new AtomicInteger();
+    volatile String body = "{}";
+    volatile String etag = "\"v1\"";
+    volatile long delayMillis;
+    volatile int status = 200;
+
+    ConfigServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/apps.txt", this::handle);
+        server.start();
+    }
+
+    URL url() throws IOException {
+        return new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/apps.txt");
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        String ifModifiedSince = exchange.getRequestHeaders().getFirst("If-Modified-Since");
+        if (ifNoneMatch != null || ifModifiedSince != null) {
+            conditional.incrementAndGet();
+        }
+        boolean current = etag != null ? etag.equals(ifNoneMatch) : LAST_MODIFIED.equals(ifModifiedSince);
+        if (status == 200 && current) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        if (etag != null) {
+            exchange.getResponseHeaders().set("ETag", etag);
+        }
+        exchange.getResponseHeaders().set("Last-Modified", LAST_MODIFIED);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,79 @@
+package com.moutamid.wordlistapp.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DeckCacheTest {
+
+    private final List<String> evicted = new ArrayList<>();
+    // Decks are their own weight.
+    private final DeckCache<Long> cache = new DeckCache<>(100, deck -> deck, (id, deck) -> evicted.add(id));
+
+    @Test
+    public void evictsLeastRecentlyUsedOverBudget() {
+        cache.put("a", 40L);
+        cache.put("b", 40L);
+        cache.get("a");
+        cache.put("c", 40L);
+
+        assertEquals(Collections.singletonList("b"), evicted);
+        assertNull(cache.get("b"));
+        assertEquals(Long.valueOf(40), cache.get("a"));
+        assertEquals(80, cache.residentBytes());
+    }
+
+    @Test
+    public void neverEvictsTheActiveDeck() {
+        cache.setActive("big");
+        cache.put("small", 10L);
+        cache.put("big", 150L);
+
+        assertEquals(Collections.singletonList("small"), evicted);
+        assertEquals(Long.valueOf(150), cache.get("big"));
+        assertEquals(150, cache.residentBytes());
+    }
+
+    @Test
+    public void switchingActiveDeckUnpinsThePreviousOne() {
+        cache.setActive("a");
+        cache.put("a", 60L);
+        cache.setActive("b");
+        cache.put("b", 60L);
+
+        assertEquals(Collections.singletonList("a"), evicted);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void trimKeepsOnlyTheActiveDeck() {
+        cache.put("a", 10L);
+        cache.put("b", 10L);
+        cache.setActive("c");
+        cache.put("c", 10L);
+
+        cache.trimTo(0);
+
+        assertEquals(2, evicted.size());
+        assertEquals(1, cache.size());
+        assertEquals(Long.valueOf(10), cache.get("c"));
+        assertEquals(100, cache.maxBytes());
+    }
+
+    @Test
+    public void replacingADeckReleasesTheOldOne() {
+        cache.put("a", 30L);
+        cache.put("a", 50L);
+
+        assertEquals(Collections.singletonList("a"), evicted);
+        assertEquals(50, cache.residentBytes());
+
+        cache.remove("a");
+        assertEquals(0, cache.residentBytes());
+        assertNull(cache.get("a"));
+    }
+}
@@ -0,0 +1,267 @@
+package com.moutamid.wordlistapp.core;
+
+import org.junit.AfterClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class DeckImporterTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+    // Small enough that the tests below cross many chunk boundaries.
+    private static final int CHUNK = 4096;
+    private static final long MB = 1 << 20;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @AfterClass
+    public static void shutDown() {
+        POOL.shutdown();
+    }
+
+    @Test
+    public void importsTabSeparatedDeck() throws IOException {
+        File target = importText("hello\thola\ngoodbye\tadiós\r\nthank you\tgracias, amigo\n");
+
+        BinaryDictionary dictionary = open(target);
+        assertEquals(3, dictionary.size());
+        assertEquals("hello", dictionary.word(0));
+        assertEquals("adiós", dictionary.translation(1));
+        assertEquals("gracias, amigo", dictionary.translation(2));
+    }
+
+    @Test
+    public void importsQuotedCsvAndSkipsHeaders() throws IOException {
+        File target = importText("\uFEFF#separator:comma\n"
+                + "\"one, two\",\"uno, \"\"dos\"\"\"\n"
+                + "  tree ,  árbol  ,extra column\n"
+                + "\"unterminated,x\n");
+
+        BinaryDictionary dictionary = open(target);
+        assertEquals(2, dictionary.size());
+        assertEquals("one, two", dictionary.word(0));
+        assertEquals("uno, \"dos\"", dictionary.translation(0));
+        assertEquals("tree", dictionary.word(1));
+        assertEquals("árbol", dictionary.translation(1));
+    }
+
+    @Test
+    public void versionHeaderMakesADownloadableDeck() throws IOException {
+        File target = importText("#version 7\ncat=gato\ndog=perro\n");
+
+        BinaryDictionary dictionary = BinaryDictionary.map(target);
+        assertEquals(7, dictionary.deckVersion());
+        assertEquals(2, dictionary.size());
+        assertEquals(0, BinaryDictionary.map(importText("#version seven\ncat=gato\n")).deckVersion());
+        assertEquals(0, BinaryDictionary.map(importText("cat=gato\n#version 7\n")).deckVersion());
+    }
+
+    @Test
+    public void importsTheBundledWordFormat() throws IOException {
+        File target = importText("cat=gato\ndog=perro\n");
+
+        BinaryDictionary dictionary = open(target);
+        assertEquals(2, dictionary.size());
+        assertEquals("perro", dictionary.translation(1));
+    }
+
+    @Test
+    public void dropsDuplicatesAndCountsRejectedLines() throws IOException {
+        DeckImporter importer = new DeckImporter(POOL, CHUNK);
+        byte[] invalidUtf8 = {'b', 'a', 'd', '\t', (byte) 0xC3, '\n'};
+        String text = "cat\tgato\n\ncat\tgato\ncat\tfelino\nno separator\n\tempty\nempty\t\n";
+        byte[] bytes = concat(text.getBytes(StandardCharsets.UTF_8), invalidUtf8);
+        File target = new File(folder.getRoot(), "deck.wdict");
+
+        DeckImporter.Result result = importer.importTo(new ByteArrayInputStream(bytes), bytes.length, target, null);
+
+        assertEquals(2, result.entries());
+        assertEquals(1, result.duplicates());
+        assertEquals(4, result.rejected());
+        assertEquals(bytes.length, result.bytes());
+        assertEquals("felino", open(target).translation(1));
+    }
+
+    @Test
+    public void keepsFileOrderAcrossChunks() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            text.append("word").append(i).append('\t').append("palabra").append(i % 15_000).append('\n');
+            if (i % 7 == 0) {
+                text.append("word0\tpalabra0\n");
+            }
+        }
+        List<Long> progress = new ArrayList<>();
+        DeckImporter importer = new DeckImporter(POOL, CHUNK);
+        File target = new File(folder.getRoot(), "deck.wdict");
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+
+        DeckImporter.Result result = importer.importTo(new ByteArrayInputStream(bytes), bytes.length, target,
+                (read, total, entries) -> progress.add(read));
+
+        assertEquals(20_000, result.entries());
+        BinaryDictionary dictionary = open(target);
+        for (int i = 0; i < 20_000; i++) {
+            assertEquals("word" + i, dictionary.word(i));
+            assertEquals("palabra" + i % 15_000, dictionary.translation(i));
+        }
+        assertTrue(progress.size() > 10);
+        for (int i = 1; i < progress.size(); i++) {
+            assertTrue(progress.get(i) >= progress.get(i - 1));
+        }
+        assertEquals(bytes.length, (long) progress.get(progress.size() - 1));
+    }
+
+    @Test
+    public void rejectsLinesLongerThanAChunk() throws IOException {
+        StringBuilder text = new StringBuilder("before\tantes\n");
+        for (int i = 0; i < 3 * CHUNK; i++) {
+            text.append('x');
+        }
+        text.append("\tlong\nafter\tdespués\n");
+
+        DeckImporter importer = new DeckImporter(POOL, CHUNK);
+        File target = new File(folder.getRoot(), "deck.wdict");
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        DeckImporter.Result result = importer.importTo(new ByteArrayInputStream(bytes), bytes.length, target, null);
+
+        assertEquals(2, result.entries());
+        assertEquals(1, result.rejected());
+        assertEquals("después", open(target).translation(1));
+    }
+
+    @Test
+    public void cancellingLeavesThePreviousDeckInPlace() throws IOException {
+        File target = importText("old\tviejo\n");
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 50_000; i++) {
+            text.append("word").append(i).append('\t').append("palabra").append(i).append('\n');
+        }
+        DeckImporter importer = new DeckImporter(POOL, CHUNK);
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+
+        try {
+            importer.importTo(new ByteArrayInputStream(bytes), bytes.length, target, (read, total, entries) -> {
+                if (entries > 1000) {
+                    importer.cancel();
+                }
+            });
+            fail("Expected the import to be cancelled");
+        } catch (CancellationException expected) {
+            // Expected.
+        }
+
+        BinaryDictionary dictionary = open(target);
+        assertEquals(1, dictionary.size());
+        assertEquals("viejo", dictionary.translation(0));
+        String[] left = folder.getRoot().list();
+        assertNotNull(left);
+        assertEquals(1, left.length);
+    }
+
+    @Test
+    public void detectsSeparatorFromTheFirstDataLine() {
+        assertEquals('\t', DeckImporter.detectSeparator(bytes("#x,y\na=b\tc\n"), 0, 11));
+        assertEquals('=', DeckImporter.detectSeparator(bytes("a=b,c\n"), 0, 6));
+        assertEquals(',', DeckImporter.detectSeparator(bytes("a,b=c\n"), 0, 6));
+        assertEquals(';', DeckImporter.detectSeparator(bytes("a;b\n"), 0, 4));
+    }
+
+    @Test
+    public void validatesUtf8() {
+        assertTrue(DeckImporter.isUtf8(bytes("árbol 日本 🌳"), 0, bytes("árbol 日本 🌳").length));
+        assertFalse(DeckImporter.isUtf8(new byte[]{(byte) 0xC0, (byte) 0x80}, 0, 2)); // Overlong
+        assertFalse(DeckImporter.isUtf8(new byte[]{(byte) 0xED, (byte) 0xA0, (byte) 0x80}, 0, 3)); // Surrogate
+        assertFalse(DeckImporter.isUtf8(new byte[]{(byte) 0xE6, (byte) 0x97}, 0, 2)); // Truncated
+    }
+
+    @Test
+    public void heapStaysBoundedImportingFiveMillionLines() throws IOException {
+        int lines = 5_000_000;
+        int distinct = 4_500_000;
+        File source = folder.newFile("deck.tsv");
+        // A tenth of the lines repeat an earlier entry.
+        Random random = new Random(7);
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(source), StandardCharsets.UTF_8), 1 << 16)) {
+            int written = 0;
+            for (int i = 0; i < lines; i++) {
+                int entry = written < distinct && (written == 0 || random.nextInt(10) != 0 || lines - i <= distinct - written)
+                        ? written++ : random.nextInt(written);
+                out.write("word" + entry + "\ttraducción" + entry + "\n");
+            }
+        }
+        File target = new File(folder.getRoot(), "deck.wdict");
+        long heapBefore = liveHeap();
+        long[] peakHeap = {heapBefore};
+        int[] chunks = {0};
+        DeckImporter.Result result;
+        try (InputStream in = new FileInputStream(source)) {
+            result = new DeckImporter(POOL).importTo(in, source.length(), target, (read, total, entries) -> {
+                if (++chunks[0] % 8 == 0) {
+                    peakHeap[0] = Math.max(peakHeap[0], liveHeap());
+                }
+            });
+        }
+
+        // Sorter buffers and the read buffer, then two chunks of about 3 MB each per pool thread:
+        // nothing per entry is kept in memory.
+        long growth = peakHeap[0] - heapBefore;
+        long limit = 16 * MB + 8 * MB * POOL.getParallelism();
+        assertTrue("heap grew " + growth / MB + " MB, limit " + limit / MB + " MB", growth < limit);
+        assertEquals(distinct, result.entries());
+        assertEquals(lines - distinct, result.duplicates());
+        assertEquals(0, result.rejected());
+        BinaryDictionary dictionary = open(target);
+        assertEquals("word0", dictionary.word(0));
+        assertEquals("traducción" + (distinct - 1), dictionary.translation(distinct - 1));
+    }
+
+    private File importText(String text) throws IOException {
+        File target = new File(folder.getRoot(), "deck.wdict");
+        byte[] bytes = bytes(text);
+        new DeckImporter(POOL, CHUNK).importTo(new ByteArrayInputStream(bytes), bytes.length, target, null);
+        return target;
+    }
+
+    static BinaryDictionary open(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            return BinaryDictionary.read(in);
+        }
+    }
+
+    private static long liveHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] joined = new byte[a.length + b.length];
+        System.arraycopy(a, 0, joined, 0, a.length);
+        System.arraycopy(b, 0, joined, a.length, b.length);
+        return joined;
+    }
+}
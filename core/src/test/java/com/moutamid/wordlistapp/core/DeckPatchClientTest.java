@@ -0,0 +1,116 @@
+package com.moutamid.wordlistapp.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+
+import static org.junit.Assert.*;
+
+public class DeckPatchClientTest {
+
+    private static final int MAX_PATCH_BYTES = 4096;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private PatchServer server;
+
+    @Before
+    public void startServer() throws IOException {
+        server = new PatchServer();
+    }
+
+    @After
+    public void stopServer() {
+        server.close();
+    }
+
+    private DeckPatchClient client(int readTimeoutMillis) throws IOException {
+        return new DeckPatchClient(server.base(), 1000, readTimeoutMillis, MAX_PATCH_BYTES);
+    }
+
+    @Test
+    public void fetchesPatchesUntilTheDeckIsCurrent() throws IOException {
+        File file = deck("cat=gato", "dog=perro");
+        server.patches.put("animals/0.patch", "#patch 0 1\n~1 dog=can\n");
+        server.patches.put("animals/1.patch", "#patch 1 2\n+2 bird=pájaro\n");
+        DeckPatchClient client = client(1000);
+
+        BinaryDictionary deck = BinaryDictionary.map(file);
+        for (DeckPatch patch; (patch = client.fetch("animals", deck.deckVersion())) != null; ) {
+            deck = patch.applyTo(file);
+        }
+        assertEquals(2, deck.deckVersion());
+        assertEquals("can", deck.translation(1));
+        assertEquals("pájaro", deck.translation(2));
+        assertEquals(3, client.requests());
+        assertNull(client.fetch("plants", 0));
+    }
+
+    @Test
+    public void refusesPatchesOverTheLimit() throws IOException {
+        StringBuilder text = new StringBuilder("#patch 0 1\n");
+        for (int i = 2; text.length() <= MAX_PATCH_BYTES; i++) {
+            text.append('+').append(i).append(" word").append(i).append("=palabra").append(i).append('\n');
+        }
+        server.patches.put("animals/0.patch", text.toString());
+
+        assertRefused(client(1000));
+        server.chunked = true; // No Content-Length to refuse it by: cut off while reading
+        assertRefused(client(1000));
+    }
+
+    @Test
+    public void givesUpOnASlowServer() throws IOException {
+        server.patches.put("animals/0.patch", "#patch 0 1\n-0\n");
+        server.delayMillis = 2000;
+
+        long start = System.nanoTime();
+        try {
+            client(200).fetch("animals", 0);
+            fail();
+        } catch (SocketTimeoutException expected) {
+            assertTrue((System.nanoTime() - start) / 1_000_000 < 1500);
+        }
+    }
+
+    @Test
+    public void refusesAPatchForAnotherVersion() throws IOException {
+        server.patches.put("animals/1.patch", "#patch 0 1\n-0\n");
+        try {
+            client(1000).fetch("animals", 1);
+            fail();
+        } catch (IOException expected) {
+            // The server's mistake must not reach the deck.
+        }
+    }
+
+    private File deck(String... lines) throws IOException {
+        DictionaryCompiler compiler = new DictionaryCompiler();
+        for (String line : lines) {
+            compiler.addLine(line);
+        }
+        File file = folder.newFile("animals.wdict");
+        try (OutputStream out = new FileOutputStream(file)) {
+            compiler.writeTo(out);
+        }
+        return file;
+    }
+
+    private static void assertRefused(DeckPatchClient client) {
+        try {
+            client.fetch("animals", 0);
+            fail();
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().startsWith("Patch larger than"));
+        }
+    }
+}
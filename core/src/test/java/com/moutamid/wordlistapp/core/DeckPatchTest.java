@@ -0,0 +1,248 @@
+package com.moutamid.wordlistapp.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DeckPatchTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void appliesAdditionsRemovalsAndModifications() throws IOException {
+        BinaryDictionary base = compile("cat=gato", "dog=perro", "sun=sol", "sea=mar");
+        DeckPatch patch = parse("#patch 0 1\n~1 dog=can\n-2\n+4 moon=luna\n# comment\n\n+5 star=estrella\n");
+
+        BinaryDictionary patched = apply(patch, base);
+        assertEquals(1, patched.deckVersion());
+        assertEquals(6, patched.size());
+        assertEquals("cat", patched.word(0));
+        assertEquals("can", patched.translation(1));
+        assertTrue(patched.isRemoved(2));
+        assertEquals("", patched.word(2));
+        assertFalse(patched.isRemoved(3));
+        assertEquals("mar", patched.translation(3));
+        assertEquals("moon", patched.word(4));
+        assertEquals("estrella", patched.translation(5));
+        assertArrayEquals(new int[]{1, 2, 4, 5}, patch.changedEntries());
+    }
+
+    @Test
+    public void matchesTheListItDescribes() throws IOException {
+        Random random = new Random(3);
+        List<String> words = new ArrayList<>();
+        List<String> translations = new ArrayList<>();
+        DictionaryCompiler compiler = new DictionaryCompiler();
+        for (int i = 0; i < 5000; i++) {
+            words.add("wörd" + i);
+            translations.add("übersetzung" + random.nextInt(100_000));
+            compiler.add(words.get(i), translations.get(i));
+        }
+        BinaryDictionary base = BinaryDictionary.wrap(ByteBuffer.wrap(compiler.toByteArray()));
+
+        StringBuilder text = new StringBuilder("#patch 0 9\n");
+        for (int i = random.nextInt(20); i < 5000; i += 1 + random.nextInt(40)) {
+            if (random.nextBoolean()) {
+                text.append('-').append(i).append('\n');
+                words.set(i, "");
+                translations.set(i, "");
+            } else {
+                words.set(i, "é" + i);
+                translations.set(i, "changed " + random.nextInt());
+                text.append('~').append(i).append(' ').append(words.get(i)).append('=').append(translations.get(i)).append('\n');
+            }
+        }
+        for (int i = 5000; i < 5100; i++) {
+            words.add("new" + i);
+            translations.add("nuevo" + i);
+            text.append('+').append(i).append(" new").append(i).append("=nuevo").append(i).append('\n');
+        }
+
+        BinaryDictionary patched = apply(parse(text.toString()), base);
+        assertEquals(9, patched.deckVersion());
+        assertEquals(words.size(), patched.size());
+        for (int i = 0; i < words.size(); i++) {
+            assertEquals(words.get(i), patched.word(i));
+            assertEquals(translations.get(i), patched.translation(i));
+            assertEquals(words.get(i).isEmpty(), patched.isRemoved(i));
+        }
+    }
+
+    @Test
+    public void rejectsMalformedPatches() {
+        String[] malformed = {
+                "",
+                "+0 a=b\n",
+                "#patch 1\n",
+                "#patch 2 1\n",
+                "#patch 0 1\n+x a=b\n",
+                "#patch 0 1\n*3 a=b\n",
+                "#patch 0 1\n~3 a=\n",
+                "#patch 0 1\n~3 a=b=c\n",
+                "#patch 0 1\n-3 a=b\n",
+                "#patch 0 1\n-3\n~3 a=b\n",
+                "#patch 0 1\n+5 a=b\n+7 c=d\n",
+                "#patch 0 1\n+5 a=b\n~5 c=d\n",
+                "#patch 0 1\n#patch 1 2\n",
+        };
+        for (String text : malformed) {
+            try {
+                parse(text);
+                fail(text);
+            } catch (IOException expected) {
+                // Nothing is applied.
+            }
+        }
+    }
+
+    @Test
+    public void rejectsMalformedLinesWithAnIOException() {
+        String[] lines = {" +1 a=b", "\t-1", "+ 1 a=b", "+", "~", "-", "- 3", "+1", "~1 ", "1 a=b", "+-1 a=b", "+99999999999 a=b"};
+        for (String line : lines) {
+            try {
+                parse("#patch 0 1\n" + line + "\n");
+                fail(line);
+            } catch (IOException expected) {
+                assertTrue(expected.getMessage(), expected.getMessage().startsWith("Line 2: "));
+            }
+        }
+    }
+
+    @Test
+    public void rejectsPatchesThatDoNotFitTheDeck() throws IOException {
+        BinaryDictionary base = compile("cat=gato", "dog=perro");
+        String[] misfits = {
+                "#patch 1 2\n~0 a=b\n", // Deck is at version 0
+                "#patch 0 1\n-2\n",
+                "#patch 0 1\n+3 a=b\n",
+                "#patch 0 1\n+1 a=b\n",
+        };
+        for (String text : misfits) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try {
+                parse(text).apply(base, out);
+                fail(text);
+            } catch (IOException expected) {
+                assertEquals(text, 0, out.size());
+            }
+        }
+    }
+
+    @Test
+    public void patchesFollowOneAnother() throws IOException {
+        BinaryDictionary v1 = apply(parse("#patch 0 1\n+2 sun=sol\n"), compile("cat=gato", "dog=perro"));
+        BinaryDictionary v3 = apply(parse("#patch 1 3\n-0\n+3 sea=mar\n"), v1);
+
+        assertEquals(3, v3.deckVersion());
+        assertEquals(4, v3.size());
+        assertTrue(v3.isRemoved(0));
+        assertEquals("sol", v3.translation(2));
+        try {
+            apply(parse("#patch 0 1\n+2 sun=sol\n"), v3);
+            fail();
+        } catch (IOException expected) {
+            // Already past version 1.
+        }
+    }
+
+    @Test
+    public void replacesTheFileOnlyOnceThePatchHasApplied() throws IOException {
+        File file = folder.newFile("deck.wdict");
+        DictionaryCompiler compiler = new DictionaryCompiler();
+        compiler.add("cat", "gato");
+        compiler.add("dog", "perro");
+        try (OutputStream out = new FileOutputStream(file)) {
+            compiler.writeTo(out);
+        }
+        byte[] original = Files.readAllBytes(file.toPath());
+        BinaryDictionary before = BinaryDictionary.map(file);
+
+        try {
+            parse("#patch 0 1\n-5\n").applyTo(file);
+            fail();
+        } catch (IOException expected) {
+            assertArrayEquals(original, Files.readAllBytes(file.toPath()));
+        }
+
+        BinaryDictionary after = parse("#patch 0 1\n~0 cat=chat\n").applyTo(file);
+        assertEquals("chat", after.translation(0));
+        assertEquals(1, BinaryDictionary.map(file).deckVersion());
+        assertEquals("gato", before.translation(0)); // The old mapping still reads the old deck
+        assertArrayEquals(new String[]{"deck.wdict"}, folder.getRoot().list());
+    }
+
+    @Test
+    public void indexUpdateReadsOnlyTheChangedEntriesOfAHalfMillionEntryDeck() throws IOException {
+        DictionaryCompiler compiler = new DictionaryCompiler();
+        for (int i = 0; i < 500_000; i++) {
+            compiler.add("word" + i, "palabra" + i);
+        }
+        BinaryDictionary base = BinaryDictionary.wrap(ByteBuffer.wrap(compiler.toByteArray()));
+        StringBuilder text = new StringBuilder("#patch 0 1\n");
+        for (int i = 250; i < 500_000; i += 667) {
+            text.append(i % 3 == 0 ? "-" + i : "~" + i + " word" + i + "=cambiada" + i).append('\n');
+        }
+        for (int i = 500_000; i < 500_250; i++) {
+            text.append('+').append(i).append(" new").append(i).append("=nueva").append(i).append('\n');
+        }
+        DeckPatch patch = parse(text.toString());
+        BinaryDictionary patched = apply(patch, base);
+
+        int[] reads = new int[1];
+        WordStore counted = new WordStore() {
+            @Override
+            public int size() {
+                return patched.size();
+            }
+
+            @Override
+            public String word(int index) {
+                reads[0]++;
+                return patched.word(index);
+            }
+
+            @Override
+            public String translation(int index) {
+                reads[0]++;
+                return patched.translation(index);
+            }
+        };
+        PrefixIndex index = PrefixIndex.patch(PrefixIndex.build(base), counted, patch.changedEntries());
+        assertEquals(1000, patch.changedEntries().length);
+        assertEquals(2 * 1000, reads[0]);
+        assertEquals(PrefixIndex.build(patched).keyCount(), index.keyCount());
+    }
+
+    private static BinaryDictionary compile(String... lines) throws IOException {
+        DictionaryCompiler compiler = new DictionaryCompiler();
+        for (String line : lines) {
+            assertTrue(compiler.addLine(line));
+        }
+        return BinaryDictionary.wrap(ByteBuffer.wrap(compiler.toByteArray()));
+    }
+
+    private static DeckPatch parse(String text) throws IOException {
+        return DeckPatch.parse(new StringReader(text));
+    }
+
+    private static BinaryDictionary apply(DeckPatch patch, BinaryDictionary base) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        patch.apply(base, out);
+        return BinaryDictionary.wrap(ByteBuffer.wrap(out.toByteArray()));
+    }
+}
@@ -0,0 +1,64 @@
+package com.moutamid.wordlistapp.core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class DictionaryCompilerTest {
+
+    @Test
+    public void roundTripsWordsAndTranslations() throws IOException {
+        DictionaryCompiler compiler = new DictionaryCompiler();
+        int added = compiler.addAll(new StringReader("hello=hola\ngoodbye=adiós\nthank you=gracias\n"));
+        assertEquals(3, added);
+
+        BinaryDictionary dictionary = BinaryDictionary.wrap(ByteBuffer.wrap(compiler.toByteArray()));
+        assertEquals(3, dictionary.size());
+        assertEquals("hello", dictionary.word(0));
+        assertEquals("hola", dictionary.translation(0));
+        assertEquals("adiós", dictionary.translation(1));
+        assertEquals("thank you", dictionary.word(2));
+        assertEquals("gracias", dictionary.translation(2));
+    }
+
+    @Test
+    public void skipsMalformedLines() throws IOException {
+        DictionaryCompiler compiler = new DictionaryCompiler();
+        compiler.addAll(new StringReader("no separator\n=empty\nempty=\na=b=c\n\nyes=sí"));
+
+        BinaryDictionary dictionary = BinaryDictionary.read(new ByteArrayInputStream(compiler.toByteArray()));
+        assertEquals(1, dictionary.size());
+        assertEquals("sí", dictionary.translation(0));
+    }
+
+    @Test
+    public void readsFromDirectBuffer() throws IOException {
+        DictionaryCompiler compiler = new DictionaryCompiler();
+        compiler.add("tree", "árbol");
+        byte[] bytes = compiler.toByteArray();
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+
+        assertEquals("árbol", BinaryDictionary.wrap(direct).translation(0));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTruncatedInput() throws IOException {
+        DictionaryCompiler compiler = new DictionaryCompiler();
+        compiler.add("cat", "gato");
+        byte[] bytes = compiler.toByteArray();
+        BinaryDictionary.wrap(ByteBuffer.wrap(bytes, 0, bytes.length - 2));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsOutOfRangeIndex() throws IOException {
+        DictionaryCompiler compiler = new DictionaryCompiler();
+        compiler.add("cat", "gato");
+        BinaryDictionary.wrap(ByteBuffer.wrap(compiler.toByteArray())).word(1);
+    }
+}
@@ -0,0 +1,107 @@
+package com.moutamid.wordlistapp.core;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.io.OutputStreamWriter;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures cold loading of a synthetic deck: the old line.split("=") parse of the text list against
+ * opening the compiled binary dictionary, both memory-mapped and read into the heap.
+ * Run with ./gradlew :core:benchmarkDictionaryLoad
+ */
+public class DictionaryLoadBenchmark {
+
+    private static final int[] SIZES = {10_000, 200_000, 1_000_000};
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        System.out.printf("%10s %16s %16s %16s%n", "entries", "split (ms)", "binary read (ms)", "binary mmap (ms)");
+        for (int size : SIZES) {
+            File text = File.createTempFile("words", ".txt");
+            File binary = File.createTempFile("words", ".wdict");
+            try {
+                writeDeck(text, binary, size);
+                double split = Double.MAX_VALUE;
+                double read = Double.MAX_VALUE;
+                double mapped = Double.MAX_VALUE;
+                for (int round = 0; round < ROUNDS; round++) {
+                    split = Math.min(split, time(() -> parseText(text)));
+                    read = Math.min(read, time(() -> readBinary(binary)));
+                    mapped = Math.min(mapped, time(() -> mapBinary(binary)));
+                }
+                System.out.printf("%10d %16.2f %16.2f %16.2f%n", size, split, read, mapped);
+            } finally {
+                text.delete();
+                binary.delete();
+            }
+        }
+    }
+
+    private static void writeDeck(File text, File binary, int size) throws IOException {
+        DictionaryCompiler compiler = new DictionaryCompiler();
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(text), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < size; i++) {
+                String word = "word" + i;
+                String translation = "traducción" + i;
+                writer.write(word + "=" + translation + "\n");
+                compiler.add(word, translation);
+            }
+        }
+        try (OutputStream out = new FileOutputStream(binary)) {
+            compiler.writeTo(out);
+        }
+    }
+
+    private static int parseText(File text) throws IOException {
+        List<String[]> wordsList = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(text), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split("=");
+                if (parts.length == 2) {
+                    wordsList.add(parts);
+                }
+            }
+        }
+        return wordsList.get(wordsList.size() / 2)[1].length();
+    }
+
+    private static int readBinary(File binary) throws IOException {
+        try (FileInputStream in = new FileInputStream(binary)) {
+            BinaryDictionary dictionary = BinaryDictionary.read(in);
+            return dictionary.translation(dictionary.size() / 2).length();
+        }
+    }
+
+    private static int mapBinary(File binary) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(binary, "r")) {
+            MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+            BinaryDictionary dictionary = BinaryDictionary.wrap(buffer);
+            return dictionary.translation(dictionary.size() / 2).length();
+        }
+    }
+
+    private static double time(Load load) throws IOException {
+        long start = System.nanoTime();
+        if (load.run() < 0) {
+            throw new AssertionError();
+        }
+        return (System.nanoTime() - start) / 1e6;
+    }
+
+    private interface Load {
+        int run() throws IOException;
+    }
+}
@@ -0,0 +1,101 @@
+package com.moutamid.wordlistapp.core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class DictionaryLoaderTest {
+
+    private final List<Runnable> background = new ArrayList<>();
+    private final DictionaryLoader loader = new DictionaryLoader(new DictionarySnapshots(), background::add, Runnable::run);
+
+    @Test
+    public void loadsOnlyOnceForManyCallers() throws InterruptedException {
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        DictionaryLoader shared = new DictionaryLoader(new DictionarySnapshots(), pool, Runnable::run);
+        CountDownLatch ready = new CountDownLatch(8);
+        for (int i = 0; i < 8; i++) {
+            pool.execute(() -> {
+                shared.load(firstChunk -> {
+                    loads.incrementAndGet();
+                    return store(3);
+                });
+                shared.whenReady(store -> ready.countDown());
+            });
+        }
+
+        assertTrue(ready.await(5, TimeUnit.SECONDS));
+        pool.shutdown();
+        assertEquals(1, loads.get());
+        assertEquals(3, shared.getStore().size());
+    }
+
+    @Test
+    public void deliversFirstChunkBeforeTheFullStore() throws IOException {
+        DictionaryCompiler compiler = new DictionaryCompiler();
+        for (int i = 0; i < 50_000; i++) {
+            compiler.add("word" + i, "palabra" + i);
+        }
+        byte[] bytes = compiler.toByteArray();
+        List<Integer> sizes = new ArrayList<>();
+        loader.whenFirstWords(store -> sizes.add(store.size()));
+        loader.whenReady(store -> sizes.add(store.size()));
+
+        loader.load(firstChunk -> BinaryDictionary.read(new ByteArrayInputStream(bytes), firstChunk));
+        assertTrue(sizes.isEmpty());
+        background.remove(0).run();
+
+        assertEquals(2, sizes.size());
+        assertTrue(sizes.get(0) > 0 && sizes.get(0) < 50_000);
+        assertEquals(50_000, (int) sizes.get(1));
+    }
+
+    @Test
+    public void lateListenersAreCalledImmediately() {
+        loader.load(firstChunk -> store(2));
+        background.remove(0).run();
+
+        List<WordStore> delivered = new ArrayList<>();
+        loader.whenReady(delivered::add);
+        loader.whenFirstWords(delivered::add);
+        assertEquals(2, delivered.size());
+        assertSame(loader.getStore(), delivered.get(0));
+        assertSame(loader.getStore(), delivered.get(1));
+    }
+
+    @Test
+    public void failedLoadReleasesWaitersAndCanBeRetried() {
+        List<WordStore> delivered = new ArrayList<>();
+        loader.whenReady(delivered::add);
+        loader.load(firstChunk -> {
+            throw new IOException("missing asset");
+        });
+        background.remove(0).run();
+
+        assertEquals(1, delivered.size());
+        assertTrue(delivered.get(0).isEmpty());
+        assertNull(loader.getStore());
+
+        loader.load(firstChunk -> store(1));
+        assertEquals(1, background.size());
+    }
+
+    private static WordStore store(int size) {
+        PackedWordStore.Builder builder = PackedWordStore.builder();
+        for (int i = 0; i < size; i++) {
+            builder.add("w" + i, "t" + i);
+        }
+        return builder.build();
+    }
+}
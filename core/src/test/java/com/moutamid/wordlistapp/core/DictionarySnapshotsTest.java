@@ -0,0 +1,108 @@
+package com.moutamid.wordlistapp.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class DictionarySnapshotsTest {
+
+    private static final int READERS = 8;
+    private static final long DURATION_MS = 2000;
+
+    @Test
+    public void startsEmptyAndUnloaded() {
+        DictionarySnapshots snapshots = new DictionarySnapshots();
+        assertFalse(snapshots.current().isLoaded());
+        assertTrue(snapshots.current().store().isEmpty());
+    }
+
+    @Test
+    public void publishAndUpdateBumpTheVersion() {
+        DictionarySnapshots snapshots = new DictionarySnapshots();
+        snapshots.publish(generation(1, 3));
+        DictionarySnapshots.Snapshot updated = snapshots.update(store -> generation(2, store.size() + 1));
+
+        assertEquals(2, updated.version());
+        assertEquals(4, snapshots.current().store().size());
+        assertSame(updated, snapshots.current());
+    }
+
+    /** Readers must always see a word and translation from the same generation while a writer keeps swapping. */
+    @Test
+    public void readersNeverSeeTornSnapshotsWhileAWriterReloads() throws InterruptedException {
+        DictionarySnapshots snapshots = new DictionarySnapshots();
+        snapshots.publish(generation(0, 1000));
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicLong reads = new AtomicLong();
+        AtomicLong swaps = new AtomicLong();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            threads.add(new Thread(() -> {
+                long lastVersion = 0;
+                long count = 0;
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    while (running.get()) {
+                        DictionarySnapshots.Snapshot snapshot = snapshots.current();
+                        assertTrue("versions went backwards", snapshot.version() >= lastVersion);
+                        lastVersion = snapshot.version();
+                        WordStore store = snapshot.store();
+                        int index = random.nextInt(store.size());
+                        String word = store.word(index);
+                        String translation = store.translation(index);
+                        String generation = word.substring(0, word.indexOf(':'));
+                        assertEquals(generation + ":w" + index, word);
+                        assertEquals(generation + ":t" + index, translation);
+                        count++;
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                } finally {
+                    reads.addAndGet(count);
+                }
+            }));
+        }
+        threads.add(new Thread(() -> {
+            int generation = 1;
+            while (running.get()) {
+                snapshots.publish(generation(generation, 500 + (generation * 37) % 1500));
+                generation++;
+                swaps.incrementAndGet();
+            }
+        }));
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        Thread.sleep(DURATION_MS);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        assertTrue(swaps.get() > 10);
+        assertEquals(swaps.get() + 1, snapshots.current().version());
+        System.out.printf("%d readers: %.1f M reads/s during %d swaps%n",
+                READERS, reads.get() / (DURATION_MS * 1000.0), swaps.get());
+    }
+
+    private static WordStore generation(int generation, int size) {
+        PackedWordStore.Builder builder = PackedWordStore.builder();
+        for (int i = 0; i < size; i++) {
+            builder.add("g" + generation + ":w" + i, "g" + generation + ":t" + i);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,120 @@
+package com.moutamid.wordlistapp.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class DistractorIndexTest {
+
+    private static PackedWordStore store(Random random, int unrelated, String... pairs) {
+        PackedWordStore.Builder builder = PackedWordStore.builder();
+        for (String pair : pairs) {
+            String[] parts = pair.split("=");
+            builder.add(parts[0], parts[1]);
+        }
+        // Built from letters the pairs above never use, so they share no bigram with them.
+        for (int i = 0; i < unrelated; i++) {
+            char[] chars = new char[3 + random.nextInt(8)];
+            for (int c = 0; c < chars.length; c++) {
+                chars[c] = "qwxzjkv".charAt(random.nextInt(7));
+            }
+            builder.add("filler" + i, new String(chars));
+        }
+        return builder.build();
+    }
+
+    private static int[] distractors(DistractorIndex index, int entry, Random random, int count) {
+        int[] results = new int[count];
+        return Arrays.copyOf(results, index.distractors(entry, random, results));
+    }
+
+    @Test
+    public void prefersLookAlikesOverRandomEntries() {
+        Random random = new Random(1);
+        PackedWordStore store = store(random, 5_000,
+                "cat=gato", "cats=gatos", "kitten=gatito", "she-cat=gata", "duck=pato", "rat=rato", "house=casa");
+        DistractorIndex index = DistractorIndex.build(store);
+        List<String> lookAlikes = Arrays.asList("gatos", "gatito", "gata", "pato", "rato");
+
+        for (int question = 0; question < 50; question++) {
+            for (int entry : distractors(index, 0, random, 3)) {
+                assertTrue(store.translation(entry), lookAlikes.contains(store.translation(entry)));
+            }
+        }
+    }
+
+    @Test
+    public void distractorsDifferFromTheAnswerAndEachOther() {
+        PackedWordStore store = store(new Random(2), 0,
+                "hello=hola", "hi=Hola", "hey=holá", "bye=adiós", "goodbye=adios", "later=hasta luego", "water=agua", "no=no");
+        DistractorIndex index = DistractorIndex.build(store);
+        Random random = new Random(3);
+
+        for (int question = 0; question < 100; question++) {
+            int entry = random.nextInt(store.size());
+            Set<String> seen = new HashSet<>();
+            seen.add(KeyFolder.fold(store.translation(entry)));
+            for (int other : distractors(index, entry, random, 3)) {
+                assertTrue(seen.add(KeyFolder.fold(store.translation(other))));
+            }
+        }
+    }
+
+    @Test
+    public void tinyDecksGiveWhatTheyHave() {
+        PackedWordStore store = store(new Random(4), 0, "yes=sí", "yeah=si", "no=no");
+        DistractorIndex index = DistractorIndex.build(store);
+
+        assertArrayEquals(new int[]{2}, distractors(index, 0, new Random(5), 3));
+        assertEquals(0, DistractorIndex.build(store(new Random(6), 0, "yes=sí")).distractors(0, new Random(7), new int[3]));
+    }
+
+    @Test
+    public void millionEntriesTakeSixteenBytesEachAndStayFarCloserThanRandom() {
+        String[] syllables = {"ka", "ta", "ma", "na", "ra", "sa", "lo", "to", "po", "mi", "ni", "ri", "te", "de", "le", "gu", "ru", "chi", "que", "cion"};
+        Random random = new Random(8);
+        PackedWordStore.Builder builder = PackedWordStore.builder();
+        for (int i = 0; i < 1_000_000; i++) {
+            StringBuilder translation = new StringBuilder();
+            for (int s = 2 + random.nextInt(3); s > 0; s--) {
+                translation.append(syllables[random.nextInt(syllables.length)]);
+            }
+            builder.add("word" + i, translation.toString());
+        }
+        PackedWordStore store = builder.build();
+        DistractorIndex index = DistractorIndex.build(store);
+        assertTrue(index.footprintBytes() + " bytes", index.footprintBytes() < 17_000_000);
+
+        int[] results = new int[3];
+        double similarity = 0;
+        double randomSimilarity = 0;
+        int count = 0;
+        for (int question = 0; question < 1000; question++) {
+            int entry = random.nextInt(store.size());
+            int[] answer = DistractorIndex.bigrams(KeyFolder.fold(store.translation(entry)));
+            int found = index.distractors(entry, random, results);
+            assertEquals(3, found);
+            for (int i = 0; i < found; i++, count++) {
+                similarity += DistractorIndex.jaccard(answer, DistractorIndex.bigrams(KeyFolder.fold(store.translation(results[i]))));
+                randomSimilarity += DistractorIndex.jaccard(answer, DistractorIndex.bigrams(KeyFolder.fold(store.translation(random.nextInt(store.size())))));
+            }
+        }
+        // Measured at 0.46 against 0.07 for random entries.
+        assertTrue("similarity " + similarity / count, similarity / count > 0.35);
+        assertTrue(similarity > 4 * randomSimilarity);
+    }
+
+    @Test
+    public void bigramsAreDistinctAndMarkTheEnds() {
+        assertEquals(3, DistractorIndex.bigrams("aa").length); // ^a, aa, a$
+        assertEquals(1, DistractorIndex.bigrams("").length);
+        assertEquals(1.0, DistractorIndex.jaccard(DistractorIndex.bigrams("gato"), DistractorIndex.bigrams("gato")), 0);
+        assertEquals(3 / 7.0, DistractorIndex.jaccard(DistractorIndex.bigrams("gato"), DistractorIndex.bigrams("pato")), 1e-9);
+    }
+}
@@ -0,0 +1,79 @@
+package com.moutamid.wordlistapp.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ExternalSorterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void sortsWithinOneBuffer() throws IOException {
+        try (ExternalSorter sorter = new ExternalSorter(new File(folder.getRoot(), "pairs"), 16)) {
+            sorter.add(5, 1);
+            sorter.add(-1, 0); // Largest unsigned
+            sorter.add(5, 0);
+            sorter.add(2, 7);
+
+            assertArrayEquals(new long[]{2, 7, 5, 0, 5, 1, -1, 0}, read(sorter));
+            assertEquals(0, folder.getRoot().list().length);
+        }
+    }
+
+    @Test
+    public void mergesMoreRunsThanItOpensAtOnce() throws IOException {
+        Random random = new Random(11);
+        int count = 200 * 64 + 5; // 201 runs, merged in more than one pass
+        long[] expected = new long[2 * count];
+        long[][] pairs = new long[count][];
+        File base = new File(folder.getRoot(), "pairs");
+        try (ExternalSorter sorter = new ExternalSorter(base, 64)) {
+            for (int i = 0; i < count; i++) {
+                long key = random.nextInt(500) - 250L;
+                pairs[i] = new long[]{key, i};
+                sorter.add(key, i);
+            }
+            Arrays.sort(pairs, (a, b) -> ExternalSorter.compare(a[0], (int) a[1], b[0], (int) b[1]));
+            for (int i = 0; i < count; i++) {
+                expected[2 * i] = pairs[i][0];
+                expected[2 * i + 1] = pairs[i][1];
+            }
+
+            assertArrayEquals(expected, read(sorter));
+            assertArrayEquals(expected, read(sorter)); // Read again
+            assertTrue(folder.getRoot().list().length <= 64);
+        }
+        assertEquals(0, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void emptySorterReadsNothing() throws IOException {
+        try (ExternalSorter sorter = new ExternalSorter(new File(folder.getRoot(), "pairs"), 4)) {
+            assertEquals(0, read(sorter).length);
+        }
+    }
+
+    private static long[] read(ExternalSorter sorter) throws IOException {
+        long[] pairs = new long[0];
+        int n = 0;
+        try (ExternalSorter.Reader reader = sorter.sorted()) {
+            while (reader.next()) {
+                if (n == pairs.length) {
+                    pairs = Arrays.copyOf(pairs, Math.max(16, 2 * n));
+                }
+                pairs[n++] = reader.key();
+                pairs[n++] = reader.value();
+            }
+        }
+        return Arrays.copyOf(pairs, n);
+    }
+}
@@ -0,0 +1,31 @@
+package com.moutamid.wordlistapp.core;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Writes a fixed number of bytes per character instead of audio, and remembers what it spoke. */
+class FakeSpeechSynthesizer implements SpeechSynthesizer {
+
+    final List<String> spoken = new ArrayList<>();
+    private final int bytesPerChar;
+    String failOn;
+
+    FakeSpeechSynthesizer(int bytesPerChar) {
+        this.bytesPerChar = bytesPerChar;
+    }
+
+    @Override
+    public void synthesize(String text, File target) throws IOException {
+        spoken.add(text);
+        try (OutputStream out = new FileOutputStream(target)) {
+            out.write(new byte[bytesPerChar * text.length()]);
+            if (text.equals(failOn)) {
+                throw new IOException("Engine failed on " + text);
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.moutamid.wordlistapp.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class FuzzyIndexTest {
+
+    private static final PackedWordStore BUNDLED = store(
+            "hello=hola", "goodbye=adiós", "thank you=gracias", "yes=sí", "no=no",
+            "please=por favor", "tomorrow=mañana", "penguin=pingüino", "water=agua");
+
+    private static PackedWordStore store(String... pairs) {
+        PackedWordStore.Builder builder = PackedWordStore.builder();
+        for (String pair : pairs) {
+            String[] parts = pair.split("=");
+            builder.add(parts[0], parts[1]);
+        }
+        return builder.build();
+    }
+
+    private static int[] search(FuzzyIndex index, String text, int maxDistance) {
+        int[] results = new int[10];
+        return Arrays.copyOf(results, index.search(text, maxDistance, results));
+    }
+
+    @Test
+    public void accentsAreNotTypos() {
+        FuzzyIndex index = FuzzyIndex.build(BUNDLED);
+
+        assertArrayEquals(new int[]{1}, search(index, "adios", 0));
+        assertArrayEquals(new int[]{3}, search(index, "si", 0));
+        assertArrayEquals(new int[]{6}, search(index, "manana", 0));
+        assertArrayEquals(new int[]{7}, search(index, "PINGUINO", 0));
+    }
+
+    @Test
+    public void findsTyposWithinTheDistance() {
+        FuzzyIndex index = FuzzyIndex.build(BUNDLED);
+
+        assertArrayEquals(new int[]{1}, search(index, "adio", 1));
+        assertArrayEquals(new int[]{1}, search(index, "adjos", 1));
+        assertArrayEquals(new int[]{5}, search(index, "plaese", 2));
+        assertArrayEquals(new int[0], search(index, "plaese", 1));
+        assertArrayEquals(new int[]{8}, search(index, "awua", 1));
+    }
+
+    @Test
+    public void matchesMultiWordEntries() {
+        FuzzyIndex index = FuzzyIndex.build(BUNDLED);
+
+        assertArrayEquals(new int[]{2}, search(index, "thank you", 0));
+        assertArrayEquals(new int[]{2}, search(index, "Thank  You", 0));
+        assertArrayEquals(new int[]{2}, search(index, "thank yuo", 2));
+        assertArrayEquals(new int[]{2}, search(index, "thankyou", 1));
+        assertArrayEquals(new int[]{5}, search(index, "por favr", 1));
+    }
+
+    @Test
+    public void closestMatchesComeFirst() {
+        FuzzyIndex index = FuzzyIndex.build(store("cat=gato", "cart=carro", "bat=murciélago", "cast=elenco"));
+
+        int[] results = search(index, "cat", 1);
+
+        assertEquals(0, results[0]);
+        assertEquals(4, results.length);
+    }
+
+    @Test
+    public void sameKeyOnBothSidesIsReturnedOnce() {
+        FuzzyIndex index = FuzzyIndex.build(store("no=no", "hotel=hotel", "hotels=hoteles"));
+
+        assertArrayEquals(new int[]{0}, search(index, "no", 0));
+        assertArrayEquals(new int[]{1, 2}, search(index, "hotel", 1));
+    }
+
+    @Test
+    public void agreesWithLinearScan() {
+        java.util.Random random = new java.util.Random(7);
+        PackedWordStore.Builder builder = PackedWordStore.builder();
+        for (int i = 0; i < 2000; i++) {
+            builder.add(randomWord(random), randomWord(random));
+        }
+        PackedWordStore store = builder.build();
+        FuzzyIndex index = FuzzyIndex.build(store);
+        int[] results = new int[store.size()];
+        for (int q = 0; q < 200; q++) {
+            String query = randomWord(random);
+            int count = index.search(query, 2, results);
+            int[] found = Arrays.copyOf(results, count);
+            Arrays.sort(found);
+            assertArrayEquals(query, linearScan(store, query, 2), found);
+        }
+    }
+
+    @Test
+    public void emptyIndexFindsNothing() {
+        assertArrayEquals(new int[0], search(FuzzyIndex.EMPTY, "anything", 2));
+        assertArrayEquals(new int[0], search(FuzzyIndex.build(PackedWordStore.EMPTY), "anything", 2));
+    }
+
+    private static int[] linearScan(WordStore store, String query, int maxDistance) {
+        int[] found = new int[store.size()];
+        int count = 0;
+        for (int i = 0; i < store.size(); i++) {
+            if (levenshtein(query, store.word(i)) <= maxDistance || levenshtein(query, store.translation(i)) <= maxDistance) {
+                found[count++] = i;
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    static int levenshtein(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                if (i == 0 || j == 0) {
+                    d[i][j] = i + j;
+                } else {
+                    int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                    d[i][j] = Math.min(d[i - 1][j - 1] + cost, Math.min(d[i - 1][j], d[i][j - 1]) + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    private static String randomWord(java.util.Random random) {
+        char[] chars = new char[2 + random.nextInt(4)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(6));
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,36 @@
+package com.moutamid.wordlistapp.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class KeyFolderTest {
+
+    @Test
+    public void removesSpanishDiacritics() {
+        assertEquals("adios", KeyFolder.fold("adiós"));
+        assertEquals("si", KeyFolder.fold("sí"));
+        assertEquals("pinguino", KeyFolder.fold("pingüino"));
+        assertEquals("manana", KeyFolder.fold("mañana"));
+        assertEquals("que tal", KeyFolder.fold("Qué tal"));
+    }
+
+    @Test
+    public void foldsDecomposedInputTheSameAsComposed() {
+        assertEquals(KeyFolder.fold("adiós"), KeyFolder.fold("adiós"));
+    }
+
+    @Test
+    public void lowerCasesAndCollapsesWhitespace() {
+        assertEquals("thank you", KeyFolder.fold("  Thank \t You "));
+        assertEquals("", KeyFolder.fold("   "));
+    }
+
+    @Test
+    public void keepsKeysThatAreAlreadyFolded() {
+        assertEquals("thank you", KeyFolder.fold("thank you"));
+        assertEquals("thank you", KeyFolder.fold("thank  you"));
+        assertEquals("thank you", KeyFolder.fold("thank you "));
+        assertEquals("x-ray 2", KeyFolder.fold("X-ray 2"));
+    }
+}
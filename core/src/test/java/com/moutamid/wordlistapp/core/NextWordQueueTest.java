@@ -0,0 +1,125 @@
+package com.moutamid.wordlistapp.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class NextWordQueueTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final PackedWordStore store = PackedWordStore.builder()
+            .add("cat", "gato")
+            .add("dog", "perro")
+            .add("tree", "árbol")
+            .add("house", "casa")
+            .build();
+
+    @Test
+    public void pollsWordsInOrderAcrossInstances() throws IOException {
+        File file = new File(folder.getRoot(), "next_words");
+        new NextWordQueue(file).write("spanish", store, new int[]{2, 0, 3}, 3);
+
+        // Each poll as if from a fresh process.
+        NextWordQueue.Entry first = new NextWordQueue(file).poll(1000);
+        NextWordQueue.Entry second = new NextWordQueue(file).poll(2000);
+
+        assertEquals("spanish", first.deckId());
+        assertEquals(2, first.index());
+        assertEquals("tree", first.word());
+        assertEquals("árbol", first.translation());
+        assertEquals(0, second.index());
+        assertEquals("gato", second.translation());
+        assertEquals(1, new NextWordQueue(file).remaining("spanish"));
+        assertEquals(0, new NextWordQueue(file).remaining("french"));
+    }
+
+    @Test
+    public void emptyOrMissingQueueReturnsNull() throws IOException {
+        File file = new File(folder.getRoot(), "next_words");
+        NextWordQueue queue = new NextWordQueue(file);
+        assertNull(queue.poll(1));
+        assertFalse(file.exists());
+
+        queue.write("spanish", store, new int[]{1}, 1);
+        assertNotNull(queue.poll(1));
+        assertNull(queue.poll(2));
+    }
+
+    @Test
+    public void drainHandsOverTakenWordsAndKeepsTheRest() throws IOException {
+        File file = new File(folder.getRoot(), "next_words");
+        NextWordQueue queue = new NextWordQueue(file);
+        queue.write("spanish", store, new int[]{3, 1, 2}, 3);
+        queue.poll(5000);
+        queue.poll(6000);
+
+        assertEquals(0, queue.drain("french", (index, shownAt) -> fail()));
+        List<long[]> shown = new ArrayList<>();
+        assertEquals(2, queue.drain("spanish", (index, shownAt) -> shown.add(new long[]{index, shownAt})));
+
+        assertArrayEquals(new long[]{3, 5000}, shown.get(0));
+        assertArrayEquals(new long[]{1, 6000}, shown.get(1));
+        assertEquals(0, queue.drain("spanish", (index, shownAt) -> fail()));
+        NextWordQueue.Entry left = queue.poll(7000);
+        assertEquals("tree", left.word());
+        assertNull(queue.poll(8000));
+    }
+
+    @Test
+    public void corruptQueueIsEmpty() throws IOException {
+        File file = new File(folder.getRoot(), "next_words");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17});
+        }
+        assertNull(new NextWordQueue(file).poll(1));
+
+        new NextWordQueue(file).write("spanish", store, new int[]{0, 1}, 2);
+        try (RandomAccessFile truncate = new RandomAccessFile(file, "rw")) {
+            // Cut off the strings of both slots: "cat", "gato", "dog", "perro".
+            truncate.setLength(truncate.length() - 15);
+        }
+        assertNull(new NextWordQueue(file).poll(1));
+    }
+
+    @Test
+    public void queuedWordIsTheOneAColdLoadWouldPick() throws IOException {
+        PackedWordStore.Builder builder = PackedWordStore.builder();
+        for (int i = 0; i < 2000; i++) {
+            builder.add("word" + i, "translation" + i);
+        }
+        PackedWordStore deck = builder.build();
+        File reviews = folder.newFolder("reviews");
+        ReviewJournal journal = new ReviewJournal(reviews, 60_000, 64 << 20, Runnable::run);
+        ReviewScheduler scheduler = journal.restore(deck.size(), new Random(1));
+        Random random = new Random(2);
+        ReviewScheduler.Grade[] grades = ReviewScheduler.Grade.values();
+        for (int i = 0; i < 5000; i++) {
+            int card = random.nextInt(deck.size());
+            scheduler.grade(card, grades[i & 3], i * 1000L);
+            journal.recordGrade(card, grades[i & 3], i * 1000L);
+        }
+        journal.close();
+        long now = 5000 * 1000L;
+        int[] upcoming = new int[32];
+        File file = new File(folder.getRoot(), "next_words");
+        new NextWordQueue(file).write("deck", deck, upcoming, scheduler.upcoming(upcoming, now));
+
+        NextWordQueue.Entry queued = new NextWordQueue(file).poll(now);
+        ReviewScheduler restored = new ReviewJournal(reviews, 60_000, 64 << 20, Runnable::run)
+                .restore(deck.size(), new Random(3));
+        assertEquals(restored.next(now), queued.index());
+        assertEquals(deck.word(queued.index()), queued.word());
+    }
+}
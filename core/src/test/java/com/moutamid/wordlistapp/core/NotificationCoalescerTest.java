@@ -0,0 +1,117 @@
+package com.moutamid.wordlistapp.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class NotificationCoalescerTest {
+
+    private static final long WINDOW = 300;
+    private static final long MIN_INTERVAL = 1000;
+
+    private long now = 1_000_000;
+    // When the pending flush is due, or -1.
+    private long flushAt = -1;
+    private final List<List<String>> posts = new ArrayList<>();
+    private final List<Long> postTimes = new ArrayList<>();
+    private final NotificationCoalescer<String> coalescer = new NotificationCoalescer<>(() -> now, delay -> {
+        assertEquals(-1, flushAt);
+        flushAt = now + delay;
+    }, items -> {
+        posts.add(items);
+        postTimes.add(now);
+    }, WINDOW, MIN_INTERVAL);
+
+    @Test
+    public void foldsUpdatesWithinTheWindowIntoTheLast() {
+        int[] done = {0};
+        coalescer.submit(Collections.singletonList("cat"), () -> done[0]++);
+        now += 100;
+        coalescer.submit(Collections.singletonList("dog"), () -> done[0]++);
+        advanceTo(now + WINDOW);
+
+        assertEquals(Collections.singletonList(Collections.singletonList("dog")), posts);
+        assertEquals(2, done[0]);
+        assertEquals(1, coalescer.coalesced());
+        assertEquals(1, coalescer.postsAvoided());
+    }
+
+    @Test
+    public void dropsUpdatesThatAreAlreadyShowing() {
+        coalescer.submit(Arrays.asList("cat", "dog"), null);
+        advanceTo(now + WINDOW);
+        now += 10 * MIN_INTERVAL;
+        coalescer.submit(Arrays.asList("cat", "dog"), null);
+        advanceTo(now + WINDOW);
+
+        assertEquals(1, posts.size());
+        assertEquals(1, coalescer.unchanged());
+
+        coalescer.clear();
+        coalescer.submit(Arrays.asList("cat", "dog"), null);
+        advanceTo(now + WINDOW);
+        assertEquals(2, posts.size());
+    }
+
+    @Test
+    public void spacesPostsByTheMinimumInterval() {
+        coalescer.submit(Collections.singletonList("cat"), null);
+        advanceTo(now + WINDOW);
+        coalescer.submit(Collections.singletonList("dog"), null);
+
+        assertEquals(postTimes.get(0) + MIN_INTERVAL, flushAt);
+        assertEquals(1, coalescer.rateLimited());
+        advanceTo(flushAt);
+        assertEquals(Arrays.asList("dog"), coalescer.showing());
+    }
+
+    /**
+     * Bursts of updates, as when several triggers fire at once, among sparse ones: every caller is
+     * released, posts stay apart and the latest update is always the one left showing.
+     */
+    @Test
+    public void simulatedLoadPostsFarLessThanItIsAsked() {
+        Random random = new Random(7);
+        int[] done = {0};
+        int updates = 0;
+        long end = now + 60 * 60 * 1000;
+        String last = null;
+        while (now < end) {
+            int burst = random.nextInt(4) == 0 ? 1 + random.nextInt(20) : 1;
+            for (int i = 0; i < burst; i++) {
+                last = "word" + random.nextInt(50);
+                coalescer.submit(Collections.singletonList(last), () -> done[0]++);
+                updates++;
+                advanceTo(now + random.nextInt(50));
+            }
+            advanceTo(now + (long) (-Math.log(1 - random.nextDouble()) * 5000));
+        }
+        advanceTo(now + 2 * MIN_INTERVAL);
+
+        System.out.printf("updates: %d, posted: %d, coalesced: %d, unchanged: %d, rate-limited: %d%n",
+                updates, coalescer.posted(), coalescer.coalesced(), coalescer.unchanged(), coalescer.rateLimited());
+        assertEquals(updates, done[0]);
+        assertEquals(updates, coalescer.posted() + coalescer.postsAvoided());
+        assertTrue(coalescer.posted() < updates / 2);
+        for (int i = 1; i < postTimes.size(); i++) {
+            assertTrue(postTimes.get(i) - postTimes.get(i - 1) >= MIN_INTERVAL);
+        }
+        assertEquals(Collections.singletonList(last), coalescer.showing());
+    }
+
+    // Moves the clock forward, running the pending flush if it comes due.
+    private void advanceTo(long time) {
+        if (flushAt != -1 && flushAt <= time) {
+            now = flushAt;
+            flushAt = -1;
+            coalescer.flush();
+        }
+        now = time;
+    }
+}
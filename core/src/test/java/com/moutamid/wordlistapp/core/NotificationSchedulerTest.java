@@ -0,0 +1,195 @@
+package com.moutamid.wordlistapp.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class NotificationSchedulerTest {
+
+    private static final long SECOND = 1000;
+    private static final long MINUTE = 60 * SECOND;
+    private static final long HOUR = 60 * MINUTE;
+
+    private long now = 10 * HOUR;
+    private final List<long[]> alarms = new ArrayList<>();
+    private final NotificationScheduler.Alarm alarm = new NotificationScheduler.Alarm() {
+        @Override
+        public void set(long earliest, long window) {
+            alarms.add(new long[]{earliest, window});
+        }
+
+        @Override
+        public void cancel() {
+            alarms.add(null);
+        }
+    };
+    private final NotificationScheduler scheduler =
+            new NotificationScheduler(() -> now, alarm, MINUTE, new WakeupStats(() -> now));
+
+    @Test
+    public void foldsRepeatedTriggersIntoThePendingAlarm() {
+        assertTrue(scheduler.request(MINUTE));
+        now += 10 * SECOND;
+        assertFalse(scheduler.request(MINUTE));
+
+        assertEquals(1, alarms.size());
+        assertEquals(1, scheduler.stats().deduplicated());
+        assertEquals(10 * HOUR + MINUTE, scheduler.nextFireTime());
+    }
+
+    @Test
+    public void movesAPendingAlarmThatIsTooFarAway() {
+        scheduler.request(30 * MINUTE);
+        assertTrue(scheduler.request(MINUTE));
+        assertEquals(now + MINUTE, scheduler.nextFireTime());
+        assertEquals(2, alarms.size());
+    }
+
+    @Test
+    public void deliveryClearsThePendingAlarm() {
+        scheduler.request(MINUTE);
+        now += MINUTE;
+        scheduler.onAlarm();
+        assertEquals(NotificationScheduler.NONE, scheduler.nextFireTime());
+        assertTrue(scheduler.request(MINUTE));
+        assertEquals(1, scheduler.stats().wakeups());
+    }
+
+    @Test
+    public void restoresOnlyFutureAlarms() {
+        scheduler.restore(now + MINUTE);
+        assertFalse(scheduler.request(MINUTE));
+        scheduler.restore(now - MINUTE);
+        assertTrue(scheduler.request(MINUTE));
+    }
+
+    @Test
+    public void lostAlarmsDoNotBlockNewRequests() {
+        scheduler.request(MINUTE);
+        now += 3 * MINUTE;
+        assertTrue(scheduler.request(MINUTE));
+    }
+
+    /**
+     * Replays the same 24 hours of usage against the three legacy timers and the unified scheduler
+     * and compares device wakeups and notifications per hour.
+     */
+    @Test
+    public void unifiedSchedulerWakesTheDeviceLessOverADay() {
+        Result legacy = simulateDay(false);
+        Result unified = simulateDay(true);
+        System.out.printf("legacy:  %.2f wakeups/h, %.2f notifications/h%n", legacy.wakeups / 24.0, legacy.notifications / 24.0);
+        System.out.printf("unified: %.2f wakeups/h, %.2f notifications/h%n", unified.wakeups / 24.0, unified.notifications / 24.0);
+
+        assertTrue(unified.wakeups < legacy.wakeups);
+        assertTrue(unified.notifications < legacy.notifications);
+        assertTrue(unified.notifications > 0);
+    }
+
+    private static final int RESUME = 0;
+    private static final int LEAVE = 1;
+    private static final int FIRE = 2;
+    private static final int DISMISS = 3;
+    private static final int SYSTEM_WAKE = 4;
+
+    private static final class Result {
+        long wakeups;
+        long notifications;
+    }
+
+    private static Result simulateDay(boolean unified) {
+        Random random = new Random(2024);
+        PriorityQueue<long[]> events = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        long end = 24 * HOUR;
+        for (long t = 0; t < end; t += 15 * MINUTE) {
+            events.add(new long[]{t, SYSTEM_WAKE}); // Other apps and the OS waking the device
+        }
+        for (long t = 8 * HOUR; t < 23 * HOUR; t += (long) (-Math.log(1 - random.nextDouble()) * 40 * MINUTE)) {
+            events.add(new long[]{t, RESUME});
+            events.add(new long[]{t + MINUTE + random.nextInt(4 * (int) MINUTE), LEAVE});
+        }
+
+        long[] clock = {0};
+        long[] pendingWindowEnd = {NotificationScheduler.NONE};
+        long[] pendingWindowStart = {NotificationScheduler.NONE};
+        NotificationScheduler.Alarm alarm = new NotificationScheduler.Alarm() {
+            @Override
+            public void set(long earliest, long window) {
+                pendingWindowStart[0] = earliest;
+                pendingWindowEnd[0] = earliest + window;
+                events.add(new long[]{earliest + window, FIRE, 1});
+            }
+
+            @Override
+            public void cancel() {
+                pendingWindowEnd[0] = NotificationScheduler.NONE;
+            }
+        };
+        NotificationScheduler scheduler = new NotificationScheduler(() -> clock[0], alarm, MINUTE, new WakeupStats(() -> clock[0]));
+
+        Result result = new Result();
+        boolean screenOn = false;
+        while (!events.isEmpty() && events.peek()[0] < end) {
+            long[] event = events.poll();
+            clock[0] = event[0];
+            switch ((int) event[1]) {
+                case RESUME:
+                    screenOn = true;
+                    if (unified) {
+                        scheduler.request(MINUTE);
+                    } else {
+                        events.add(new long[]{clock[0] + MINUTE, FIRE, 0}); // startAppTimer, never removed
+                    }
+                    break;
+                case LEAVE:
+                    screenOn = false;
+                    break;
+                case SYSTEM_WAKE:
+                    // A windowed alarm whose window is open is delivered with this wakeup.
+                    if (unified && pendingWindowEnd[0] != NotificationScheduler.NONE
+                            && clock[0] >= pendingWindowStart[0] && clock[0] <= pendingWindowEnd[0]) {
+                        pendingWindowEnd[0] = NotificationScheduler.NONE;
+                        scheduler.onAlarm();
+                        notify(result, random, events, clock[0]);
+                    }
+                    break;
+                case FIRE:
+                    if (unified) {
+                        if (event[0] != pendingWindowEnd[0]) {
+                            break; // Replaced, cancelled or already delivered early
+                        }
+                        pendingWindowEnd[0] = NotificationScheduler.NONE;
+                        scheduler.onAlarm();
+                    }
+                    if (!screenOn) {
+                        result.wakeups++;
+                    }
+                    notify(result, random, events, clock[0]);
+                    break;
+                case DISMISS:
+                    if (unified) {
+                        scheduler.request(MINUTE);
+                    } else {
+                        events.add(new long[]{clock[0] + MINUTE, FIRE, 2}); // setExact RTC_WAKEUP
+                    }
+                    break;
+                default:
+                    throw new AssertionError();
+            }
+        }
+        return result;
+    }
+
+    /** The user dismisses seven out of ten notifications within twenty minutes. */
+    private static void notify(Result result, Random random, PriorityQueue<long[]> events, long now) {
+        result.notifications++;
+        if (random.nextInt(10) < 7) {
+            events.add(new long[]{now + MINUTE + random.nextInt(20 * (int) MINUTE), DISMISS});
+        }
+    }
+}
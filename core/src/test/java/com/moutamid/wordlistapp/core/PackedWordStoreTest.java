@@ -0,0 +1,44 @@
+package com.moutamid.wordlistapp.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PackedWordStoreTest {
+
+    @Test
+    public void readsBackEntriesInOrder() {
+        PackedWordStore store = PackedWordStore.builder()
+                .add("hello", "hola")
+                .add("small", "pequeño")
+                .add("", "")
+                .build();
+
+        assertEquals(3, store.size());
+        assertEquals("hello", store.word(0));
+        assertEquals("pequeño", store.translation(1));
+        assertEquals("", store.word(2));
+        assertEquals("", store.translation(2));
+    }
+
+    @Test
+    public void emptyStoreHasNoEntries() {
+        assertTrue(PackedWordStore.EMPTY.isEmpty());
+        assertTrue(PackedWordStore.builder().build().isEmpty());
+    }
+
+    @Test
+    public void buildIsASnapshot() {
+        PackedWordStore.Builder builder = PackedWordStore.builder().add("cat", "gato");
+        PackedWordStore first = builder.build();
+        builder.add("dog", "perro");
+
+        assertEquals(1, first.size());
+        assertEquals(2, builder.build().size());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsNegativeIndex() {
+        PackedWordStore.builder().add("cat", "gato").build().word(-1);
+    }
+}
@@ -0,0 +1,59 @@
+package com.moutamid.wordlistapp.core;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Local stand-in for the deck host. Serves patches by path under /decks/ and 404 for the rest. */
+class PatchServer implements AutoCloseable {
+
+    private final HttpServer server;
+    final Map<String, String> patches = new ConcurrentHashMap<>();
+    final AtomicInteger requests = new AtomicInteger();
+    volatile long delayMillis;
+    // Sends bodies without a Content-Length, as a server that does not know it would.
+    volatile boolean chunked;
+
+    PatchServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/decks/", this::handle);
+        server.start();
+    }
+
+    URL base() throws IOException {
+        return new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/decks/");
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        String body = patches.get(exchange.getRequestURI().getPath().substring("/decks/".length()));
+        if (body == null) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, chunked ? 0 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,168 @@
+package com.moutamid.wordlistapp.core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PrefixIndexTest {
+
+    private static PackedWordStore store(String... pairs) {
+        PackedWordStore.Builder builder = PackedWordStore.builder();
+        for (String pair : pairs) {
+            String[] parts = pair.split("=");
+            builder.add(parts[0], parts[1]);
+        }
+        return builder.build();
+    }
+
+    private static int[] search(PrefixIndex index, String prefix, int limit) {
+        int[] results = new int[limit];
+        return Arrays.copyOf(results, index.search(prefix, results));
+    }
+
+    @Test
+    public void matchesWordsAndTranslations() {
+        PrefixIndex index = PrefixIndex.build(store("cat=gato", "car=coche", "dog=perro", "gate=puerta"));
+
+        assertArrayEquals(new int[]{1, 0}, search(index, "ca", 10));
+        assertArrayEquals(new int[]{3, 0}, search(index, "ga", 10));
+        assertArrayEquals(new int[]{2}, search(index, "per", 10));
+        assertArrayEquals(new int[0], search(index, "x", 10));
+        assertEquals(8, index.keyCount());
+    }
+
+    @Test
+    public void ignoresCase() {
+        PrefixIndex index = PrefixIndex.build(store("Apple=Manzana", "apricot=albaricoque"));
+
+        assertArrayEquals(new int[]{0, 1}, search(index, "AP", 10));
+        assertArrayEquals(new int[]{0}, search(index, "man", 10));
+    }
+
+    @Test
+    public void ignoresAccents() {
+        PrefixIndex index = PrefixIndex.build(store("goodbye=adiós", "yes=sí", "tomorrow=mañana"));
+
+        assertArrayEquals(new int[]{0}, search(index, "adio", 10));
+        assertArrayEquals(new int[]{1}, search(index, "si", 10));
+        assertArrayEquals(new int[]{2}, search(index, "MAÑ", 10));
+    }
+
+    @Test
+    public void exactMatchComesFirstAndLimitIsRespected() {
+        PrefixIndex index = PrefixIndex.build(store("tea=infusión", "team=equipo", "tear=lágrima", "te=te"));
+
+        assertArrayEquals(new int[]{3, 0}, search(index, "te", 2));
+    }
+
+    @Test
+    public void entryMatchingOnBothSidesIsReturnedOnce() {
+        PrefixIndex index = PrefixIndex.build(store("hotel=hotel", "hot=caliente"));
+
+        assertArrayEquals(new int[]{1, 0}, search(index, "hot", 10));
+    }
+
+    @Test
+    public void emptyPrefixMatchesEverything() {
+        PrefixIndex index = PrefixIndex.build(store("b=y", "a=z"));
+
+        assertArrayEquals(new int[]{1, 0}, search(index, "", 10));
+        assertArrayEquals(new int[0], search(PrefixIndex.EMPTY, "", 10));
+    }
+
+    @Test
+    public void patchedIndexMatchesARebuiltOne() throws IOException {
+        DictionaryCompiler compiler = new DictionaryCompiler();
+        Random random = new Random(5);
+        for (int i = 0; i < 2000; i++) {
+            compiler.add("w" + random.nextInt(500) + "x" + i, "t" + random.nextInt(300));
+        }
+        BinaryDictionary base = BinaryDictionary.wrap(ByteBuffer.wrap(compiler.toByteArray()));
+        StringBuilder text = new StringBuilder("#patch 0 1\n");
+        for (int i = 0; i < 2000; i += 37) {
+            text.append(i % 2 == 0 ? "-" + i : "~" + i + " w" + i + "=Té" + i).append('\n');
+        }
+        for (int i = 0; i < 40; i++) {
+            text.append('+').append(2000 + i).append(" new").append(i).append("=t").append(i).append('\n');
+        }
+        DeckPatch patch = DeckPatch.parse(new StringReader(text.toString()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        patch.apply(base, out);
+        BinaryDictionary patched = BinaryDictionary.wrap(ByteBuffer.wrap(out.toByteArray()));
+
+        PrefixIndex rebuilt = PrefixIndex.build(patched);
+        PrefixIndex incremental = PrefixIndex.patch(PrefixIndex.build(base), patched, patch.changedEntries());
+        assertEquals(rebuilt.keyCount(), incremental.keyCount());
+        assertEquals(new String(rebuilt.keys()), new String(incremental.keys()));
+        assertArrayEquals(rebuilt.starts(), incremental.starts());
+        for (String prefix : new String[]{"w1", "w37", "t1", "te", "new", "t29", "x"}) {
+            int[] expected = search(rebuilt, prefix, 5000);
+            int[] actual = search(incremental, prefix, 5000);
+            Arrays.sort(expected);
+            Arrays.sort(actual);
+            assertArrayEquals(prefix, expected, actual);
+        }
+    }
+
+    @Test
+    public void incrementalQueryNarrowsAndWidens() {
+        PrefixIndex index = PrefixIndex.build(store("cat=gato", "car=coche", "cab=taxi", "dog=perro"));
+        PrefixIndex.Query query = index.query();
+        int[] results = new int[10];
+
+        assertEquals(4, query.update("c"));
+        assertEquals(3, query.update("ca"));
+        assertEquals(1, query.update("cat"));
+        assertEquals(0, query.update("catz"));
+        assertEquals(1, query.update("cat"));
+        assertEquals(1, query.update("d"));
+        assertEquals(1, query.collect(results));
+        assertEquals(3, results[0]);
+        assertEquals(3, query.update("CA"));
+    }
+
+    @Test
+    public void millionEntriesTakeUnderFortyFourBytesEachAndMatchAScan() {
+        Random random = new Random(42);
+        PackedWordStore.Builder builder = PackedWordStore.builder();
+        for (int i = 0; i < 1_000_000; i++) {
+            builder.add(randomWord(random), randomWord(random));
+        }
+        PackedWordStore store = builder.build();
+        PrefixIndex index = PrefixIndex.build(store);
+
+        assertEquals(2_000_000, index.keyCount());
+        assertTrue(index.footprintBytes() + " bytes", index.footprintBytes() < 44L * 1_000_000);
+        int[] results = new int[20];
+        for (int i = 0; i < 20; i++) {
+            String word = store.word(random.nextInt(store.size()));
+            String prefix = word.substring(0, 1 + random.nextInt(Math.min(4, word.length())));
+            int matching = 0;
+            for (int entry = 0; entry < store.size(); entry++) {
+                if (store.word(entry).startsWith(prefix) || store.translation(entry).startsWith(prefix)) {
+                    matching++;
+                }
+            }
+            int count = index.search(prefix, results);
+            assertEquals(prefix, Math.min(results.length, matching), count);
+            for (int k = 0; k < count; k++) {
+                assertTrue(prefix, store.word(results[k]).startsWith(prefix) || store.translation(results[k]).startsWith(prefix));
+            }
+        }
+    }
+
+    private static String randomWord(Random random) {
+        char[] chars = new char[3 + random.nextInt(8)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+}
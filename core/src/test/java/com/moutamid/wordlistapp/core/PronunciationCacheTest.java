@@ -0,0 +1,113 @@
+package com.moutamid.wordlistapp.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PronunciationCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final FakeSpeechSynthesizer synthesizer = new FakeSpeechSynthesizer(10);
+    private final List<Runnable> queued = new ArrayList<>();
+
+    private PronunciationCache cache(long maxBytes) {
+        return new PronunciationCache(folder.getRoot(), maxBytes, synthesizer, Runnable::run, new PronunciationStats());
+    }
+
+    @Test
+    public void prefetchedWordIsAHit() {
+        PronunciationCache cache = cache(1000);
+
+        assertNull(cache.lookup("hello"));
+        cache.prefetch("hello");
+        File audio = cache.lookup("hello");
+
+        assertNotNull(audio);
+        assertEquals(50, audio.length());
+        assertEquals(Arrays.asList("hello"), synthesizer.spoken);
+        assertEquals(0.5, cache.stats().hitRate(), 1e-9);
+    }
+
+    @Test
+    public void cachedOrQueuedWordsAreNotSynthesizedAgain() {
+        PronunciationCache cache = new PronunciationCache(folder.getRoot(), 1000, synthesizer, queued::add,
+                new PronunciationStats());
+        cache.prefetch("water");
+        cache.prefetch("water");
+        runQueued();
+        cache.prefetch("water");
+        runQueued();
+
+        assertEquals(Arrays.asList("water"), synthesizer.spoken);
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedPastTheBudget() {
+        PronunciationCache cache = cache(150);
+        cache.prefetch("one..");
+        cache.prefetch("two..");
+        cache.prefetch("three");
+        assertNotNull(cache.lookup("one.."));
+
+        cache.prefetch("four.");
+
+        assertNull(cache.lookup("two.."));
+        assertNotNull(cache.lookup("one.."));
+        assertNotNull(cache.lookup("three"));
+        assertNotNull(cache.lookup("four."));
+        assertEquals(150, cache.totalBytes());
+        assertEquals(3, folder.getRoot().list().length);
+        assertEquals(1, cache.stats().evicted());
+    }
+
+    @Test
+    public void restoresTheIndexFromDisk() {
+        PronunciationCache cache = cache(1000);
+        cache.prefetch("gracias");
+        cache.prefetch("adiós");
+
+        PronunciationCache reopened = cache(1000);
+
+        assertNotNull(reopened.lookup("gracias"));
+        assertNotNull(reopened.lookup("adiós"));
+        assertEquals(2, reopened.fileCount());
+        assertEquals(2, synthesizer.spoken.size());
+    }
+
+    @Test
+    public void failedSynthesisLeavesNothingBehind() {
+        synthesizer.failOn = "broken";
+        PronunciationCache cache = cache(1000);
+
+        cache.prefetch("broken");
+
+        assertNull(cache.lookup("broken"));
+        assertEquals(0, folder.getRoot().list().length);
+        synthesizer.failOn = null;
+        cache.prefetch("broken");
+        assertNotNull(cache.lookup("broken"));
+    }
+
+    @Test
+    public void fileNamesAreStableAndDistinct() {
+        assertEquals(PronunciationCache.fileName("sí"), PronunciationCache.fileName("sí"));
+        assertNotEquals(PronunciationCache.fileName("si"), PronunciationCache.fileName("sí"));
+    }
+
+    private void runQueued() {
+        List<Runnable> tasks = new ArrayList<>(queued);
+        queued.clear();
+        for (Runnable task : tasks) {
+            task.run();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.moutamid.wordlistapp.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.*;
+
+public class RemoteConfigClientTest {
+
+    private static final long TTL = 6 * 60 * 60 * 1000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ConfigServer server;
+    private final long[] clock = {1_000_000};
+
+    @Before
+    public void startServer() throws IOException {
+        server = new ConfigServer();
+        server.body = "{\"WordListApp\":{\"value\":false,\"msg\":\"\"}}";
+    }
+
+    @After
+    public void stopServer() {
+        server.close();
+    }
+
+    private RemoteConfigClient client(int readTimeoutMillis) throws IOException {
+        return new RemoteConfigClient(server.url(), new File(folder.getRoot(), "remote_config"), TTL,
+                1000, readTimeoutMillis, Runnable::run, () -> clock[0]);
+    }
+
+    @Test
+    public void coldCacheFetchesOnceAndWarmCacheNeverCallsTheNetwork() throws IOException {
+        assertEquals(server.body, client(1000).load());
+
+        RemoteConfigClient relaunched = client(1000);
+        clock[0] += TTL - 1;
+        assertEquals(server.body, relaunched.load());
+        assertEquals(1, server.requests.get());
+        assertEquals(0, relaunched.requests());
+    }
+
+    @Test
+    public void expiredCacheIsRevalidatedWithItsETag() throws IOException {
+        String original = server.body;
+        client(1000).load();
+        clock[0] += TTL;
+
+        RemoteConfigClient client = client(1000);
+        assertEquals(original, client.load());
+        assertEquals(1, client.notModified());
+        assertEquals(1, server.conditional.get());
+
+        // The 304 restarted the TTL.
+        clock[0] += TTL - 1;
+        client.load();
+        assertEquals(2, server.requests.get());
+    }
+
+    @Test
+    public void changedConfigReplacesTheCache() throws IOException {
+        client(1000).load();
+        server.body = "{\"WordListApp\":{\"value\":true,\"msg\":\"Update\"}}";
+        server.etag = "\"v2\"";
+        clock[0] += TTL;
+
+        assertEquals(server.body, client(1000).load());
+        clock[0] += 1;
+        assertEquals(server.body, client(1000).load());
+        assertEquals(2, server.requests.get());
+    }
+
+    @Test
+    public void fallsBackToLastModifiedWithoutAnETag() throws IOException {
+        server.etag = null;
+        client(1000).load();
+        clock[0] += TTL;
+
+        RemoteConfigClient client = client(1000);
+        client.load();
+        assertEquals(1, client.notModified());
+    }
+
+    @Test
+    public void slowServerTimesOutAndStaleCopyIsUsed() throws IOException {
+        String original = server.body;
+        client(1000).load();
+        clock[0] += TTL;
+        server.delayMillis = 2000;
+
+        long start = System.nanoTime();
+        String body = client(200).load();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(original, body);
+        assertTrue("took " + elapsedMillis + " ms", elapsedMillis < 1500);
+    }
+
+    @Test(expected = IOException.class)
+    public void failsWithoutACacheWhenTheServerErrors() throws IOException {
+        server.status = 500;
+        client(1000).load();
+    }
+
+    @Test
+    public void concurrentFetchesShareOneRequest() throws IOException {
+        List<Runnable> queued = new ArrayList<>();
+        RemoteConfigClient client = new RemoteConfigClient(server.url(), new File(folder.getRoot(), "remote_config"),
+                TTL, 1000, 1000, queued::add, () -> clock[0]);
+        List<String> received = new ArrayList<>();
+
+        client.fetch(received::add);
+        client.fetch(received::add);
+        assertEquals(1, queued.size());
+        queued.get(0).run();
+
+        assertEquals(2, received.size());
+        assertEquals(1, server.requests.get());
+    }
+
+    @Test
+    public void rejectedFetchDoesNotBlockLaterOnes() throws IOException {
+        List<Runnable> queued = new ArrayList<>();
+        boolean[] reject = {true};
+        RemoteConfigClient client = new RemoteConfigClient(server.url(), new File(folder.getRoot(), "remote_config"),
+                TTL, 1000, 1000, task -> {
+                    if (reject[0]) {
+                        throw new RejectedExecutionException();
+                    }
+                    queued.add(task);
+                }, () -> clock[0]);
+        List<String> received = new ArrayList<>();
+
+        client.fetch(received::add);
+        reject[0] = false;
+        client.fetch(received::add);
+        assertEquals(1, queued.size());
+        queued.get(0).run();
+
+        assertEquals(1, received.size());
+        assertEquals(1, server.requests.get());
+    }
+
+    @Test
+    public void corruptCacheIsFetchedAgain() throws IOException {
+        File cache = new File(folder.getRoot(), "remote_config");
+        Files.write(cache.toPath(), new byte[]{0, 0, 0, 1, 2});
+
+        assertEquals(server.body, client(1000).load());
+        assertEquals(1, server.requests.get());
+    }
+
+    @Test
+    public void cacheWithABadBodyLengthIsFetchedAgain() throws IOException {
+        File cache = new File(folder.getRoot(), "remote_config");
+        for (int length : new int[]{-1, Integer.MAX_VALUE}) {
+            try (DataOutputStream out = new DataOutputStream(new FileOutputStream(cache))) {
+                out.writeInt(1);
+                out.writeLong(clock[0]);
+                out.writeUTF("");
+                out.writeUTF("");
+                out.writeInt(length);
+            }
+            RemoteConfigClient client = client(1000);
+            List<String> received = new ArrayList<>();
+            client.fetch(received::add);
+            cache.delete();
+            client.fetch(received::add);
+
+            assertEquals(2, received.size());
+            assertEquals(server.body, received.get(0));
+        }
+    }
+}
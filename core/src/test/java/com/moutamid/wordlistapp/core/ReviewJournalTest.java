@@ -0,0 +1,217 @@
+package com.moutamid.wordlistapp.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ReviewJournalTest {
+
+    private static final long STEP = 60_000;
+    private static final int CARDS = 200;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void restoresTheStateOfTheLastSession() throws IOException {
+        ReviewJournal journal = journal(1 << 20);
+        ReviewScheduler live = journal.restore(CARDS, new Random(1));
+        playSession(live, journal, new Random(2), 500);
+        journal.close();
+
+        ReviewScheduler restored = journal(1 << 20).restore(CARDS, new Random(3));
+        assertSameState(live, restored);
+    }
+
+    @Test
+    public void recoversFromATruncatedJournal() throws IOException {
+        ReviewJournal journal = journal(1 << 20);
+        ReviewScheduler live = journal.restore(CARDS, new Random(1));
+        playSession(live, journal, new Random(2), 100);
+        journal.close();
+        ReviewScheduler beforeLastEvent = copyOf(CARDS);
+
+        // The process dies halfway through writing one more record.
+        journal = journal(1 << 20);
+        ReviewScheduler reopened = journal.restore(CARDS, new Random(3));
+        reopened.grade(7, ReviewScheduler.Grade.EASY, 1_000_000);
+        journal.recordGrade(7, ReviewScheduler.Grade.EASY, 1_000_000);
+        journal.close();
+        File file = new File(folder.getRoot(), ReviewJournal.JOURNAL_NAME);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - ReviewJournal.RECORD_SIZE / 2);
+        }
+
+        journal = journal(1 << 20);
+        ReviewScheduler recovered = journal.restore(CARDS, new Random(4));
+        assertSameState(beforeLastEvent, recovered);
+        assertEquals(0, (journal.journalLength() - ReviewJournal.JOURNAL_HEADER_SIZE) % ReviewJournal.RECORD_SIZE);
+
+        // Appends after recovery land on a record boundary and replay cleanly.
+        recovered.grade(3, ReviewScheduler.Grade.HARD, 2_000_000);
+        journal.recordGrade(3, ReviewScheduler.Grade.HARD, 2_000_000);
+        journal.close();
+        assertSameState(recovered, journal(1 << 20).restore(CARDS, new Random(5)));
+    }
+
+    @Test
+    public void stopsReplayAtACorruptRecord() throws IOException {
+        ReviewJournal journal = journal(1 << 20);
+        ReviewScheduler live = journal.restore(CARDS, new Random(1));
+        live.grade(1, ReviewScheduler.Grade.GOOD, 10);
+        journal.recordGrade(1, ReviewScheduler.Grade.GOOD, 10);
+        journal.recordGrade(2, ReviewScheduler.Grade.EASY, 20);
+        journal.close();
+        File file = new File(folder.getRoot(), ReviewJournal.JOURNAL_NAME);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(ReviewJournal.JOURNAL_HEADER_SIZE + ReviewJournal.RECORD_SIZE + 6);
+            raf.write(0x7F);
+        }
+
+        ReviewScheduler recovered = journal(1 << 20).restore(CARDS, new Random(2));
+        assertEquals(live.repetitions(1), recovered.repetitions(1));
+        assertEquals(0, recovered.repetitions(2));
+    }
+
+    @Test
+    public void compactsIntoASnapshotPastTheThreshold() throws IOException {
+        long threshold = ReviewJournal.JOURNAL_HEADER_SIZE + 50 * ReviewJournal.RECORD_SIZE;
+        ReviewJournal journal = journal(threshold);
+        ReviewScheduler live = journal.restore(CARDS, new Random(1));
+        Random random = new Random(2);
+        for (int i = 0; i < 20; i++) {
+            playSession(live, journal, random, 30);
+            journal.flush();
+            assertTrue(journal.journalLength() <= threshold + 30 * 2 * ReviewJournal.RECORD_SIZE);
+        }
+        journal.close();
+
+        assertTrue(new File(folder.getRoot(), ReviewJournal.SNAPSHOT_NAME).isFile());
+        assertSameState(live, journal(threshold).restore(CARDS, new Random(3)));
+    }
+
+    @Test
+    public void firstCompactionKeepsTheLiveOrderOfNewCards() throws IOException {
+        long threshold = ReviewJournal.JOURNAL_HEADER_SIZE + 50 * ReviewJournal.RECORD_SIZE;
+        ReviewJournal journal = journal(threshold);
+        ReviewScheduler live = journal.restore(CARDS, new Random(1));
+        playSession(live, journal, new Random(2), 30);
+        journal.close();
+        assertTrue(new File(folder.getRoot(), ReviewJournal.SNAPSHOT_NAME).isFile());
+
+        ReviewScheduler restored = journal(threshold).restore(CARDS, new Random(3));
+        for (int card = 0; card < CARDS; card++) {
+            assertEquals("due " + card, live.dueAt(card), restored.dueAt(card));
+        }
+    }
+
+    @Test
+    public void ignoresAJournalAlreadyFoldedIntoTheSnapshot() throws IOException {
+        File file = new File(folder.getRoot(), ReviewJournal.JOURNAL_NAME);
+        long threshold = ReviewJournal.JOURNAL_HEADER_SIZE + 40 * ReviewJournal.RECORD_SIZE;
+        List<Runnable> pendingWrites = new ArrayList<>();
+        ReviewJournal journal = new ReviewJournal(folder.getRoot(), STEP, threshold, pendingWrites::add);
+        ReviewScheduler live = journal.restore(CARDS, new Random(1));
+        playSession(live, journal, new Random(2), 15);
+        journal.flush();
+        byte[] staleJournal = readAll(file);
+
+        // One batch pushes the journal past the threshold. Then simulate a crash right after the
+        // snapshot was written, leaving the old journal on disk.
+        playSession(live, journal, new Random(3), 15);
+        journal.close();
+        assertTrue(new File(folder.getRoot(), ReviewJournal.SNAPSHOT_NAME).isFile());
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(0);
+            raf.write(staleJournal);
+        }
+
+        assertSameState(live, journal(threshold).restore(CARDS, new Random(4)));
+    }
+
+    @Test
+    public void discardsStateSavedForADifferentDeck() throws IOException {
+        ReviewJournal journal = journal(1 << 20);
+        ReviewScheduler live = journal.restore(CARDS, new Random(1));
+        playSession(live, journal, new Random(2), 50);
+        journal.close();
+
+        ReviewScheduler other = journal(1 << 20).restore(CARDS + 1, new Random(3));
+        for (int card = 0; card < other.size(); card++) {
+            assertEquals(0, other.repetitions(card));
+        }
+    }
+
+    @Test
+    public void keepsTheStateOfADeckThatGrew() throws IOException {
+        ReviewJournal journal = journal(1 << 20);
+        ReviewScheduler live = journal.restore(CARDS, new Random(1));
+        playSession(live, journal, new Random(2), 200);
+        journal.close();
+
+        ReviewJournal grownJournal = journal(1 << 20);
+        ReviewScheduler grown = grownJournal.restore(CARDS, CARDS + 50, new Random(3));
+        assertEquals(CARDS + 50, grown.size());
+        for (int card = 0; card < CARDS; card++) {
+            assertEquals(live.repetitions(card), grown.repetitions(card));
+            assertEquals(live.ease(card), grown.ease(card));
+        }
+        grown.grade(CARDS + 10, ReviewScheduler.Grade.GOOD, 5_000_000);
+        grownJournal.recordGrade(CARDS + 10, ReviewScheduler.Grade.GOOD, 5_000_000);
+        grownJournal.close();
+
+        // Saved at the new size: an ordinary restore finds it, new card included.
+        assertSameState(grown, journal(1 << 20).restore(CARDS + 50, new Random(4)));
+    }
+
+    private ReviewJournal journal(long threshold) {
+        return new ReviewJournal(folder.getRoot(), STEP, threshold, Runnable::run);
+    }
+
+    private ReviewScheduler copyOf(int cards) throws IOException {
+        return journal(Long.MAX_VALUE).restore(cards, new Random(99));
+    }
+
+    private static void playSession(ReviewScheduler scheduler, ReviewJournal journal, Random random, int events) {
+        ReviewScheduler.Grade[] grades = ReviewScheduler.Grade.values();
+        long now = random.nextInt(1_000_000);
+        for (int i = 0; i < events; i++) {
+            now += random.nextInt(120_000);
+            int card = scheduler.next(now);
+            journal.recordShown(card, now);
+            ReviewScheduler.Grade grade = grades[random.nextInt(grades.length)];
+            scheduler.grade(card, grade, now);
+            journal.recordGrade(card, grade, now);
+        }
+    }
+
+    private static void assertSameState(ReviewScheduler expected, ReviewScheduler actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int card = 0; card < expected.size(); card++) {
+            if (expected.repetitions(card) == 0 && expected.intervalSteps(card) == 0) {
+                continue; // Never reviewed: only the random new-card order differs
+            }
+            assertEquals("due " + card, expected.dueAt(card), actual.dueAt(card));
+            assertEquals("interval " + card, expected.intervalSteps(card), actual.intervalSteps(card));
+            assertEquals("ease " + card, expected.ease(card), actual.ease(card));
+            assertEquals("repetitions " + card, expected.repetitions(card), actual.repetitions(card));
+        }
+    }
+
+    private static byte[] readAll(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            byte[] bytes = new byte[(int) raf.length()];
+            raf.readFully(bytes);
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.moutamid.wordlistapp.core;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class ReviewSchedulerTest {
+
+    private static final long STEP = 60_000;
+
+    @Test
+    public void introducesEveryNewCardOnceBeforeRepeating() {
+        ReviewScheduler scheduler = new ReviewScheduler(50, STEP, new Random(1));
+        Set<Integer> seen = new HashSet<>();
+        for (int i = 0; i < 50; i++) {
+            assertTrue(seen.add(scheduler.next(0)));
+        }
+        assertEquals(50, seen.size());
+    }
+
+    @Test
+    public void upcomingListsTheCardsNextWouldReturn() {
+        ReviewScheduler scheduler = new ReviewScheduler(40, STEP, new Random(1));
+        Random random = new Random(2);
+        for (int card = 0; card < 40; card++) {
+            scheduler.grade(card, ReviewScheduler.Grade.GOOD, random.nextInt(1_000_000));
+        }
+        int[] upcoming = new int[6];
+
+        assertEquals(6, scheduler.upcoming(upcoming, 1L << 40));
+        assertEquals(upcoming[0], scheduler.peek(1L << 40));
+        for (int card : upcoming) {
+            assertEquals(card, scheduler.next(1L << 40));
+        }
+        assertEquals(0, new ReviewScheduler(0, STEP, new Random(1)).upcoming(upcoming, 0));
+        assertEquals(2, new ReviewScheduler(2, STEP, new Random(1)).upcoming(upcoming, 0));
+    }
+
+    @Test
+    public void upcomingPutsDueReviewsBeforeNewCards() {
+        ReviewScheduler scheduler = new ReviewScheduler(30, STEP, new Random(1));
+        for (int i = 1; i <= 10; i++) {
+            scheduler.grade(scheduler.next(0), ReviewScheduler.Grade.GOOD, i * 1000);
+        }
+        int[] upcoming = new int[30];
+        // Nothing due, half the reviews due, and all of them: due reviews, then the 20 new cards.
+        for (int due : new int[] {0, 5, 10}) {
+            long now = STEP + due * 1000 + 500;
+            ReviewScheduler copy = scheduler.grownTo(30, new Random(2));
+            assertEquals(30, copy.upcoming(upcoming, now));
+            for (int i = 0; i < due + 20; i++) {
+                assertEquals(i < due, copy.intervalSteps(upcoming[i]) > 0);
+                assertEquals(upcoming[i], copy.next(now));
+            }
+        }
+    }
+
+    @Test
+    public void againCardComesBackAtItsIntervalOnALargeFreshDeck() {
+        ReviewScheduler scheduler = new ReviewScheduler(200_000, STEP, new Random(1));
+        long now = 0;
+        int again = scheduler.next(now);
+        scheduler.grade(again, ReviewScheduler.Grade.AGAIN, now);
+        int good = scheduler.next(now);
+        scheduler.grade(good, ReviewScheduler.Grade.GOOD, now);
+        // A new card every ten seconds until both come back, a step later.
+        for (now += 10_000; now < STEP; now += 10_000) {
+            int card = scheduler.next(now);
+            assertNotEquals(again, card);
+            assertNotEquals(good, card);
+            assertEquals(0, scheduler.intervalSteps(card));
+        }
+        assertEquals(again, scheduler.peek(now));
+        int[] upcoming = new int[3];
+        assertEquals(3, scheduler.upcoming(upcoming, now));
+        assertEquals(again, scheduler.next(now));
+        assertEquals(good, scheduler.next(now));
+        assertEquals(upcoming[2], scheduler.next(now));
+        assertEquals(0, scheduler.intervalSteps(upcoming[2]));
+    }
+
+    @Test
+    public void emptySchedulerHasNoCards() {
+        ReviewScheduler scheduler = new ReviewScheduler(0, STEP, new Random(1));
+        assertEquals(-1, scheduler.peek(0));
+        assertEquals(-1, scheduler.next(0));
+    }
+
+    @Test
+    public void retiredCardsAreNeverPicked() {
+        ReviewScheduler scheduler = new ReviewScheduler(20, STEP, new Random(1));
+        for (int card = 0; card < 20; card += 2) {
+            scheduler.retire(card);
+        }
+        int[] upcoming = new int[20];
+        assertEquals(10, scheduler.upcoming(upcoming, 0));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(1, scheduler.next(i * STEP) % 2);
+        }
+        for (int card = 1; card < 20; card += 2) {
+            scheduler.retire(card);
+        }
+        assertEquals(-1, scheduler.peek(0));
+        assertEquals(-1, scheduler.next(0));
+        assertEquals(0, scheduler.upcoming(upcoming, 0));
+    }
+
+    @Test
+    public void grownDeckIntroducesNewCardsAfterTheUnseenOldOnes() {
+        ReviewScheduler scheduler = new ReviewScheduler(10, STEP, new Random(1));
+        for (int i = 0; i < 4; i++) {
+            scheduler.grade(scheduler.next(1_000_000), ReviewScheduler.Grade.EASY, 1_000_000);
+        }
+        ReviewScheduler grown = scheduler.grownTo(15, new Random(2));
+
+        assertEquals(15, grown.size());
+        Set<Integer> seen = new HashSet<>();
+        for (int i = 0; i < 11; i++) {
+            int card = grown.next(0);
+            assertTrue(seen.add(card));
+            assertEquals(i < 6, card < 10); // Six unseen old cards, then the five new ones
+        }
+        for (int card = 0; card < 10; card++) {
+            assertEquals(scheduler.ease(card), grown.ease(card));
+            assertEquals(scheduler.repetitions(card), grown.repetitions(card));
+        }
+        assertEquals(ReviewScheduler.INITIAL_EASE, grown.ease(12));
+    }
+
+    @Test
+    public void easyCardsComeBackLaterThanHardOnes() {
+        ReviewScheduler scheduler = new ReviewScheduler(3, STEP, new Random(1));
+        int easy = scheduler.next(0);
+        int again = scheduler.next(0);
+        scheduler.grade(easy, ReviewScheduler.Grade.EASY, 0);
+        scheduler.grade(again, ReviewScheduler.Grade.AGAIN, 0);
+        scheduler.grade(easy, ReviewScheduler.Grade.EASY, STEP);
+        scheduler.grade(easy, ReviewScheduler.Grade.EASY, 2 * STEP);
+
+        assertTrue(scheduler.dueAt(easy) > scheduler.dueAt(again));
+        assertTrue(scheduler.ease(easy) > ReviewScheduler.INITIAL_EASE);
+        assertEquals(3, scheduler.repetitions(easy));
+    }
+
+    @Test
+    public void followsSm2Intervals() {
+        ReviewScheduler scheduler = new ReviewScheduler(1, STEP, new Random(1));
+        scheduler.grade(0, ReviewScheduler.Grade.GOOD, 0);
+        assertEquals(1, scheduler.intervalSteps(0));
+        scheduler.grade(0, ReviewScheduler.Grade.GOOD, 0);
+        assertEquals(6, scheduler.intervalSteps(0));
+        scheduler.grade(0, ReviewScheduler.Grade.GOOD, 0);
+        assertEquals(15, scheduler.intervalSteps(0));
+        assertEquals(15 * STEP, scheduler.dueAt(0));
+
+        scheduler.grade(0, ReviewScheduler.Grade.AGAIN, 0);
+        assertEquals(1, scheduler.intervalSteps(0));
+        assertEquals(0, scheduler.repetitions(0));
+    }
+
+    @Test
+    public void easeNeverDropsBelowMinimum() {
+        ReviewScheduler scheduler = new ReviewScheduler(1, STEP, new Random(1));
+        for (int i = 0; i < 20; i++) {
+            scheduler.grade(0, ReviewScheduler.Grade.AGAIN, i);
+        }
+        assertEquals(ReviewScheduler.MIN_EASE, scheduler.ease(0));
+        assertEquals(16, scheduler.difficulty(0), 0.01);
+    }
+
+    @Test
+    public void returnsTheEarliestDueReviewElseTheEarliestCard() {
+        Random random = new Random(7);
+        ReviewScheduler scheduler = new ReviewScheduler(500, STEP, random);
+        ReviewScheduler.Grade[] grades = ReviewScheduler.Grade.values();
+        long now = 0;
+        for (int i = 0; i < 5000; i++) {
+            now += random.nextInt(10_000);
+            int card = scheduler.next(now);
+            long earliestReview = Long.MAX_VALUE;
+            long earliest = Long.MAX_VALUE;
+            for (int c = 0; c < 500; c++) {
+                if (scheduler.intervalSteps(c) > 0) {
+                    earliestReview = Math.min(earliestReview, scheduler.dueAt(c));
+                }
+                earliest = Math.min(earliest, scheduler.dueAt(c));
+            }
+            long expected = earliestReview <= now ? earliestReview : earliest;
+            assertEquals(expected, scheduler.dueAt(scheduler.peek(now)));
+            if (random.nextInt(4) > 0) {
+                scheduler.grade(card, grades[random.nextInt(grades.length)], now);
+            }
+        }
+    }
+
+    @Test
+    public void pickingAndGradingAllocateNothingAtOneMillionCards() {
+        ReviewScheduler scheduler = new ReviewScheduler(1_000_000, STEP, new Random(1));
+        ReviewScheduler.Grade[] grades = ReviewScheduler.Grade.values();
+        Random random = new Random(2);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        long now = 0;
+        for (int round = 0; round < 3; round++) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < 200_000; i++, now += 1000) {
+                scheduler.grade(scheduler.next(now), grades[i & 3], now);
+                scheduler.grade(random.nextInt(1_000_000), grades[random.nextInt(4)], now);
+            }
+            long allocated = threads.getThreadAllocatedBytes(thread) - before;
+            if (round == 2) {
+                // The measurement itself allocates a little; 400k grades of even one object would be megabytes.
+                assertTrue("allocated " + allocated + " bytes", allocated < 4096);
+            }
+        }
+    }
+}
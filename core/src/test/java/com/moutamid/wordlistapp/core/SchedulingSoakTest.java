@@ -0,0 +1,308 @@
+package com.moutamid.wordlistapp.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Replays days of use against the notification scheduler, notification coalescer, review journal
+ * and word statistics, wired as the app wires them: sessions in the app with quick switches away
+ * and back, notifications that are dismissed or left alone, and reboots. The clock is simulated and
+ * the harness delivers alarms itself, so a week runs in seconds.
+ *
+ * <p>Reports notifications and wakeups per hour, alarms armed per hour, heap growth per day and
+ * bytes allocated per event, and fails if any of them is over its limit. The limits are the values
+ * measured on a 7 day run with headroom; run a longer soak with
+ * ./gradlew :core:test --tests "*SchedulingSoakTest" -Psoak.days=30
+ */
+public class SchedulingSoakTest {
+
+    private static final long SECOND = 1000;
+    private static final long MINUTE = 60 * SECOND;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+    private static final long KB = 1024;
+
+    private static final int DEFAULT_DAYS = 7;
+    private static final int WORDS = 10_000;
+    private static final int REBOOT_EVERY_DAYS = 3;
+    private static final int SWITCHES_PER_BURST = 10;
+    private static final long SWITCH_MILLIS = 300;
+    private static final long TAP_MILLIS = 10 * SECOND;
+    private static final double DISMISS_CHANCE = 0.6;
+
+    // As in WordNotificationScheduler and NotificationRenderer.
+    private static final long DELAY = MINUTE;
+    private static final long ALARM_WINDOW = MINUTE;
+    private static final long COALESCE_WINDOW = 250;
+    private static final long MIN_POST_INTERVAL = SECOND;
+
+    // Measured over 7 days: 2.07 notifications/h, 2.08 wakeups/h, 2.08 alarms/h, heap -13 KB/day
+    // and 1.0 KB allocated per event; 30 days gave 2.00, 2.01, 2.01, -13 KB and 1.1 KB.
+    private static final double MAX_NOTIFICATIONS_PER_HOUR = 3;
+    private static final double MAX_WAKEUPS_PER_HOUR = 3;
+    private static final double MAX_ALARMS_PER_HOUR = 3;
+    private static final long MAX_HEAP_GROWTH_PER_DAY = 256 * KB;
+    private static final long MAX_ALLOCATED_PER_EVENT = 4 * KB;
+
+    private static final int OPEN = 0;
+    private static final int TAP = 1;
+    private static final int SWITCH_AWAY = 2;
+    private static final int LEAVE = 3;
+    private static final int DISMISS = 4;
+    private static final int REBOOT = 5;
+    private static final int DAY_END = 6;
+    private static final int ALARM = 7;
+    private static final int FLUSH = 8;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Random random = new Random(2024);
+    private final PriorityQueue<long[]> events = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+    private long now;
+
+    // The one pending alarm, as AlarmManager keeps it for the same PendingIntent.
+    private long alarmAt = NotificationScheduler.NONE;
+    private final WakeupStats stats = new WakeupStats(() -> now);
+    private NotificationScheduler scheduler;
+    private NotificationCoalescer<Integer> coalescer;
+    private boolean flushScheduled;
+
+    private File reviews;
+    private ReviewJournal journal;
+    private ReviewScheduler cards;
+    private WordStats wordStats;
+    private boolean open;
+
+    private long handled;
+    private long posted;
+    private long allocated;
+    private final List<Long> heapAtDayEnd = new ArrayList<>();
+
+    @Test
+    public void staysWithinItsLimitsOverDaysOfUse() throws IOException {
+        int days = Integer.getInteger("soak.days", DEFAULT_DAYS);
+        now = 1_700_000_000_000L;
+        long start = now;
+        long end = start + days * DAY;
+        reviews = folder.newFolder("reviews");
+        startProcess();
+        wordStats = new WordStats(WORDS, 0);
+        for (int day = 0; day < days; day++) {
+            plan(start + day * DAY, day);
+        }
+
+        while (!events.isEmpty() && events.peek()[0] < end) {
+            long[] event = events.poll();
+            now = Math.max(now, event[0]);
+            long before = allocatedBytes();
+            handle(event);
+            allocated += allocatedBytes() - before;
+            handled++;
+        }
+        journal.close();
+
+        double hours = days * 24.0;
+        double notificationsPerHour = posted / hours;
+        double wakeupsPerHour = stats.wakeups() / hours;
+        double alarmsPerHour = stats.alarmsSet() / hours;
+        long heapGrowthPerDay = heapAtDayEnd.size() < 2 ? 0
+                : (heapAtDayEnd.get(heapAtDayEnd.size() - 1) - heapAtDayEnd.get(0)) / (heapAtDayEnd.size() - 1);
+        long allocatedPerEvent = allocated / Math.max(1, handled);
+        System.out.printf("%d days, %d events: %.2f notifications/h, %.2f wakeups/h, %.2f alarms/h, "
+                        + "%d requests folded, heap %+.1f KB/day, %.1f KB allocated/event%n",
+                days, handled, notificationsPerHour, wakeupsPerHour, alarmsPerHour, stats.deduplicated(),
+                heapGrowthPerDay / (double) KB, allocatedPerEvent / (double) KB);
+
+        assertTrue("No notification was posted, so nothing was measured", posted > 0);
+        List<String> over = new ArrayList<>();
+        check(over, "notifications/h", notificationsPerHour, MAX_NOTIFICATIONS_PER_HOUR);
+        check(over, "wakeups/h", wakeupsPerHour, MAX_WAKEUPS_PER_HOUR);
+        check(over, "alarms/h", alarmsPerHour, MAX_ALARMS_PER_HOUR);
+        check(over, "heap growth bytes/day", heapGrowthPerDay, MAX_HEAP_GROWTH_PER_DAY);
+        check(over, "bytes allocated/event", allocatedPerEvent, MAX_ALLOCATED_PER_EVENT);
+        assertTrue(String.join("; ", over), over.isEmpty());
+    }
+
+    // Sessions through the waking hours, some with a burst of switching away and straight back,
+    // a reboot every few nights and a heap sample before midnight.
+    private void plan(long dayStart, int day) {
+        if (day > 0 && day % REBOOT_EVERY_DAYS == 0) {
+            events.add(new long[]{dayStart + 3 * HOUR, REBOOT});
+        }
+        long t = dayStart + 8 * HOUR + random.nextInt((int) HOUR);
+        while (t < dayStart + 23 * HOUR) {
+            long length = MINUTE + random.nextInt(4 * (int) MINUTE);
+            events.add(new long[]{t, OPEN});
+            for (long tap = t + TAP_MILLIS; tap < t + length; tap += TAP_MILLIS) {
+                events.add(new long[]{tap, TAP});
+            }
+            if (random.nextInt(4) == 0) {
+                events.add(new long[]{t + 30 * SECOND, SWITCH_AWAY});
+            }
+            events.add(new long[]{t + length, LEAVE});
+            t += length + (long) (-Math.log(1 - random.nextDouble()) * 40 * MINUTE);
+        }
+        events.add(new long[]{dayStart + DAY - MINUTE, DAY_END});
+    }
+
+    private void handle(long[] event) throws IOException {
+        switch ((int) event[1]) {
+            case OPEN:
+                resume();
+                break;
+            case TAP:
+                if (open) {
+                    int card = cards.next(now);
+                    ReviewScheduler.Grade grade = random.nextInt(5) == 0 ? ReviewScheduler.Grade.EASY : ReviewScheduler.Grade.GOOD;
+                    journal.recordShown(card, now);
+                    wordStats.record(card, WordStats.Event.SHOWN, now);
+                    grade(card, grade);
+                }
+                break;
+            case SWITCH_AWAY:
+                // Another app over ours and back again, faster than the inactivity timeout.
+                for (int i = 0; i < SWITCHES_PER_BURST && open; i++) {
+                    open = false;
+                    now += SWITCH_MILLIS;
+                    resume();
+                    now += SWITCH_MILLIS;
+                }
+                break;
+            case LEAVE:
+                open = false;
+                break;
+            case DISMISS:
+                // Swiped away: the delete intent asks for the next word and grades the shown ones.
+                List<Integer> showing = coalescer.showing();
+                if (!showing.isEmpty()) {
+                    scheduler.request(DELAY);
+                    for (int card : showing) {
+                        grade(card, ReviewScheduler.Grade.AGAIN);
+                    }
+                    coalescer.clear();
+                }
+                break;
+            case REBOOT:
+                // Alarms and notifications die with the device; BootReceiver arms a new alarm.
+                open = false;
+                alarmAt = NotificationScheduler.NONE;
+                journal.close();
+                startProcess();
+                scheduler.request(DELAY);
+                break;
+            case DAY_END:
+                wordStats.rollUp();
+                saveStats();
+                heapAtDayEnd.add(usedHeap());
+                break;
+            case ALARM:
+                if (event[2] != alarmAt) {
+                    break; // Replaced, or gone with a reboot
+                }
+                alarmAt = NotificationScheduler.NONE;
+                scheduler.onAlarm();
+                int card = cards.next(now);
+                journal.recordShown(card, now);
+                wordStats.record(card, WordStats.Event.SHOWN, now);
+                coalescer.submit(Collections.singletonList(card), null);
+                break;
+            case FLUSH:
+                flushScheduled = false;
+                coalescer.flush();
+                break;
+            default:
+                throw new AssertionError(event[1]);
+        }
+    }
+
+    // A new process: the scheduler forgets its alarm, the renderer what it showed, and the deck's
+    // review state is replayed from the journal.
+    private void startProcess() throws IOException {
+        scheduler = new NotificationScheduler(() -> now, new NotificationScheduler.Alarm() {
+            @Override
+            public void set(long earliest, long window) {
+                alarmAt = earliest;
+                events.add(new long[]{earliest, ALARM, earliest});
+            }
+
+            @Override
+            public void cancel() {
+                alarmAt = NotificationScheduler.NONE;
+            }
+        }, ALARM_WINDOW, stats);
+        scheduler.restore(alarmAt);
+        coalescer = new NotificationCoalescer<>(() -> now, delay -> {
+            if (!flushScheduled) {
+                flushScheduled = true;
+                events.add(new long[]{now + delay, FLUSH});
+            }
+        }, items -> {
+            posted++;
+            stats.recordNotification();
+            if (random.nextDouble() < DISMISS_CHANCE) {
+                events.add(new long[]{now + MINUTE + random.nextInt(30 * (int) MINUTE), DISMISS});
+            }
+        }, COALESCE_WINDOW, MIN_POST_INTERVAL);
+        journal = new ReviewJournal(reviews, 10 * MINUTE, 256 * KB, Runnable::run);
+        cards = journal.restore(WORDS, new Random(1));
+    }
+
+    // MainActivity.onResume: next word in about a minute.
+    private void resume() {
+        open = true;
+        scheduler.request(DELAY);
+    }
+
+    private void grade(int card, ReviewScheduler.Grade grade) {
+        cards.grade(card, grade, now);
+        journal.recordGrade(card, grade, now);
+        WordStats.Event event = grade == ReviewScheduler.Grade.AGAIN ? WordStats.Event.DISMISSED
+                : grade == ReviewScheduler.Grade.EASY ? WordStats.Event.KNOWN : WordStats.Event.TAPPED;
+        if (wordStats.record(card, event, now)) {
+            wordStats.rollUp();
+        }
+    }
+
+    private void saveStats() throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(new File(reviews, "stats"))))) {
+            wordStats.writeTo(out);
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // Bytes allocated by the test thread, which also runs the journal writes.
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static void check(List<String> over, String name, double value, double limit) {
+        if (value > limit) {
+            over.add(String.format("%s %.2f over the limit of %.2f", name, value, limit));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.moutamid.wordlistapp.core;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TracerTest {
+
+    private final long[] now = {0};
+    private final List<String> sections = new ArrayList<>();
+    private final Tracer tracer = new Tracer(() -> now[0], new Tracer.Sink() {
+        @Override
+        public void beginSection(String name) {
+            sections.add("begin " + name);
+        }
+
+        @Override
+        public void endSection() {
+            sections.add("end");
+        }
+    });
+
+    @Test
+    public void spansRecordDurationsAndTraceSections() {
+        Tracer.Span span = tracer.span("load");
+
+        long started = span.begin();
+        now[0] += 5_000_000;
+        span.end(started);
+
+        assertEquals(1, span.count());
+        assertEquals(5_000_000, span.maxNanos());
+        assertEquals(5_000_000, span.percentileNanos(50));
+        assertEquals(2, sections.size());
+        assertEquals("begin load", sections.get(0));
+    }
+
+    @Test
+    public void percentilesAreWithinBucketResolution() {
+        Tracer.Span span = tracer.span("send");
+        for (long micros = 1; micros <= 1000; micros++) {
+            span.record(micros * 1000);
+        }
+
+        assertWithin(500_000, span.percentileNanos(50));
+        assertWithin(900_000, span.percentileNanos(90));
+        assertWithin(990_000, span.percentileNanos(99));
+        assertEquals(1_000_000, span.percentileNanos(100));
+    }
+
+    @Test
+    public void bucketsCoverEveryDuration() {
+        long[] samples = {0, 1, 7, 8, 15, 16, 17, 1000, 123_456_789, Long.MAX_VALUE};
+        for (long sample : samples) {
+            int bucket = Tracer.bucket(sample);
+            assertTrue(sample + " above its bucket", sample <= Tracer.bucketUpperBound(bucket));
+            assertTrue(sample + " below its bucket", bucket == 0 || sample > Tracer.bucketUpperBound(bucket - 1));
+        }
+    }
+
+    @Test
+    public void disabledTracerRecordsNothing() {
+        Tracer.Span span = tracer.span("load");
+        Tracer.Counter counter = tracer.counter("sent");
+        tracer.setEnabled(false);
+
+        span.end(span.begin());
+        span.record(10);
+        counter.increment();
+
+        assertEquals(0, span.count());
+        assertEquals(0, counter.get());
+        assertTrue(sections.isEmpty());
+    }
+
+    @Test
+    public void dumpListsSpansAndCounters() {
+        tracer.span("MainActivity.onCreate").record(2_000_000);
+        tracer.counter("notifications.sent").add(3);
+
+        String dump = tracer.dump();
+
+        assertTrue(dump, dump.contains("MainActivity.onCreate"));
+        assertTrue(dump, dump.contains("notifications.sent"));
+        tracer.reset();
+        assertFalse(tracer.dump().contains(" 3\n"));
+    }
+
+    @Test
+    public void recordingAllocatesNothing() {
+        Tracer tracer = new Tracer(Tracer.Ticker.SYSTEM, Tracer.Sink.NONE);
+        Tracer.Span span = tracer.span("hot");
+        Tracer.Counter counter = tracer.counter("hot.count");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        for (int round = 0; round < 3; round++) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < 200_000; i++) {
+                span.end(span.begin());
+                span.record(i);
+                counter.increment();
+            }
+            long allocated = threads.getThreadAllocatedBytes(thread) - before;
+            if (round == 2) {
+                // The measurement itself allocates a little; a million recordings of even one object would be megabytes.
+                assertTrue("allocated " + allocated + " bytes", allocated < 4096);
+            }
+        }
+        assertEquals(1_200_000, span.count());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual + " vs " + expected, actual >= expected && actual <= expected * 1.13);
+    }
+}
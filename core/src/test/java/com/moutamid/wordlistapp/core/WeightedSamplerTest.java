@@ -0,0 +1,153 @@
+package com.moutamid.wordlistapp.core;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class WeightedSamplerTest {
+
+    private static final int DRAWS = 400_000;
+
+    @Test
+    public void drawsInProportionToWeight() {
+        double[] weights = {1, 2, 3, 4, 0.5, 10, 100, 0.001};
+        WeightedSampler sampler = new WeightedSampler(weights.length, 0);
+        for (int i = 0; i < weights.length; i++) {
+            sampler.setWeight(i, weights[i]);
+        }
+        assertDistribution(sampler, weights, new Random(1));
+    }
+
+    @Test
+    public void weightChangesTakeEffectAtOnce() {
+        WeightedSampler sampler = new WeightedSampler(6, 0);
+        Random random = new Random(2);
+        for (int i = 0; i < 1000; i++) {
+            sampler.draw(random); // Builds the alias table before the changes
+        }
+        double[] weights = {1, 1, 1, 1, 1, 1};
+        weights[2] = 8;
+        weights[4] = 0.25;
+        weights[5] = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sampler.setWeight(i, weights[i]);
+        }
+        assertDistribution(sampler, weights, random);
+    }
+
+    @Test
+    public void neverRepeatsWithinTheWindow() {
+        int window = 20;
+        WeightedSampler sampler = new WeightedSampler(100, window);
+        sampler.setWeight(7, 1000); // Would come almost every time without the window
+        Random random = new Random(3);
+        int[] lastDrawn = new int[100];
+        Arrays.fill(lastDrawn, -window - 1);
+        int sevens = 0;
+        for (int d = 0; d < 100_000; d++) {
+            int entry = sampler.next(random);
+            assertTrue(d - lastDrawn[entry] > window);
+            lastDrawn[entry] = d;
+            if (entry == 7) {
+                sevens++;
+            }
+        }
+        // Back as soon as it is allowed: once every window + 1 draws.
+        assertEquals(100_000 / (window + 1), sevens, 20);
+    }
+
+    @Test
+    public void tinyDecksStillDraw() {
+        WeightedSampler sampler = new WeightedSampler(2, 10);
+        Random random = new Random(4);
+        int previous = sampler.next(random);
+        for (int i = 0; i < 100; i++) {
+            int entry = sampler.next(random);
+            assertNotEquals(previous, entry);
+            previous = entry;
+        }
+        assertEquals(-1, new WeightedSampler(0, 10).next(random));
+    }
+
+    @Test
+    public void zeroWeightIsNeverDrawn() {
+        WeightedSampler sampler = new WeightedSampler(3, 0);
+        sampler.setWeight(0, 0);
+        sampler.setWeight(1, 0);
+        Random random = new Random(5);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(2, sampler.draw(random));
+        }
+        sampler.setWeight(2, 0);
+        assertEquals(-1, sampler.draw(random));
+    }
+
+    @Test
+    public void previewIsDistinctAndHoldsNothingOut() {
+        WeightedSampler sampler = new WeightedSampler(10, 3);
+        Random random = new Random(6);
+        sampler.next(random);
+        int[] preview = new int[10];
+        int count = sampler.preview(random, preview);
+
+        assertEquals(9, count); // All but the one just drawn
+        Set<Integer> distinct = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            assertTrue(distinct.add(preview[i]));
+            assertFalse(sampler.isHeldOut(preview[i]));
+        }
+        assertEquals(9, sampler.preview(random, preview));
+    }
+
+    @Test
+    public void drawingAndReweightingAllocateNothingAtAMillionEntries() {
+        WeightedSampler sampler = new WeightedSampler(1_000_000, 50);
+        Random random = new Random(1);
+        for (int i = 0; i < 1_000_000; i++) {
+            sampler.setWeight(i, Math.scalb(1 + random.nextDouble(), random.nextInt(10)));
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        for (int round = 0; round < 3; round++) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            // A grade changes one weight and the next notification draws, so the alias table is rebuilt every time.
+            for (int i = 0; i < 200_000; i++) {
+                sampler.setWeight(random.nextInt(1_000_000), Math.scalb(1 + random.nextDouble(), random.nextInt(10)));
+                sampler.next(random);
+            }
+            long allocated = threads.getThreadAllocatedBytes(thread) - before;
+            if (round == 2) {
+                assertTrue("allocated " + allocated + " bytes", allocated < 4096);
+            }
+        }
+    }
+
+    // Chi-squared against the expected counts; 30 is above the 99.9th percentile for up to 7 degrees of freedom.
+    private static void assertDistribution(WeightedSampler sampler, double[] weights, Random random) {
+        double total = 0;
+        for (double w : weights) {
+            total += w;
+        }
+        long[] counts = new long[weights.length];
+        for (int i = 0; i < DRAWS; i++) {
+            counts[sampler.draw(random)]++;
+        }
+        double chiSquared = 0;
+        for (int i = 0; i < weights.length; i++) {
+            double expected = DRAWS * weights[i] / total;
+            if (expected == 0) {
+                assertEquals(0, counts[i]);
+            } else {
+                chiSquared += (counts[i] - expected) * (counts[i] - expected) / expected;
+            }
+        }
+        assertTrue("chi-squared " + chiSquared, chiSquared < 30);
+    }
+}
@@ -0,0 +1,214 @@
+package com.moutamid.wordlistapp.core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class WordStatsTest {
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final long T0 = 20_000 * DAY;
+
+    @Test
+    public void countsEventsAndStreaks() {
+        WordStats stats = new WordStats(3, 0);
+        stats.record(1, WordStats.Event.SHOWN, T0);
+        stats.record(1, WordStats.Event.TAPPED, T0);
+        stats.record(1, WordStats.Event.KNOWN, T0);
+        stats.record(1, WordStats.Event.TAPPED, T0);
+        stats.record(1, WordStats.Event.DISMISSED, T0);
+        stats.record(1, WordStats.Event.TAPPED, T0);
+        stats.record(7, WordStats.Event.TAPPED, T0); // Out of range: ignored
+
+        assertEquals(1, stats.count(1, WordStats.Event.SHOWN));
+        assertEquals(3, stats.count(1, WordStats.Event.TAPPED));
+        assertEquals(1, stats.count(1, WordStats.Event.DISMISSED));
+        assertEquals(1, stats.streak(1));
+        assertEquals(3, stats.bestStreak(1));
+        assertEquals(0, stats.count(0, WordStats.Event.TAPPED));
+    }
+
+    @Test
+    public void asksForOneRollUpAtATime() {
+        WordStats stats = new WordStats(3, 0);
+        int due = 0;
+        for (int i = 0; i < 2000; i++) {
+            if (stats.record(i % 3, WordStats.Event.SHOWN, T0)) {
+                due++;
+                if (due == 1) {
+                    stats.rollUp();
+                }
+            }
+        }
+        assertEquals(2, due); // Once before the first roll-up, once after it
+        assertEquals(512 + 1024, stats.dailyCount(T0, WordStats.Event.SHOWN)); // The full ring drained itself
+    }
+
+    @Test
+    public void rollsUpIntoLocalDays() {
+        long offset = 2 * 60 * 60 * 1000; // Two hours ahead of UTC
+        WordStats stats = new WordStats(10, offset);
+        stats.record(1, WordStats.Event.SHOWN, T0 - offset + 1000);
+        stats.record(1, WordStats.Event.DISMISSED, T0 - offset + 2000);
+        stats.record(2, WordStats.Event.SHOWN, T0 - offset + 3000);
+        stats.record(2, WordStats.Event.SHOWN, T0 - offset - 1000); // 23:59:59 the day before, locally
+
+        assertEquals(0, stats.dailyCount(T0 - offset, WordStats.Event.SHOWN)); // Not rolled up yet
+        stats.rollUp();
+        assertEquals(2, stats.dailyCount(T0 - offset, WordStats.Event.SHOWN));
+        assertEquals(1, stats.dailyCount(T0 - offset, WordStats.Event.DISMISSED));
+        assertEquals(2, stats.dailyWords(T0 - offset));
+        assertEquals(1, stats.dailyCount(T0 - offset - DAY, WordStats.Event.SHOWN));
+
+        // A day is dropped once its bucket is needed again.
+        stats.record(3, WordStats.Event.SHOWN, T0 - offset + WordStats.DAYS * DAY);
+        stats.rollUp();
+        assertEquals(0, stats.dailyWords(T0 - offset));
+        assertEquals(1, stats.dailyWords(T0 - offset + WordStats.DAYS * DAY));
+    }
+
+    @Test
+    public void ranksTheHardestWords() {
+        WordStats stats = new WordStats(100, 0);
+        for (int entry = 0; entry < 100; entry++) {
+            for (int i = 0; i < entry % 10; i++) {
+                stats.record(entry, WordStats.Event.DISMISSED, T0);
+            }
+            stats.record(entry, WordStats.Event.TAPPED, T0);
+        }
+        stats.record(99, WordStats.Event.TAPPED, T0); // A streak of two halves its difficulty
+
+        int[] hardest = new int[4];
+        assertEquals(4, stats.hardest(hardest));
+        assertArrayEquals(new int[]{9, 19, 29, 39}, hardest);
+        int[] all = new int[200];
+        assertEquals(90, stats.hardest(all)); // Never dismissed: not ranked
+        for (int i = 1; i < 90; i++) {
+            assertTrue(stats.difficulty(all[i - 1]) >= stats.difficulty(all[i]));
+        }
+        assertEquals(0, stats.hardest(new int[0]));
+    }
+
+    @Test
+    public void exportIsCompactAndRoundTrips() throws IOException {
+        WordStats stats = new WordStats(100_000, 0);
+        for (int i = 0; i < 500; i++) {
+            int entry = i * 199;
+            stats.record(entry, WordStats.Event.SHOWN, T0 + i * DAY / 100);
+            stats.record(entry, i % 3 == 0 ? WordStats.Event.DISMISSED : WordStats.Event.TAPPED, T0 + i * DAY / 100);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        stats.writeTo(new DataOutputStream(bytes));
+        assertTrue(bytes.size() + " bytes", bytes.size() < 500 * 10);
+
+        WordStats read = WordStats.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), 100_000, 0);
+        for (int entry = 0; entry < 100_000; entry++) {
+            for (WordStats.Event event : WordStats.Event.values()) {
+                assertEquals(stats.count(entry, event), read.count(entry, event));
+            }
+            assertEquals(stats.streak(entry), read.streak(entry));
+            assertEquals(stats.bestStreak(entry), read.bestStreak(entry));
+        }
+        for (int day = 0; day < 6; day++) {
+            assertEquals(stats.dailyWords(T0 + day * DAY), read.dailyWords(T0 + day * DAY));
+            assertEquals(stats.dailyCount(T0 + day * DAY, WordStats.Event.DISMISSED), read.dailyCount(T0 + day * DAY, WordStats.Event.DISMISSED));
+        }
+        int[] expected = new int[20];
+        int[] actual = new int[20];
+        assertEquals(stats.hardest(expected), read.hardest(actual));
+        assertArrayEquals(expected, actual);
+
+        try {
+            WordStats.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), 10, 0);
+            fail();
+        } catch (IOException expectedFailure) {
+            // Exported for another deck size.
+        }
+    }
+
+    @Test
+    public void grownDeckKeepsItsStatistics() throws IOException {
+        WordStats stats = new WordStats(100, 0);
+        stats.record(42, WordStats.Event.TAPPED, T0);
+        stats.record(99, WordStats.Event.DISMISSED, T0);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        stats.writeTo(new DataOutputStream(bytes));
+
+        WordStats grown = WordStats.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), 100, 150, 0);
+        assertEquals(1, grown.count(42, WordStats.Event.TAPPED));
+        assertEquals(1, grown.count(99, WordStats.Event.DISMISSED));
+        grown.record(149, WordStats.Event.SHOWN, T0);
+        assertEquals(1, grown.count(149, WordStats.Event.SHOWN));
+    }
+
+    @Test
+    public void recordingAllocatesNothing() {
+        WordStats stats = new WordStats(10_000, 0);
+        WordStats.Event[] events = WordStats.Event.values();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        for (int round = 0; round < 3; round++) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < 200_000; i++) {
+                // Includes the roll-ups of a full ring.
+                stats.record(i % 10_000, events[i & 3], T0 + i * 1000L);
+            }
+            long allocated = threads.getThreadAllocatedBytes(thread) - before;
+            if (round == 2) {
+                // The measurement itself allocates a little; 200k events of even one object would be megabytes.
+                assertTrue("allocated " + allocated + " bytes", allocated < 4096);
+            }
+        }
+        assertEquals(60, stats.count(0, WordStats.Event.SHOWN));
+        assertEquals(10_000, stats.dailyWords(T0));
+    }
+
+    @Test
+    public void millionWordsRankAndExportInBoundedSpace() throws IOException {
+        int words = 1_000_000;
+        int studied = words / 10;
+        WordStats stats = new WordStats(words, 0);
+        Random random = new Random(1);
+        WordStats.Event[] events = WordStats.Event.values();
+        for (int i = 0; i < 2_000_000; i++) {
+            stats.record(random.nextInt(studied) * 10, events[random.nextInt(events.length)], T0 + i * (365 * DAY / 2_000_000));
+        }
+        stats.rollUp();
+
+        Integer[] ranked = new Integer[words];
+        for (int entry = 0; entry < words; entry++) {
+            ranked[entry] = entry;
+        }
+        Arrays.sort(ranked, (a, b) -> stats.difficulty(a) != stats.difficulty(b)
+                ? Double.compare(stats.difficulty(b), stats.difficulty(a)) : Integer.compare(a, b));
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        int[] hardest = new int[20];
+        for (int round = 0; round < 3; round++) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            assertEquals(20, stats.hardest(hardest));
+            long allocated = threads.getThreadAllocatedBytes(thread) - before;
+            if (round == 2) {
+                // A heap of the 20 asked for, never one the size of the deck.
+                assertTrue("allocated " + allocated + " bytes", allocated < 4096);
+            }
+        }
+        for (int i = 0; i < 20; i++) {
+            assertEquals((int) ranked[i], hardest[i]);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        stats.writeTo(new DataOutputStream(bytes));
+        assertTrue(bytes.size() + " bytes", bytes.size() < 16 * studied);
+    }
+}
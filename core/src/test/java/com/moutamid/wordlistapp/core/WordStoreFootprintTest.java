@@ -0,0 +1,60 @@
+package com.moutamid.wordlistapp.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares the retained heap of the old List&lt;String[]&gt; representation with {@link PackedWordStore}.
+ */
+public class WordStoreFootprintTest {
+
+    private static final int[] SIZES = {10_000, 100_000, 1_000_000};
+
+    @Test
+    public void packedStoreUsesFarLessHeapPerEntry() throws InterruptedException {
+        System.out.printf("%10s %18s %18s%n", "entries", "List<String[]> B/e", "PackedWordStore B/e");
+        for (int size : SIZES) {
+            double list = bytesPerEntry(size, true);
+            double packed = bytesPerEntry(size, false);
+            System.out.printf("%10d %18.1f %18.1f%n", size, list, packed);
+            assertTrue("packed " + packed + " vs list " + list + " at " + size, packed * 3 < list);
+        }
+    }
+
+    private static double bytesPerEntry(int size, boolean asList) throws InterruptedException {
+        long before = usedHeap();
+        Object retained = asList ? buildList(size) : buildStore(size);
+        long after = usedHeap();
+        assertNotNull(retained);
+        return (after - before) / (double) size;
+    }
+
+    private static List<String[]> buildList(int size) {
+        List<String[]> wordsList = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            wordsList.add(("word" + i + "=palabra" + i).split("="));
+        }
+        return wordsList;
+    }
+
+    private static PackedWordStore buildStore(int size) {
+        PackedWordStore.Builder builder = PackedWordStore.builder();
+        for (int i = 0; i < size; i++) {
+            builder.add("word" + i, "palabra" + i);
+        }
+        return builder.build();
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -15,4 +15,5 @@ dependencyResolutionManagement {
 
 rootProject.name = "WordListApp"
 include(":app")
- 
\ No newline at end of file
+include(":core")
+include(":benchmark")